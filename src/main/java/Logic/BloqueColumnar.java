@@ -0,0 +1,553 @@
+package Logic;
+
+import javafx.beans.value.ObservableValueBase;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filas leídas de un viaje a la base guardadas por columnas: números y fechas en arreglos
+ * primitivos, textos codificados con un diccionario por columna (cada texto repetido se guarda
+ * una vez) y los NULL en un mapa de bits. Cada columna toma la forma de su primer valor no
+ * nulo; si después llega un valor que no entra (otro tipo o un decimal demasiado grande) la
+ * columna pasa a texto. Se llena en el hilo que lee y después de publicarse solo se lee.
+ * Los valores se guardan con su tipo y se pasan a texto recién al dibujar la celda; el orden
+ * y las sentencias DML usan el valor tipado.
+ */
+public class BloqueColumnar {
+    // Fila que todavía no llegó (celdas vacías)
+    public static final Fila PENDIENTE = new Fila(null, 0);
+
+    private static final String TEXTO_NULO = "NULL";
+
+    private final int capacidad;
+    private final Columna[] columnas;
+    private final BitSet[] nulos;
+    private int filas;
+    private List<Fila> vistas;
+
+    public BloqueColumnar(int totalColumnas, int capacidad) {
+        this.capacidad = Math.max(1, capacidad);
+        this.columnas = new Columna[totalColumnas];
+        this.nulos = new BitSet[totalColumnas];
+        for (int i = 0; i < totalColumnas; i++) {
+            nulos[i] = new BitSet();
+        }
+    }
+
+    public int getTotalFilas() {
+        return filas;
+    }
+
+    public int getTotalColumnas() {
+        return columnas.length;
+    }
+
+    // Valores de la fila en curso (columna desde 0); terminarFila la cierra
+
+    public void nulo(int columna) {
+        nulos[columna].set(filas);
+    }
+
+    public void entero(int columna, long valor) {
+        Columna c = columnas[columna];
+        if (c == null) {
+            columnas[columna] = c = new Enteros(capacidad);
+        }
+        if (c instanceof Enteros) {
+            ((Enteros) c).valores[filas] = valor;
+        } else if (c instanceof Decimales) {
+            decimal(columna, BigDecimal.valueOf(valor));
+        } else {
+            texto(columna, String.valueOf(valor));
+        }
+    }
+
+    public void decimal(int columna, BigDecimal valor) {
+        Columna c = columnas[columna];
+        if (c == null) {
+            columnas[columna] = c = new Decimales(capacidad);
+        }
+        if (c instanceof Decimales && ((Decimales) c).poner(filas, valor)) {
+            return;
+        }
+        texto(columna, valor.toString());
+    }
+
+    public void real(int columna, double valor) {
+        Columna c = columnas[columna];
+        if (c == null) {
+            columnas[columna] = c = new Reales(capacidad);
+        }
+        if (c instanceof Reales) {
+            ((Reales) c).valores[filas] = valor;
+        } else {
+            texto(columna, String.valueOf(valor));
+        }
+    }
+
+    public void fecha(int columna, LocalDate valor) {
+        Columna c = columnas[columna];
+        if (c == null) {
+            columnas[columna] = c = new Fechas(capacidad);
+        }
+        if (c instanceof Fechas) {
+            ((Fechas) c).dias[filas] = valor.toEpochDay();
+        } else {
+            texto(columna, valor.toString());
+        }
+    }
+
+    public void marcaTiempo(int columna, LocalDateTime valor) {
+        Columna c = columnas[columna];
+        if (c == null) {
+            columnas[columna] = c = new MarcasTiempo(capacidad);
+        }
+        if (c instanceof MarcasTiempo) {
+            MarcasTiempo marcas = (MarcasTiempo) c;
+            marcas.segundos[filas] = valor.toEpochSecond(ZoneOffset.UTC);
+            marcas.nanos[filas] = valor.getNano();
+        } else {
+            texto(columna, Timestamp.valueOf(valor).toString());
+        }
+    }
+
+    /**
+     * Valor que no se trae a la grilla (BLOB, CLOB, LONG): la columna guarda solo su etiqueta
+     */
+    public void marcador(int columna, String etiqueta) {
+        Columna c = columnas[columna];
+        if (c == null) {
+            columnas[columna] = c = new Marcadores(etiqueta);
+        }
+        if (!(c instanceof Marcadores) || !((Marcadores) c).etiqueta.equals(etiqueta)) {
+            texto(columna, etiqueta);
+        }
+    }
+
+    public void texto(int columna, String valor) {
+        if (valor == null) {
+            nulo(columna);
+            return;
+        }
+        Columna c = columnas[columna];
+        if (c == null) {
+            columnas[columna] = c = new Textos(capacidad);
+        } else if (!(c instanceof Textos)) {
+            columnas[columna] = c = aTexto(columna, c);
+        }
+        ((Textos) c).poner(filas, valor);
+    }
+
+    public void terminarFila() {
+        filas++;
+    }
+
+    /**
+     * Cierra el bloque antes de publicarlo: suelta lo que solo servía para llenarlo. Un bloque
+     * ya terminado (sacado de la caché de resultados) queda como está.
+     */
+    public void terminar() {
+        if (vistas != null) {
+            return;
+        }
+        for (Columna c : columnas) {
+            if (c instanceof Textos) {
+                ((Textos) c).indices = null;
+            }
+        }
+        Fila[] arreglo = new Fila[filas];
+        for (int i = 0; i < filas; i++) {
+            arreglo[i] = new Fila(this, i);
+        }
+        vistas = Collections.unmodifiableList(Arrays.asList(arreglo));
+    }
+
+    /**
+     * Memoria aproximada del bloque (arreglos, diccionarios y vistas de fila), para el tope de
+     * la caché de resultados
+     */
+    public long estimarBytes() {
+        long bytes = 64 + 16L * filas;
+        for (int i = 0; i < columnas.length; i++) {
+            bytes += 32 + nulos[i].size() / 8;
+            if (columnas[i] != null) {
+                bytes += columnas[i].bytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Filas del bloque (terminar() ya se llamó)
+     */
+    public List<Fila> getFilas() {
+        return vistas;
+    }
+
+    /**
+     * Una fila del bloque (no hace falta que esté terminado)
+     */
+    public Fila getFila(int fila) {
+        return vistas != null ? vistas.get(fila) : new Fila(this, fila);
+    }
+
+    String getTexto(int fila, int columna) {
+        if (columna >= columnas.length || nulos[columna].get(fila)) {
+            return TEXTO_NULO;
+        }
+        Columna c = columnas[columna];
+        return c == null ? TEXTO_NULO : c.texto(fila);
+    }
+
+    /**
+     * Valor con su tipo: Long, BigDecimal, Double, LocalDate, LocalDateTime o String
+     * (null si es NULL o un marcador de LOB)
+     */
+    Object getValor(int fila, int columna) {
+        if (columna >= columnas.length || nulos[columna].get(fila)) {
+            return null;
+        }
+        Columna c = columnas[columna];
+        return c == null ? null : c.valor(fila);
+    }
+
+    /**
+     * Compara las filas por el valor tipado de una columna (números como números, fechas como
+     * fechas); los NULL y las filas pendientes van al final
+     */
+    public static Comparator<Fila> comparador(int columna) {
+        return (a, b) -> compararValores(a.getValor(columna), b.getValor(columna));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compararValores(Object a, Object b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null) {
+            return 1;
+        }
+        if (b == null) {
+            return -1;
+        }
+        if (a.getClass() == b.getClass() && a instanceof Comparable) {
+            return ((Comparable) a).compareTo(b);
+        }
+        if (a instanceof Number && b instanceof Number) {
+            // Bloques de una misma columna con distinta forma (entero en uno, decimal en otro)
+            return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * La columna pasa a texto con los valores ya puestos (llegó uno que no entra en su forma)
+     */
+    private Textos aTexto(int columna, Columna anterior) {
+        Textos textos = new Textos(capacidad);
+        for (int i = 0; i < filas; i++) {
+            if (!nulos[columna].get(i)) {
+                textos.poner(i, anterior.texto(i));
+            }
+        }
+        return textos;
+    }
+
+    /**
+     * Una fila del bloque para el TableView: un índice, no una copia de sus valores. Se ofrece
+     * a sí misma como valor de cada celda, que lee su columna al dibujarse (sin una propiedad
+     * nueva por celda).
+     */
+    public static final class Fila extends ObservableValueBase<Fila> {
+        private final BloqueColumnar bloque;
+        private final int indice;
+
+        private Fila(BloqueColumnar bloque, int indice) {
+            this.bloque = bloque;
+            this.indice = indice;
+        }
+
+        public boolean esPendiente() {
+            return bloque == null;
+        }
+
+        /**
+         * Texto de la celda tal como se muestra ("NULL" si no tiene valor)
+         */
+        public String getTexto(int columna) {
+            return bloque == null ? "" : bloque.getTexto(indice, columna);
+        }
+
+        /**
+         * Valor tipado de la celda (null si es NULL)
+         */
+        public Object getValor(int columna) {
+            return bloque == null ? null : bloque.getValor(indice, columna);
+        }
+
+        /**
+         * Todos los valores tipados de la fila (para el WHERE de UPDATE y DELETE)
+         */
+        public List<Object> getValores() {
+            if (bloque == null) {
+                return Collections.emptyList();
+            }
+            Object[] valores = new Object[bloque.columnas.length];
+            for (int i = 0; i < valores.length; i++) {
+                valores[i] = bloque.getValor(indice, i);
+            }
+            return Arrays.asList(valores);
+        }
+
+        /**
+         * Todos los textos de la fila (para el formulario de modificación)
+         */
+        public List<String> getTextos() {
+            if (bloque == null) {
+                return Collections.emptyList();
+            }
+            return new AbstractList<String>() {
+                @Override
+                public String get(int columna) {
+                    return bloque.getTexto(indice, columna);
+                }
+
+                @Override
+                public int size() {
+                    return bloque.columnas.length;
+                }
+            };
+        }
+
+        @Override
+        public Fila getValue() {
+            return this;
+        }
+    }
+
+    private abstract static class Columna {
+        abstract String texto(int fila);
+
+        abstract Object valor(int fila);
+
+        abstract long bytes();
+    }
+
+    private static class Marcadores extends Columna {
+        private final String etiqueta;
+
+        Marcadores(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        @Override
+        String texto(int fila) {
+            return etiqueta;
+        }
+
+        @Override
+        Object valor(int fila) {
+            return null;
+        }
+
+        @Override
+        long bytes() {
+            return 16;
+        }
+    }
+
+    private static class Enteros extends Columna {
+        private final long[] valores;
+
+        Enteros(int capacidad) {
+            valores = new long[capacidad];
+        }
+
+        @Override
+        String texto(int fila) {
+            return String.valueOf(valores[fila]);
+        }
+
+        @Override
+        Object valor(int fila) {
+            return valores[fila];
+        }
+
+        @Override
+        long bytes() {
+            return 8L * valores.length;
+        }
+    }
+
+    /**
+     * NUMBER con decimales: valor sin escala y escala (si el valor no entra en un long, la
+     * columna pasa a texto)
+     */
+    private static class Decimales extends Columna {
+        private final long[] sinEscala;
+        private final byte[] escalas;
+
+        Decimales(int capacidad) {
+            sinEscala = new long[capacidad];
+            escalas = new byte[capacidad];
+        }
+
+        boolean poner(int fila, BigDecimal valor) {
+            BigInteger entero = valor.unscaledValue();
+            if (entero.bitLength() > 63 || valor.scale() < Byte.MIN_VALUE || valor.scale() > Byte.MAX_VALUE) {
+                return false;
+            }
+            sinEscala[fila] = entero.longValue();
+            escalas[fila] = (byte) valor.scale();
+            return true;
+        }
+
+        @Override
+        String texto(int fila) {
+            return valor(fila).toString();
+        }
+
+        @Override
+        BigDecimal valor(int fila) {
+            return BigDecimal.valueOf(sinEscala[fila], escalas[fila]);
+        }
+
+        @Override
+        long bytes() {
+            return 9L * sinEscala.length;
+        }
+    }
+
+    private static class Reales extends Columna {
+        private final double[] valores;
+
+        Reales(int capacidad) {
+            this.valores = new double[capacidad];
+        }
+
+        @Override
+        String texto(int fila) {
+            return String.valueOf(valores[fila]);
+        }
+
+        @Override
+        Object valor(int fila) {
+            return valores[fila];
+        }
+
+        @Override
+        long bytes() {
+            return 8L * valores.length;
+        }
+    }
+
+    /**
+     * DATE de JDBC: días desde 1970-01-01
+     */
+    private static class Fechas extends Columna {
+        private final long[] dias;
+
+        Fechas(int capacidad) {
+            dias = new long[capacidad];
+        }
+
+        @Override
+        String texto(int fila) {
+            return valor(fila).toString();
+        }
+
+        @Override
+        LocalDate valor(int fila) {
+            return LocalDate.ofEpochDay(dias[fila]);
+        }
+
+        @Override
+        long bytes() {
+            return 8L * dias.length;
+        }
+    }
+
+    /**
+     * TIMESTAMP (y DATE de Oracle): fecha y hora local en segundos y nanosegundos
+     */
+    private static class MarcasTiempo extends Columna {
+        private final long[] segundos;
+        private final int[] nanos;
+
+        MarcasTiempo(int capacidad) {
+            segundos = new long[capacidad];
+            nanos = new int[capacidad];
+        }
+
+        @Override
+        String texto(int fila) {
+            return Timestamp.valueOf(valor(fila)).toString();
+        }
+
+        @Override
+        LocalDateTime valor(int fila) {
+            return LocalDateTime.ofEpochSecond(segundos[fila], nanos[fila], ZoneOffset.UTC);
+        }
+
+        @Override
+        long bytes() {
+            return 12L * segundos.length;
+        }
+    }
+
+    /**
+     * Textos con diccionario: cada fila guarda el código de su texto
+     */
+    private static class Textos extends Columna {
+        private final int[] codigos;
+        private final List<String> diccionario = new ArrayList<>();
+        // Solo mientras se llena el bloque
+        private Map<String, Integer> indices = new HashMap<>();
+
+        Textos(int capacidad) {
+            codigos = new int[capacidad];
+        }
+
+        void poner(int fila, String valor) {
+            Integer codigo = indices.get(valor);
+            if (codigo == null) {
+                codigo = diccionario.size();
+                diccionario.add(valor);
+                indices.put(valor, codigo);
+            }
+            codigos[fila] = codigo;
+        }
+
+        @Override
+        String texto(int fila) {
+            return diccionario.get(codigos[fila]);
+        }
+
+        @Override
+        Object valor(int fila) {
+            return texto(fila);
+        }
+
+        @Override
+        long bytes() {
+            long bytes = 4L * codigos.length;
+            for (String texto : diccionario) {
+                bytes += 40 + 2L * texto.length();
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package Logic;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Páginas de grilla ya leídas en la sesión, por (nodo, SQL, binds), de la menos a la más usada
+ * y con un tope de memoria (cache.resultados.mb). Volver a una tabla o vista ya vista no va a
+ * la base. Cada página recuerda qué tabla o vista leyó: al confirmar un DML se descartan las de
+ * esa tabla y las de los objetos que dependen de ella (USER_DEPENDENCIES: vistas, vistas
+ * materializadas). Una página que se estaba leyendo mientras se invalidaba no se guarda.
+ * Los commits de otras sesiones o nodos no llegan acá: cada página vale como mucho
+ * cache.resultados.segundos, y la grilla muestra su antigüedad cuando viene de la caché.
+ */
+public class CacheResultados {
+    // Una página no ocupa más de esta fracción del tope (no vacía la caché de un golpe)
+    private static final int FRACCION_MAXIMA = 4;
+
+    private final long maxBytes;
+    private final long vigenciaMs;
+    // Clave -> página, en orden de uso (LRU)
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytesEnUso;
+    // Sube con cada invalidación: una lectura empezada antes no guarda su página
+    private long generacion;
+
+    // Tablas con DML sin confirmar (se invalidan al hacer commit)
+    private final Set<String> modificadas = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong invalidadas = new AtomicLong();
+    private final AtomicLong desalojadas = new AtomicLong();
+    private final AtomicLong vencidas = new AtomicLong();
+
+    public CacheResultados(ConfigurationManager config) {
+        this.maxBytes = Math.max(0, config.getCacheResultadosMb()) * 1024L * 1024L;
+        this.vigenciaMs = Math.max(0, config.getCacheResultadosSegundos()) * 1000L;
+    }
+
+    public boolean estaActiva() {
+        return maxBytes > 0;
+    }
+
+    public synchronized long getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Página guardada para esa consulta, o null (tampoco si ya pasó su vigencia)
+     */
+    public synchronized Entrada buscar(String nodo, String sql, List<Object> binds) {
+        String clave = clave(nodo, sql, binds);
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && System.currentTimeMillis() - entrada.guardada >= vigenciaMs) {
+            entradas.remove(clave);
+            bytesEnUso -= entrada.bytes;
+            vencidas.incrementAndGet();
+            entrada = null;
+        }
+        if (entrada == null) {
+            fallos.incrementAndGet();
+        } else {
+            aciertos.incrementAndGet();
+        }
+        return entrada;
+    }
+
+    /**
+     * Guarda una página leída, salvo que algo se haya invalidado desde que empezó a leerse
+     */
+    public synchronized void guardar(String nodo, String sql, List<Object> binds, Entrada entrada,
+                                     long generacionLectura) {
+        if (!estaActiva() || generacionLectura != generacion || entrada.bytes > maxBytes / FRACCION_MAXIMA) {
+            return;
+        }
+        Entrada anterior = entradas.put(clave(nodo, sql, binds), entrada);
+        if (anterior != null) {
+            bytesEnUso -= anterior.bytes;
+        }
+        bytesEnUso += entrada.bytes;
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (bytesEnUso > maxBytes && it.hasNext()) {
+            bytesEnUso -= it.next().bytes;
+            it.remove();
+            desalojadas.incrementAndGet();
+        }
+    }
+
+    /**
+     * Anota una tabla modificada en la transacción en curso
+     */
+    public void registrarModificacion(String tabla) {
+        if (tabla != null) {
+            modificadas.add(tabla);
+        }
+    }
+
+    /**
+     * Después del commit: descarta las páginas de las tablas modificadas y de los objetos que
+     * dependen de ellas (consulta el diccionario con la conexión del commit)
+     */
+    public void confirmarModificaciones(ConnectionRouter.Uso uso) {
+        Set<String> tablas = new HashSet<>(modificadas);
+        modificadas.removeAll(tablas);
+        if (tablas.isEmpty()) {
+            return;
+        }
+        Set<String> afectados = new HashSet<>();
+        for (String tabla : tablas) {
+            String nombre = nombreBase(tabla);
+            afectados.add(nombre);
+            try {
+                leerDependientes(uso, nombre, null, afectados);
+                String link = linkDe(tabla);
+                if (link != null) {
+                    leerDependientes(uso, nombre, link, afectados);
+                }
+            } catch (SQLException e) {
+                // Sin saber qué depende de la tabla, nada de lo guardado es confiable
+                System.err.println("⚠️ No se pudieron leer las dependencias de " + tabla + ": " + e.getMessage());
+                invalidarTodo();
+                return;
+            }
+        }
+        invalidar(afectados);
+    }
+
+    /**
+     * Rollback: las tablas anotadas no cambiaron
+     */
+    public void descartarModificaciones() {
+        modificadas.clear();
+    }
+
+    private static void leerDependientes(ConnectionRouter.Uso uso, String nombre, String dbLink,
+                                         Set<String> afectados) throws SQLException {
+        PreparedStatement pstmt = uso.preparar(SqlRegistry.DEPENDIENTES, dbLink);
+        pstmt.setString(1, nombre);
+        ResultSet rs = pstmt.executeQuery();
+        while (rs.next()) {
+            afectados.add(rs.getString("NAME"));
+        }
+        rs.close();
+    }
+
+    /**
+     * Descarta las páginas que leyeron alguno de esos objetos (nombres sin owner ni @LINK)
+     */
+    public synchronized void invalidar(Set<String> objetos) {
+        generacion++;
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (it.hasNext()) {
+            Entrada entrada = it.next();
+            if (objetos.contains(entrada.objeto)) {
+                bytesEnUso -= entrada.bytes;
+                it.remove();
+                invalidadas.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidar(String objeto) {
+        invalidar(Collections.singleton(nombreBase(objeto)));
+    }
+
+    public synchronized void invalidarTodo() {
+        generacion++;
+        invalidadas.addAndGet(entradas.size());
+        entradas.clear();
+        bytesEnUso = 0;
+    }
+
+    public synchronized String obtenerEstadisticas() {
+        long total = aciertos.get() + fallos.get();
+        return String.format("Caché de resultados: %d páginas, %,d KB de %,d KB, %d aciertos, %d fallos (%.0f%% aciertos), %d invalidadas, %d desalojadas, %d vencidas (%d s)",
+                             entradas.size(), bytesEnUso / 1024, maxBytes / 1024, aciertos.get(), fallos.get(),
+                             total == 0 ? 0.0 : aciertos.get() * 100.0 / total, invalidadas.get(), desalojadas.get(),
+                             vencidas.get(), vigenciaMs / 1000);
+    }
+
+    private static String clave(String nodo, String sql, List<Object> binds) {
+        StringBuilder sb = new StringBuilder(nodo != null ? nodo : "local").append('\n').append(sql);
+        for (Object bind : binds) {
+            sb.append('\n').append(bind == null ? "null" : bind.getClass().getSimpleName() + ":" + bind);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * OWNER.TABLA@LINK -> TABLA
+     */
+    static String nombreBase(String objeto) {
+        String nombre = objeto;
+        int arroba = nombre.indexOf('@');
+        if (arroba >= 0) {
+            nombre = nombre.substring(0, arroba);
+        }
+        int punto = nombre.lastIndexOf('.');
+        if (punto >= 0) {
+            nombre = nombre.substring(punto + 1);
+        }
+        return nombre.replace("\"", "").toUpperCase();
+    }
+
+    private static String linkDe(String objeto) {
+        int arroba = objeto.indexOf('@');
+        return arroba >= 0 ? objeto.substring(arroba + 1) : null;
+    }
+
+    /**
+     * Una página guardada: sus bloques (ya no cambian), las columnas con sus tipos y la última clave
+     */
+    public static class Entrada {
+        private final String objeto;
+        private final List<String> columnas;
+        private final Class<?>[] tiposColumnas;
+        private final String[] tiposSql;
+        private final List<BloqueColumnar> bloques;
+        private final Object[] ultimaClave;
+        private final int totalFilas;
+        private final long bytes;
+        private final long guardada = System.currentTimeMillis();
+
+        public Entrada(String objeto, List<String> columnas, Class<?>[] tiposColumnas, String[] tiposSql,
+                       List<BloqueColumnar> bloques, Object[] ultimaClave) {
+            this.objeto = nombreBase(objeto);
+            this.columnas = columnas;
+            this.tiposColumnas = tiposColumnas;
+            this.tiposSql = tiposSql;
+            this.bloques = bloques;
+            this.ultimaClave = ultimaClave;
+            int filas = 0;
+            long tamano = 0;
+            for (BloqueColumnar bloque : bloques) {
+                filas += bloque.getTotalFilas();
+                tamano += bloque.estimarBytes();
+            }
+            this.totalFilas = filas;
+            this.bytes = tamano;
+        }
+
+        public List<String> getColumnas() { return columnas; }
+        public Class<?>[] getTiposColumnas() { return tiposColumnas; }
+        public String[] getTiposSql() { return tiposSql; }
+        public List<BloqueColumnar> getBloques() { return bloques; }
+        public Object[] getUltimaClave() { return ultimaClave; }
+        public int getTotalFilas() { return totalFilas; }
+        // Cuándo se leyó de la base (System.currentTimeMillis)
+        public long getGuardada() { return guardada; }
+    }
+}
@@ -0,0 +1,195 @@
+package Logic;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de metadatos por objeto de la sesión: columnas, tipos, clave primaria y tipo de objeto,
+ * para objetos locales ("TABLA", "OWNER.TABLA") y remotos ("TABLA@PROYECTO_REAL").
+ * Durante catalogo.ttl.segundos una entrada se usa sin ir al diccionario; al vencer se compara
+ * LAST_DDL_TIME y solo si el objeto cambió se vuelve a leer su estructura.
+ */
+public class CatalogoEsquema {
+    private final ConnectionUser connectionUser;
+    private final long ttlMs;
+    // Objeto en mayúsculas (con @LINK si es remoto) -> metadatos
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong revalidadas = new AtomicLong();
+    private final AtomicLong leidas = new AtomicLong();
+
+    public CatalogoEsquema(ConnectionUser connectionUser, ConfigurationManager config) {
+        this.connectionUser = connectionUser;
+        this.ttlMs = Math.max(0, config.getCatalogoTtlSegundos()) * 1000L;
+    }
+
+    /**
+     * Columnas, tipos y clave primaria del objeto
+     */
+    public EstructuraTabla obtenerEstructura(String objeto) throws SQLException {
+        return obtener(objeto).estructura;
+    }
+
+    /**
+     * TABLE, VIEW o MATERIALIZED VIEW (null si el objeto no existe o no es visible)
+     */
+    public String obtenerTipo(String objeto) throws SQLException {
+        return obtener(objeto).tipo;
+    }
+
+    public boolean esVista(String objeto) throws SQLException {
+        return "VIEW".equals(obtenerTipo(objeto));
+    }
+
+    /**
+     * true si el objeto tiene una entrada vigente (no hace falta ir a la base)
+     */
+    public boolean estaVigente(String objeto) {
+        Entrada entrada = entradas.get(clave(objeto));
+        return entrada != null && System.currentTimeMillis() - entrada.verificada < ttlMs;
+    }
+
+    /**
+     * Lee los metadatos con una conexión ya tomada (precarga de varias tablas seguidas)
+     */
+    void cargar(ConnectionRouter.Uso uso, String objeto) throws SQLException {
+        String clave = clave(objeto);
+        entradas.put(clave, leer(uso, clave, entradas.get(clave)));
+    }
+
+    private Entrada obtener(String objeto) throws SQLException {
+        String clave = clave(objeto);
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && System.currentTimeMillis() - entrada.verificada < ttlMs) {
+            aciertos.incrementAndGet();
+            return entrada;
+        }
+
+        int arroba = clave.indexOf('@');
+        try (ConnectionRouter.Uso uso = arroba > 0
+                ? connectionUser.usarParaLink(OperationType.CATALOGO, clave.substring(arroba + 1))
+                : connectionUser.usar(OperationType.CATALOGO)) {
+            Entrada nueva = leer(uso, clave, entrada);
+            entradas.put(clave, nueva);
+            return nueva;
+        }
+    }
+
+    /**
+     * Compara LAST_DDL_TIME con la entrada anterior; si no cambió la renueva,
+     * si cambió (o no había) lee la estructura completa
+     */
+    private Entrada leer(ConnectionRouter.Uso uso, String clave, Entrada anterior) throws SQLException {
+        String nombre = clave;
+        String dbLink = null;
+        int arroba = nombre.indexOf('@');
+        if (arroba > 0) {
+            // Con sesión directa en el otro nodo el Uso ya no necesita el link
+            dbLink = uso.getDbLink();
+            nombre = nombre.substring(0, arroba);
+        }
+        String owner = null;
+        String objeto = nombre;
+        int punto = nombre.indexOf('.');
+        if (punto > 0) {
+            owner = nombre.substring(0, punto);
+            objeto = nombre.substring(punto + 1);
+        }
+
+        String tipo = null;
+        String ultimoDdl = null;
+        PreparedStatement pstmt = uso.preparar(SqlRegistry.DDL_OBJETO, dbLink);
+        pstmt.setString(1, objeto);
+        pstmt.setString(2, owner);
+        ResultSet rs = pstmt.executeQuery();
+        while (rs.next()) {
+            // Una vista materializada aparece también como TABLE; la vista manda sobre la tabla
+            String tipoFila = rs.getString("OBJECT_TYPE");
+            if (tipo == null || "TABLE".equals(tipo)) {
+                tipo = tipoFila;
+            }
+            String ddlFila = rs.getString("ULTIMO_DDL");
+            if (ultimoDdl == null || (ddlFila != null && ddlFila.compareTo(ultimoDdl) > 0)) {
+                ultimoDdl = ddlFila;
+            }
+        }
+        rs.close();
+
+        long ahora = System.currentTimeMillis();
+        if (anterior != null && ultimoDdl != null && Objects.equals(anterior.ultimoDdl, ultimoDdl)) {
+            revalidadas.incrementAndGet();
+            anterior.verificada = ahora;
+            return anterior;
+        }
+
+        leidas.incrementAndGet();
+        EstructuraTabla estructura = EstructuraTabla.leer(uso, nombre, dbLink);
+        return new Entrada(tipo, ultimoDdl, estructura, ahora);
+    }
+
+    /**
+     * Olvida un objeto (la próxima consulta lee todo de nuevo)
+     */
+    public void invalidar(String objeto) {
+        entradas.remove(clave(objeto));
+    }
+
+    /**
+     * Olvida todo (después de un DDL escrito por el usuario)
+     */
+    public void invalidarTodo() {
+        entradas.clear();
+    }
+
+    /**
+     * Copia de las entradas para la instantánea en disco
+     */
+    Map<String, Entrada> copiarEntradas() {
+        return new HashMap<>(entradas);
+    }
+
+    /**
+     * Repone una entrada leída de la instantánea. Queda vencida: el primer uso compara
+     * LAST_DDL_TIME y solo relee la estructura si el objeto cambió.
+     */
+    void restaurar(String objeto, Entrada entrada) {
+        entradas.putIfAbsent(clave(objeto), new Entrada(entrada.tipo, entrada.ultimoDdl, entrada.estructura, 0));
+    }
+
+    private static String clave(String objeto) {
+        return objeto.trim().toUpperCase();
+    }
+
+    public String obtenerEstadisticas() {
+        return String.format("Catálogo de esquema: %d objetos, %d aciertos, %d revalidados por LAST_DDL_TIME, %d leídos (TTL %d s)",
+                             entradas.size(), aciertos.get(), revalidadas.get(), leidas.get(), ttlMs / 1000);
+    }
+
+    /**
+     * Metadatos de un objeto y cuándo se verificaron por última vez
+     */
+    static class Entrada {
+        private final String tipo;
+        private final String ultimoDdl;
+        private final EstructuraTabla estructura;
+        private volatile long verificada;
+
+        Entrada(String tipo, String ultimoDdl, EstructuraTabla estructura, long verificada) {
+            this.tipo = tipo;
+            this.ultimoDdl = ultimoDdl;
+            this.estructura = estructura;
+            this.verificada = verificada;
+        }
+
+        String getTipo() { return tipo; }
+        String getUltimoDdl() { return ultimoDdl; }
+        EstructuraTabla getEstructura() { return estructura; }
+    }
+}
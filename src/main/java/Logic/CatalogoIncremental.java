@@ -0,0 +1,199 @@
+package Logic;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Marcas de agua del diccionario para refrescar las listas de objetos por diferencia.
+ * Cada lista (tablas propias, catálogo local, catálogo remoto) guarda el mayor LAST_DDL_TIME
+ * de USER_OBJECTS en su nodo y los nombres que existían. Un refresco trae solo lo creado o
+ * alterado desde la marca (LAST_DDL_TIME nunca es menor que CREATED) y lee los nombres
+ * actuales solo cuando el total del servidor no coincide con el conocido (hubo borrados).
+ * Los objetos de la papelera (BIN$...) no cuentan: un DROP TABLE baja el total.
+ */
+public class CatalogoIncremental {
+    // Marca para un esquema vacío o sin objetos alterados
+    private static final String MARCA_INICIAL = "19000101000000";
+
+    // Lista -> marca de la última carga o refresco
+    private final Map<String, Marca> marcas = new ConcurrentHashMap<>();
+
+    private final AtomicLong refrescos = new AtomicLong();
+    private final AtomicLong cambiados = new AtomicLong();
+    private final AtomicLong lecturasNombres = new AtomicLong();
+
+    /**
+     * Registra la marca justo antes de la carga completa de una lista: lo que cambie durante
+     * la carga tiene un LAST_DDL_TIME mayor y vuelve en el próximo refresco
+     */
+    void marcar(ConnectionRouter.Uso uso, String lista, String dbLink) throws SQLException {
+        marcas.put(lista, leerMarca(uso, dbLink));
+    }
+
+    /**
+     * Empieza el refresco de una lista. Devuelve null si la lista nunca se cargó completa
+     * en esta sesión (no hay desde dónde comparar).
+     */
+    Refresco iniciar(ConnectionRouter.Uso uso, String lista, String dbLink) throws SQLException {
+        if (!marcas.containsKey(lista)) {
+            return null;
+        }
+        return iniciar(lista, dbLink, leerMarca(uso, dbLink));
+    }
+
+    /**
+     * Empieza el refresco con la marca actual ya leída del servidor (null si no hay marca anterior)
+     */
+    Refresco iniciar(String lista, String dbLink, Marca actual) {
+        Marca anterior = marcas.get(lista);
+        if (anterior == null) {
+            return null;
+        }
+        refrescos.incrementAndGet();
+        return new Refresco(lista, dbLink, anterior, actual);
+    }
+
+    private static Marca leerMarca(ConnectionRouter.Uso uso, String dbLink) throws SQLException {
+        PreparedStatement pstmt = uso.preparar(SqlRegistry.MARCA_OBJETOS, dbLink);
+        ResultSet rs = pstmt.executeQuery();
+        String desde = MARCA_INICIAL;
+        int total = 0;
+        if (rs.next()) {
+            if (rs.getString("MARCA") != null) {
+                desde = rs.getString("MARCA");
+            }
+            total = rs.getInt("TOTAL");
+        }
+        rs.close();
+        return new Marca(desde, total, null);
+    }
+
+    /**
+     * Copia de las marcas para la instantánea en disco
+     */
+    Map<String, Marca> copiarMarcas() {
+        return new HashMap<>(marcas);
+    }
+
+    /**
+     * Repone la marca de una lista leída de la instantánea (el primer refresco relee los nombres)
+     */
+    void restaurar(String lista, Marca marca) {
+        marcas.putIfAbsent(lista, new Marca(marca.desde, marca.total, null));
+    }
+
+    /**
+     * Olvida las marcas (la próxima actualización de cada lista es completa)
+     */
+    public void invalidarTodo() {
+        marcas.clear();
+    }
+
+    public String obtenerEstadisticas() {
+        return String.format("Refresco incremental: %d listas con marca, %d refrescos, %d objetos cambiados, %d lecturas de nombres por borrados",
+                             marcas.size(), refrescos.get(), cambiados.get(), lecturasNombres.get());
+    }
+
+    /**
+     * Mayor LAST_DDL_TIME visto, total de nombres en el servidor y nombres conocidos
+     * (null hasta el primer refresco)
+     */
+    static class Marca {
+        private final String desde;
+        private final int total;
+        private final Set<String> nombres;
+
+        Marca(String desde, int total, Set<String> nombres) {
+            this.desde = desde;
+            this.total = total;
+            this.nombres = nombres;
+        }
+
+        String getDesde() { return desde; }
+        int getTotal() { return total; }
+    }
+
+    /**
+     * Un refresco en curso: la lista pide los cambios con getDesde() como bind, informa cada
+     * objeto que recibió y al terminar sabe qué objetos siguen existiendo
+     */
+    class Refresco {
+        private final String lista;
+        private final String dbLink;
+        private final Marca anterior;
+        private final Marca actual;
+        private final Set<String> conocidos;
+        private int recibidos;
+
+        private Refresco(String lista, String dbLink, Marca anterior, Marca actual) {
+            this.lista = lista;
+            this.dbLink = dbLink;
+            this.anterior = anterior;
+            this.actual = actual;
+            this.conocidos = anterior.nombres != null ? new HashSet<>(anterior.nombres) : null;
+        }
+
+        /**
+         * Marca anterior en formato YYYYMMDDHH24MISS (se compara con >=: un DDL en el mismo
+         * segundo que la marca no se pierde)
+         */
+        String getDesde() {
+            return anterior.desde;
+        }
+
+        /**
+         * Objeto creado o alterado desde la marca (nombre sin owner ni @LINK)
+         */
+        void cambio(String nombre) {
+            recibidos++;
+            if (conocidos != null) {
+                conocidos.add(nombre);
+            }
+        }
+
+        /**
+         * Cierra el refresco y guarda la marca nueva. Devuelve los nombres que existen en el
+         * servidor si pudo haber borrados, o null si la lista solo tiene que aplicar los cambios.
+         */
+        Set<String> terminar(ConnectionRouter.Uso uso) throws SQLException {
+            if (!faltanNombres()) {
+                return terminar((Set<String>) null);
+            }
+            Set<String> vigentes = new HashSet<>();
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.NOMBRES_OBJETOS, dbLink);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                vigentes.add(rs.getString("OBJECT_NAME"));
+            }
+            rs.close();
+            return terminar(vigentes);
+        }
+
+        /**
+         * true si hay que leer los nombres actuales: no se conocen o el total del servidor no
+         * coincide con los conocidos más los recibidos (hubo borrados)
+         */
+        boolean faltanNombres() {
+            return conocidos == null || conocidos.size() != actual.total;
+        }
+
+        /**
+         * Cierra el refresco con los nombres leídos del servidor (null si no hizo falta leerlos)
+         */
+        Set<String> terminar(Set<String> vigentes) {
+            cambiados.addAndGet(recibidos);
+            if (vigentes != null) {
+                lecturasNombres.incrementAndGet();
+            }
+            marcas.put(lista, new Marca(actual.desde, actual.total, vigentes != null ? vigentes : conocidos));
+            return vigentes;
+        }
+    }
+}
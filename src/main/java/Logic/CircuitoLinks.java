@@ -0,0 +1,124 @@
+package Logic;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cortacircuitos por database link para el descubrimiento federado de objetos.
+ * Tras federacion.fallos errores seguidos el link queda ABIERTO (se salta, sin esperar su
+ * timeout) durante federacion.espera.segundos; después pasa a SEMIABIERTO y una sola
+ * consulta de prueba decide si vuelve a CERRADO o se abre otra vez.
+ */
+public class CircuitoLinks {
+    public enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private final int umbralFallos;
+    private final long esperaMs;
+    // Link -> estado del circuito (orden alfabético para las estadísticas)
+    private final Map<String, Circuito> circuitos = new TreeMap<>();
+
+    public CircuitoLinks(ConfigurationManager config) {
+        this.umbralFallos = Math.max(1, config.getFederacionFallos());
+        this.esperaMs = Math.max(1, config.getFederacionEsperaSegundos()) * 1000L;
+    }
+
+    /**
+     * true si se puede consultar el link ahora. Con el circuito abierto y la espera cumplida
+     * deja pasar una sola consulta de prueba.
+     */
+    public synchronized boolean permitir(String link) {
+        Circuito circuito = circuitos.computeIfAbsent(link.toUpperCase(), k -> new Circuito());
+        switch (circuito.estado) {
+            case CERRADO:
+                return true;
+            case ABIERTO:
+                if (System.currentTimeMillis() >= circuito.abiertoHasta) {
+                    circuito.estado = Estado.SEMIABIERTO;
+                    return true;
+                }
+                circuito.omitidas++;
+                return false;
+            default:
+                // Ya hay una prueba en curso
+                circuito.omitidas++;
+                return false;
+        }
+    }
+
+    public synchronized void registrarExito(String link, long milisegundos) {
+        Circuito circuito = circuitos.computeIfAbsent(link.toUpperCase(), k -> new Circuito());
+        circuito.estado = Estado.CERRADO;
+        circuito.fallosSeguidos = 0;
+        circuito.ultimaLatenciaMs = milisegundos;
+        circuito.ultimoError = null;
+    }
+
+    public synchronized void registrarFallo(String link, String error) {
+        Circuito circuito = circuitos.computeIfAbsent(link.toUpperCase(), k -> new Circuito());
+        circuito.fallosSeguidos++;
+        circuito.ultimoError = error;
+        if (circuito.estado == Estado.SEMIABIERTO || circuito.fallosSeguidos >= umbralFallos) {
+            circuito.estado = Estado.ABIERTO;
+            circuito.abiertoHasta = System.currentTimeMillis() + esperaMs;
+            System.err.println("⚡ Link " + link + " fuera de servicio por " + esperaMs / 1000 + " s: " + error);
+        }
+    }
+
+    /**
+     * La consulta permitida no llegó a hacerse (cancelada o sin turno): no cuenta como
+     * fallo y, si era la prueba, la próxima consulta vuelve a probar
+     */
+    public synchronized void abandonar(String link) {
+        Circuito circuito = circuitos.get(link.toUpperCase());
+        if (circuito != null && circuito.estado == Estado.SEMIABIERTO) {
+            circuito.estado = Estado.ABIERTO;
+            circuito.abiertoHasta = 0;
+        }
+    }
+
+    public synchronized Estado getEstado(String link) {
+        Circuito circuito = circuitos.get(link.toUpperCase());
+        return circuito == null ? Estado.CERRADO : circuito.estado;
+    }
+
+    /**
+     * Segundos que faltan para volver a probar un link abierto (0 si no está abierto)
+     */
+    public synchronized long getSegundosParaReintento(String link) {
+        Circuito circuito = circuitos.get(link.toUpperCase());
+        if (circuito == null || circuito.estado != Estado.ABIERTO) {
+            return 0;
+        }
+        return Math.max(0, (circuito.abiertoHasta - System.currentTimeMillis() + 999) / 1000);
+    }
+
+    public synchronized String obtenerEstadisticas() {
+        StringBuilder sb = new StringBuilder("Links federados:");
+        if (circuitos.isEmpty()) {
+            sb.append(" sin consultar");
+        }
+        for (Map.Entry<String, Circuito> entrada : circuitos.entrySet()) {
+            Circuito c = entrada.getValue();
+            sb.append("\n  ").append(entrada.getKey()).append(" ").append(c.estado);
+            if (c.ultimaLatenciaMs >= 0) {
+                sb.append(", última respuesta ").append(c.ultimaLatenciaMs).append(" ms");
+            }
+            if (c.omitidas > 0) {
+                sb.append(", ").append(c.omitidas).append(" consultas omitidas");
+            }
+            if (c.ultimoError != null) {
+                sb.append(", último error: ").append(c.ultimoError);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class Circuito {
+        private Estado estado = Estado.CERRADO;
+        private int fallosSeguidos;
+        private long abiertoHasta;
+        private long ultimaLatenciaMs = -1;
+        private long omitidas;
+        private String ultimoError;
+    }
+}
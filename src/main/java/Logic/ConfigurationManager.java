@@ -11,11 +11,16 @@ import java.util.Properties;
  */
 public class ConfigurationManager {
     private static final String CONFIG_FILE = "database_config.properties";
+    private static final String HISTORY_FILE = "connection_history.properties";
     private Properties properties;
+    // Historial de login (URL ganadora por host/usuario y latencias por URL)
+    private final Properties history;
 
     public ConfigurationManager() {
         this.properties = new Properties();
+        this.history = new Properties();
         loadConfiguration();
+        loadHistory();
     }
 
     /**
@@ -35,6 +40,36 @@ public class ConfigurationManager {
         }
     }
 
+    /**
+     * Carga el historial de conexiones desde el directorio de trabajo
+     */
+    private void loadHistory() {
+        File file = new File(HISTORY_FILE);
+        if (!file.exists()) {
+            return;
+        }
+        try (InputStream input = new FileInputStream(file)) {
+            synchronized (history) {
+                history.load(input);
+            }
+        } catch (IOException e) {
+            System.err.println("Error cargando historial de conexiones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda el historial de conexiones
+     */
+    public void saveHistory() {
+        synchronized (history) {
+            try (OutputStream output = new FileOutputStream(HISTORY_FILE)) {
+                history.store(output, "Historial de conexiones - URL preferida y latencias");
+            } catch (IOException e) {
+                System.err.println("Error guardando historial de conexiones: " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Establece configuración por defecto basada en flexibilidad Angel/Bell
      */
@@ -63,6 +98,76 @@ public class ConfigurationManager {
         properties.setProperty("sync.interval", "300");
         properties.setProperty("connection.timeout", "15");
         properties.setProperty("connection.type", "service");
+        properties.setProperty("login.headstart.ms", "800");
+        
+        // Pool de conexiones
+        properties.setProperty("pool.min.size", "1");
+        properties.setProperty("pool.max.size", "4");
+        properties.setProperty("pool.idle.timeout", "300");
+        properties.setProperty("pool.borrow.timeout", "10");
+        properties.setProperty("pool.validation.timeout", "3");
+
+        // Carriles de conexión: lectura (consultas) y escritura (DML)
+        properties.setProperty("lane.read.min.size", "0");
+        properties.setProperty("lane.read.max.size", "3");
+        properties.setProperty("lane.read.fetch.size", "500");
+        properties.setProperty("lane.write.fetch.size", "10");
+
+        // Ejecutor de consultas en segundo plano
+        properties.setProperty("executor.max.threads", "6");
+
+        // Límites de las sentencias por clase de operación
+        properties.setProperty("timeout.catalogo", "20");
+        properties.setProperty("timeout.consulta", "60");
+        properties.setProperty("timeout.script", "90");
+        properties.setProperty("timeout.dml", "30");
+        properties.setProperty("timeout.refresco_mv", "110");
+        properties.setProperty("limite.filas", "5000");
+        properties.setProperty("limite.lectura.segundos", "30");
+
+        // Perfiles JDBC por carga de trabajo y fetch size adaptativo (AVG_ROW_LEN)
+        for (PerfilJdbc perfil : PerfilJdbc.values()) {
+            properties.setProperty(perfil.getClave() + ".fetch.size", String.valueOf(perfil.getFetchSizePorDefecto()));
+            properties.setProperty(perfil.getClave() + ".lob.prefetch", String.valueOf(perfil.getLobPrefetchPorDefecto()));
+            properties.setProperty(perfil.getClave() + ".cache", String.valueOf(perfil.isCachePorDefecto()));
+        }
+        properties.setProperty("fetch.adaptativo", "true");
+        properties.setProperty("fetch.adaptativo.bytes", "262144");
+        properties.setProperty("fetch.adaptativo.max", "5000");
+
+        // Precarga del catálogo después del login y vigencia de los metadatos en caché
+        properties.setProperty("precarga.objetos", "10");
+        properties.setProperty("catalogo.ttl.segundos", "300");
+        properties.setProperty("catalogo.instantanea", "true");
+        properties.setProperty("catalogo.instantanea.dir", "catalogo_cache");
+
+        // Descubrimiento de objetos en todos los database links
+        properties.setProperty("federacion.timeout", "10");
+        properties.setProperty("federacion.fallos", "2");
+        properties.setProperty("federacion.espera.segundos", "60");
+
+        // Grillas de datos por páginas
+        properties.setProperty("grilla.pagina.filas", "200");
+        properties.setProperty("grilla.paginas.memoria", "8");
+        properties.setProperty("grilla.primer.viaje.filas", "50");
+
+        // Caché de resultados de la sesión
+        properties.setProperty("cache.resultados.mb", "32");
+        properties.setProperty("cache.resultados.segundos", "60");
+
+        // Contenido de LOBs abierto desde la grilla
+        properties.setProperty("lob.vista.previa.bytes", "65536");
+        properties.setProperty("lob.trozo.bytes", "8192");
+
+        // Conteo de filas de tablas y vistas
+        properties.setProperty("conteo.exacto.filas", "100000");
+        properties.setProperty("conteo.muestra.bloques", "1024");
+
+        // Monitor de salud de la conexión
+        properties.setProperty("health.interval", "10");
+        properties.setProperty("health.backoff.initial.ms", "1000");
+        properties.setProperty("health.backoff.max.ms", "30000");
+        properties.setProperty("network.read.timeout", "120");
         
         // Network configuration
         properties.setProperty("network.angel.ip", "Angel");
@@ -268,6 +373,360 @@ public class ConfigurationManager {
         properties.setProperty("connection.timeout", String.valueOf(seconds));
     }
 
+    // === LOGIN: URL PREFERIDA Y LATENCIAS ===
+
+    /**
+     * Milisegundos de ventaja que recibe la URL preferida antes de probar las demás
+     */
+    public long getLoginHeadStartMillis() {
+        return Long.parseLong(properties.getProperty("login.headstart.ms", "800"));
+    }
+
+    private String claveUsuario(String usuario) {
+        return getComputerName() + "." + usuario.toUpperCase();
+    }
+
+    /**
+     * URL que ganó el último login de este usuario en esta computadora
+     */
+    public String getUrlPreferida(String usuario) {
+        synchronized (history) {
+            return history.getProperty("login.preferida." + claveUsuario(usuario));
+        }
+    }
+
+    public void setUrlPreferida(String usuario, String url) {
+        synchronized (history) {
+            history.setProperty("login.preferida." + claveUsuario(usuario), url);
+        }
+    }
+
+    /**
+     * Registra el tiempo de un intento de conexión (media móvil exponencial)
+     */
+    public void registrarLatenciaUrl(String url, long millis, boolean exito) {
+        synchronized (history) {
+            String claveLatencia = "login.latencia." + url;
+            String claveFallos = "login.fallos." + url;
+            String previa = history.getProperty(claveLatencia);
+            long media = previa == null ? millis : Math.round(Long.parseLong(previa) * 0.7 + millis * 0.3);
+            history.setProperty(claveLatencia, String.valueOf(media));
+            if (exito) {
+                history.remove(claveFallos);
+            } else {
+                int fallos = Integer.parseInt(history.getProperty(claveFallos, "0"));
+                history.setProperty(claveFallos, String.valueOf(Math.min(fallos + 1, 10)));
+            }
+        }
+    }
+
+    /**
+     * Ordena las URLs candidatas: primero la preferida, luego por latencia
+     * penalizando las que fallaron recientemente. Las desconocidas conservan su orden.
+     */
+    public java.util.List<String> ordenarUrlsCandidatas(String usuario, java.util.List<String> urls) {
+        java.util.List<String> ordenadas = new java.util.ArrayList<>(urls);
+        String preferida = getUrlPreferida(usuario);
+        java.util.Map<String, Long> costo = new java.util.HashMap<>();
+        synchronized (history) {
+            for (String url : urls) {
+                String latencia = history.getProperty("login.latencia." + url);
+                int fallos = Integer.parseInt(history.getProperty("login.fallos." + url, "0"));
+                long base = latencia == null ? getConnectionTimeout() * 500L : Long.parseLong(latencia);
+                costo.put(url, base + fallos * getConnectionTimeout() * 1000L);
+            }
+        }
+        ordenadas.sort(java.util.Comparator.comparingLong(costo::get));
+        if (preferida != null && ordenadas.remove(preferida)) {
+            ordenadas.add(0, preferida);
+        }
+        return ordenadas;
+    }
+
+    // === POOL DE CONEXIONES ===
+
+    public int getPoolMinSize() {
+        return Integer.parseInt(properties.getProperty("pool.min.size", "1"));
+    }
+
+    public int getPoolMaxSize() {
+        return Integer.parseInt(properties.getProperty("pool.max.size", "4"));
+    }
+
+    /**
+     * Segundos que una conexión libre puede quedar inactiva antes de cerrarse
+     */
+    public int getPoolIdleTimeout() {
+        return Integer.parseInt(properties.getProperty("pool.idle.timeout", "300"));
+    }
+
+    /**
+     * Segundos máximos de espera por una conexión cuando el pool está lleno
+     */
+    public int getPoolBorrowTimeout() {
+        return Integer.parseInt(properties.getProperty("pool.borrow.timeout", "10"));
+    }
+
+    public int getPoolValidationTimeout() {
+        return Integer.parseInt(properties.getProperty("pool.validation.timeout", "3"));
+    }
+
+    // === CARRILES DE LECTURA Y ESCRITURA ===
+
+    public int getReadLaneMinSize() {
+        return Integer.parseInt(properties.getProperty("lane.read.min.size", "0"));
+    }
+
+    public int getReadLaneMaxSize() {
+        return Integer.parseInt(properties.getProperty("lane.read.max.size", "3"));
+    }
+
+    /**
+     * Filas por viaje de red en el carril de lectura (consultas grandes)
+     */
+    public int getReadLaneFetchSize() {
+        return Integer.parseInt(properties.getProperty("lane.read.fetch.size", "500"));
+    }
+
+    /**
+     * Filas por viaje de red en el carril de escritura (sentencias cortas)
+     */
+    public int getWriteLaneFetchSize() {
+        return Integer.parseInt(properties.getProperty("lane.write.fetch.size", "10"));
+    }
+
+    // === EJECUTOR DE CONSULTAS ===
+
+    /**
+     * Consultas que pueden correr a la vez fuera del hilo de JavaFX
+     */
+    public int getExecutorMaxThreads() {
+        return Integer.parseInt(properties.getProperty("executor.max.threads", "6"));
+    }
+
+    // === LÍMITES DE SENTENCIAS ===
+
+    /**
+     * Segundos máximos de ejecución (setQueryTimeout) para la clase de operación; 0 = sin límite
+     */
+    public int getQueryTimeout(OperationType tipo) {
+        String clave = "timeout." + tipo.name().toLowerCase();
+        return Integer.parseInt(properties.getProperty(clave, String.valueOf(tipo.getTimeoutPorDefecto())));
+    }
+
+    /**
+     * Filas máximas que se leen de un resultado, pida lo que pida la pantalla
+     */
+    public int getMaxFilas() {
+        return Integer.parseInt(properties.getProperty("limite.filas", "5000"));
+    }
+
+    /**
+     * Segundos máximos leyendo filas de un resultado (lo ya leído se muestra truncado)
+     */
+    public int getMaxSegundosLectura() {
+        return Integer.parseInt(properties.getProperty("limite.lectura.segundos", "30"));
+    }
+
+    // === PERFILES JDBC ===
+
+    /**
+     * Filas por viaje de red de las sentencias del perfil
+     */
+    public int getFetchSize(PerfilJdbc perfil) {
+        return Integer.parseInt(properties.getProperty(perfil.getClave() + ".fetch.size",
+                                                       String.valueOf(perfil.getFetchSizePorDefecto())));
+    }
+
+    /**
+     * Bytes de cada LOB que llegan con la fila (0 = solo el localizador)
+     */
+    public int getLobPrefetch(PerfilJdbc perfil) {
+        return Integer.parseInt(properties.getProperty(perfil.getClave() + ".lob.prefetch",
+                                                       String.valueOf(perfil.getLobPrefetchPorDefecto())));
+    }
+
+    /**
+     * true si las sentencias del perfil se guardan en la caché de sentencias de la conexión
+     */
+    public boolean getCacheSentencias(PerfilJdbc perfil) {
+        return Boolean.parseBoolean(properties.getProperty(perfil.getClave() + ".cache",
+                                                           String.valueOf(perfil.isCachePorDefecto())));
+    }
+
+    /**
+     * true si el fetch size de una tabla se calcula con su AVG_ROW_LEN
+     */
+    public boolean isFetchAdaptativo() {
+        return Boolean.parseBoolean(properties.getProperty("fetch.adaptativo", "true"));
+    }
+
+    /**
+     * Bytes por viaje de red que busca el fetch size adaptativo
+     */
+    public int getFetchBytesPorViaje() {
+        return Integer.parseInt(properties.getProperty("fetch.adaptativo.bytes", "262144"));
+    }
+
+    /**
+     * Fetch size máximo que puede elegir el modo adaptativo
+     */
+    public int getFetchMaximo() {
+        return Integer.parseInt(properties.getProperty("fetch.adaptativo.max", "5000"));
+    }
+
+    // === PRECARGA DEL CATÁLOGO ===
+
+    /**
+     * Tablas propias (las de más filas) cuya estructura se precarga al iniciar sesión; 0 = ninguna
+     */
+    public int getPrecargaObjetos() {
+        return Integer.parseInt(properties.getProperty("precarga.objetos", "10"));
+    }
+
+    /**
+     * Segundos que los metadatos de un objeto se usan sin revisar su LAST_DDL_TIME
+     */
+    public int getCatalogoTtlSegundos() {
+        return Integer.parseInt(properties.getProperty("catalogo.ttl.segundos", "300"));
+    }
+
+    /**
+     * Si el catálogo se guarda en disco al cerrar sesión y se muestra desde ahí al volver a entrar
+     */
+    public boolean isInstantaneaActiva() {
+        return Boolean.parseBoolean(properties.getProperty("catalogo.instantanea", "true"));
+    }
+
+    /**
+     * Carpeta de las instantáneas del catálogo (una por usuario y servidor)
+     */
+    public String getInstantaneaDirectorio() {
+        return properties.getProperty("catalogo.instantanea.dir", "catalogo_cache");
+    }
+
+    // === DESCUBRIMIENTO FEDERADO ===
+
+    /**
+     * Segundos máximos de la consulta del catálogo en cada database link
+     */
+    public int getFederacionTimeout() {
+        return Integer.parseInt(properties.getProperty("federacion.timeout", "10"));
+    }
+
+    /**
+     * Errores seguidos de un link para dejar de consultarlo por un tiempo
+     */
+    public int getFederacionFallos() {
+        return Integer.parseInt(properties.getProperty("federacion.fallos", "2"));
+    }
+
+    /**
+     * Segundos que un link con errores se salta antes de volver a probarlo
+     */
+    public int getFederacionEsperaSegundos() {
+        return Integer.parseInt(properties.getProperty("federacion.espera.segundos", "60"));
+    }
+
+    // === GRILLAS DE DATOS ===
+
+    /**
+     * Filas de cada página que se pide a la base al desplazarse por una grilla
+     */
+    public int getGrillaPaginaFilas() {
+        return Integer.parseInt(properties.getProperty("grilla.pagina.filas", "200"));
+    }
+
+    /**
+     * Páginas que una grilla guarda en memoria; las más lejanas a la visible se descartan
+     */
+    public int getGrillaPaginasEnMemoria() {
+        return Integer.parseInt(properties.getProperty("grilla.paginas.memoria", "8"));
+    }
+
+    /**
+     * Filas del primer viaje a la base al abrir una grilla (las primeras se ven antes)
+     */
+    public int getGrillaFilasPrimerViaje() {
+        return Integer.parseInt(properties.getProperty("grilla.primer.viaje.filas", "50"));
+    }
+
+    // === CACHÉ DE RESULTADOS ===
+
+    /**
+     * Megabytes de páginas de grilla que se guardan en la sesión; 0 = sin caché
+     */
+    public int getCacheResultadosMb() {
+        return Integer.parseInt(properties.getProperty("cache.resultados.mb", "32"));
+    }
+
+    /**
+     * Segundos que una página guardada se sigue usando: los cambios de otras sesiones no la
+     * invalidan, así que pasado este tiempo se vuelve a leer
+     */
+    public int getCacheResultadosSegundos() {
+        return Integer.parseInt(properties.getProperty("cache.resultados.segundos", "60"));
+    }
+
+    // === CONTENIDO DE LOBs ===
+
+    /**
+     * Bytes (o caracteres) de un LOB que se muestran al abrir su celda
+     */
+    public int getLobVistaPreviaBytes() {
+        return Integer.parseInt(properties.getProperty("lob.vista.previa.bytes", "65536"));
+    }
+
+    /**
+     * Bytes (o caracteres) de cada trozo que se lee y se muestra
+     */
+    public int getLobTrozoBytes() {
+        return Integer.parseInt(properties.getProperty("lob.trozo.bytes", "8192"));
+    }
+
+    // === CONTEO DE FILAS ===
+
+    /**
+     * Hasta cuántas filas (estimadas) una tabla se cuenta con COUNT(*) sin que se pida
+     */
+    public int getConteoExactoFilas() {
+        return Integer.parseInt(properties.getProperty("conteo.exacto.filas", "100000"));
+    }
+
+    /**
+     * Bloques que lee el conteo por muestra (SAMPLE BLOCK) antes del exacto
+     */
+    public int getConteoMuestraBloques() {
+        return Integer.parseInt(properties.getProperty("conteo.muestra.bloques", "1024"));
+    }
+
+    // === MONITOR DE SALUD ===
+
+    /**
+     * Segundos entre cada verificación de las conexiones de la sesión
+     */
+    public int getHealthInterval() {
+        return Integer.parseInt(properties.getProperty("health.interval", "10"));
+    }
+
+    /**
+     * Espera inicial y máxima (ms) entre intentos de reconexión
+     */
+    public long getReconnectBackoffInitial() {
+        return Long.parseLong(properties.getProperty("health.backoff.initial.ms", "1000"));
+    }
+
+    public long getReconnectBackoffMax() {
+        return Long.parseLong(properties.getProperty("health.backoff.max.ms", "30000"));
+    }
+
+    /**
+     * Segundos máximos esperando respuesta del servidor en una lectura de red (0 = sin límite)
+     */
+    public int getNetworkReadTimeout() {
+        return Integer.parseInt(properties.getProperty("network.read.timeout", "120"));
+    }
+
     public String getConnectionType() { 
         return properties.getProperty("connection.type", "service"); 
     }
@@ -0,0 +1,150 @@
+package Logic;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifica en segundo plano las conexiones de una sesión.
+ * Hace ping a la conexión principal con isValid, revisa las libres del pool y,
+ * si la principal se cae, la reemplaza reintentando con espera exponencial.
+ */
+public class ConnectionHealthMonitor {
+    public enum Estado { SANA, RECONECTANDO, DETENIDO }
+
+    // Pings fallidos seguidos antes de dar la conexión por caída
+    // (un ping puede fallar solo porque la conexión está ocupada con una consulta larga)
+    private static final int FALLOS_PARA_CAIDA = 2;
+
+    private final ConnectionUser connectionUser;
+    private final ScheduledExecutorService hilo;
+    private final int intervaloSec;
+    private final int timeoutSec;
+    private final long backoffInicialMs;
+    private final long backoffMaxMs;
+
+    private volatile Estado estado = Estado.SANA;
+    private int fallosSeguidos;
+    private long backoffActualMs;
+    private int intentos;
+
+    public ConnectionHealthMonitor(ConnectionUser connectionUser, ConfigurationManager config) {
+        this.connectionUser = connectionUser;
+        this.intervaloSec = Math.max(1, config.getHealthInterval());
+        this.timeoutSec = Math.max(1, config.getPoolValidationTimeout());
+        this.backoffInicialMs = Math.max(100, config.getReconnectBackoffInitial());
+        this.backoffMaxMs = Math.max(backoffInicialMs, config.getReconnectBackoffMax());
+        this.hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "monitor-conexion");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Empieza a verificar la sesión cada health.interval segundos
+     */
+    public void iniciar() {
+        hilo.scheduleWithFixedDelay(this::revisar, intervaloSec, intervaloSec, TimeUnit.SECONDS);
+        System.out.println("🩺 Monitor de conexión iniciado (cada " + intervaloSec + " s)");
+    }
+
+    /**
+     * Detiene el monitor (logout). Un reintento en curso se abandona.
+     */
+    public void detener() {
+        estado = Estado.DETENIDO;
+        hilo.shutdownNow();
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * Verificación periódica: conexiones libres del pool y ping a la principal
+     */
+    private void revisar() {
+        if (estado != Estado.SANA) {
+            return; // Hay un reintento programado o el monitor se detuvo
+        }
+        try {
+            revisarPool(connectionUser.getPool());
+            ConnectionRouter router = connectionUser.getRouter();
+            if (router != null) {
+                revisarPool(router.getPoolLectura());
+            }
+
+            Connection conn = connectionUser.getConnection();
+            if (conn == null) {
+                return;
+            }
+            if (responde(conn)) {
+                fallosSeguidos = 0;
+                return;
+            }
+            fallosSeguidos++;
+            if (fallosSeguidos < FALLOS_PARA_CAIDA) {
+                return;
+            }
+
+            System.err.println("❌ Monitor: la conexión principal no responde, reconectando...");
+            estado = Estado.RECONECTANDO;
+            backoffActualMs = backoffInicialMs;
+            intentos = 0;
+            reintentar(conn);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Error en el monitor de conexión: " + e.getMessage());
+        }
+    }
+
+    private void revisarPool(ConnectionPool pool) {
+        if (pool == null) {
+            return;
+        }
+        int muertas = pool.revisarLibres();
+        if (muertas > 0) {
+            System.err.println("⚠️ Monitor: " + muertas + " conexión(es) libre(s) sin respuesta descartadas");
+        }
+    }
+
+    private boolean responde(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(timeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Intenta reemplazar la conexión caída; si no puede, reprograma con el doble de espera
+     */
+    private void reintentar(Connection caida) {
+        if (estado == Estado.DETENIDO) {
+            return;
+        }
+        intentos++;
+        try {
+            if (connectionUser.reemplazarConexion(caida)) {
+                System.out.println("✅ Monitor: conexión restablecida tras " + intentos + " intento(s)");
+                estado = Estado.SANA;
+                fallosSeguidos = 0;
+                return;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Monitor: intento " + intentos + " de reconexión falló: " + e.getMessage());
+        }
+
+        long espera = backoffActualMs;
+        backoffActualMs = Math.min(backoffActualMs * 2, backoffMaxMs);
+        try {
+            hilo.schedule(() -> reintentar(caida), espera, TimeUnit.MILLISECONDS);
+            System.out.println("⏳ Monitor: próximo intento en " + espera + " ms");
+        } catch (RejectedExecutionException e) {
+            // El monitor se detuvo mientras se reintentaba
+        }
+    }
+}
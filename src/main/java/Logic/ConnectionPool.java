@@ -0,0 +1,736 @@
+package Logic;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool acotado de conexiones JDBC para un mismo (URL, usuario, contraseña)
+ * Presta y recibe conexiones, las valida al prestarlas y cierra las inactivas.
+ * Los pools se mantienen vivos entre logout y re-login con las mismas credenciales, pero
+ * sin sesión dueña se vacían por inactividad (sin respetar pool.min.size) y se retiran.
+ * La contraseña se guarda solo para abrir conexiones; el registro usa su SHA-256.
+ */
+public class ConnectionPool {
+    // Pools registrados por credenciales, compartidos entre sesiones
+    private static final Map<String, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    // Hilo de limpieza compartido por todos los pools
+    private static final ScheduledExecutorService LIMPIEZA = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "pool-limpieza");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Conexiones usadas hace menos de esto no se vuelven a validar al prestarlas
+    private static final long VALIDACION_OMITIDA_MS = 2000;
+
+    // Etiqueta de módulo con la que se identifican las sesiones en V$SESSION
+    private static final String MODULO_SESION = "ProyectoFinalBDD";
+
+    static {
+        LIMPIEZA.scheduleWithFixedDelay(ConnectionPool::desalojarTodos, 30, 30, TimeUnit.SECONDS);
+    }
+
+    private final String clave;
+    private final String url;
+    private final String usuario;
+    private final String password;
+    // SHA-256 de la contraseña, comparado en tiempo constante
+    private final byte[] huella;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final int validationTimeoutSec;
+    private final ConfigurationManager config;
+    private final boolean soloLectura;
+    private final int filasPorViaje;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition disponible = lock.newCondition();
+    private final Deque<ConexionLibre> libres = new ArrayDeque<>();
+    private final Map<Connection, Long> prestadas = new IdentityHashMap<>();
+    private int total;
+    private volatile boolean cerrado;
+    // Ninguna sesión lo usa (logout): se vacía por inactividad y se cierra
+    private volatile boolean liberado;
+
+    // Estadísticas
+    private final AtomicLong prestamos = new AtomicLong();
+    private final AtomicLong esperas = new AtomicLong();
+    private final AtomicLong creadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong desalojadas = new AtomicLong();
+
+    private ConnectionPool(String clave, String url, String usuario, String password,
+                           ConfigurationManager config, boolean soloLectura) {
+        this.clave = clave;
+        this.url = url;
+        this.usuario = usuario;
+        this.password = password;
+        this.huella = huella(password);
+        this.soloLectura = soloLectura;
+        if (soloLectura) {
+            this.maxSize = Math.max(1, config.getReadLaneMaxSize());
+            this.minSize = Math.max(0, Math.min(config.getReadLaneMinSize(), maxSize));
+            this.filasPorViaje = Math.max(1, config.getReadLaneFetchSize());
+        } else {
+            this.maxSize = Math.max(1, config.getPoolMaxSize());
+            this.minSize = Math.max(0, Math.min(config.getPoolMinSize(), maxSize));
+            this.filasPorViaje = Math.max(1, config.getWriteLaneFetchSize());
+        }
+        this.idleTimeoutMs = config.getPoolIdleTimeout() * 1000L;
+        this.borrowTimeoutMs = config.getPoolBorrowTimeout() * 1000L;
+        this.validationTimeoutSec = Math.max(1, config.getPoolValidationTimeout());
+        this.config = config;
+    }
+
+    /**
+     * Obtiene (o crea) el pool para estas credenciales (carril de escritura)
+     */
+    public static ConnectionPool obtenerPool(String url, String usuario, String password, ConfigurationManager config) {
+        return obtenerPool(url, usuario, password, config, false);
+    }
+
+    /**
+     * Obtiene (o crea) el pool del carril indicado. El de solo lectura tiene su
+     * propio tamaño y trae más filas por viaje de red.
+     */
+    public static ConnectionPool obtenerPool(String url, String usuario, String password,
+                                             ConfigurationManager config, boolean soloLectura) {
+        String clave = construirClave(url, usuario, password) + (soloLectura ? "|LECTURA" : "");
+        // Atómico con el cierre de un pool liberado (ver desalojarInactivas)
+        return POOLS.compute(clave, (k, actual) -> {
+            if (actual == null || actual.cerrado) {
+                return new ConnectionPool(k, url, usuario, password, config, soloLectura);
+            }
+            actual.liberado = false;
+            return actual;
+        });
+    }
+
+    /**
+     * Indica si ya existe un pool caliente para estas credenciales
+     */
+    public static boolean existePool(String url, String usuario, String password) {
+        ConnectionPool pool = POOLS.get(construirClave(url, usuario, password));
+        return pool != null && !pool.cerrado && MessageDigest.isEqual(pool.huella, huella(password));
+    }
+
+    /**
+     * Logout: este pool y los demás de las mismas credenciales (lectura, otros nodos) quedan sin dueño. Siguen calientes para un
+     * re-login inmediato y se cierran solos cuando sus conexiones superan pool.idle.timeout.
+     */
+    public void liberar() {
+        for (ConnectionPool pool : POOLS.values()) {
+            if (pool.usuario.equalsIgnoreCase(usuario) && MessageDigest.isEqual(pool.huella, huella)) {
+                pool.liberado = true;
+            }
+        }
+    }
+
+    /**
+     * Cierra este pool y los demás de las mismas credenciales (el servidor las rechazó)
+     */
+    public void cerrarConCredenciales() {
+        for (ConnectionPool pool : POOLS.values()) {
+            if (pool.usuario.equalsIgnoreCase(usuario) && MessageDigest.isEqual(pool.huella, huella)) {
+                pool.cerrar();
+            }
+        }
+        cerrar();
+    }
+
+    /**
+     * Cierra los pools de este usuario abiertos con otra contraseña (la cambió o dejó de valer)
+     */
+    public void cerrarOtrasCredenciales() {
+        for (ConnectionPool pool : POOLS.values()) {
+            if (pool.usuario.equalsIgnoreCase(usuario) && !MessageDigest.isEqual(pool.huella, huella)) {
+                System.out.println("🔒 Pool de " + pool.url + (pool.soloLectura ? " (lectura)" : "") +
+                                   " cerrado: las credenciales cambiaron");
+                pool.cerrar();
+            }
+        }
+    }
+
+    /**
+     * Pool de solo lectura con las mismas credenciales que este
+     */
+    public ConnectionPool obtenerPoolLectura() {
+        return soloLectura ? this : obtenerPool(url, usuario, password, config, true);
+    }
+
+    /**
+     * Pool de solo lectura hacia otra URL (otro nodo) con las mismas credenciales
+     */
+    public ConnectionPool obtenerPoolLectura(String otraUrl) {
+        return obtenerPool(otraUrl, usuario, password, config, true);
+    }
+
+    private static String construirClave(String url, String usuario, String password) {
+        // La contraseña participa como SHA-256 completo: otra contraseña nunca reutiliza sesiones
+        StringBuilder clave = new StringBuilder(url).append('|').append(usuario.toUpperCase()).append('|');
+        for (byte b : huella(password)) {
+            clave.append(String.format("%02x", b));
+        }
+        return clave.toString();
+    }
+
+    private static byte[] huella(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Presta una conexión validada. Espera hasta pool.borrow.timeout si el pool está lleno.
+     */
+    public Connection prestar() throws SQLException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+        while (true) {
+            ConexionLibre libre = null;
+            boolean crear = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (cerrado) {
+                        throw new SQLException("El pool de conexiones está cerrado");
+                    }
+                    libre = libres.pollFirst();
+                    if (libre != null) {
+                        prestadas.put(libre.conexion, System.currentTimeMillis());
+                        break;
+                    }
+                    if (total < maxSize) {
+                        total++;
+                        crear = true;
+                        break;
+                    }
+                    long restante = limite - System.nanoTime();
+                    if (restante <= 0) {
+                        throw new SQLException("Tiempo de espera agotado obteniendo conexión del pool (" +
+                                               maxSize + " en uso)");
+                    }
+                    esperas.incrementAndGet();
+                    try {
+                        disponible.awaitNanos(restante);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Espera de conexión interrumpida", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (crear) {
+                Connection nueva;
+                try {
+                    nueva = crearConexion();
+                } catch (SQLException e) {
+                    liberarCupo();
+                    throw e;
+                }
+                lock.lock();
+                try {
+                    prestadas.put(nueva, System.currentTimeMillis());
+                } finally {
+                    lock.unlock();
+                }
+                prestamos.incrementAndGet();
+                return nueva;
+            }
+
+            // Validar la conexión reutilizada antes de entregarla
+            if (esValida(libre)) {
+                prestamos.incrementAndGet();
+                return libre.conexion;
+            }
+            descartar(libre.conexion);
+        }
+    }
+
+    /**
+     * Presta una conexión recién abierta, de modo que el servidor vuelva a verificar las
+     * credenciales (login sobre un pool ya caliente). Si el pool está lleno se cierra una
+     * conexión libre para hacerle lugar.
+     */
+    public Connection prestarAutenticando() throws SQLException {
+        Connection sobrante = null;
+        lock.lock();
+        try {
+            if (cerrado) {
+                throw new SQLException("El pool de conexiones está cerrado");
+            }
+            if (total < maxSize) {
+                total++;
+            } else {
+                // El cupo de la libre pasa a la nueva
+                ConexionLibre libre = libres.pollLast();
+                if (libre == null) {
+                    throw new SQLException("El pool de conexiones está lleno");
+                }
+                sobrante = libre.conexion;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (sobrante != null) {
+            desalojadas.incrementAndGet();
+            cerrarSilencioso(sobrante);
+        }
+
+        Connection nueva;
+        try {
+            nueva = crearConexion();
+        } catch (SQLException e) {
+            liberarCupo();
+            throw e;
+        }
+        lock.lock();
+        try {
+            prestadas.put(nueva, System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+        prestamos.incrementAndGet();
+        return nueva;
+    }
+
+    /**
+     * Devuelve una conexión prestada al pool. Deshace cualquier transacción pendiente.
+     */
+    public void devolver(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        boolean sana = true;
+        try {
+            if (conn.isClosed()) {
+                sana = false;
+            } else if (!conn.getAutoCommit()) {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            sana = false;
+        }
+        if (!sana) {
+            descartar(conn);
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (prestadas.remove(conn) == null) {
+                return; // No pertenece a este pool o ya se devolvió
+            }
+            if (cerrado) {
+                total--;
+                cerrarSilencioso(conn);
+                return;
+            }
+            libres.addFirst(new ConexionLibre(conn, System.currentTimeMillis()));
+            disponible.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve la conexión al pool que la prestó, sea cual sea.
+     * Si ningún pool la reconoce (pool ya cerrado), simplemente se cierra.
+     */
+    public static void devolverAlPropietario(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        for (ConnectionPool pool : POOLS.values()) {
+            if (pool.esPropia(conn)) {
+                pool.devolver(conn);
+                return;
+            }
+        }
+        cerrarSilencioso(conn);
+    }
+
+    private boolean esPropia(Connection conn) {
+        lock.lock();
+        try {
+            return prestadas.containsKey(conn);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra y retira una conexión rota del pool
+     */
+    public void descartar(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            boolean propia = prestadas.remove(conn) != null || libres.removeIf(l -> l.conexion == conn);
+            if (propia) {
+                total--;
+                disponible.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        descartadas.incrementAndGet();
+        cerrarSilencioso(conn);
+    }
+
+    /**
+     * Abre conexiones en segundo plano hasta alcanzar pool.min.size
+     */
+    public void precalentar() {
+        LIMPIEZA.execute(() -> {
+            while (true) {
+                lock.lock();
+                try {
+                    if (cerrado || total >= minSize) {
+                        return;
+                    }
+                    total++;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    Connection conn = crearConexion();
+                    lock.lock();
+                    try {
+                        libres.addLast(new ConexionLibre(conn, System.currentTimeMillis()));
+                        disponible.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                } catch (SQLException e) {
+                    liberarCupo();
+                    System.err.println("⚠️ No se pudo precalentar el pool: " + e.getMessage());
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Cierra todas las conexiones y retira el pool del registro
+     */
+    public void cerrar() {
+        POOLS.remove(clave, this);
+        marcarCerrado();
+    }
+
+    private void marcarCerrado() {
+        lock.lock();
+        try {
+            cerrado = true;
+            for (ConexionLibre libre : libres) {
+                cerrarSilencioso(libre.conexion);
+                total--;
+            }
+            libres.clear();
+            disponible.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra todos los pools (al salir de la aplicación)
+     */
+    public static void cerrarTodos() {
+        for (ConnectionPool pool : POOLS.values()) {
+            pool.cerrar();
+        }
+        LIMPIEZA.shutdownNow();
+    }
+
+    private static void desalojarTodos() {
+        for (ConnectionPool pool : POOLS.values()) {
+            try {
+                pool.desalojarInactivas();
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Error limpiando pool: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Valida con isValid las conexiones libres que llevan un rato sin usarse y
+     * descarta las que ya no responden. Lo llama el monitor de salud, fuera del hilo de UI.
+     * @return cantidad de conexiones descartadas
+     */
+    public int revisarLibres() {
+        long ahora = System.currentTimeMillis();
+        Deque<ConexionLibre> aRevisar = new ArrayDeque<>();
+        lock.lock();
+        try {
+            // Se sacan de la cola para que nadie las preste mientras se validan
+            libres.removeIf(libre -> {
+                if (ahora - libre.desde < VALIDACION_OMITIDA_MS) {
+                    return false;
+                }
+                aRevisar.add(libre);
+                return true;
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        int muertas = 0;
+        for (ConexionLibre libre : aRevisar) {
+            boolean valida;
+            try {
+                valida = libre.conexion.isValid(validationTimeoutSec);
+            } catch (SQLException e) {
+                valida = false;
+            }
+            lock.lock();
+            try {
+                if (valida && !cerrado) {
+                    // Conserva su antigüedad para el desalojo por inactividad
+                    libres.addLast(libre);
+                    disponible.signal();
+                    continue;
+                }
+                total--;
+                disponible.signal();
+            } finally {
+                lock.unlock();
+            }
+            if (!valida) {
+                muertas++;
+                descartadas.incrementAndGet();
+            }
+            cerrarSilencioso(libre.conexion);
+        }
+        return muertas;
+    }
+
+    /**
+     * Cierra las conexiones libres que superan pool.idle.timeout, respetando pool.min.size
+     * mientras alguna sesión use el pool. Un pool liberado que queda vacío se cierra.
+     */
+    void desalojarInactivas() {
+        long ahora = System.currentTimeMillis();
+        int minimo = liberado ? 0 : minSize;
+        Deque<Connection> aCerrar = new ArrayDeque<>();
+        lock.lock();
+        try {
+            // Las más antiguas están al final de la cola
+            while (total > minimo && !libres.isEmpty()
+                   && ahora - libres.peekLast().desde > idleTimeoutMs) {
+                aCerrar.add(libres.pollLast().conexion);
+                total--;
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Connection conn : aCerrar) {
+            desalojadas.incrementAndGet();
+            cerrarSilencioso(conn);
+        }
+        if (liberado) {
+            // Dentro de compute: un login que lo retoma al mismo tiempo no recibe un pool cerrado
+            POOLS.computeIfPresent(clave, (k, pool) -> {
+                if (pool != this || !liberado || !estaVacio()) {
+                    return pool;
+                }
+                marcarCerrado();
+                System.out.println("🔒 Pool de " + url + (soloLectura ? " (lectura)" : "") + " cerrado: sin sesión que lo use");
+                return null;
+            });
+        }
+    }
+
+    private boolean estaVacio() {
+        lock.lock();
+        try {
+            return total == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection crearConexion() throws SQLException {
+        Connection conn = abrirConexion(url, usuario, password, config, filasPorViaje);
+        if (soloLectura) {
+            // Las páginas por clave comparan "col > ?" en binario: el ORDER BY tiene que ordenar
+            // igual (con un NLS_SORT lingüístico, p. ej. SPANISH por el locale, se saltan filas)
+            try {
+                StatementCache.getInstance().preparar(conn, SqlRegistry.ORDEN_BINARIO).execute();
+            } catch (SQLException e) {
+                System.err.println("⚠️ No se pudo fijar NLS_SORT=BINARY en el carril de lectura: " + e.getMessage());
+            }
+        }
+        creadas.incrementAndGet();
+        return conn;
+    }
+
+    /**
+     * Abre una conexión física ya preparada (autocommit en false y sesión etiquetada).
+     * El límite de lectura de red evita que un enlace caído cuelgue el socket indefinidamente.
+     */
+    static Connection abrirConexion(String url, String usuario, String password, ConfigurationManager config,
+                                    int filasPorViaje) throws SQLException {
+        try {
+            Class.forName("oracle.jdbc.driver.OracleDriver");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver Oracle JDBC no encontrado", e);
+        }
+        Properties props = new Properties();
+        props.setProperty("user", usuario);
+        props.setProperty("password", password);
+        props.setProperty("oracle.net.CONNECT_TIMEOUT", String.valueOf(config.getConnectionTimeout() * 1000));
+        props.setProperty("defaultRowPrefetch", String.valueOf(filasPorViaje));
+        if (config.getNetworkReadTimeout() > 0) {
+            props.setProperty("oracle.jdbc.ReadTimeout", String.valueOf(config.getNetworkReadTimeout() * 1000));
+        }
+
+        Connection conn = DriverManager.getConnection(url, props);
+        try {
+            prepararSesion(conn, config.getComputerName());
+        } catch (SQLException e) {
+            cerrarSilencioso(conn);
+            throw e;
+        }
+        return conn;
+    }
+
+    /**
+     * Incorpora al pool una conexión abierta por fuera (p. ej. la ganadora del login)
+     * y la deja prestada a quien la abrió.
+     */
+    public Connection adoptar(Connection conn) throws SQLException {
+        lock.lock();
+        try {
+            if (cerrado) {
+                throw new SQLException("El pool de conexiones está cerrado");
+            }
+            if (total >= maxSize) {
+                throw new SQLException("El pool de conexiones está lleno");
+            }
+            total++;
+            prestadas.put(conn, System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+        creadas.incrementAndGet();
+        prestamos.incrementAndGet();
+        return conn;
+    }
+
+    /**
+     * Configuración inicial de cada sesión física. Se repite en cada reconexión.
+     */
+    private static void prepararSesion(Connection conn, String cliente) throws SQLException {
+        // Autocommit en false (como en SQL*Plus)
+        conn.setAutoCommit(false);
+
+        // Etiquetas de sesión: no son imprescindibles, un fallo solo se informa
+        try {
+            PreparedStatement pstmt = StatementCache.getInstance().preparar(conn, SqlRegistry.ETIQUETAR_SESION);
+            pstmt.setString(1, MODULO_SESION);
+            pstmt.setString(2, "conectado");
+            pstmt.setString(3, cliente);
+            pstmt.execute();
+        } catch (SQLException e) {
+            System.err.println("⚠️ No se pudo etiquetar la sesión: " + e.getMessage());
+        }
+    }
+
+    private boolean esValida(ConexionLibre libre) {
+        try {
+            if (System.currentTimeMillis() - libre.desde < VALIDACION_OMITIDA_MS) {
+                return !libre.conexion.isClosed();
+            }
+            return libre.conexion.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void liberarCupo() {
+        lock.lock();
+        try {
+            total--;
+            disponible.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void cerrarSilencioso(Connection conn) {
+        StatementCache.getInstance().olvidar(conn);
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // Ignorar: la conexión ya no sirve
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public boolean isSoloLectura() {
+        return soloLectura;
+    }
+
+    /**
+     * Resumen del estado del pool
+     */
+    public String obtenerEstadisticas() {
+        lock.lock();
+        try {
+            return String.format("Pool %s%s: %d/%d abiertas, %d prestadas, %d libres | préstamos=%d esperas=%d " +
+                                 "creadas=%d descartadas=%d desalojadas=%d",
+                                 url, soloLectura ? " (lectura)" : "", total, maxSize, prestadas.size(), libres.size(), prestamos.get(),
+                                 esperas.get(), creadas.get(), descartadas.get(), desalojadas.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Conexión libre junto con el instante en que se devolvió
+     */
+    private static class ConexionLibre {
+        private final Connection conexion;
+        private final long desde;
+
+        ConexionLibre(Connection conexion, long desde) {
+            this.conexion = conexion;
+            this.desde = desde;
+        }
+    }
+}
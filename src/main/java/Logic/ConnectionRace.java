@@ -0,0 +1,195 @@
+package Logic;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba varias URLs JDBC en paralelo y se queda con la primera que autentica.
+ * La URL preferida recibe una pequeña ventaja antes de lanzar las demás;
+ * las conexiones perdedoras se cierran en cuanto terminan de abrirse.
+ */
+public class ConnectionRace {
+    private final ConfigurationManager config;
+
+    public ConnectionRace(ConfigurationManager config) {
+        this.config = config;
+    }
+
+    /**
+     * Compite las URLs candidatas (ya ordenadas) y devuelve la ganadora, o null si todas fallan
+     */
+    public Ganador competir(List<String> urls, String usuario, String password) {
+        if (urls.isEmpty()) {
+            return null;
+        }
+
+        Meta meta = new Meta();
+        ExecutorService hilos = Executors.newFixedThreadPool(urls.size(), r -> {
+            Thread t = new Thread(r, "login-candidata");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<Ganador> carrera = new ExecutorCompletionService<>(hilos);
+        List<Future<Ganador>> futuros = new ArrayList<>();
+
+        try {
+            // La URL preferida sale primero con una ventaja
+            futuros.add(carrera.submit(() -> probar(urls.get(0), usuario, password, meta)));
+            int pendientes = 1;
+            Future<Ganador> primera = carrera.poll(config.getLoginHeadStartMillis(), TimeUnit.MILLISECONDS);
+            if (primera != null) {
+                Ganador ganador = resultado(primera);
+                if (ganador != null && meta.entregar(ganador)) {
+                    return ganador;
+                }
+                pendientes = 0; // La preferida falló dentro de su ventaja
+            }
+
+            for (int i = 1; i < urls.size(); i++) {
+                final String url = urls.get(i);
+                futuros.add(carrera.submit(() -> probar(url, usuario, password, meta)));
+                pendientes++;
+            }
+
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getConnectionTimeout() + 5L);
+            while (pendientes > 0) {
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) {
+                    break;
+                }
+                Future<Ganador> terminado = carrera.poll(restante, TimeUnit.NANOSECONDS);
+                if (terminado == null) {
+                    break;
+                }
+                pendientes--;
+                Ganador ganador = resultado(terminado);
+                if (ganador != null && meta.entregar(ganador)) {
+                    return ganador;
+                }
+            }
+            return null;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            // Nadie más puede ganar: las candidatas que terminen tarde cierran su conexión
+            Ganador huerfano = meta.cerrar();
+            if (huerfano != null) {
+                // Ganó justo después de agotarse la espera: nadie la va a usar
+                huerfano.cerrarSilencioso();
+            }
+            for (Future<Ganador> futuro : futuros) {
+                futuro.cancel(true);
+            }
+            hilos.shutdownNow();
+        }
+    }
+
+    private Ganador resultado(Future<Ganador> terminado) throws InterruptedException {
+        try {
+            return terminado.get();
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Abre una conexión con la URL y la reclama como ganadora si nadie ganó antes
+     */
+    private Ganador probar(String url, String usuario, String password, Meta meta) {
+        System.out.println("Probando conexión con: " + url);
+        long inicio = System.nanoTime();
+        Connection conn;
+        try {
+            conn = ConnectionPool.abrirConexion(url, usuario, password, config, config.getWriteLaneFetchSize());
+        } catch (SQLException e) {
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            config.registrarLatenciaUrl(url, ms, false);
+            System.out.println("❌ Falló conexión con: " + url + " (" + e.getMessage() + ")");
+            return null;
+        }
+
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        config.registrarLatenciaUrl(url, ms, true);
+
+        Ganador candidato = new Ganador(url, conn, ms);
+        if (!meta.reclamar(candidato)) {
+            // Otra URL ganó mientras esta se abría
+            candidato.cerrarSilencioso();
+            System.out.println("↩️ Conexión descartada (ya había ganadora): " + url + " en " + ms + " ms");
+            return null;
+        }
+        System.out.println("🏁 URL ganadora: " + url + " en " + ms + " ms");
+        return candidato;
+    }
+
+    /**
+     * Línea de meta: decide atómicamente quién gana y quién cierra su conexión
+     */
+    private static class Meta {
+        private Ganador ganador;
+        private boolean entregado;
+        private boolean cerrada;
+
+        synchronized boolean reclamar(Ganador candidato) {
+            if (cerrada || ganador != null) {
+                return false;
+            }
+            ganador = candidato;
+            return true;
+        }
+
+        synchronized boolean entregar(Ganador candidato) {
+            if (cerrada || ganador != candidato) {
+                return false;
+            }
+            entregado = true;
+            return true;
+        }
+
+        /**
+         * Cierra la carrera y devuelve la ganadora si nadie la recogió
+         */
+        synchronized Ganador cerrar() {
+            cerrada = true;
+            return entregado ? null : ganador;
+        }
+    }
+
+    /**
+     * URL ganadora junto con su conexión ya abierta
+     */
+    public static class Ganador {
+        private final String url;
+        private final Connection conexion;
+        private final long latenciaMs;
+
+        Ganador(String url, Connection conexion, long latenciaMs) {
+            this.url = url;
+            this.conexion = conexion;
+            this.latenciaMs = latenciaMs;
+        }
+
+        public String getUrl() { return url; }
+        public Connection getConexion() { return conexion; }
+        public long getLatenciaMs() { return latenciaMs; }
+
+        void cerrarSilencioso() {
+            try {
+                conexion.close();
+            } catch (SQLException e) {
+                // Ignorar
+            }
+        }
+    }
+}
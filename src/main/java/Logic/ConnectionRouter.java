@@ -0,0 +1,564 @@
+package Logic;
+
+import java.sql.Connection;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Enruta cada operación a su carril de conexión según su tipo.
+ * - Lectura: pool propio, transacción SET TRANSACTION READ ONLY y muchas filas por viaje.
+ *   Una consulta larga no retrasa los commits ni ve cambios sin confirmar.
+ * - Escritura: la conexión principal de la sesión (la que confirma commit/rollback),
+ *   con pocas filas por viaje.
+ * Las sentencias abiertas con Uso llevan el tiempo máximo de su clase de operación y el
+ * ajuste de su perfil JDBC (fetch size, LOB prefetch, caché), y se pueden detener con el
+ * TokenCancelacion de la tarea.
+ */
+public class ConnectionRouter {
+    private final ConnectionUser connectionUser;
+    private final Carril lectura = new Carril("Lectura");
+    private final Carril escritura = new Carril("Escritura");
+    private volatile ConnectionPool poolLectura;
+    // La conexión principal se usa desde varios hilos: una operación de escritura a la vez
+    private final ReentrantLock turnoEscritura = new ReentrantLock();
+    // Segundos de setQueryTimeout por clase de operación
+    private final Map<OperationType, Integer> timeouts = new EnumMap<>(OperationType.class);
+    private final int maxFilas;
+    private final long maxLecturaMs;
+    // Ajuste de cada perfil JDBC
+    private final Map<PerfilJdbc, Integer> fetchSizes = new EnumMap<>(PerfilJdbc.class);
+    private final Map<PerfilJdbc, Integer> lobPrefetch = new EnumMap<>(PerfilJdbc.class);
+    private final Map<PerfilJdbc, Boolean> cacheSentencias = new EnumMap<>(PerfilJdbc.class);
+    private final boolean fetchAdaptativo;
+    private final int bytesPorViaje;
+    private final int fetchMaximo;
+    // "NODO|OWNER.TABLA@LINK" -> AVG_ROW_LEN (0 = sin estadísticas)
+    private final Map<String, Integer> longitudFila = new ConcurrentHashMap<>();
+
+    // OracleStatement.setLobPrefetchSize por reflexión: el driver no es dependencia de compilación
+    private static volatile Method setLobPrefetchSize;
+    private static volatile boolean lobPrefetchNoDisponible;
+
+    public ConnectionRouter(ConnectionUser connectionUser) {
+        this.connectionUser = connectionUser;
+        ConfigurationManager config = connectionUser.getConfig();
+        for (OperationType tipo : OperationType.values()) {
+            timeouts.put(tipo, Math.max(0, config.getQueryTimeout(tipo)));
+        }
+        this.maxFilas = Math.max(1, config.getMaxFilas());
+        this.maxLecturaMs = Math.max(1, config.getMaxSegundosLectura()) * 1000L;
+        for (PerfilJdbc perfil : PerfilJdbc.values()) {
+            fetchSizes.put(perfil, Math.max(1, config.getFetchSize(perfil)));
+            lobPrefetch.put(perfil, Math.max(0, config.getLobPrefetch(perfil)));
+            cacheSentencias.put(perfil, config.getCacheSentencias(perfil));
+        }
+        this.fetchAdaptativo = config.isFetchAdaptativo();
+        this.bytesPorViaje = Math.max(1024, config.getFetchBytesPorViaje());
+        this.fetchMaximo = Math.max(1, config.getFetchMaximo());
+    }
+
+    /**
+     * Toma una conexión del carril que corresponde al tipo de operación.
+     * Debe cerrarse (try-with-resources) para devolverla y registrar sus métricas.
+     */
+    public Uso usar(OperationType tipo) throws SQLException {
+        if (tipo.esLectura()) {
+            return usarLectura(tipo, obtenerPoolLectura(), null, null, null);
+        }
+
+        turnoEscritura.lock();
+        Connection conn = connectionUser.getConnection();
+        if (conn == null) {
+            turnoEscritura.unlock();
+            throw new SQLException("No hay conexión activa");
+        }
+        Uso uso = new Uso(this, escritura, tipo, conn, null, null, null, null);
+        uso.turno = turnoEscritura;
+        return uso;
+    }
+
+    /**
+     * Como usar(tipo), pero una lectura sobre el objeto indicado puede ir directo al nodo
+     * más cercano que lo tiene. Uso.getObjeto() da el nombre a escribir en el SQL
+     * (sin @PROYECTO_REAL cuando se consulta el otro nodo directamente).
+     */
+    public Uso usarParaObjeto(OperationType tipo, String objeto) throws SQLException {
+        NodeManager nodos = connectionUser.getNodeManager();
+        if (tipo.esLectura() && nodos != null) {
+            NodeManager.Destino destino = nodos.paraObjeto(objeto);
+            if (destino != null) {
+                Uso uso = usarEnNodo(tipo, nodos, destino, destino.getObjeto(), null);
+                if (uso != null) {
+                    return uso;
+                }
+            }
+        }
+        Uso uso = usar(tipo);
+        uso.objeto = objeto;
+        return uso;
+    }
+
+    /**
+     * Lectura que de otro modo iría por el database link: si hay sesión directa con
+     * el otro nodo se usa esa y Uso.getDbLink() devuelve null.
+     */
+    public Uso usarParaLink(OperationType tipo, String dbLink) throws SQLException {
+        NodeManager nodos = connectionUser.getNodeManager();
+        if (tipo.esLectura() && nodos != null) {
+            NodeManager.Destino destino = nodos.paraLink(dbLink);
+            if (destino != null) {
+                Uso uso = usarEnNodo(tipo, nodos, destino, null, null);
+                if (uso != null) {
+                    return uso;
+                }
+            }
+        }
+        Uso uso = usar(tipo);
+        uso.dbLink = dbLink;
+        return uso;
+    }
+
+    /**
+     * Toma una conexión del nodo elegido; si falla lo marca caído y devuelve null
+     * para que la consulta vuelva a la sesión local
+     */
+    private Uso usarEnNodo(OperationType tipo, NodeManager nodos, NodeManager.Destino destino,
+                           String objeto, String dbLink) {
+        NodeManager.Nodo nodo = destino.getNodo();
+        try {
+            Uso uso = usarLectura(tipo, nodo.getPool(), nodo, objeto, dbLink);
+            nodo.contarConsulta();
+            return uso;
+        } catch (SQLException e) {
+            System.err.println("⚠️ Nodo " + nodo.getNombre() + " no disponible, se usa el database link: " +
+                               e.getMessage());
+            nodos.reportarFallo(nodo);
+            return null;
+        }
+    }
+
+    private Uso usarLectura(OperationType tipo, ConnectionPool pool, NodeManager.Nodo nodo,
+                            String objeto, String dbLink) throws SQLException {
+        Connection conn = pool.prestar();
+        try {
+            // Debe ser la primera sentencia de la transacción; el pool hace rollback al devolver
+            StatementCache.getInstance().preparar(conn, SqlRegistry.TRANSACCION_LECTURA).execute();
+        } catch (SQLException e) {
+            pool.descartar(conn);
+            lectura.errores.incrementAndGet();
+            throw e;
+        }
+        return new Uso(this, lectura, tipo, conn, pool, nodo, objeto, dbLink);
+    }
+
+    private ConnectionPool obtenerPoolLectura() throws SQLException {
+        ConnectionPool pool = poolLectura;
+        if (pool != null) {
+            return pool;
+        }
+        ConnectionPool escrituraPool = connectionUser.getPool();
+        if (escrituraPool == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        synchronized (this) {
+            if (poolLectura == null) {
+                // Mismas credenciales que la sesión, pool distinto
+                poolLectura = escrituraPool.obtenerPoolLectura();
+                poolLectura.precalentar();
+            }
+            return poolLectura;
+        }
+    }
+
+    /**
+     * Segundos máximos de una sentencia de esa clase de operación (0 = sin límite)
+     */
+    public int getTimeout(OperationType tipo) {
+        return timeouts.get(tipo);
+    }
+
+    /**
+     * Filas por viaje para una tabla según su AVG_ROW_LEN: las que caben en fetch.adaptativo.bytes,
+     * sin pasar de las filas que se van a leer. Devuelve 0 si no hay estadísticas.
+     */
+    private int fetchParaTabla(Uso uso, String tabla, int filasALeer) {
+        String nombre = tabla.trim().toUpperCase();
+        String dbLink = null;
+        int arroba = nombre.indexOf('@');
+        if (arroba > 0) {
+            dbLink = nombre.substring(arroba + 1);
+            nombre = nombre.substring(0, arroba);
+        }
+        String owner = null;
+        int punto = nombre.indexOf('.');
+        if (punto > 0) {
+            owner = nombre.substring(0, punto);
+            nombre = nombre.substring(punto + 1);
+        }
+
+        String clave = (uso.nodo == null ? "Sesión" : uso.nodo.getNombre()) + "|" + tabla.trim().toUpperCase();
+        Integer bytesFila = longitudFila.get(clave);
+        if (bytesFila == null) {
+            bytesFila = 0;
+            try {
+                PreparedStatement pstmt = uso.preparar(SqlRegistry.LONGITUD_FILA, dbLink);
+                pstmt.setString(1, nombre);
+                pstmt.setString(2, owner);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    bytesFila = rs.getInt(1);
+                }
+                rs.close();
+            } catch (SQLException | IllegalArgumentException e) {
+                // Sin estadísticas se queda el fetch size del perfil
+                System.err.println("⚠️ No se pudo leer AVG_ROW_LEN de " + tabla + ": " + e.getMessage());
+            }
+            longitudFila.put(clave, bytesFila);
+        }
+        if (bytesFila <= 0) {
+            return 0;
+        }
+        int filas = Math.max(10, Math.min(bytesPorViaje / bytesFila, fetchMaximo));
+        // Una fila más que las pedidas para que el último viaje también confirme el final
+        return filasALeer > 0 ? Math.min(filas, filasALeer + 1) : filas;
+    }
+
+    /**
+     * Aplica los bytes de LOB que llegan con cada fila, si el driver lo soporta
+     */
+    private static void aplicarLobPrefetch(Statement stmt, int bytes) {
+        if (bytes <= 0 || lobPrefetchNoDisponible) {
+            return;
+        }
+        try {
+            Method metodo = setLobPrefetchSize;
+            if (metodo == null) {
+                Class<?> oracleStatement = Class.forName("oracle.jdbc.OracleStatement");
+                metodo = oracleStatement.getMethod("setLobPrefetchSize", int.class);
+                setLobPrefetchSize = metodo;
+            }
+            Class<?> interfaz = metodo.getDeclaringClass();
+            if (stmt.isWrapperFor(interfaz)) {
+                metodo.invoke(stmt.unwrap(interfaz), bytes);
+            }
+        } catch (ReflectiveOperationException | SQLException | RuntimeException e) {
+            lobPrefetchNoDisponible = true;
+            System.err.println("⚠️ LOB prefetch no disponible en este driver: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pool del carril de lectura (null si aún no se usó)
+     */
+    public ConnectionPool getPoolLectura() {
+        return poolLectura;
+    }
+
+    /**
+     * Resumen de ambos carriles
+     */
+    public String obtenerEstadisticas() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(lectura.resumen()).append("\n");
+        sb.append(escritura.resumen());
+        sb.append("\nPerfiles JDBC (fetch / LOB prefetch):");
+        for (PerfilJdbc perfil : PerfilJdbc.values()) {
+            sb.append(" ").append(perfil.getDescripcion()).append(" ").append(fetchSizes.get(perfil))
+              .append("/").append(lobPrefetch.get(perfil));
+        }
+        if (fetchAdaptativo) {
+            sb.append("\nFetch adaptativo: ").append(longitudFila.size()).append(" tablas medidas (AVG_ROW_LEN)");
+        }
+        ConnectionPool pool = poolLectura;
+        if (pool != null) {
+            sb.append("\n").append(pool.obtenerEstadisticas());
+        }
+        NodeManager nodos = connectionUser.getNodeManager();
+        if (nodos != null) {
+            sb.append("\n").append(nodos.obtenerEstadisticas());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Métricas de un carril
+     */
+    private static class Carril {
+        private final String nombre;
+        private final AtomicLong operaciones = new AtomicLong();
+        private final AtomicLong errores = new AtomicLong();
+        private final AtomicLong tiempoTotalNs = new AtomicLong();
+        private final AtomicLong tiempoMaxNs = new AtomicLong();
+        private final AtomicInteger enCurso = new AtomicInteger();
+
+        Carril(String nombre) {
+            this.nombre = nombre;
+        }
+
+        void registrar(long duracionNs, boolean fallo) {
+            operaciones.incrementAndGet();
+            if (fallo) {
+                errores.incrementAndGet();
+            }
+            tiempoTotalNs.addAndGet(duracionNs);
+            tiempoMaxNs.accumulateAndGet(duracionNs, Math::max);
+        }
+
+        String resumen() {
+            long ops = operaciones.get();
+            long promedioMs = ops == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(tiempoTotalNs.get() / ops);
+            return String.format("Carril %s: %d operaciones (%d en curso, %d errores), promedio %d ms, máximo %d ms",
+                                 nombre, ops, enCurso.get(), errores.get(), promedioMs,
+                                 TimeUnit.NANOSECONDS.toMillis(tiempoMaxNs.get()));
+        }
+    }
+
+    /**
+     * Conexión tomada de un carril para una operación
+     */
+    public static class Uso implements AutoCloseable {
+        private final ConnectionRouter router;
+        private final Carril carril;
+        private final OperationType tipo;
+        private final Connection conexion;
+        private final ConnectionPool pool;
+        private final NodeManager.Nodo nodo;
+        private final long inicio;
+        private String objeto;
+        private String dbLink;
+        private ReentrantLock turno;
+        private boolean fallo;
+        private boolean cerrado;
+        // Perfil JDBC y filas por viaje que reciben las sentencias de esta operación
+        private PerfilJdbc perfil;
+        private int fetchSize;
+        // Segundos de setQueryTimeout de las sentencias de esta operación
+        private int timeout;
+        // Cancelación de la tarea que tomó la conexión y sentencias registradas en ella
+        private final TokenCancelacion token = TokenCancelacion.actual();
+        private final List<Statement> vigiladas = new ArrayList<>();
+        private final List<Statement> propias = new ArrayList<>();
+
+        private Uso(ConnectionRouter router, Carril carril, OperationType tipo, Connection conexion,
+                    ConnectionPool pool, NodeManager.Nodo nodo, String objeto, String dbLink) {
+            this.router = router;
+            this.carril = carril;
+            this.tipo = tipo;
+            this.conexion = conexion;
+            this.pool = pool;
+            this.nodo = nodo;
+            this.objeto = objeto;
+            this.dbLink = dbLink;
+            this.inicio = System.nanoTime();
+            this.perfil = tipo.getPerfil();
+            this.fetchSize = router.fetchSizes.get(perfil);
+            this.timeout = router.getTimeout(tipo);
+            carril.enCurso.incrementAndGet();
+        }
+
+        public Connection getConexion() {
+            return conexion;
+        }
+
+        public OperationType getTipo() {
+            return tipo;
+        }
+
+        /**
+         * Nombre del objeto a usar en el SQL sobre esta conexión
+         */
+        public String getObjeto() {
+            return objeto;
+        }
+
+        /**
+         * Database link a usar en el SQL (null si la conexión ya es del nodo remoto)
+         */
+        public String getDbLink() {
+            return dbLink;
+        }
+
+        /**
+         * Nodo directo que atiende la consulta (null si es la sesión local)
+         */
+        public String getNodo() {
+            return nodo == null ? null : nodo.getNombre();
+        }
+
+        /**
+         * Cambia el perfil JDBC de las sentencias que se abran desde ahora (p. ej. EXPORTACION)
+         */
+        public Uso conPerfil(PerfilJdbc perfil) {
+            this.perfil = perfil;
+            this.fetchSize = router.fetchSizes.get(perfil);
+            return this;
+        }
+
+        public PerfilJdbc getPerfil() {
+            return perfil;
+        }
+
+        /**
+         * Cambia el tiempo máximo de las sentencias que se abran desde ahora (p. ej. un
+         * database link con su propio límite)
+         */
+        public Uso conTimeout(int segundos) {
+            this.timeout = Math.max(0, segundos);
+            return this;
+        }
+
+        /**
+         * Fetch size adaptativo: calcula las filas por viaje con el AVG_ROW_LEN de la tabla
+         * (filas angostas, más por viaje). Sin estadísticas o con fetch.adaptativo=false
+         * se queda el del perfil.
+         * @return filas por viaje que usarán las sentencias siguientes
+         */
+        public int ajustarFetch(String tabla, int filasALeer) {
+            if (router.fetchAdaptativo && tabla != null && !tabla.isBlank()) {
+                int adaptado = router.fetchParaTabla(this, tabla, filasALeer);
+                if (adaptado > 0) {
+                    fetchSize = adaptado;
+                }
+            }
+            return fetchSize;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        /**
+         * Sentencia del registro (caché por conexión) con el límite y la cancelación de esta operación
+         */
+        public PreparedStatement preparar(String nombre) throws SQLException {
+            return prepararSql(SqlRegistry.obtener(nombre));
+        }
+
+        public PreparedStatement preparar(String nombre, String dbLink) throws SQLException {
+            return prepararSql(SqlRegistry.obtener(nombre, dbLink));
+        }
+
+        /**
+         * SQL armado en tiempo de ejecución, vigilado como preparar(). Va a la caché por conexión
+         * salvo que el perfil la desactive; entonces se cierra al cerrar el Uso.
+         */
+        public PreparedStatement prepararSql(String sql) throws SQLException {
+            if (router.cacheSentencias.get(perfil)) {
+                return vigilar(StatementCache.getInstance().prepararSql(conexion, sql));
+            }
+            PreparedStatement pstmt = conexion.prepareStatement(sql);
+            propias.add(pstmt);
+            return vigilar(pstmt);
+        }
+
+        /**
+         * Statement para SQL libre del usuario; se cierra solo al cerrar el Uso
+         */
+        public Statement crearStatement() throws SQLException {
+            Statement stmt = conexion.createStatement();
+            propias.add(stmt);
+            return vigilar(stmt);
+        }
+
+        /**
+         * Aplica el tiempo máximo de la clase de operación y el ajuste del perfil JDBC, y registra
+         * la sentencia para que TokenCancelacion.cancelar() pueda detenerla
+         */
+        public <S extends Statement> S vigilar(S stmt) throws SQLException {
+            stmt.setQueryTimeout(timeout);
+            stmt.setFetchSize(fetchSize);
+            aplicarLobPrefetch(stmt, router.lobPrefetch.get(perfil));
+            if (token != null) {
+                token.registrar(stmt);
+            }
+            vigiladas.add(stmt);
+            return stmt;
+        }
+
+        /**
+         * Lanza SQLException si el usuario canceló la operación (entre filas de una lectura larga)
+         */
+        public void verificarCancelacion() throws SQLException {
+            if (token != null) {
+                token.verificar();
+            }
+        }
+
+        /**
+         * Token de la tarea que tomó la conexión (null si no es cancelable)
+         */
+        TokenCancelacion getToken() {
+            return token;
+        }
+
+        /**
+         * Filas a leer: las pedidas, sin pasar del tope limite.filas
+         */
+        public int limitarFilas(int solicitadas) {
+            return Math.min(solicitadas, router.maxFilas);
+        }
+
+        /**
+         * Milisegundos máximos leyendo filas de un resultado
+         */
+        public long getMaxLecturaMs() {
+            return router.maxLecturaMs;
+        }
+
+        /**
+         * Marca la operación como fallida para las métricas del carril
+         */
+        public void marcarFallo() {
+            fallo = true;
+        }
+
+        /**
+         * Devuelve la conexión de lectura al pool (termina la transacción de solo lectura).
+         * La de escritura sigue siendo la principal: su transacción la cierra commit/rollback;
+         * al cerrar se libera el turno para la siguiente operación de escritura.
+         */
+        @Override
+        public void close() {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            // Sentencias: fuera del token; las propias se cierran (las de la caché siguen abiertas)
+            for (Statement stmt : vigiladas) {
+                if (token != null) {
+                    token.liberar(stmt);
+                }
+            }
+            for (Statement stmt : propias) {
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    System.err.println("⚠️ Error cerrando sentencia: " + e.getMessage());
+                }
+            }
+            if (token != null && token.isCancelado()) {
+                fallo = true;
+            }
+            carril.enCurso.decrementAndGet();
+            carril.registrar(System.nanoTime() - inicio, fallo);
+            if (pool != null) {
+                pool.devolver(conexion);
+            }
+            if (turno != null) {
+                turno.unlock();
+            }
+        }
+    }
+}
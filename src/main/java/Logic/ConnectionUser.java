@@ -1,10 +1,25 @@
 package Logic;
 
 import java.sql.*;
-import java.util.Properties;
+import java.util.Arrays;
+import java.util.List;
 
 public class ConnectionUser {
-    private Connection connection;
+    // ORA-01017: usuario o contraseña inválidos
+    private static final int ORA_CREDENCIALES_INVALIDAS = 1017;
+
+    // Conexión principal de la sesión (prestada por el pool). El monitor puede reemplazarla.
+    private volatile Connection connection;
+    private volatile ConnectionPool pool;
+    private ConnectionHealthMonitor monitor;
+    private volatile ConnectionRouter router;
+    private volatile NodeManager nodeManager;
+    private volatile PrecargaCatalogo precarga;
+    private volatile CatalogoEsquema catalogoEsquema;
+    private volatile CatalogoIncremental catalogoIncremental;
+    private volatile CircuitoLinks circuitoLinks;
+    private volatile CacheResultados cacheResultados;
+    private volatile ConteoFilas conteoFilas;
     private ConfigurationManager config;
     private String currentUser;
     private String currentHost;
@@ -24,61 +39,110 @@ public class ConnectionUser {
      * Intenta conectar con una URL específica
      */
     private boolean conectarConURL(String usuario, String password, String url) {
-        try {
-            // Cerrar conexión existente si hay una
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-            
-            // Cargar el driver de Oracle
-            Class.forName("oracle.jdbc.driver.OracleDriver");
-
-            // Configurar propiedades de conexión
-            Properties props = new Properties();
-            props.setProperty("user", usuario);
-            props.setProperty("password", password);
-            props.setProperty("oracle.net.CONNECT_TIMEOUT", String.valueOf(config.getConnectionTimeout() * 1000));
+        // Devolver la conexión existente si hay una
+        cerrarConexion();
 
-            // Intentar nueva conexión
-            connection = DriverManager.getConnection(url, props);
+        boolean poolNuevo = !ConnectionPool.existePool(url, usuario, password);
+        ConnectionPool candidato = ConnectionPool.obtenerPool(url, usuario, password, config);
+        try {
+            // La conexión principal siempre se abre de nuevo: el servidor verifica las credenciales
+            // aunque el pool esté caliente (una contraseña cambiada no entra por una sesión vieja)
+            Connection conn = candidato.prestarAutenticando();
             
             // Verificar que la conexión sea válida
-            if (connection != null && !connection.isClosed()) {
-                // Configurar autocommit en false (como en SQL*Plus)
-                connection.setAutoCommit(false);
-                this.currentUser = usuario;
-                this.currentHost = extractHostFromURL(url);
-                this.connectionUrl = url;
-                
-                // Inicializar managers después de conectar
-                initializeManagers();
-                
-                System.out.println("✅ Conexión establecida exitosamente a: " + url);
+            if (conn != null && !conn.isClosed()) {
+                establecerSesion(usuario, url, candidato, conn);
+                System.out.println("✅ Conexión establecida exitosamente a: " + url +
+                                   (poolNuevo ? "" : " (pool reutilizado)"));
                 return true;
             }
             
-        } catch (ClassNotFoundException e) {
-            System.err.println("❌ Error: Driver Oracle JDBC no encontrado");
-            System.err.println("Detalle: " + e.getMessage());
         } catch (SQLException e) {
-            System.err.println("❌ Error de conexión SQL con " + url + ": " + e.getMessage());
-            // Solo imprimir detalles para errores no relacionados con credenciales
-            if (!e.getMessage().toLowerCase().contains("invalid username") && 
-                !e.getMessage().toLowerCase().contains("invalid password")) {
-                System.err.println("Código: " + e.getErrorCode());
-                System.err.println("Estado: " + e.getSQLState());
+            imprimirErrorConexion(url, e);
+            if (!poolNuevo && e.getErrorCode() == ORA_CREDENCIALES_INVALIDAS) {
+                // La contraseña ya no vale en el servidor: nada de lo abierto con ella se reutiliza
+                candidato.cerrarConCredenciales();
             }
         } catch (Exception e) {
             System.err.println("❌ Error inesperado con " + url + ": " + e.getMessage());
         }
+        // Un pool que nunca conectó no debe quedar registrado
+        if (poolNuevo) {
+            candidato.cerrar();
+        }
         return false;
     }
 
     /**
-     * Conecta usando configuración automática (Angel/Bell) con múltiples intentos
+     * Deja lista la sesión con la conexión principal ya prestada por el pool
+     */
+    private void establecerSesion(String usuario, String url, ConnectionPool nuevoPool, Connection conn) {
+        this.connection = conn;
+        this.pool = nuevoPool;
+        this.currentUser = usuario;
+        this.currentHost = extractHostFromURL(url);
+        this.connectionUrl = url;
+        
+        this.router = new ConnectionRouter(this);
+        // Los pools del usuario con la contraseña anterior ya no sirven
+        nuevoPool.cerrarOtrasCredenciales();
+        
+        // Inicializar managers después de conectar
+        initializeManagers();
+        pool.precalentar();
+
+        monitor = new ConnectionHealthMonitor(this, config);
+        monitor.iniciar();
+
+        // Sesiones directas con Angel y Bell para no pasar por el database link
+        nodeManager = new NodeManager(nuevoPool, config);
+        nodeManager.iniciar();
+
+        catalogoEsquema = new CatalogoEsquema(this, config);
+        catalogoIncremental = new CatalogoIncremental();
+        circuitoLinks = new CircuitoLinks(config);
+        cacheResultados = new CacheResultados(config);
+        conteoFilas = new ConteoFilas(this, config);
+
+        // El catálogo se precarga mientras el usuario lee el aviso de bienvenida y el menú
+        precarga = new PrecargaCatalogo(this, config);
+        precarga.iniciar();
+    }
+
+    /**
+     * Reemplaza la conexión principal caída por una nueva del pool (la sesión se
+     * vuelve a preparar al abrirse). La llama el monitor de salud.
+     * @return true si la conexión quedó reemplazada o la sesión ya no la usa
+     */
+    synchronized boolean reemplazarConexion(Connection caida) throws SQLException {
+        ConnectionPool actual = pool;
+        if (actual == null || connection != caida) {
+            return true;
+        }
+        actual.descartar(caida);
+        Connection nueva = actual.prestar();
+        connection = nueva;
+        System.err.println("⚠️ La transacción pendiente de la conexión anterior se perdió (no confirmada)");
+        return true;
+    }
+
+    private void imprimirErrorConexion(String url, SQLException e) {
+        System.err.println("❌ Error de conexión SQL con " + url + ": " + e.getMessage());
+        // Solo imprimir detalles para errores no relacionados con credenciales
+        if (e.getMessage() != null &&
+            !e.getMessage().toLowerCase().contains("invalid username") && 
+            !e.getMessage().toLowerCase().contains("invalid password")) {
+            System.err.println("Código: " + e.getErrorCode());
+            System.err.println("Estado: " + e.getSQLState());
+        }
+    }
+
+    /**
+     * Conecta usando configuración automática (Angel/Bell) probando las URLs en paralelo.
+     * La URL ganadora se recuerda para que el próximo login la pruebe primero.
      */
     public boolean conectar(String usuario, String password) {
-        // Lista de URLs para probar en orden de prioridad
+        // Lista de URLs candidatas
         String[] urlsToTry = {
             "jdbc:oracle:thin:@PROYECTO_BDD",                    // TNS Name principal
             "jdbc:oracle:thin:@localhost:1521:orcl",             // SID format
@@ -86,19 +150,43 @@ public class ConnectionUser {
             "jdbc:oracle:thin:@127.0.0.1:1521:orcl",            // IP con SID
             "jdbc:oracle:thin:@//127.0.0.1:1521/orcl"           // IP con Service Name
         };
+        List<String> candidatas = config.ordenarUrlsCandidatas(usuario, Arrays.asList(urlsToTry));
         
-        for (String url : urlsToTry) {
-            System.out.println("Probando conexión con: " + url);
-            if (conectarConURL(usuario, password, url)) {
-                System.out.println("✅ Conexión exitosa con: " + url);
+        // Si ya hay un pool caliente con estas credenciales no hace falta competir
+        for (String url : candidatas) {
+            if (ConnectionPool.existePool(url, usuario, password) && conectarConURL(usuario, password, url)) {
                 return true;
-            } else {
-                System.out.println("❌ Falló conexión con: " + url);
             }
         }
         
-        System.out.println("❌ Todas las conexiones fallaron");
-        return false;
+        cerrarConexion();
+        ConnectionRace.Ganador ganador = new ConnectionRace(config).competir(candidatas, usuario, password);
+        boolean exito = false;
+        
+        if (ganador != null) {
+            ConnectionPool nuevoPool = ConnectionPool.obtenerPool(ganador.getUrl(), usuario, password, config);
+            try {
+                Connection conn = nuevoPool.adoptar(ganador.getConexion());
+                establecerSesion(usuario, ganador.getUrl(), nuevoPool, conn);
+                config.setUrlPreferida(usuario, ganador.getUrl());
+                System.out.println("✅ Conexión exitosa con: " + ganador.getUrl() +
+                                   " (" + ganador.getLatenciaMs() + " ms)");
+                exito = true;
+            } catch (SQLException e) {
+                imprimirErrorConexion(ganador.getUrl(), e);
+                try {
+                    ganador.getConexion().close();
+                } catch (SQLException ignored) {
+                    // La conexión ya no sirve
+                }
+            }
+        } else {
+            System.out.println("❌ Todas las conexiones fallaron");
+        }
+        
+        // Guardar latencias y URL preferida para el próximo login
+        config.saveHistory();
+        return exito;
     }
 
     /**
@@ -150,18 +238,145 @@ public class ConnectionUser {
         }
     }
 
+    /**
+     * Hay sesión y su conexión principal no está caída. El estado real lo mantiene
+     * el monitor en segundo plano, así que esta verificación no toca la red.
+     */
     public boolean estaConectado() {
+        Connection conn = connection;
+        ConnectionHealthMonitor m = monitor;
+        if (conn == null || (m != null && m.getEstado() == ConnectionHealthMonitor.Estado.RECONECTANDO)) {
+            return false;
+        }
         try {
-            return connection != null && !connection.isClosed();
+            return !conn.isClosed();
         } catch (SQLException e) {
             return false;
         }
     }
 
+    /**
+     * Estado del monitor de salud (null si no hay sesión)
+     */
+    public ConnectionHealthMonitor.Estado getEstadoConexion() {
+        ConnectionHealthMonitor m = monitor;
+        return m == null ? null : m.getEstado();
+    }
+
     public Connection getConnection() {
         return connection;
     }
 
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Toma una conexión del carril que corresponde a la operación (lectura o escritura).
+     * Usar con try-with-resources para devolverla.
+     */
+    public ConnectionRouter.Uso usar(OperationType tipo) throws SQLException {
+        ConnectionRouter r = router;
+        if (r == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        return r.usar(tipo);
+    }
+
+    /**
+     * Lectura sobre un objeto: puede ir directo al nodo más cercano que lo tiene.
+     * El SQL debe usar Uso.getObjeto() como nombre del objeto.
+     */
+    public ConnectionRouter.Uso usarParaObjeto(OperationType tipo, String objeto) throws SQLException {
+        ConnectionRouter r = router;
+        if (r == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        return r.usarParaObjeto(tipo, objeto);
+    }
+
+    /**
+     * Lectura por database link: usa la sesión directa con el otro nodo si existe.
+     * El SQL debe usar Uso.getDbLink() (null cuando ya no hace falta el link).
+     */
+    public ConnectionRouter.Uso usarParaLink(OperationType tipo, String dbLink) throws SQLException {
+        ConnectionRouter r = router;
+        if (r == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        return r.usarParaLink(tipo, dbLink);
+    }
+
+    public ConnectionRouter getRouter() {
+        return router;
+    }
+
+    public NodeManager getNodeManager() {
+        return nodeManager;
+    }
+
+    /**
+     * Catálogo precargado de la sesión (null si no hay sesión)
+     */
+    public PrecargaCatalogo getPrecarga() {
+        return precarga;
+    }
+
+    /**
+     * Metadatos (columnas, PK, tipo de objeto) en caché para la sesión
+     */
+    public CatalogoEsquema getCatalogoEsquema() throws SQLException {
+        CatalogoEsquema c = catalogoEsquema;
+        if (c == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        return c;
+    }
+
+    /**
+     * Marcas de agua para refrescar las listas de objetos por diferencia
+     */
+    public CatalogoIncremental getCatalogoIncremental() throws SQLException {
+        CatalogoIncremental c = catalogoIncremental;
+        if (c == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        return c;
+    }
+
+    /**
+     * Cortacircuitos de los database links de la sesión
+     */
+    public CircuitoLinks getCircuitoLinks() throws SQLException {
+        CircuitoLinks c = circuitoLinks;
+        if (c == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        return c;
+    }
+
+    /**
+     * Páginas de grilla ya leídas en la sesión
+     */
+    public CacheResultados getCacheResultados() throws SQLException {
+        CacheResultados c = cacheResultados;
+        if (c == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        return c;
+    }
+
+    /**
+     * Conteos de filas de tablas y vistas de la sesión
+     */
+    public ConteoFilas getConteoFilas() throws SQLException {
+        ConteoFilas c = conteoFilas;
+        if (c == null) {
+            throw new SQLException("No hay conexión activa");
+        }
+        return c;
+    }
+
     public String getCurrentUser() {
         return currentUser;
     }
@@ -192,6 +407,35 @@ public class ConnectionUser {
             info.append("Producto DB: ").append(meta.getDatabaseProductName()).append("\n");
             info.append("Versión DB: ").append(meta.getDatabaseProductVersion()).append("\n");
             info.append("AutoCommit: ").append(connection.getAutoCommit()).append("\n");
+            if (pool != null) {
+                info.append(pool.obtenerEstadisticas()).append("\n");
+            }
+            if (router != null) {
+                info.append(router.obtenerEstadisticas()).append("\n");
+            }
+            if (monitor != null) {
+                info.append("Monitor de conexión: ").append(monitor.getEstado()).append("\n");
+            }
+            info.append(StatementCache.getInstance().obtenerEstadisticas()).append("\n");
+            info.append(QueryExecutor.getInstance().obtenerEstadisticas()).append("\n");
+            if (precarga != null) {
+                info.append(precarga.obtenerEstadisticas()).append("\n");
+            }
+            if (catalogoEsquema != null) {
+                info.append(catalogoEsquema.obtenerEstadisticas()).append("\n");
+            }
+            if (catalogoIncremental != null) {
+                info.append(catalogoIncremental.obtenerEstadisticas()).append("\n");
+            }
+            if (circuitoLinks != null) {
+                info.append(circuitoLinks.obtenerEstadisticas()).append("\n");
+            }
+            if (cacheResultados != null) {
+                info.append(cacheResultados.obtenerEstadisticas()).append("\n");
+            }
+            if (conteoFilas != null) {
+                info.append(conteoFilas.obtenerEstadisticas()).append("\n");
+            }
         } catch (SQLException e) {
             info.append("Error obteniendo metadata: ").append(e.getMessage()).append("\n");
         }
@@ -199,8 +443,16 @@ public class ConnectionUser {
         return info.toString();
     }
 
+    /**
+     * Logout: además de devolver la conexión, los pools quedan sin dueño y se cierran
+     * solos al superar pool.idle.timeout si no hay un re-login antes
+     */
     public void desconectar() {
+        ConnectionPool actual = pool;
         cerrarConexion();
+        if (actual != null) {
+            actual.liberar();
+        }
     }
 
     public MasterModeManager getMasterManager() {
@@ -217,16 +469,39 @@ public class ConnectionUser {
         return remoteManager;
     }
 
-    public void cerrarConexion() {
+    /**
+     * Devuelve la conexión principal al pool. El pool sigue caliente para un re-login
+     * con las mismas credenciales y cierra las conexiones inactivas por su cuenta.
+     */
+    public synchronized void cerrarConexion() {
+        // Lo cargado se guarda en disco y lo que la precarga tenga en curso se cancela antes de soltar las conexiones
+        if (precarga != null) {
+            precarga.guardarInstantanea();
+            precarga.detener();
+            precarga = null;
+        }
+        if (monitor != null) {
+            monitor.detener();
+            monitor = null;
+        }
+        if (nodeManager != null) {
+            nodeManager.detener();
+            nodeManager = null;
+        }
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("✅ Conexión cerrada correctamente");
+            if (connection != null && pool != null) {
+                pool.devolver(connection);
+                System.out.println("✅ Conexión devuelta al pool correctamente");
             }
-        } catch (SQLException e) {
-            System.err.println("❌ Error cerrando conexión: " + e.getMessage());
         } finally {
             connection = null;
+            pool = null;
+            router = null;
+            catalogoEsquema = null;
+            catalogoIncremental = null;
+            circuitoLinks = null;
+            cacheResultados = null;
+            conteoFilas = null;
             masterManager = null;
             remoteManager = null;
             currentUser = null;
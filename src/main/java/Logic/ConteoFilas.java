@@ -0,0 +1,284 @@
+package Logic;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Cantidad de filas de una tabla o vista, de la más rápida a la más exacta: primero la
+ * estimación del optimizador (NUM_ROWS corregido con el DML registrado desde el análisis),
+ * después un conteo por muestra de bloques (SAMPLE BLOCK) y un COUNT(*) exacto si la tabla es
+ * chica (conteo.exacto.filas) o si se pide. Cada conteo queda guardado junto con el estado de
+ * modificación de la tabla (LAST_DDL_TIME y ALL_TAB_MODIFICATIONS) y se reutiliza mientras no
+ * cambie; los commits de la sesión lo descartan enseguida. Oracle vuelca esos contadores cada
+ * tanto, así que un commit de otra sesión puede no verse todavía: un conteo reutilizado se
+ * muestra como aproximado y con su antigüedad, y pedir el exacto siempre vuelve a contar.
+ */
+public class ConteoFilas {
+
+    public enum Precision {
+        DESCONOCIDO(""), ESTIMADO("estadísticas"), MUESTRA("muestra"), EXACTO("exacto");
+
+        private final String descripcion;
+
+        Precision(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+    }
+
+    private final ConnectionUser connectionUser;
+    private final long umbralExacto;
+    private final int bloquesMuestra;
+    // Nodo|OBJETO -> último conteo y el estado de la tabla cuando se hizo
+    private final Map<String, Guardado> guardados = new ConcurrentHashMap<>();
+    private long aciertos;
+    private long muestras;
+    private long exactos;
+
+    public ConteoFilas(ConnectionUser connectionUser, ConfigurationManager config) {
+        this.connectionUser = connectionUser;
+        this.umbralExacto = Math.max(0, config.getConteoExactoFilas());
+        this.bloquesMuestra = Math.max(1, config.getConteoMuestraBloques());
+    }
+
+    /**
+     * Cuenta las filas en segundo plano. Cada paso (estimación, muestra, exacto) llega a
+     * "alRefinar" en el hilo de JavaFX; el futuro termina con el más preciso. Con "exacto" se
+     * hace siempre el COUNT(*), aunque haya uno guardado.
+     */
+    public CompletableFuture<Conteo> contar(String objeto, boolean exacto, TokenCancelacion token,
+                                            Consumer<Conteo> alRefinar) {
+        Consumer<Conteo> avisar = conteo -> QueryExecutor.enFx(() -> alRefinar.accept(conteo));
+        return QueryExecutor.getInstance().ejecutar(() -> {
+            try (ConnectionRouter.Uso uso = connectionUser.usarParaObjeto(OperationType.CONSULTA, objeto)) {
+                return contar(uso, objeto, exacto, avisar);
+            }
+        }, token);
+    }
+
+    private Conteo contar(ConnectionRouter.Uso uso, String objeto, boolean exacto, Consumer<Conteo> avisar)
+            throws SQLException {
+        String origen = uso.getObjeto() != null ? uso.getObjeto() : objeto;
+        String clave = (uso.getNodo() == null ? "Sesión" : uso.getNodo()) + "|" + origen.trim().toUpperCase();
+        Estado estado = leerEstado(uso, origen);
+
+        Guardado guardado = guardados.get(clave);
+        if (!exacto && estado != null && guardado != null && guardado.estado.equals(estado.firma)) {
+            synchronized (this) {
+                aciertos++;
+            }
+            Conteo reutilizado = new Conteo(guardado.conteo.filas, guardado.conteo.precision, guardado.contado);
+            avisar.accept(reutilizado);
+            return reutilizado;
+        }
+
+        Conteo mejor = new Conteo(-1, Precision.DESCONOCIDO);
+        if (estado != null && estado.filasEstimadas >= 0) {
+            mejor = new Conteo(estado.filasEstimadas, Precision.ESTIMADO);
+            avisar.accept(mejor);
+        }
+        // Tabla chica (en filas o en bloques): directo al COUNT(*)
+        boolean chica = (mejor.filas >= 0 && mejor.filas <= umbralExacto)
+                        || (estado != null && estado.bloques > 0 && estado.bloques <= bloquesMuestra);
+        if (!exacto && !chica && estado != null) {
+            Conteo muestra = contarMuestra(uso, origen, estado.bloques);
+            if (muestra != null) {
+                mejor = muestra;
+                avisar.accept(mejor);
+                chica = mejor.filas <= umbralExacto;
+            }
+        }
+        if (exacto || chica) {
+            mejor = contarExacto(uso, origen);
+            avisar.accept(mejor);
+        }
+        if (mejor.precision == Precision.DESCONOCIDO) {
+            avisar.accept(mejor); // Vista sin estadísticas: el exacto queda a pedido
+        }
+        // Las vistas no tienen estado de modificación: su conteo no se guarda
+        if (estado != null && mejor.precision != Precision.DESCONOCIDO) {
+            guardados.put(clave, new Guardado(estado.firma, mejor));
+        }
+        return mejor;
+    }
+
+    /**
+     * Estimación y estado de modificación; null si el objeto no es una tabla (vista, sinónimo)
+     */
+    private static Estado leerEstado(ConnectionRouter.Uso uso, String origen) throws SQLException {
+        String nombre = origen.trim().toUpperCase();
+        String dbLink = null;
+        int arroba = nombre.indexOf('@');
+        if (arroba > 0) {
+            dbLink = nombre.substring(arroba + 1);
+            nombre = nombre.substring(0, arroba);
+        }
+        String owner = null;
+        int punto = nombre.indexOf('.');
+        if (punto > 0) {
+            owner = nombre.substring(0, punto);
+            nombre = nombre.substring(punto + 1);
+        }
+        PreparedStatement pstmt = uso.preparar(SqlRegistry.ESTADO_FILAS, dbLink);
+        pstmt.setString(1, nombre);
+        pstmt.setString(2, owner);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            long numRows = rs.getLong("NUM_ROWS");
+            boolean analizada = !rs.wasNull();
+            long bloques = rs.getLong("BLOCKS");
+            long insertadas = rs.getLong("INSERTS");
+            long borradas = rs.getLong("DELETES");
+            boolean truncada = "YES".equals(rs.getString("TRUNCATED"));
+            long estimadas = !analizada ? -1 : truncada ? insertadas : Math.max(0, numRows + insertadas - borradas);
+            return new Estado(estimadas, bloques, rs.getString("ESTADO"));
+        }
+    }
+
+    /**
+     * Conteo sobre una muestra de bloques (conteo.muestra.bloques) llevado al total; null si la
+     * muestra no sirve (tabla más chica que la muestra o que no la admite). Sin estadísticas
+     * se toma el 1% de los bloques.
+     */
+    private Conteo contarMuestra(ConnectionRouter.Uso uso, String origen, long bloques) throws SQLException {
+        double porcentaje = bloques > 0 ? 100.0 * bloquesMuestra / bloques : 1.0;
+        if (porcentaje >= 100) {
+            return null; // Menos bloques que la muestra: el exacto cuesta lo mismo
+        }
+        porcentaje = Math.max(0.000001, porcentaje);
+        // SAMPLE no admite binds: el porcentaje va escrito en la sentencia
+        String sql = String.format(Locale.ROOT, "SELECT COUNT(*) FROM %s SAMPLE BLOCK (%.6f)", origen, porcentaje);
+        try {
+            PreparedStatement pstmt = uso.prepararSql(sql);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                synchronized (this) {
+                    muestras++;
+                }
+                return new Conteo(Math.round(rs.getLong(1) * 100.0 / porcentaje), Precision.MUESTRA);
+            }
+        } catch (SQLException e) {
+            uso.verificarCancelacion();
+            System.err.println("⚠️ Sin conteo por muestra de " + origen + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Conteo contarExacto(ConnectionRouter.Uso uso, String origen) throws SQLException {
+        PreparedStatement pstmt = uso.prepararSql("SELECT COUNT(*) FROM " + origen);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            synchronized (this) {
+                exactos++;
+            }
+            return new Conteo(rs.getLong(1), Precision.EXACTO);
+        }
+    }
+
+    /**
+     * Descarta los conteos guardados de un objeto (commit de la sesión sobre él), en cualquier
+     * nodo y con o sin owner o @LINK
+     */
+    public void invalidar(String objeto) {
+        String nombre = CacheResultados.nombreBase(objeto);
+        guardados.keySet().removeIf(clave -> CacheResultados.nombreBase(clave.substring(clave.indexOf('|') + 1)).equals(nombre));
+    }
+
+    public void invalidarTodo() {
+        guardados.clear();
+    }
+
+    public synchronized String obtenerEstadisticas() {
+        return String.format("Conteo de filas: %d guardados, %d reutilizados, %d por muestra, %d exactos",
+                             guardados.size(), aciertos, muestras, exactos);
+    }
+
+    /**
+     * Cantidad de filas y qué tan precisa es
+     */
+    public static class Conteo {
+        private final long filas;
+        private final Precision precision;
+        // Cuándo se contó si es un conteo guardado que se reutiliza (0: recién contado)
+        private final long contado;
+
+        public Conteo(long filas, Precision precision) {
+            this(filas, precision, 0);
+        }
+
+        Conteo(long filas, Precision precision, long contado) {
+            this.filas = filas;
+            this.precision = precision;
+            this.contado = contado;
+        }
+
+        public long getFilas() { return filas; }
+        public Precision getPrecision() { return precision; }
+        // true si viene de un conteo anterior (puede no reflejar commits recientes de otras sesiones)
+        public boolean esReutilizado() { return contado > 0; }
+
+        /**
+         * "1.234 filas" si es exacto y recién contado; "≈ 1.234 filas (muestra)" si no, con la
+         * antigüedad si es un conteo anterior ("≈ 1.234 filas (exacto hace 3 min)"); "" si no se conoce
+         */
+        @Override
+        public String toString() {
+            if (precision == Precision.DESCONOCIDO) {
+                return "";
+            }
+            if (contado > 0) {
+                return String.format("≈ %,d filas (%s hace %s)", filas, precision.getDescripcion(),
+                                     antiguedad(System.currentTimeMillis() - contado));
+            }
+            if (precision == Precision.EXACTO) {
+                return String.format("%,d filas", filas);
+            }
+            return String.format("≈ %,d filas (%s)", filas, precision.getDescripcion());
+        }
+
+        static String antiguedad(long milisegundos) {
+            long segundos = Math.max(0, milisegundos / 1000);
+            if (segundos < 60) {
+                return segundos + " s";
+            }
+            if (segundos < 3600) {
+                return segundos / 60 + " min";
+            }
+            return segundos / 3600 + " h";
+        }
+    }
+
+    private static class Estado {
+        private final long filasEstimadas;
+        private final long bloques;
+        private final String firma;
+
+        Estado(long filasEstimadas, long bloques, String firma) {
+            this.filasEstimadas = filasEstimadas;
+            this.bloques = bloques;
+            this.firma = firma;
+        }
+    }
+
+    private static class Guardado {
+        private final String estado;
+        private final Conteo conteo;
+        private final long contado = System.currentTimeMillis();
+
+        Guardado(String estado, Conteo conteo) {
+            this.estado = estado;
+            this.conteo = conteo;
+        }
+    }
+}
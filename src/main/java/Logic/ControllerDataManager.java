@@ -1,6 +1,7 @@
 package Logic;
 
 import javafx.collections.ObservableList;
+import java.util.List;
 
 /**
  * Clase para compartir datos entre controladores
@@ -11,6 +12,7 @@ public class ControllerDataManager {
     private String selectedVistaName;
     private String operacion; // "INSERT", "UPDATE", "DELETE"
     private ObservableList<String> datosOriginales; // Para UPDATE/DELETE
+    private List<Object> valoresOriginales; // Los mismos datos con su tipo (WHERE por clave primaria)
     private String origenContexto; // "MASTER", "REMOTO" - para saber a dónde regresar
     
     private ControllerDataManager() {}
@@ -54,6 +56,14 @@ public class ControllerDataManager {
         return datosOriginales;
     }
     
+    public void setValoresOriginales(List<Object> valoresOriginales) {
+        this.valoresOriginales = valoresOriginales;
+    }
+    
+    public List<Object> getValoresOriginales() {
+        return valoresOriginales;
+    }
+    
     public void setOrigenContexto(String origenContexto) {
         this.origenContexto = origenContexto;
     }
@@ -67,6 +77,7 @@ public class ControllerDataManager {
         selectedVistaName = null;
         operacion = null;
         datosOriginales = null;
+        valoresOriginales = null;
         origenContexto = null;
     }
 }
@@ -0,0 +1,235 @@
+package Logic;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lectores de columna elegidos una vez por ResultSet a partir de sus metadatos. Cada fila se
+ * copia al bloque leyendo cada columna una sola vez, con el getter de su tipo (primitivos para
+ * enteros y reales, LocalDate/LocalDateTime para fechas), sin volver a consultar los metadatos
+ * ni convertir a texto.
+ */
+public class DecodificadorFilas {
+
+    /**
+     * Lee la columna "indice" (desde 1) de la fila actual y la pone en la columna "columna" del bloque
+     */
+    private interface Lector {
+        void leer(ResultSet rs, int indice, int columna, BloqueColumnar bloque) throws SQLException;
+    }
+
+    // Tipos que no se traen a la grilla: con saber si son NULL alcanza
+    private static final Lector BLOB = constante("[BLOB]");
+    private static final Lector CLOB = constante("[CLOB]");
+    private static final Lector BINARIO = constante("[BINARY]");
+    private static final Lector TEXTO_LARGO = constante("[LONG TEXT]");
+
+    private static final Lector ENTERO = (rs, i, c, bloque) -> {
+        long valor = rs.getLong(i);
+        if (rs.wasNull()) {
+            bloque.nulo(c);
+        } else {
+            bloque.entero(c, valor);
+        }
+    };
+
+    private static final Lector DECIMAL = (rs, i, c, bloque) -> {
+        BigDecimal valor = rs.getBigDecimal(i);
+        if (valor == null) {
+            bloque.nulo(c);
+        } else {
+            bloque.decimal(c, valor);
+        }
+    };
+
+    private static final Lector DOBLE = (rs, i, c, bloque) -> {
+        double valor = rs.getDouble(i);
+        if (rs.wasNull()) {
+            bloque.nulo(c);
+        } else {
+            bloque.real(c, valor);
+        }
+    };
+
+    private static final Lector FECHA = (rs, i, c, bloque) -> {
+        LocalDate valor = rs.getObject(i, LocalDate.class);
+        if (valor == null) {
+            bloque.nulo(c);
+        } else {
+            bloque.fecha(c, valor);
+        }
+    };
+
+    private static final Lector MARCA_TIEMPO = (rs, i, c, bloque) -> {
+        LocalDateTime valor = rs.getObject(i, LocalDateTime.class);
+        if (valor == null) {
+            bloque.nulo(c);
+        } else {
+            bloque.marcaTiempo(c, valor);
+        }
+    };
+
+    // Para drivers sin getObject(i, LocalDate.class / LocalDateTime.class)
+    private static final Lector FECHA_JDBC = (rs, i, c, bloque) -> {
+        java.sql.Date valor = rs.getDate(i);
+        if (valor == null) {
+            bloque.nulo(c);
+        } else {
+            bloque.fecha(c, valor.toLocalDate());
+        }
+    };
+
+    private static final Lector MARCA_TIEMPO_JDBC = (rs, i, c, bloque) -> {
+        Timestamp valor = rs.getTimestamp(i);
+        if (valor == null) {
+            bloque.nulo(c);
+        } else {
+            bloque.marcaTiempo(c, valor.toLocalDateTime());
+        }
+    };
+
+    private static final Lector HORA = (rs, i, c, bloque) -> {
+        Time valor = rs.getTime(i);
+        bloque.texto(c, valor != null ? valor.toString() : null);
+    };
+
+    private static final Lector BOOLEANO = (rs, i, c, bloque) -> {
+        boolean valor = rs.getBoolean(i);
+        bloque.texto(c, rs.wasNull() ? null : String.valueOf(valor));
+    };
+
+    private static final Lector TEXTO = (rs, i, c, bloque) -> bloque.texto(c, rs.getString(i));
+
+    private final Lector[] lectores;
+
+    private DecodificadorFilas(Lector[] lectores) {
+        this.lectores = lectores;
+    }
+
+    /**
+     * Elige el lector de cada columna según su tipo JDBC (y precisión y escala para NUMBER)
+     */
+    public static DecodificadorFilas compilar(ResultSetMetaData metaData) throws SQLException {
+        Lector[] lectores = new Lector[metaData.getColumnCount()];
+        for (int i = 1; i <= lectores.length; i++) {
+            lectores[i - 1] = elegir(metaData, i);
+        }
+        return new DecodificadorFilas(lectores);
+    }
+
+    private static Lector elegir(ResultSetMetaData metaData, int indice) throws SQLException {
+        switch (metaData.getColumnType(indice)) {
+            case Types.BLOB:
+                return BLOB;
+            case Types.CLOB:
+                return CLOB;
+            case Types.LONGVARBINARY:
+            case Types.VARBINARY:
+            case Types.BINARY:
+                return BINARIO;
+            case Types.LONGVARCHAR:
+                return TEXTO_LARGO;
+            case Types.DATE:
+                return FECHA;
+            case Types.TIMESTAMP:
+                return MARCA_TIEMPO;
+            case Types.TIME:
+                return HORA;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                // NUMBER(p) sin decimales que entra en un long: sin BigDecimal
+                int precision = metaData.getPrecision(indice);
+                return metaData.getScale(indice) == 0 && precision > 0 && precision <= 18 ? ENTERO : DECIMAL;
+            case Types.FLOAT:
+                // FLOAT de Oracle es un NUMBER de hasta 126 bits, no un float de 32: en BigDecimal
+                // el valor vuelve exacto en los binds de DML, claves y filtros
+                return DECIMAL;
+            case Types.DOUBLE:
+            case Types.REAL:
+                return DOBLE;
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return ENTERO;
+            case Types.BOOLEAN:
+                return BOOLEANO;
+            default:
+                // CHAR, VARCHAR2, NCHAR, NVARCHAR2 y los tipos propios de Oracle
+                return TEXTO;
+        }
+    }
+
+    public int getTotalColumnas() {
+        return lectores.length;
+    }
+
+    /**
+     * Tipo Java de los valores de la columna en el bloque (columna desde 0); null para los
+     * LOB y LONG, que no se traen
+     */
+    public Class<?> getTipo(int columna) {
+        Lector lector = lectores[columna];
+        if (lector == ENTERO) {
+            return Long.class;
+        }
+        if (lector == DECIMAL) {
+            return BigDecimal.class;
+        }
+        if (lector == DOBLE) {
+            return Double.class;
+        }
+        if (lector == FECHA || lector == FECHA_JDBC) {
+            return LocalDate.class;
+        }
+        if (lector == MARCA_TIEMPO || lector == MARCA_TIEMPO_JDBC) {
+            return LocalDateTime.class;
+        }
+        if (lector == BLOB || lector == CLOB || lector == BINARIO || lector == TEXTO_LARGO) {
+            return null;
+        }
+        return String.class;
+    }
+
+    /**
+     * Copia la fila actual del ResultSet a la fila en curso del bloque y la cierra
+     */
+    public void leerFila(ResultSet rs, BloqueColumnar bloque) {
+        for (int c = 0; c < lectores.length; c++) {
+            try {
+                lectores[c].leer(rs, c + 1, c, bloque);
+            } catch (SQLFeatureNotSupportedException e) {
+                Lector alternativo = lectores[c] == FECHA ? FECHA_JDBC
+                                   : lectores[c] == MARCA_TIEMPO ? MARCA_TIEMPO_JDBC : null;
+                if (alternativo == null) {
+                    bloque.texto(c, "[ERROR: " + e.getMessage() + "]");
+                    continue;
+                }
+                // El driver no convierte a java.time: la columna pasa a Date/Timestamp y se relee
+                lectores[c] = alternativo;
+                c--;
+            } catch (SQLException e) {
+                bloque.texto(c, "[ERROR: " + e.getMessage() + "]");
+            }
+        }
+        bloque.terminarFila();
+    }
+
+    private static Lector constante(String texto) {
+        return (rs, i, c, bloque) -> {
+            if (rs.getObject(i) == null) {
+                bloque.nulo(c);
+            } else {
+                bloque.marcador(c, texto);
+            }
+        };
+    }
+}
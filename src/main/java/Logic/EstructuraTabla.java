@@ -0,0 +1,101 @@
+package Logic;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Columnas (con su tipo) y clave primaria de una tabla propia o concedida (OWNER.TABLA),
+ * leídas de ALL_TAB_COLUMNS y ALL_CONSTRAINTS (locales o por database link)
+ */
+public class EstructuraTabla {
+    private final String tabla;
+    private final List<String> columnas;
+    private final List<String> tipos;
+    private final List<String> clavesPrimarias;
+
+    private EstructuraTabla(String tabla, List<String> columnas, List<String> tipos, List<String> clavesPrimarias) {
+        this.tabla = tabla;
+        this.columnas = Collections.unmodifiableList(columnas);
+        this.tipos = Collections.unmodifiableList(tipos);
+        this.clavesPrimarias = Collections.unmodifiableList(clavesPrimarias);
+    }
+
+    /**
+     * Lee la estructura con la conexión del Uso. dbLink es null para tablas locales.
+     * "tabla" puede venir con owner (OWNER.TABLA) si es de otro esquema.
+     */
+    public static EstructuraTabla leer(ConnectionRouter.Uso uso, String tabla, String dbLink) throws SQLException {
+        List<String> columnas = new ArrayList<>();
+        List<String> tipos = new ArrayList<>();
+        List<String> clavesPrimarias = new ArrayList<>();
+        String nombre = tabla.toUpperCase();
+        String owner = null;
+        int punto = nombre.indexOf('.');
+        if (punto > 0) {
+            owner = nombre.substring(0, punto);
+            nombre = nombre.substring(punto + 1);
+        }
+
+        PreparedStatement pstmt = uso.preparar(SqlRegistry.ESTRUCTURA_COLUMNAS, dbLink);
+        pstmt.setString(1, nombre);
+        pstmt.setString(2, owner);
+        ResultSet rs = pstmt.executeQuery();
+        while (rs.next()) {
+            columnas.add(rs.getString("COLUMN_NAME"));
+            tipos.add(rs.getString("DATA_TYPE") + "(" + rs.getInt("DATA_LENGTH") + ")");
+        }
+        rs.close();
+
+        pstmt = uso.preparar(SqlRegistry.CLAVES_PRIMARIAS, dbLink);
+        pstmt.setString(1, nombre);
+        pstmt.setString(2, owner);
+        rs = pstmt.executeQuery();
+        while (rs.next()) {
+            clavesPrimarias.add(rs.getString("COLUMN_NAME"));
+        }
+        rs.close();
+
+        return new EstructuraTabla(tabla.toUpperCase(), columnas, tipos, clavesPrimarias);
+    }
+
+    /**
+     * Estructura ya conocida (instantánea del catálogo en disco)
+     */
+    static EstructuraTabla de(String tabla, List<String> columnas, List<String> tipos, List<String> clavesPrimarias) {
+        return new EstructuraTabla(tabla, new ArrayList<>(columnas), new ArrayList<>(tipos), new ArrayList<>(clavesPrimarias));
+    }
+
+    /**
+     * Marcador del bind de "valor" contra una columna de ese tipo de Oracle ("DATE" o "DATE(7)"):
+     * una fecha y hora (así llega una DATE leída por JDBC) va con CAST, así Oracle no convierte
+     * la columna a TIMESTAMP (INTERNAL_FUNCTION) y puede usar su índice
+     */
+    public static String marcadorBind(String tipoSql, Object valor) {
+        if (valor instanceof LocalDateTime && tipoSql != null) {
+            int parentesis = tipoSql.indexOf('(');
+            String tipo = parentesis >= 0 ? tipoSql.substring(0, parentesis) : tipoSql;
+            if ("DATE".equalsIgnoreCase(tipo.trim())) {
+                return "CAST(? AS DATE)";
+            }
+        }
+        return "?";
+    }
+
+    /**
+     * Marcador del bind de "valor" contra esa columna de la tabla ("?" si no se conoce)
+     */
+    public String marcadorBind(int columna, Object valor) {
+        return marcadorBind(columna >= 0 && columna < tipos.size() ? tipos.get(columna) : null, valor);
+    }
+
+    public String getTabla() { return tabla; }
+    public List<String> getColumnas() { return columnas; }
+    /** Tipo de cada columna con su longitud, p. ej. "VARCHAR2(50)" */
+    public List<String> getTipos() { return tipos; }
+    public List<String> getClavesPrimarias() { return clavesPrimarias; }
+}
@@ -0,0 +1,315 @@
+package Logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Índice de búsqueda sobre los nombres de objetos (propios, concedidos y @PROYECTO_REAL).
+ * Se construye una vez fuera del hilo de JavaFX y después no cambia, así que se puede
+ * consultar desde cualquier hilo. Ordena los resultados así: nombre exacto, prefijo,
+ * contiene el texto (antes cuanto más al principio) y parecidos con errores de tipeo.
+ * El prefijo usa los nombres ordenados (búsqueda binaria); el "contiene" y los parecidos,
+ * listas de pares y tríos de letras, sin recorrer todos los nombres.
+ */
+public class IndiceObjetos {
+    // Candidatos a parecidos que se comparan letra por letra (los de más n-gramas en común)
+    private static final int MAX_CANDIDATOS_PARECIDOS = 100;
+
+    private final String[] nombres;
+    private final String[] claves;
+    // Posiciones de los nombres ordenadas por clave
+    private final int[] ordenados;
+    // n-grama (2 o 3 letras de la clave) -> posiciones de los nombres que lo contienen, sin repetir
+    private final Map<Long, int[]> ngramas;
+
+    private IndiceObjetos(String[] nombres, String[] claves, int[] ordenados, Map<Long, int[]> ngramas) {
+        this.nombres = nombres;
+        this.claves = claves;
+        this.ordenados = ordenados;
+        this.ngramas = ngramas;
+    }
+
+    /**
+     * Construye el índice (los nombres repetidos quedan una vez)
+     */
+    public static IndiceObjetos construir(Collection<String> todos) {
+        String[] nombres = new LinkedHashSet<>(todos).toArray(new String[0]);
+        String[] claves = new String[nombres.length];
+        for (int i = 0; i < nombres.length; i++) {
+            claves[i] = nombres[i].toLowerCase();
+        }
+
+        int[] ordenados = IntStream.range(0, nombres.length)
+            .boxed()
+            .sorted((a, b) -> claves[a].compareTo(claves[b]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+
+        // Pares (n-grama, nombre) ordenados: cada n-grama queda con su lista de nombres contigua y creciente
+        Map<Long, Integer> ids = new HashMap<>();
+        List<Long> codigos = new ArrayList<>();
+        long[] pares = new long[64];
+        int totalPares = 0;
+        for (int i = 0; i < claves.length; i++) {
+            for (long ngrama : ngramasDe(claves[i])) {
+                Integer id = ids.get(ngrama);
+                if (id == null) {
+                    id = codigos.size();
+                    ids.put(ngrama, id);
+                    codigos.add(ngrama);
+                }
+                if (totalPares == pares.length) {
+                    pares = Arrays.copyOf(pares, pares.length * 2);
+                }
+                pares[totalPares++] = ((long) id << 32) | i;
+            }
+        }
+        Arrays.sort(pares, 0, totalPares);
+
+        Map<Long, int[]> ngramas = new HashMap<>(codigos.size() * 2);
+        int inicio = 0;
+        while (inicio < totalPares) {
+            int id = (int) (pares[inicio] >>> 32);
+            int fin = inicio;
+            int[] lista = new int[16];
+            int largo = 0;
+            while (fin < totalPares && (int) (pares[fin] >>> 32) == id) {
+                int pos = (int) pares[fin];
+                if (largo == 0 || lista[largo - 1] != pos) {
+                    if (largo == lista.length) {
+                        lista = Arrays.copyOf(lista, largo * 2);
+                    }
+                    lista[largo++] = pos;
+                }
+                fin++;
+            }
+            ngramas.put(codigos.get(id), Arrays.copyOf(lista, largo));
+            inicio = fin;
+        }
+        return new IndiceObjetos(nombres, claves, ordenados, ngramas);
+    }
+
+    public int getTotal() {
+        return nombres.length;
+    }
+
+    /**
+     * Nombres que coinciden con el texto, mejores primero (como mucho "maximo").
+     * Con el texto vacío devuelve los primeros en orden alfabético.
+     */
+    public List<String> buscar(String texto, int maximo) {
+        List<String> resultados = new ArrayList<>();
+        String consulta = texto == null ? "" : texto.trim().toLowerCase();
+        BitSet agregados = new BitSet(nombres.length);
+
+        // 1. Exacto y prefijo: rango contiguo en los nombres ordenados
+        int desde = primeroMayorOIgual(consulta);
+        for (int i = desde; i < ordenados.length && resultados.size() < maximo; i++) {
+            int pos = ordenados[i];
+            if (!claves[pos].startsWith(consulta)) {
+                break;
+            }
+            if (claves[pos].length() == consulta.length()) {
+                resultados.add(0, nombres[pos]);
+            } else {
+                resultados.add(nombres[pos]);
+            }
+            agregados.set(pos);
+        }
+        if (consulta.length() < 2 || resultados.size() >= maximo) {
+            return resultados;
+        }
+
+        // 2. Contiene: intersección de las listas de sus n-gramas, ordenado por dónde aparece
+        int[] candidatos = interseccion(consulta);
+        List<int[]> contienen = new ArrayList<>();
+        for (int pos : candidatos) {
+            if (!agregados.get(pos)) {
+                int indice = claves[pos].indexOf(consulta);
+                if (indice >= 0) {
+                    contienen.add(new int[] {indice, claves[pos].length(), pos});
+                }
+            }
+        }
+        contienen.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        for (int[] c : contienen) {
+            if (resultados.size() >= maximo) {
+                return resultados;
+            }
+            resultados.add(nombres[c[2]]);
+            agregados.set(c[2]);
+        }
+
+        // 3. Parecidos: los que comparten más n-gramas, filtrados por distancia de edición
+        if (consulta.length() >= 3) {
+            agregarParecidos(consulta, agregados, resultados, maximo);
+        }
+        return resultados;
+    }
+
+    private void agregarParecidos(String consulta, BitSet agregados, List<String> resultados, int maximo) {
+        long[] propios = trigramasDe(consulta);
+        int[] comunes = new int[nombres.length];
+        int[] tocados = new int[64];
+        int totalTocados = 0;
+        for (long ngrama : propios) {
+            int[] lista = ngramas.get(ngrama);
+            if (lista == null) {
+                continue;
+            }
+            for (int pos : lista) {
+                if (!agregados.get(pos) && comunes[pos]++ == 0) {
+                    if (totalTocados == tocados.length) {
+                        tocados = Arrays.copyOf(tocados, totalTocados * 2);
+                    }
+                    tocados[totalTocados++] = pos;
+                }
+            }
+        }
+
+        // Los que más tríos de letras comparten (al menos un tercio de los del texto),
+        // elegidos por cantidad en común sin ordenar todos los tocados
+        int[] porCantidad = new int[propios.length + 1];
+        for (int i = 0; i < totalTocados; i++) {
+            porCantidad[comunes[tocados[i]]]++;
+        }
+        int minimo = Math.max(1, propios.length / 3);
+        int corte = propios.length;
+        int acumulados = porCantidad[corte];
+        while (corte > minimo && acumulados < MAX_CANDIDATOS_PARECIDOS) {
+            corte--;
+            acumulados += porCantidad[corte];
+        }
+        List<Integer> candidatos = new ArrayList<>();
+        for (int i = 0; i < totalTocados && candidatos.size() < MAX_CANDIDATOS_PARECIDOS; i++) {
+            if (comunes[tocados[i]] >= corte) {
+                candidatos.add(tocados[i]);
+            }
+        }
+
+        int tolerancia = Math.max(1, consulta.length() / 4);
+        List<int[]> parecidos = new ArrayList<>();
+        for (int pos : candidatos) {
+            int distancia = distanciaEnTexto(consulta, claves[pos]);
+            if (distancia <= tolerancia) {
+                parecidos.add(new int[] {distancia, -comunes[pos], pos});
+            }
+        }
+        parecidos.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        for (int[] p : parecidos) {
+            if (resultados.size() >= maximo) {
+                return;
+            }
+            resultados.add(nombres[p[2]]);
+        }
+    }
+
+    /**
+     * Primera posición de "ordenados" cuya clave no es menor que el texto
+     */
+    private int primeroMayorOIgual(String consulta) {
+        int bajo = 0;
+        int alto = ordenados.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (claves[ordenados[medio]].compareTo(consulta) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Nombres que tienen todos los n-gramas del texto (empezando por la lista más corta)
+     */
+    private int[] interseccion(String consulta) {
+        long[] propios = consulta.length() >= 3 ? trigramasDe(consulta) : new long[] {ngrama(consulta, 0, 2)};
+        int[][] listas = new int[propios.length][];
+        for (int i = 0; i < propios.length; i++) {
+            listas[i] = ngramas.get(propios[i]);
+            if (listas[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(listas, (a, b) -> Integer.compare(a.length, b.length));
+        int[] resultado = listas[0];
+        for (int i = 1; i < listas.length && resultado.length > 0; i++) {
+            int[] otra = listas[i];
+            int[] comun = new int[resultado.length];
+            int total = 0;
+            for (int pos : resultado) {
+                if (Arrays.binarySearch(otra, pos) >= 0) {
+                    comun[total++] = pos;
+                }
+            }
+            resultado = Arrays.copyOf(comun, total);
+        }
+        return resultado;
+    }
+
+    /**
+     * Menor distancia de edición entre el texto y cualquier tramo del nombre
+     * (un error de tipeo en "emplado" encuentra "VW_EMPLEADOS")
+     */
+    private static int distanciaEnTexto(String consulta, String nombre) {
+        int[] anterior = new int[consulta.length() + 1];
+        int[] actual = new int[consulta.length() + 1];
+        for (int i = 0; i <= consulta.length(); i++) {
+            anterior[i] = i;
+        }
+        int mejor = anterior[consulta.length()];
+        for (int j = 1; j <= nombre.length(); j++) {
+            actual[0] = 0; // El tramo puede empezar en cualquier letra del nombre
+            for (int i = 1; i <= consulta.length(); i++) {
+                int costo = consulta.charAt(i - 1) == nombre.charAt(j - 1) ? 0 : 1;
+                actual[i] = Math.min(Math.min(actual[i - 1] + 1, anterior[i] + 1), anterior[i - 1] + costo);
+            }
+            mejor = Math.min(mejor, actual[consulta.length()]);
+            int[] tmp = anterior;
+            anterior = actual;
+            actual = tmp;
+        }
+        return mejor;
+    }
+
+    private static long[] ngramasDe(String clave) {
+        int pares = Math.max(0, clave.length() - 1);
+        int trios = Math.max(0, clave.length() - 2);
+        long[] resultado = new long[pares + trios];
+        for (int i = 0; i < pares; i++) {
+            resultado[i] = ngrama(clave, i, 2);
+        }
+        for (int i = 0; i < trios; i++) {
+            resultado[pares + i] = ngrama(clave, i, 3);
+        }
+        return resultado;
+    }
+
+    private static long[] trigramasDe(String clave) {
+        long[] resultado = new long[clave.length() - 2];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = ngrama(clave, i, 3);
+        }
+        return resultado;
+    }
+
+    /**
+     * n-grama empaquetado: 16 bits por letra y la cantidad de letras en los bits altos
+     */
+    private static long ngrama(String clave, int desde, int largo) {
+        long valor = largo;
+        for (int i = 0; i < largo; i++) {
+            valor = (valor << 16) | clave.charAt(desde + i);
+        }
+        return valor;
+    }
+}
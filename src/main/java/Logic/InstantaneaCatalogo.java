@@ -0,0 +1,289 @@
+package Logic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Catálogo de un usuario en un servidor guardado en un archivo binario compacto: tablas
+ * propias y concedidas (con filas estimadas), los grupos del modo remoto, columnas y PK en
+ * caché y las marcas de agua del refresco incremental. Al iniciar sesión se lee con un
+ * mapeo de memoria y las listas se muestran desde aquí mientras la precarga las pone al día.
+ * Cada escritura va a un temporal que reemplaza al archivo con un movimiento atómico: otras
+ * instancias de la aplicación leen a la vez la versión anterior o la nueva, nunca una mezcla.
+ */
+public class InstantaneaCatalogo {
+    private static final int MAGICO = 0x43415431; // "CAT1"
+    // 2: las tablas concedidas se guardan con sus columnas y PK (la 1 las tenía vacías)
+    private static final int VERSION = 2;
+    // magico, versión, creada, largo de los datos, CRC32 de los datos
+    private static final int CABECERA = 4 + 4 + 8 + 4 + 4;
+
+    private long creada;
+    // null = la sección no estaba lista cuando se guardó
+    private List<MasterModeManager.TablaInfo> tablasPropias;
+    private List<MasterModeManager.TablaInfo> tablasConcedidas;
+    private final Map<RemoteModeManager.GrupoCatalogo, RemoteModeManager.ParteCatalogo> grupos =
+        new EnumMap<>(RemoteModeManager.GrupoCatalogo.class);
+    private Map<String, CatalogoIncremental.Marca> marcas = new HashMap<>();
+    private Map<String, CatalogoEsquema.Entrada> estructuras = new HashMap<>();
+
+    /**
+     * Archivo de la instantánea de un usuario en un servidor
+     */
+    static Path archivo(ConfigurationManager config, String usuario, String host) {
+        String nombre = ("catalogo_" + usuario + "_" + host).toLowerCase().replaceAll("[^a-z0-9_.-]", "_");
+        return Paths.get(config.getInstantaneaDirectorio(), nombre + ".bin");
+    }
+
+    /**
+     * Lee la instantánea; null si no existe, es de otra versión o está dañada
+     */
+    static InstantaneaCatalogo leer(Path archivo, String usuario, String host) {
+        long inicio = System.nanoTime();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long largo = canal.size();
+            if (largo < CABECERA || largo > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, largo);
+            if (buffer.getInt() != MAGICO || buffer.getInt() != VERSION) {
+                System.out.println("📀 Instantánea del catálogo de otra versión: se ignora");
+                return null;
+            }
+            InstantaneaCatalogo instantanea = new InstantaneaCatalogo();
+            instantanea.creada = buffer.getLong();
+            int largoDatos = buffer.getInt();
+            int crcEsperado = buffer.getInt();
+            if (largoDatos != largo - CABECERA) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != crcEsperado) {
+                System.err.println("⚠️ Instantánea del catálogo dañada: se ignora");
+                return null;
+            }
+
+            if (!usuario.equalsIgnoreCase(leerTexto(buffer)) || !host.equalsIgnoreCase(leerTexto(buffer))) {
+                return null;
+            }
+            instantanea.leerDatos(buffer);
+            System.out.println("📀 Instantánea del catálogo leída en " + (System.nanoTime() - inicio) / 1_000_000 +
+                               " ms (" + largo + " bytes)");
+            return instantanea;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            System.err.println("⚠️ No se pudo leer la instantánea del catálogo: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void leerDatos(ByteBuffer buffer) {
+        tablasPropias = leerTablas(buffer);
+        tablasConcedidas = leerTablas(buffer);
+
+        int totalGrupos = buffer.getInt();
+        for (int i = 0; i < totalGrupos; i++) {
+            RemoteModeManager.GrupoCatalogo grupo = RemoteModeManager.GrupoCatalogo.valueOf(leerTexto(buffer));
+            RemoteModeManager.ParteCatalogo parte = new RemoteModeManager.ParteCatalogo(grupo);
+            for (String categoria : new String[] {"VISTA", "TABLA"}) {
+                int total = buffer.getInt();
+                for (int j = 0; j < total; j++) {
+                    parte.agregar(categoria, leerTexto(buffer), leerTexto(buffer), leerTexto(buffer));
+                }
+            }
+            grupos.put(grupo, parte);
+        }
+
+        int totalMarcas = buffer.getInt();
+        for (int i = 0; i < totalMarcas; i++) {
+            String lista = leerTexto(buffer);
+            marcas.put(lista, new CatalogoIncremental.Marca(leerTexto(buffer), buffer.getInt(), null));
+        }
+
+        int totalEstructuras = buffer.getInt();
+        for (int i = 0; i < totalEstructuras; i++) {
+            String objeto = leerTexto(buffer);
+            String tipo = leerTexto(buffer);
+            String ultimoDdl = leerTexto(buffer);
+            String tabla = leerTexto(buffer);
+            List<String> columnas = leerTextos(buffer);
+            List<String> tipos = leerTextos(buffer);
+            List<String> clavesPrimarias = leerTextos(buffer);
+            estructuras.put(objeto, new CatalogoEsquema.Entrada(tipo, ultimoDdl,
+                EstructuraTabla.de(tabla, columnas, tipos, clavesPrimarias), 0));
+        }
+    }
+
+    private static List<MasterModeManager.TablaInfo> leerTablas(ByteBuffer buffer) {
+        int total = buffer.getInt();
+        if (total < 0) {
+            return null;
+        }
+        List<MasterModeManager.TablaInfo> tablas = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            tablas.add(new MasterModeManager.TablaInfo(leerTexto(buffer), buffer.getLong(), leerTexto(buffer),
+                                                        leerTexto(buffer), leerTexto(buffer), leerTexto(buffer)));
+        }
+        return tablas;
+    }
+
+    private static List<String> leerTextos(ByteBuffer buffer) {
+        int total = buffer.getInt();
+        List<String> textos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            textos.add(leerTexto(buffer));
+        }
+        return textos;
+    }
+
+    private static String leerTexto(ByteBuffer buffer) {
+        int largo = buffer.getInt();
+        if (largo < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[largo];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escribe la instantánea en un temporal de la misma carpeta y lo mueve sobre el archivo
+     */
+    void guardar(Path archivo, String usuario, String host) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream datos = new DataOutputStream(bytes);
+        escribirTexto(datos, usuario);
+        escribirTexto(datos, host);
+        escribirTablas(datos, tablasPropias);
+        escribirTablas(datos, tablasConcedidas);
+
+        datos.writeInt(grupos.size());
+        for (RemoteModeManager.ParteCatalogo parte : grupos.values()) {
+            escribirTexto(datos, parte.getGrupo().name());
+            escribirObjetos(datos, parte.getVistas());
+            escribirObjetos(datos, parte.getTablas());
+        }
+
+        datos.writeInt(marcas.size());
+        for (Map.Entry<String, CatalogoIncremental.Marca> marca : marcas.entrySet()) {
+            escribirTexto(datos, marca.getKey());
+            escribirTexto(datos, marca.getValue().getDesde());
+            datos.writeInt(marca.getValue().getTotal());
+        }
+
+        datos.writeInt(estructuras.size());
+        for (Map.Entry<String, CatalogoEsquema.Entrada> entrada : estructuras.entrySet()) {
+            EstructuraTabla estructura = entrada.getValue().getEstructura();
+            escribirTexto(datos, entrada.getKey());
+            escribirTexto(datos, entrada.getValue().getTipo());
+            escribirTexto(datos, entrada.getValue().getUltimoDdl());
+            escribirTexto(datos, estructura.getTabla());
+            escribirTextos(datos, estructura.getColumnas());
+            escribirTextos(datos, estructura.getTipos());
+            escribirTextos(datos, estructura.getClavesPrimarias());
+        }
+        datos.flush();
+        byte[] contenido = bytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(contenido);
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+        cabecera.putInt(MAGICO).putInt(VERSION).putLong(System.currentTimeMillis())
+                .putInt(contenido.length).putInt((int) crc.getValue());
+        cabecera.flip();
+
+        Path carpeta = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(carpeta);
+        Path temporal = Files.createTempFile(carpeta, archivo.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                canal.write(new ByteBuffer[] {cabecera, ByteBuffer.wrap(contenido)});
+                canal.force(true);
+            }
+            try {
+                Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+        System.out.println("📀 Instantánea del catálogo guardada (" + (CABECERA + contenido.length) + " bytes)");
+    }
+
+    private static void escribirTablas(DataOutputStream datos, List<MasterModeManager.TablaInfo> tablas) throws IOException {
+        if (tablas == null) {
+            datos.writeInt(-1);
+            return;
+        }
+        datos.writeInt(tablas.size());
+        for (MasterModeManager.TablaInfo tabla : tablas) {
+            escribirTexto(datos, tabla.getNombre());
+            datos.writeLong(tabla.getNumRows());
+            escribirTexto(datos, tabla.getTablespace());
+            escribirTexto(datos, tabla.getLastAnalyzed());
+            escribirTexto(datos, tabla.getTipo());
+            escribirTexto(datos, tabla.getEstado());
+        }
+    }
+
+    private static void escribirObjetos(DataOutputStream datos, List<RemoteModeManager.ObjetoCatalogo> objetos) throws IOException {
+        datos.writeInt(objetos.size());
+        for (RemoteModeManager.ObjetoCatalogo objeto : objetos) {
+            escribirTexto(datos, objeto.getNombre());
+            escribirTexto(datos, objeto.getSchema());
+            escribirTexto(datos, objeto.getEstado());
+        }
+    }
+
+    private static void escribirTextos(DataOutputStream datos, List<String> textos) throws IOException {
+        datos.writeInt(textos.size());
+        for (String texto : textos) {
+            escribirTexto(datos, texto);
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream datos, String texto) throws IOException {
+        if (texto == null) {
+            datos.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        datos.writeInt(bytes.length);
+        datos.write(bytes);
+    }
+
+    long getCreada() { return creada; }
+    List<MasterModeManager.TablaInfo> getTablasPropias() { return tablasPropias; }
+    List<MasterModeManager.TablaInfo> getTablasConcedidas() { return tablasConcedidas; }
+    Map<RemoteModeManager.GrupoCatalogo, RemoteModeManager.ParteCatalogo> getGrupos() { return grupos; }
+    Map<String, CatalogoIncremental.Marca> getMarcas() { return marcas; }
+    Map<String, CatalogoEsquema.Entrada> getEstructuras() { return estructuras; }
+
+    void setTablasPropias(List<MasterModeManager.TablaInfo> tablas) { this.tablasPropias = tablas; }
+    void setTablasConcedidas(List<MasterModeManager.TablaInfo> tablas) { this.tablasConcedidas = tablas; }
+    void setGrupo(RemoteModeManager.ParteCatalogo parte) { grupos.put(parte.getGrupo(), parte); }
+    void setMarcas(Map<String, CatalogoIncremental.Marca> marcas) { this.marcas = marcas; }
+    void setEstructuras(Map<String, CatalogoEsquema.Entrada> estructuras) { this.estructuras = estructuras; }
+}
@@ -0,0 +1,224 @@
+package Logic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Contenido de una celda BLOB, CLOB o LONG leído a pedido. La grilla guarda solo la marca
+ * ([BLOB], [CLOB]...); al abrir la celda se lee el valor por trozos de lob.trozo.bytes hasta
+ * lob.vista.previa.bytes y cada trozo se muestra al llegar (los binarios en hexadecimal).
+ * Entre trozos se revisa la cancelación: si el usuario se va, la lectura se corta.
+ */
+public class LectorLob {
+    // Bytes por línea del volcado hexadecimal
+    private static final int BYTES_POR_LINEA = 16;
+
+    public enum Formato { HEXADECIMAL, TEXTO }
+
+    private LectorLob() {
+    }
+
+    /**
+     * Formato de la vista previa según el tipo de Oracle de la columna (null si no es un LOB)
+     */
+    public static Formato formatoDe(String tipoSql) {
+        if (tipoSql == null) {
+            return null;
+        }
+        switch (tipoSql.toUpperCase()) {
+            case "BLOB":
+            case "RAW":
+            case "LONG RAW":
+                return Formato.HEXADECIMAL;
+            case "CLOB":
+            case "NCLOB":
+            case "LONG":
+                return Formato.TEXTO;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Lee la primera columna de la fila actual. Devuelve los bytes (o caracteres) leídos.
+     */
+    static long leer(ResultSet rs, String tipoSql, int limite, int tamanoTrozo, ConnectionRouter.Uso uso,
+                     Consumer<Trozo> alLeer) throws SQLException {
+        Formato formato = formatoDe(tipoSql);
+        String tipo = tipoSql.toUpperCase();
+        try {
+            if (formato == Formato.HEXADECIMAL) {
+                long total = -1;
+                InputStream entrada;
+                if ("BLOB".equals(tipo)) {
+                    Blob blob = rs.getBlob(1);
+                    if (blob == null) {
+                        return nulo(alLeer);
+                    }
+                    total = blob.length();
+                    entrada = blob.getBinaryStream();
+                } else {
+                    entrada = rs.getBinaryStream(1);
+                    if (entrada == null) {
+                        return nulo(alLeer);
+                    }
+                }
+                try (InputStream in = entrada) {
+                    return leerBytes(in, total, limite, tamanoTrozo, uso.getToken(), alLeer);
+                }
+            }
+            long total = -1;
+            Reader entrada;
+            if ("CLOB".equals(tipo) || "NCLOB".equals(tipo)) {
+                Clob clob = rs.getClob(1);
+                if (clob == null) {
+                    return nulo(alLeer);
+                }
+                total = clob.length();
+                entrada = clob.getCharacterStream();
+            } else {
+                entrada = rs.getCharacterStream(1);
+                if (entrada == null) {
+                    return nulo(alLeer);
+                }
+            }
+            try (Reader in = entrada) {
+                return leerCaracteres(in, total, limite, tamanoTrozo, uso.getToken(), alLeer);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error leyendo el LOB: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lee hasta "limite" bytes en trozos de líneas completas ("total": largo del valor, -1 si
+     * no se conoce). "token" puede ser null (lectura no cancelable).
+     */
+    static long leerBytes(InputStream in, long total, int limite, int tamanoTrozo,
+                          TokenCancelacion token, Consumer<Trozo> alLeer)
+            throws IOException, SQLException {
+        // Trozos de líneas completas: el volcado sigue donde quedó el anterior
+        byte[] trozo = new byte[Math.max(BYTES_POR_LINEA, tamanoTrozo / BYTES_POR_LINEA * BYTES_POR_LINEA)];
+        long leidos = 0;
+        while (leidos < limite) {
+            int llenos = 0;
+            int pedir = (int) Math.min(trozo.length, limite - leidos);
+            int n;
+            while (llenos < pedir && (n = in.read(trozo, llenos, pedir - llenos)) > 0) {
+                llenos += n;
+            }
+            if (llenos == 0) {
+                break;
+            }
+            if (token != null) {
+                token.verificar();
+            }
+            String texto = volcar(trozo, llenos, leidos);
+            leidos += llenos;
+            boolean fin = llenos < pedir || (total >= 0 && leidos >= total);
+            if (fin) {
+                alLeer.accept(new Trozo(texto, leidos, total >= 0 ? total : leidos, true, false));
+                return leidos;
+            }
+            alLeer.accept(new Trozo(texto, leidos, total, false, false));
+        }
+        boolean truncado = total < 0 ? in.read() >= 0 : leidos < total;
+        alLeer.accept(new Trozo("", leidos, total >= 0 || truncado ? total : leidos, true, truncado));
+        return leidos;
+    }
+
+    static long leerCaracteres(Reader in, long total, int limite, int tamanoTrozo,
+                               TokenCancelacion token, Consumer<Trozo> alLeer)
+            throws IOException, SQLException {
+        char[] trozo = new char[Math.max(1, tamanoTrozo)];
+        long leidos = 0;
+        while (leidos < limite) {
+            int llenos = 0;
+            int pedir = (int) Math.min(trozo.length, limite - leidos);
+            int n;
+            while (llenos < pedir && (n = in.read(trozo, llenos, pedir - llenos)) > 0) {
+                llenos += n;
+            }
+            if (llenos == 0) {
+                break;
+            }
+            if (token != null) {
+                token.verificar();
+            }
+            leidos += llenos;
+            boolean fin = llenos < pedir || (total >= 0 && leidos >= total);
+            if (fin) {
+                alLeer.accept(new Trozo(new String(trozo, 0, llenos), leidos, total >= 0 ? total : leidos, true, false));
+                return leidos;
+            }
+            alLeer.accept(new Trozo(new String(trozo, 0, llenos), leidos, total, false, false));
+        }
+        boolean truncado = total < 0 ? in.read() >= 0 : leidos < total;
+        alLeer.accept(new Trozo("", leidos, total >= 0 || truncado ? total : leidos, true, truncado));
+        return leidos;
+    }
+
+    private static long nulo(Consumer<Trozo> alLeer) {
+        alLeer.accept(new Trozo("NULL", 0, 0, true, false));
+        return 0;
+    }
+
+    /**
+     * Volcado hexadecimal: desplazamiento, 16 bytes y su texto ASCII
+     */
+    static String volcar(byte[] datos, int largo, long desplazamiento) {
+        StringBuilder sb = new StringBuilder(largo * 4 + largo / BYTES_POR_LINEA * 12);
+        for (int linea = 0; linea < largo; linea += BYTES_POR_LINEA) {
+            sb.append(String.format("%08X  ", desplazamiento + linea));
+            int fin = Math.min(linea + BYTES_POR_LINEA, largo);
+            for (int i = linea; i < linea + BYTES_POR_LINEA; i++) {
+                if (i < fin) {
+                    sb.append(String.format("%02X ", datos[i] & 0xFF));
+                } else {
+                    sb.append("   ");
+                }
+            }
+            sb.append(" |");
+            for (int i = linea; i < fin; i++) {
+                int b = datos[i] & 0xFF;
+                sb.append(b >= 0x20 && b < 0x7F ? (char) b : '.');
+            }
+            sb.append("|\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Un trozo leído, listo para agregar a la vista previa
+     */
+    public static class Trozo {
+        private final String texto;
+        private final long leidos;
+        private final long total;
+        private final boolean ultimo;
+        private final boolean truncado;
+
+        Trozo(String texto, long leidos, long total, boolean ultimo, boolean truncado) {
+            this.texto = texto;
+            this.leidos = leidos;
+            this.total = total;
+            this.ultimo = ultimo;
+            this.truncado = truncado;
+        }
+
+        public String getTexto() { return texto; }
+        // Bytes (o caracteres) leídos hasta este trozo
+        public long getLeidos() { return leidos; }
+        // Tamaño del valor; -1 si no se conoce (LONG y LONG RAW cortados en el tope)
+        public long getTotal() { return total; }
+        public boolean isUltimo() { return ultimo; }
+        // Quedó contenido sin leer por el tope de la vista previa
+        public boolean isTruncado() { return truncado; }
+    }
+}
@@ -3,12 +3,18 @@ package Logic;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Gestiona operaciones en MODO MASTER
  * Muestra y permite manejar las tablas propias del usuario conectado
  */
 public class MasterModeManager {
+    // Nombre de la lista de tablas propias en el CatalogoIncremental
+    private static final String LISTA_TABLAS_PROPIAS = "tablas propias";
+
     private ConnectionUser connectionUser;
     private ConfigurationManager config;
 
@@ -41,29 +47,17 @@ public class MasterModeManager {
             return tablas;
         }
 
-        try {
-            String sql = "SELECT TABLE_NAME, NUM_ROWS, TABLESPACE_NAME, " +
-                        "TO_CHAR(LAST_ANALYZED, 'DD/MM/YYYY HH24:MI:SS') as LAST_ANALYZED " +
-                        "FROM USER_TABLES ORDER BY TABLE_NAME";
-            
-            Connection conn = connectionUser.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            // La marca va antes de la lectura: lo que cambie mientras tanto vuelve en el próximo refresco
+            connectionUser.getCatalogoIncremental().marcar(uso, LISTA_TABLAS_PROPIAS, null);
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.TABLAS_PROPIAS);
+            ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                TablaInfo tabla = new TablaInfo(
-                    rs.getString("TABLE_NAME"),
-                    rs.getLong("NUM_ROWS"),
-                    rs.getString("TABLESPACE_NAME"),
-                    rs.getString("LAST_ANALYZED"),
-                    "TABLE",
-                    "OWNED" // Tabla propia
-                );
-                tablas.add(tabla);
+                tablas.add(leerTablaPropia(rs));
             }
 
             rs.close();
-            stmt.close();
             
             System.out.println("📊 Encontradas " + tablas.size() + " tablas propias");
             
@@ -74,6 +68,55 @@ public class MasterModeManager {
         return tablas;
     }
 
+    /**
+     * Pone al día una lista de tablas propias ya cargada trayendo solo las tablas creadas o
+     * alteradas desde la última marca y quitando las borradas. Sin marca (la lista no se
+     * cargó completa en esta sesión) hace la carga completa.
+     */
+    public List<TablaInfo> refrescarTablasPropias(List<TablaInfo> actuales) throws SQLException {
+        CatalogoIncremental incremental = connectionUser.getCatalogoIncremental();
+        Map<String, TablaInfo> porNombre = new TreeMap<>();
+        int cambios = 0;
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            CatalogoIncremental.Refresco refresco = incremental.iniciar(uso, LISTA_TABLAS_PROPIAS, null);
+            if (refresco == null) {
+                return getMyTables();
+            }
+            for (TablaInfo tabla : actuales) {
+                porNombre.put(tabla.getNombre(), tabla);
+            }
+
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.TABLAS_PROPIAS_DESDE);
+            pstmt.setString(1, refresco.getDesde());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                TablaInfo tabla = leerTablaPropia(rs);
+                refresco.cambio(tabla.getNombre());
+                porNombre.put(tabla.getNombre(), tabla);
+                cambios++;
+            }
+            rs.close();
+
+            Set<String> vigentes = refresco.terminar(uso);
+            if (vigentes != null) {
+                porNombre.keySet().retainAll(vigentes);
+            }
+        }
+        System.out.println("🔄 Tablas propias al día: " + cambios + " cambiadas, " + porNombre.size() + " en total");
+        return new ArrayList<>(porNombre.values());
+    }
+
+    private static TablaInfo leerTablaPropia(ResultSet rs) throws SQLException {
+        return new TablaInfo(
+            rs.getString("TABLE_NAME"),
+            rs.getLong("NUM_ROWS"),
+            rs.getString("TABLESPACE_NAME"),
+            rs.getString("LAST_ANALYZED"),
+            "TABLE",
+            "OWNED" // Tabla propia
+        );
+    }
+
     /**
      * Obtiene privilegios que el usuario tiene sobre otras tablas
      */
@@ -84,21 +127,14 @@ public class MasterModeManager {
             return tablas;
         }
 
-        try {
-            String sql = "SELECT OWNER||'.'||TABLE_NAME as FULL_TABLE_NAME, " +
-                        "OWNER, TABLE_NAME, PRIVILEGE " +
-                        "FROM USER_TAB_PRIVS " +
-                        "WHERE TABLE_NAME NOT IN (SELECT TABLE_NAME FROM USER_TABLES) " +
-                        "ORDER BY OWNER, TABLE_NAME";
-            
-            Connection conn = connectionUser.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.TABLAS_CONCEDIDAS);
+            ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
                 TablaInfo tabla = new TablaInfo(
                     rs.getString("FULL_TABLE_NAME"),
-                    0L, // No podemos conocer NUM_ROWS de tablas ajenas fácilmente
+                    rs.getLong("NUM_ROWS"), // ALL_TABLES corregido con el DML registrado (0 sin análisis)
                     "N/A",
                     "N/A",
                     "TABLE",
@@ -108,7 +144,6 @@ public class MasterModeManager {
             }
 
             rs.close();
-            stmt.close();
             
             System.out.println("🔑 Encontradas " + tablas.size() + " tablas con privilegios");
             
@@ -129,15 +164,9 @@ public class MasterModeManager {
 
         StringBuilder stats = new StringBuilder();
         
-        try {
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
             // Información básica de la tabla
-            String sql = "SELECT TABLE_NAME, NUM_ROWS, BLOCKS, EMPTY_BLOCKS, " +
-                        "AVG_ROW_LEN, TABLESPACE_NAME, STATUS, " +
-                        "TO_CHAR(LAST_ANALYZED, 'DD/MM/YYYY HH24:MI:SS') as LAST_ANALYZED " +
-                        "FROM USER_TABLES WHERE TABLE_NAME = ?";
-            
-            Connection conn = connectionUser.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql);
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.ESTADISTICAS_TABLA);
             pstmt.setString(1, tableName.toUpperCase());
             ResultSet rs = pstmt.executeQuery();
 
@@ -154,11 +183,9 @@ public class MasterModeManager {
             }
 
             rs.close();
-            pstmt.close();
 
             // Información de columnas
-            sql = "SELECT COUNT(*) as TOTAL_COLUMNS FROM USER_TAB_COLUMNS WHERE TABLE_NAME = ?";
-            pstmt = conn.prepareStatement(sql);
+            pstmt = uso.preparar(SqlRegistry.TOTAL_COLUMNAS);
             pstmt.setString(1, tableName.toUpperCase());
             rs = pstmt.executeQuery();
             
@@ -167,7 +194,6 @@ public class MasterModeManager {
             }
 
             rs.close();
-            pstmt.close();
 
         } catch (SQLException e) {
             stats.append("Error obteniendo estadísticas: ").append(e.getMessage());
@@ -184,7 +210,7 @@ public class MasterModeManager {
             return false;
         }
 
-        try {
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.SCRIPT)) {
             String sql = "";
             
             switch (operation.toUpperCase()) {
@@ -204,9 +230,8 @@ public class MasterModeManager {
                     break;
                     
                 case "DESCRIBE":
-                    sql = "SELECT COLUMN_NAME, DATA_TYPE, NULLABLE, DATA_DEFAULT " +
-                          "FROM USER_TAB_COLUMNS WHERE TABLE_NAME = '" + tableName.toUpperCase() + "' " +
-                          "ORDER BY COLUMN_ID";
+                    // Sentencia registrada: el nombre de la tabla va como bind
+                    sql = null;
                     break;
                     
                 default:
@@ -214,14 +239,21 @@ public class MasterModeManager {
                     return false;
             }
 
-            Connection conn = connectionUser.getConnection();
-            Statement stmt = conn.createStatement();
+            Statement stmt = null;
             
             if (operation.toUpperCase().equals("SELECT") || 
                 operation.toUpperCase().equals("COUNT") || 
                 operation.toUpperCase().equals("DESCRIBE")) {
                 
-                ResultSet rs = stmt.executeQuery(sql);
+                ResultSet rs;
+                if (sql == null) {
+                    PreparedStatement pstmt = uso.preparar(SqlRegistry.DESCRIBIR_TABLA);
+                    pstmt.setString(1, tableName.toUpperCase());
+                    rs = pstmt.executeQuery();
+                } else {
+                    stmt = uso.crearStatement();
+                    rs = stmt.executeQuery(sql);
+                }
                 
                 // Mostrar resultados
                 ResultSetMetaData metadata = rs.getMetaData();
@@ -245,7 +277,9 @@ public class MasterModeManager {
                 rs.close();
             }
             
-            stmt.close();
+            if (stmt != null) {
+                stmt.close();
+            }
             return true;
             
         } catch (SQLException e) {
@@ -0,0 +1,315 @@
+package Logic;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantiene sesiones directas con los dos nodos (Angel y Bell) además del nodo de la sesión.
+ * Mide la latencia de cada uno en segundo plano y elige, para cada consulta de solo lectura,
+ * el nodo sano más cercano que tiene el objeto. El database link PROYECTO_REAL solo se usa
+ * cuando no hay sesión directa con el otro nodo.
+ */
+public class NodeManager {
+    // Database link con el que la aplicación llega al otro nodo
+    public static final String LINK_REMOTO = "PROYECTO_REAL";
+
+    // Peso de la nueva medición en la media móvil de latencia
+    private static final double PESO_MUESTRA = 0.3;
+
+    private final ConfigurationManager config;
+    private final ConnectionPool poolSesion;
+    private final List<Nodo> nodos = new CopyOnWriteArrayList<>();
+    // "NODO|OWNER.OBJETO" -> el nodo tiene el objeto
+    private final Map<String, Boolean> existencia = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService hilo;
+    private volatile String identidadLocal;
+
+    public NodeManager(ConnectionPool poolSesion, ConfigurationManager config) {
+        this.poolSesion = poolSesion;
+        this.config = config;
+        this.hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "nodos-latencia");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Registra el nodo de la sesión y los nodos configurados, y empieza a medirlos
+     */
+    public void iniciar() {
+        nodos.add(new Nodo("Sesión", poolSesion.getUrl(), poolSesion.obtenerPoolLectura(), true));
+        agregarNodo("Angel", config.getAngelConnectionString());
+        agregarNodo("Bell", config.getBellConnectionString());
+
+        int intervalo = Math.max(1, config.getHealthInterval());
+        hilo.scheduleWithFixedDelay(this::medirTodos, 0, intervalo, TimeUnit.SECONDS);
+    }
+
+    private void agregarNodo(String nombre, String url) {
+        if (url == null || url.equals(poolSesion.getUrl())) {
+            return;
+        }
+        nodos.add(new Nodo(nombre, url, poolSesion.obtenerPoolLectura(url), false));
+    }
+
+    /**
+     * Detiene las mediciones (logout). Los pools se cierran solos por inactividad.
+     */
+    public void detener() {
+        hilo.shutdownNow();
+        existencia.clear();
+    }
+
+    /**
+     * Mide la latencia de todos los nodos e identifica los que aún no se conocen
+     */
+    private void medirTodos() {
+        for (Nodo nodo : nodos) {
+            if (!nodo.descartado) {
+                medir(nodo);
+            }
+        }
+    }
+
+    private void medir(Nodo nodo) {
+        Connection conn = null;
+        try {
+            conn = nodo.pool.prestar();
+            if (nodo.identidad == null) {
+                identificar(nodo, conn);
+                if (nodo.descartado) {
+                    return;
+                }
+            }
+
+            long inicio = System.nanoTime();
+            ResultSet rs = StatementCache.getInstance().preparar(conn, SqlRegistry.PING).executeQuery();
+            rs.next();
+            rs.close();
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio);
+
+            nodo.latenciaMicros = nodo.latenciaMicros < 0
+                                  ? micros
+                                  : Math.round(nodo.latenciaMicros * (1 - PESO_MUESTRA) + micros * PESO_MUESTRA);
+            if (!nodo.sano) {
+                System.out.println("🌐 Nodo " + nodo.nombre + " disponible (" + nodo.getLatenciaMs() + " ms)");
+            }
+            nodo.sano = true;
+        } catch (SQLException e) {
+            // Avisar solo al caer o la primera vez, no en cada medición
+            if (nodo.sano || !nodo.fallaAvisada) {
+                System.err.println("⚠️ Nodo " + nodo.nombre + " sin sesión directa: " + e.getMessage());
+                nodo.fallaAvisada = true;
+            }
+            nodo.sano = false;
+        } finally {
+            if (conn != null) {
+                nodo.pool.devolver(conn);
+            }
+        }
+    }
+
+    /**
+     * Reconoce qué base atiende la URL. Un nodo configurado que resulta ser
+     * la misma base de la sesión se descarta para no duplicarla.
+     */
+    private void identificar(Nodo nodo, Connection conn) throws SQLException {
+        ResultSet rs = StatementCache.getInstance().preparar(conn, SqlRegistry.IDENTIDAD_NODO).executeQuery();
+        String identidad = rs.next() ? rs.getString(1) : "?";
+        rs.close();
+        nodo.identidad = identidad;
+
+        if (nodo.local) {
+            identidadLocal = identidad;
+            return;
+        }
+        String local = identidadLocal;
+        if (local == null) {
+            // Sin identidad local no se puede asegurar que sea otro nodo: se reintenta en la próxima medición
+            nodo.identidad = null;
+            return;
+        }
+        if (local.equalsIgnoreCase(identidad)) {
+            System.out.println("🌐 Nodo " + nodo.nombre + " es la misma base de la sesión (" + identidad + ")");
+            nodo.descartado = true;
+            return;
+        }
+        System.out.println("🌐 Sesión directa con nodo " + nodo.nombre + " (" + identidad + ")");
+    }
+
+    /**
+     * Nodo para una consulta de solo lectura sobre un objeto ("VISTA", "OWNER.VISTA" o "VISTA@PROYECTO_REAL").
+     * Devuelve null si la consulta debe ir por la sesión local tal como está escrita.
+     */
+    public Destino paraObjeto(String objeto) {
+        if (objeto == null) {
+            return null;
+        }
+        String nombre = objeto.trim();
+        boolean remoto = false;
+        int arroba = nombre.indexOf('@');
+        if (arroba > 0) {
+            if (!LINK_REMOTO.equalsIgnoreCase(nombre.substring(arroba + 1))) {
+                return null; // Otro link: no hay sesión directa que lo reemplace
+            }
+            nombre = nombre.substring(0, arroba);
+            remoto = true;
+        }
+
+        // Candidatos sanos del más cercano al más lejano
+        List<Nodo> candidatos = new ArrayList<>();
+        for (Nodo nodo : nodos) {
+            if (nodo.disponible() && (!remoto || !nodo.local)) {
+                candidatos.add(nodo);
+            }
+        }
+        candidatos.sort(Comparator.comparingLong(n -> n.latenciaMicros));
+
+        for (Nodo nodo : candidatos) {
+            // El nodo de la sesión tiene todo lo que no lleva link
+            if ((nodo.local && !remoto) || tieneObjeto(nodo, nombre)) {
+                return nodo.local ? null : new Destino(nodo, nombre);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Nodo al que reemplaza un database link (null si no hay sesión directa)
+     */
+    public Destino paraLink(String dbLink) {
+        if (dbLink == null || !LINK_REMOTO.equalsIgnoreCase(dbLink)) {
+            return null;
+        }
+        Nodo mejor = null;
+        for (Nodo nodo : nodos) {
+            if (!nodo.local && nodo.disponible() && (mejor == null || nodo.latenciaMicros < mejor.latenciaMicros)) {
+                mejor = nodo;
+            }
+        }
+        return mejor == null ? null : new Destino(mejor, null);
+    }
+
+    /**
+     * Marca un nodo como caído tras un error al usarlo; la próxima medición lo reevalúa
+     */
+    void reportarFallo(Nodo nodo) {
+        nodo.sano = false;
+    }
+
+    private boolean tieneObjeto(Nodo nodo, String nombre) {
+        String clave = nodo.nombre + "|" + nombre.toUpperCase();
+        Boolean cache = existencia.get(clave);
+        if (cache != null) {
+            return cache;
+        }
+
+        String owner = null;
+        String objeto = nombre.toUpperCase();
+        int punto = objeto.indexOf('.');
+        if (punto > 0) {
+            owner = objeto.substring(0, punto);
+            objeto = objeto.substring(punto + 1);
+        }
+
+        Connection conn = null;
+        try {
+            conn = nodo.pool.prestar();
+            PreparedStatement pstmt = StatementCache.getInstance().preparar(conn, SqlRegistry.OBJETO_EXISTE);
+            pstmt.setString(1, objeto);
+            pstmt.setString(2, owner);
+            ResultSet rs = pstmt.executeQuery();
+            boolean existe = rs.next() && rs.getInt(1) > 0;
+            rs.close();
+            existencia.put(clave, existe);
+            return existe;
+        } catch (SQLException e) {
+            nodo.sano = false;
+            return false;
+        } finally {
+            if (conn != null) {
+                nodo.pool.devolver(conn);
+            }
+        }
+    }
+
+    /**
+     * Latencia y estado de cada nodo
+     */
+    public String obtenerEstadisticas() {
+        StringBuilder sb = new StringBuilder("Nodos:");
+        for (Nodo nodo : nodos) {
+            sb.append("\n  ").append(nodo.nombre).append(" [").append(nodo.url).append("] ");
+            if (nodo.descartado) {
+                sb.append("misma base que la sesión");
+            } else if (!nodo.sano) {
+                sb.append("sin sesión directa");
+            } else {
+                sb.append(nodo.getLatenciaMs()).append(" ms, ").append(nodo.consultas.get()).append(" consultas");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Nodo alcanzable por sesión directa
+     */
+    public static class Nodo {
+        private final String nombre;
+        private final String url;
+        private final ConnectionPool pool;
+        private final boolean local;
+        private final AtomicLong consultas = new AtomicLong();
+        private volatile String identidad;
+        private volatile boolean sano;
+        private volatile boolean descartado;
+        private volatile boolean fallaAvisada;
+        private volatile long latenciaMicros = -1;
+
+        Nodo(String nombre, String url, ConnectionPool pool, boolean local) {
+            this.nombre = nombre;
+            this.url = url;
+            this.pool = pool;
+            this.local = local;
+        }
+
+        boolean disponible() {
+            return sano && !descartado && identidad != null;
+        }
+
+        public String getNombre() { return nombre; }
+        public boolean isLocal() { return local; }
+        public long getLatenciaMs() { return TimeUnit.MICROSECONDS.toMillis(latenciaMicros); }
+        ConnectionPool getPool() { return pool; }
+        void contarConsulta() { consultas.incrementAndGet(); }
+    }
+
+    /**
+     * Nodo elegido y nombre del objeto a usar en él (sin link)
+     */
+    public static class Destino {
+        private final Nodo nodo;
+        private final String objeto;
+
+        Destino(Nodo nodo, String objeto) {
+            this.nodo = nodo;
+            this.objeto = objeto;
+        }
+
+        public Nodo getNodo() { return nodo; }
+        public String getObjeto() { return objeto; }
+    }
+}
@@ -0,0 +1,50 @@
+package Logic;
+
+/**
+ * Clase de operación contra la base de datos.
+ * Decide el carril de conexión (lectura o escritura) que usa cada llamada.
+ */
+public enum OperationType {
+    CATALOGO("Catálogo", true, 20, PerfilJdbc.CATALOGO),         // Diccionario: tablas, vistas, columnas, claves
+    CONSULTA("Consulta", true, 60, PerfilJdbc.NAVEGACION),       // Navegación de datos de tablas y vistas
+    SCRIPT("Script", false, 90, PerfilJdbc.NAVEGACION),          // SQL libre escrito por el usuario (puede modificar)
+    DML("DML", false, 30, PerfilJdbc.DML),                       // INSERT / UPDATE / DELETE desde formularios
+    REFRESCO_MV("Refresco MV", false, 110, PerfilJdbc.DML);      // DBMS_MVIEW.REFRESH
+
+    private final String descripcion;
+    private final boolean lectura;
+    private final int timeoutPorDefecto;
+    private final PerfilJdbc perfil;
+
+    OperationType(String descripcion, boolean lectura, int timeoutPorDefecto, PerfilJdbc perfil) {
+        this.descripcion = descripcion;
+        this.lectura = lectura;
+        this.timeoutPorDefecto = timeoutPorDefecto;
+        this.perfil = perfil;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * Segundos de setQueryTimeout si timeout.<tipo> no está configurado
+     */
+    public int getTimeoutPorDefecto() {
+        return timeoutPorDefecto;
+    }
+
+    /**
+     * Perfil de ajuste JDBC con el que se abren sus sentencias (Uso.conPerfil lo cambia)
+     */
+    public PerfilJdbc getPerfil() {
+        return perfil;
+    }
+
+    /**
+     * true si la operación solo lee y puede ir por el carril de solo lectura
+     */
+    public boolean esLectura() {
+        return lectura;
+    }
+}
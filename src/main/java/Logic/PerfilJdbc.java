@@ -0,0 +1,50 @@
+package Logic;
+
+/**
+ * Ajuste del driver según la carga de trabajo: filas por viaje de red (fetch size),
+ * bytes de LOB que llegan junto con la fila (LOB prefetch) y si la sentencia se
+ * guarda en la caché de sentencias de la conexión.
+ * Los valores se pueden cambiar con perfil.<nombre>.fetch.size, .lob.prefetch y .cache.
+ */
+public enum PerfilJdbc {
+    CATALOGO("Catálogo", 200, 0, true),           // Diccionario: muchas filas cortas, sin LOBs
+    NAVEGACION("Navegación", 500, 0, true),       // Grillas de Table-view y Vista-view, scripts SELECT (LOB: solo el localizador)
+    EXPORTACION("Exportación", 2000, 32768, false), // Lectura completa de una sola vez (no se repite)
+    LOB("LOB", 1, 32768, false),                  // Contenido de una celda LOB abierta: una fila, el primer trozo con ella
+    DML("DML", 10, 0, true);                      // INSERT / UPDATE / DELETE y refrescos de MV
+
+    private final String descripcion;
+    private final int fetchSizePorDefecto;
+    private final int lobPrefetchPorDefecto;
+    private final boolean cachePorDefecto;
+
+    PerfilJdbc(String descripcion, int fetchSizePorDefecto, int lobPrefetchPorDefecto, boolean cachePorDefecto) {
+        this.descripcion = descripcion;
+        this.fetchSizePorDefecto = fetchSizePorDefecto;
+        this.lobPrefetchPorDefecto = lobPrefetchPorDefecto;
+        this.cachePorDefecto = cachePorDefecto;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public int getFetchSizePorDefecto() {
+        return fetchSizePorDefecto;
+    }
+
+    public int getLobPrefetchPorDefecto() {
+        return lobPrefetchPorDefecto;
+    }
+
+    public boolean isCachePorDefecto() {
+        return cachePorDefecto;
+    }
+
+    /**
+     * Prefijo de las claves de configuración del perfil
+     */
+    String getClave() {
+        return "perfil." + name().toLowerCase();
+    }
+}
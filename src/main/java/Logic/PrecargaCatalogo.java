@@ -0,0 +1,398 @@
+package Logic;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Precarga el catálogo en segundo plano apenas existe la sesión: tablas propias y concedidas,
+ * vistas y tablas del modo remoto (con las vistas materializadas), database links y la
+ * estructura (columnas y PK) de las tablas propias más grandes, que queda en el CatalogoEsquema.
+ * Master-view y Remote-view se muestran desde aquí sin volver a consultar. La sesión la
+ * descarta al cerrarse, después de guardarla en disco (InstantaneaCatalogo) para la próxima.
+ */
+public class PrecargaCatalogo {
+    public enum Estado { PENDIENTE, CARGANDO, LISTA, INCOMPLETA, DETENIDA }
+
+    // Secciones que se cronometran: tablas propias, concedidas, links, estructuras y los tres grupos del modo remoto
+    private static final int TOTAL_SECCIONES = 4 + RemoteModeManager.GrupoCatalogo.values().length;
+
+    private final ConnectionUser connectionUser;
+    private final ConfigurationManager config;
+    private final int maxEstructuras;
+    private final TokenCancelacion token = new TokenCancelacion();
+
+    // Se reemplaza al poner al día la lista desde Master-view
+    private volatile CompletableFuture<List<MasterModeManager.TablaInfo>> tablasPropias = new CompletableFuture<>();
+    private volatile CompletableFuture<List<MasterModeManager.TablaInfo>> tablasConcedidas = new CompletableFuture<>();
+    private final CompletableFuture<List<String>> dbLinks = new CompletableFuture<>();
+    // Grupo del catálogo remoto -> vistas y tablas (se reemplaza al actualizar desde Remote-view)
+    private final Map<RemoteModeManager.GrupoCatalogo, CompletableFuture<RemoteModeManager.ParteCatalogo>> catalogoRemoto =
+        new ConcurrentHashMap<>();
+    private volatile int estructurasCargadas;
+
+    // Sección -> milisegundos que tardó, en el orden en que terminaron
+    private final Map<String, Long> tiempos = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicInteger cadenasPendientes = new AtomicInteger();
+    private volatile Estado estado = Estado.PENDIENTE;
+    private volatile boolean conFallas;
+    private volatile long inicioNanos;
+    private volatile long milisegundos;
+    private volatile Runnable oyente;
+    // Catálogo guardado en disco en la sesión anterior (null si no había)
+    private volatile InstantaneaCatalogo instantanea;
+
+    public PrecargaCatalogo(ConnectionUser connectionUser, ConfigurationManager config) {
+        this.connectionUser = connectionUser;
+        this.config = config;
+        this.maxEstructuras = Math.max(0, config.getPrecargaObjetos());
+        for (RemoteModeManager.GrupoCatalogo grupo : RemoteModeManager.GrupoCatalogo.values()) {
+            catalogoRemoto.put(grupo, new CompletableFuture<>());
+        }
+    }
+
+    /**
+     * Lanza la precarga en el ejecutor de consultas. Corre en dos cadenas (modo master y
+     * modo remoto) para no ocupar todo el carril de lectura mientras el usuario ya trabaja.
+     * Si hay instantánea en disco, sus listas quedan disponibles antes de lanzar las cadenas
+     * y las cadenas solo las ponen al día.
+     */
+    public void iniciar() {
+        inicioNanos = System.nanoTime();
+        estado = Estado.CARGANDO;
+        cadenasPendientes.set(2);
+        restaurarInstantanea();
+        avisar();
+
+        QueryExecutor executor = QueryExecutor.getInstance();
+        executor.ejecutar(() -> {
+                cargarModoMaster();
+                return null;
+            }, token)
+            .whenComplete((sinValor, error) -> terminarCadena());
+        executor.ejecutar(() -> {
+                cargarModoRemoto();
+                return null;
+            }, token)
+            .whenComplete((sinValor, error) -> terminarCadena());
+    }
+
+    /**
+     * Deja disponibles las listas, marcas y estructuras guardadas en disco
+     */
+    private void restaurarInstantanea() {
+        if (!config.isInstantaneaActiva()) {
+            return;
+        }
+        InstantaneaCatalogo leida = InstantaneaCatalogo.leer(
+            InstantaneaCatalogo.archivo(config, connectionUser.getCurrentUser(), connectionUser.getCurrentHost()),
+            connectionUser.getCurrentUser(), connectionUser.getCurrentHost());
+        if (leida == null) {
+            return;
+        }
+        try {
+            CatalogoIncremental incremental = connectionUser.getCatalogoIncremental();
+            leida.getMarcas().forEach(incremental::restaurar);
+            CatalogoEsquema catalogo = connectionUser.getCatalogoEsquema();
+            leida.getEstructuras().forEach(catalogo::restaurar);
+        } catch (SQLException e) {
+            return;
+        }
+        if (leida.getTablasPropias() != null) {
+            tablasPropias.complete(leida.getTablasPropias());
+        }
+        if (leida.getTablasConcedidas() != null) {
+            tablasConcedidas.complete(leida.getTablasConcedidas());
+        }
+        for (RemoteModeManager.ParteCatalogo parte : leida.getGrupos().values()) {
+            catalogoRemoto.get(parte.getGrupo()).complete(parte);
+        }
+        instantanea = leida;
+        System.out.println("📀 Catálogo desde la instantánea del " + new Date(leida.getCreada()) +
+                           "; se pone al día en segundo plano");
+    }
+
+    private void cargarModoMaster() throws Exception {
+        MasterModeManager master = connectionUser.getMasterManager();
+        InstantaneaCatalogo guardada = instantanea;
+        List<MasterModeManager.TablaInfo> propias;
+        if (guardada != null && guardada.getTablasPropias() != null) {
+            // Solo lo que cambió desde que se guardó
+            propias = cargar("tablas propias", new CompletableFuture<>(),
+                             () -> master.refrescarTablasPropias(guardada.getTablasPropias()));
+            if (propias != null) {
+                actualizarTablasPropias(propias);
+            }
+        } else {
+            propias = cargar("tablas propias", tablasPropias, master::getMyTables);
+        }
+        if (guardada != null && guardada.getTablasConcedidas() != null) {
+            List<MasterModeManager.TablaInfo> concedidas =
+                cargar("tablas concedidas", new CompletableFuture<>(), master::getAccessibleTables);
+            if (concedidas != null && estado != Estado.DETENIDA) {
+                tablasConcedidas = CompletableFuture.completedFuture(concedidas);
+            }
+        } else {
+            cargar("tablas concedidas", tablasConcedidas, master::getAccessibleTables);
+        }
+        cargar("database links", dbLinks, () -> connectionUser.getRemoteManager().getAvailableDatabaseLinks());
+        if (propias != null && maxEstructuras > 0) {
+            cargar("estructuras", new CompletableFuture<>(), () -> cargarEstructuras(propias));
+        }
+    }
+
+    private void cargarModoRemoto() throws Exception {
+        // En segundo plano los grupos van uno tras otro: Remote-view los carga a la vez solo si no están
+        RemoteModeManager remoto = connectionUser.getRemoteManager();
+        InstantaneaCatalogo guardada = instantanea;
+        for (RemoteModeManager.GrupoCatalogo grupo : RemoteModeManager.GrupoCatalogo.values()) {
+            RemoteModeManager.ParteCatalogo anterior = guardada != null ? guardada.getGrupos().get(grupo) : null;
+            if (anterior != null) {
+                RemoteModeManager.ParteCatalogo parte = cargar("catálogo " + grupo.getDescripcion(),
+                    new CompletableFuture<>(), () -> remoto.refrescarGrupo(anterior));
+                if (parte != null) {
+                    actualizarCatalogoRemoto(parte);
+                }
+            } else {
+                cargar("catálogo " + grupo.getDescripcion(), catalogoRemoto.get(grupo), () -> remoto.cargarGrupo(grupo));
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una sección y deja su resultado en destino. Una falla se registra y la cadena
+     * sigue con la próxima sección; la cancelación (logout) corta la cadena.
+     */
+    private <T> T cargar(String seccion, CompletableFuture<T> destino, QueryExecutor.Tarea<T> carga) throws Exception {
+        token.verificar();
+        long inicio = System.nanoTime();
+        try {
+            T valor = carga.ejecutar();
+            destino.complete(valor);
+            tiempos.put(seccion, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            avisar();
+            return valor;
+        } catch (Exception e) {
+            destino.completeExceptionally(e);
+            if (token.isCancelado()) {
+                throw e;
+            }
+            conFallas = true;
+            System.err.println("⚠️ Precarga de " + seccion + " falló: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Estructura de las tablas propias con más filas, todas con la misma conexión
+     */
+    private Integer cargarEstructuras(List<MasterModeManager.TablaInfo> propias) throws SQLException {
+        List<MasterModeManager.TablaInfo> mayores = new ArrayList<>(propias);
+        mayores.sort(Comparator.comparingLong(MasterModeManager.TablaInfo::getNumRows).reversed());
+        if (mayores.size() > maxEstructuras) {
+            mayores = mayores.subList(0, maxEstructuras);
+        }
+
+        CatalogoEsquema catalogo = connectionUser.getCatalogoEsquema();
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            for (MasterModeManager.TablaInfo tabla : mayores) {
+                uso.verificarCancelacion();
+                catalogo.cargar(uso, tabla.getNombre());
+                estructurasCargadas++;
+            }
+        }
+        return estructurasCargadas;
+    }
+
+    private void terminarCadena() {
+        if (cadenasPendientes.decrementAndGet() > 0 || estado == Estado.DETENIDA) {
+            return;
+        }
+        milisegundos = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos);
+        estado = conFallas ? Estado.INCOMPLETA : Estado.LISTA;
+        System.out.println("📦 Catálogo precargado en " + milisegundos + " ms" +
+                           (conFallas ? " (con secciones fallidas)" : "") + " " + tiempos);
+        avisar();
+        guardarInstantanea();
+    }
+
+    /**
+     * Guarda en disco lo que ya está cargado (al terminar la precarga y al cerrar sesión)
+     */
+    public synchronized void guardarInstantanea() {
+        if (!config.isInstantaneaActiva() || estado == Estado.DETENIDA) {
+            return;
+        }
+        try {
+            InstantaneaCatalogo nueva = new InstantaneaCatalogo();
+            // Marcas antes que listas: una lista más nueva que su marca solo repite cambios en el próximo refresco
+            nueva.setMarcas(connectionUser.getCatalogoIncremental().copiarMarcas());
+            nueva.setTablasPropias(valor(tablasPropias));
+            nueva.setTablasConcedidas(valor(tablasConcedidas));
+            for (CompletableFuture<RemoteModeManager.ParteCatalogo> parte : catalogoRemoto.values()) {
+                if (valor(parte) != null) {
+                    nueva.setGrupo(valor(parte));
+                }
+            }
+            nueva.setEstructuras(connectionUser.getCatalogoEsquema().copiarEntradas());
+            String usuario = connectionUser.getCurrentUser();
+            String host = connectionUser.getCurrentHost();
+            nueva.guardar(InstantaneaCatalogo.archivo(config, usuario, host), usuario, host);
+        } catch (IOException | SQLException e) {
+            System.err.println("⚠️ No se pudo guardar la instantánea del catálogo: " + e.getMessage());
+        }
+    }
+
+    private static <T> T valor(CompletableFuture<T> futuro) {
+        return futuro.isDone() && !futuro.isCompletedExceptionally() ? futuro.join() : null;
+    }
+
+    /**
+     * Cancela lo que esté en curso y descarta lo precargado (logout)
+     */
+    public void detener() {
+        if (estado == Estado.DETENIDA) {
+            return;
+        }
+        estado = Estado.DETENIDA;
+        oyente = null;
+        token.cancelar();
+        SQLException detenida = new SQLException("Precarga detenida");
+        tablasPropias.completeExceptionally(detenida);
+        tablasConcedidas.completeExceptionally(detenida);
+        dbLinks.completeExceptionally(detenida);
+        for (CompletableFuture<RemoteModeManager.ParteCatalogo> parte : catalogoRemoto.values()) {
+            parte.completeExceptionally(detenida);
+        }
+    }
+
+    /**
+     * Tablas propias: las precargadas (ya listas o en camino) o, si la precarga no
+     * las tiene, una consulta nueva en el ejecutor
+     */
+    public CompletableFuture<List<MasterModeManager.TablaInfo>> obtenerTablasPropias() {
+        return conRespaldo(tablasPropias, () -> connectionUser.getMasterManager().getMyTables());
+    }
+
+    public CompletableFuture<List<MasterModeManager.TablaInfo>> obtenerTablasConcedidas() {
+        return conRespaldo(tablasConcedidas, () -> connectionUser.getMasterManager().getAccessibleTables());
+    }
+
+    public CompletableFuture<List<String>> obtenerDbLinks() {
+        return conRespaldo(dbLinks, () -> connectionUser.getRemoteManager().getAvailableDatabaseLinks());
+    }
+
+    /**
+     * Un grupo del catálogo del modo remoto (precargado, en camino o consultado de nuevo)
+     */
+    public CompletableFuture<RemoteModeManager.ParteCatalogo> obtenerGrupoRemoto(RemoteModeManager.GrupoCatalogo grupo) {
+        return conRespaldo(catalogoRemoto.get(grupo), () -> connectionUser.getRemoteManager().cargarGrupo(grupo));
+    }
+
+    /**
+     * Tablas concedidas tal como están en la precarga, sin consulta de respaldo si faltan
+     */
+    public CompletableFuture<List<MasterModeManager.TablaInfo>> getTablasConcedidas() {
+        return tablasConcedidas;
+    }
+
+    /**
+     * Un grupo del catálogo remoto tal como está en la precarga, sin consulta de respaldo
+     */
+    public CompletableFuture<RemoteModeManager.ParteCatalogo> getGrupoRemoto(RemoteModeManager.GrupoCatalogo grupo) {
+        return catalogoRemoto.get(grupo);
+    }
+
+    private <T> CompletableFuture<T> conRespaldo(CompletableFuture<T> precargado, QueryExecutor.Tarea<T> carga) {
+        if (estado == Estado.DETENIDA) {
+            return QueryExecutor.getInstance().ejecutar(carga);
+        }
+        return precargado
+            .handle((valor, error) -> error == null
+                                      ? CompletableFuture.completedFuture(valor)
+                                      : QueryExecutor.getInstance().ejecutar(carga))
+            .thenCompose(futuro -> futuro);
+    }
+
+    /**
+     * Reemplaza las tablas propias por la lista puesta al día (Master-view)
+     */
+    public void actualizarTablasPropias(List<MasterModeManager.TablaInfo> tablas) {
+        if (estado != Estado.DETENIDA) {
+            tablasPropias = CompletableFuture.completedFuture(tablas);
+        }
+    }
+
+    /**
+     * Reemplaza un grupo del catálogo remoto por uno recién consultado (botón Actualizar de Remote-view)
+     */
+    public void actualizarCatalogoRemoto(RemoteModeManager.ParteCatalogo parte) {
+        if (estado != Estado.DETENIDA) {
+            catalogoRemoto.put(parte.getGrupo(), CompletableFuture.completedFuture(parte));
+        }
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * Recibe los cambios de estado en el hilo de JavaFX (uno a la vez: el de la pantalla visible)
+     */
+    public void setOyente(Runnable oyente) {
+        this.oyente = oyente;
+    }
+
+    private void avisar() {
+        Runnable o = oyente;
+        if (o != null) {
+            QueryExecutor.enFx(o);
+        }
+    }
+
+    /**
+     * Estado en una línea para la interfaz
+     */
+    public String getResumen() {
+        switch (estado) {
+            case CARGANDO:
+                long transcurrido = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos);
+                return "Precargando catálogo... (" + tiempos.size() + "/" + TOTAL_SECCIONES + ", " + transcurrido + " ms)";
+            case LISTA:
+                return "Catálogo en memoria (" + milisegundos + " ms)";
+            case INCOMPLETA:
+                return "Catálogo en memoria con secciones fallidas (" + milisegundos + " ms)";
+            case DETENIDA:
+                return "Precarga detenida";
+            default:
+                return "Precarga pendiente";
+        }
+    }
+
+    /**
+     * Estado y tiempo de cada sección
+     */
+    public String obtenerEstadisticas() {
+        StringBuilder sb = new StringBuilder("Precarga del catálogo: ").append(estado);
+        if (estado == Estado.LISTA || estado == Estado.INCOMPLETA) {
+            sb.append(" en ").append(milisegundos).append(" ms");
+        }
+        synchronized (tiempos) {
+            for (Map.Entry<String, Long> tiempo : tiempos.entrySet()) {
+                sb.append("\n  ").append(tiempo.getKey()).append(": ").append(tiempo.getValue()).append(" ms");
+            }
+        }
+        sb.append("\n  estructuras precargadas: ").append(estructurasCargadas);
+        return sb.toString();
+    }
+}
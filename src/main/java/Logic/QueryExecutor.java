@@ -0,0 +1,233 @@
+package Logic;
+
+import javafx.application.Platform;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Ejecuta el trabajo JDBC fuera del hilo de JavaFX.
+ * Las tareas corren en un conjunto acotado de hilos (virtuales si el runtime los soporta)
+ * y devuelven CompletableFuture. Los resultados vuelven a la interfaz con enFx(),
+ * que agrupa todas las actualizaciones pendientes en un solo Platform.runLater.
+ */
+public class QueryExecutor {
+    private static QueryExecutor instance;
+
+    // Actualizaciones de interfaz pendientes y si ya hay un runLater programado para drenarlas
+    private static final ConcurrentLinkedQueue<Runnable> PENDIENTES_FX = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean DRENADO_PROGRAMADO = new AtomicBoolean();
+
+    private final ExecutorService hilos;
+    // Partes de una tarea que ya tiene su cupo y las espera (sin cupo propio: no se bloquean entre sí)
+    private final ExecutorService subtareas;
+    private final Semaphore cupos;
+    private final boolean virtuales;
+    private final int maxConcurrentes;
+
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicLong completadas = new AtomicLong();
+    private final AtomicLong fallidas = new AtomicLong();
+    private final AtomicLong canceladas = new AtomicLong();
+
+    /**
+     * Trabajo que puede lanzar SQLException u otra excepción comprobada
+     */
+    @FunctionalInterface
+    public interface Tarea<T> {
+        T ejecutar() throws Exception;
+    }
+
+    private QueryExecutor(int maxConcurrentes) {
+        this.maxConcurrentes = Math.max(1, maxConcurrentes);
+        this.cupos = new Semaphore(this.maxConcurrentes);
+        ExecutorService virtual = crearEjecutorVirtual();
+        this.virtuales = virtual != null;
+        if (virtual != null) {
+            this.hilos = virtual;
+        } else {
+            AtomicInteger contador = new AtomicInteger();
+            this.hilos = Executors.newFixedThreadPool(this.maxConcurrentes, r -> {
+                Thread t = new Thread(r, "consulta-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        ExecutorService subtareasVirtuales = crearEjecutorVirtual();
+        if (subtareasVirtuales != null) {
+            this.subtareas = subtareasVirtuales;
+        } else {
+            AtomicInteger contadorSubtareas = new AtomicInteger();
+            this.subtareas = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "subtarea-" + contadorSubtareas.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        System.out.println("⚙️ Ejecutor de consultas: " + this.maxConcurrentes + " concurrentes" +
+                           (virtuales ? " (hilos virtuales)" : ""));
+    }
+
+    public static synchronized QueryExecutor getInstance() {
+        if (instance == null) {
+            instance = new QueryExecutor(new ConfigurationManager().getExecutorMaxThreads());
+        }
+        return instance;
+    }
+
+    /**
+     * Hilos virtuales (Java 21+) por reflexión: el proyecto compila con Java 17
+     */
+    private static ExecutorService crearEjecutorVirtual() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Ejecuta la tarea en segundo plano. Como máximo executor.max.threads tareas corren a la vez;
+     * el resto espera su turno.
+     */
+    public <T> CompletableFuture<T> ejecutar(Tarea<T> tarea) {
+        return ejecutar(tarea, null);
+    }
+
+    /**
+     * Ejecuta la tarea con un token de cancelación: las sentencias que abra la tarea
+     * (por ConnectionRouter.Uso) se detienen cuando se llama token.cancelar()
+     */
+    public <T> CompletableFuture<T> ejecutar(Tarea<T> tarea, TokenCancelacion token) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        try {
+            hilos.execute(() -> correr(tarea, token, futuro, true));
+        } catch (RuntimeException e) {
+            // Ejecutor cerrado (la aplicación está saliendo)
+            futuro.completeExceptionally(e);
+        }
+        return futuro;
+    }
+
+    /**
+     * Ejecuta una parte de una tarea que ya corre en el ejecutor y que va a esperar el
+     * resultado (p. ej. una consulta por database link). No pide cupo: si lo pidiera, varias
+     * tareas esperando a sus partes podrían ocupar todos los cupos y no avanzar nunca. El
+     * paralelismo real lo acotan las conexiones del carril que use cada parte.
+     */
+    public <T> CompletableFuture<T> ejecutarSubtarea(Tarea<T> tarea, TokenCancelacion token) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        try {
+            subtareas.execute(() -> correr(tarea, token, futuro, false));
+        } catch (RuntimeException e) {
+            futuro.completeExceptionally(e);
+        }
+        return futuro;
+    }
+
+    private <T> void correr(Tarea<T> tarea, TokenCancelacion token, CompletableFuture<T> futuro, boolean conCupo) {
+        if (conCupo) {
+            try {
+                cupos.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futuro.completeExceptionally(e);
+                return;
+            }
+        }
+        enCurso.incrementAndGet();
+        TokenCancelacion.establecer(token);
+        try {
+            // Cancelada mientras esperaba su turno: no se ejecuta
+            if (token != null) {
+                token.verificar();
+            }
+            futuro.complete(tarea.ejecutar());
+            completadas.incrementAndGet();
+        } catch (Throwable e) {
+            if (TokenCancelacion.esCancelacion(e)) {
+                canceladas.incrementAndGet();
+            } else {
+                fallidas.incrementAndGet();
+            }
+            futuro.completeExceptionally(e);
+        } finally {
+            TokenCancelacion.establecer(null);
+            enCurso.decrementAndGet();
+            if (conCupo) {
+                cupos.release();
+            }
+        }
+    }
+
+    /**
+     * Encola una actualización de interfaz. Todas las que llegan antes del próximo pulso
+     * se ejecutan juntas dentro de un único Platform.runLater.
+     */
+    public static void enFx(Runnable accion) {
+        PENDIENTES_FX.add(accion);
+        if (DRENADO_PROGRAMADO.compareAndSet(false, true)) {
+            Platform.runLater(QueryExecutor::drenarFx);
+        }
+    }
+
+    /**
+     * Adapta un callback de whenComplete para que corra en el hilo de JavaFX.
+     * El error llega sin el envoltorio CompletionException.
+     */
+    public static <T> BiConsumer<T, Throwable> enFx(BiConsumer<T, Throwable> accion) {
+        return (resultado, error) -> enFx(() -> accion.accept(resultado, causaReal(error)));
+    }
+
+    private static void drenarFx() {
+        // Se libera antes de drenar: lo que llegue durante el drenado programa otro pulso
+        DRENADO_PROGRAMADO.set(false);
+        Runnable accion;
+        while ((accion = PENDIENTES_FX.poll()) != null) {
+            try {
+                accion.run();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error actualizando la interfaz: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Quita los envoltorios de CompletableFuture para mostrar el error original
+     */
+    public static Throwable causaReal(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+               && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Detiene los hilos (al salir de la aplicación)
+     */
+    public static synchronized void cerrar() {
+        if (instance != null) {
+            instance.hilos.shutdownNow();
+            instance.subtareas.shutdownNow();
+            instance = null;
+        }
+    }
+
+    public String obtenerEstadisticas() {
+        return String.format("Ejecutor de consultas: %d en curso (máx. %d%s), %d completadas, %d fallidas, %d canceladas",
+                             enCurso.get(), maxConcurrentes, virtuales ? ", hilos virtuales" : "",
+                             completadas.get(), fallidas.get(), canceladas.get());
+    }
+}
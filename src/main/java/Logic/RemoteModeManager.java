@@ -2,7 +2,17 @@ package Logic;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Gestiona operaciones en MODO REMOTE
@@ -41,14 +51,10 @@ public class RemoteModeManager {
             return vistas;
         }
 
-        try {
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
             // Obtener vistas propias
-            String sql = "SELECT VIEW_NAME, TEXT_LENGTH, READ_ONLY " +
-                        "FROM USER_VIEWS ORDER BY VIEW_NAME";
-            
-            Connection conn = connectionUser.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.VISTAS_PROPIAS);
+            ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
                 VistaInfo vista = new VistaInfo(
@@ -62,17 +68,10 @@ public class RemoteModeManager {
             }
 
             rs.close();
-            stmt.close();
             
             // Obtener vistas accesibles de otros schemas (grants)
-            sql = "SELECT OWNER, TABLE_NAME as VIEW_NAME, PRIVILEGE " +
-                  "FROM USER_TAB_PRIVS " +
-                  "WHERE TABLE_NAME IN (SELECT VIEW_NAME FROM ALL_VIEWS WHERE OWNER = USER_TAB_PRIVS.OWNER) " +
-                  "AND PRIVILEGE IN ('SELECT', 'READ') " +
-                  "ORDER BY OWNER, TABLE_NAME";
-            
-            stmt = conn.createStatement();
-            rs = stmt.executeQuery(sql);
+            pstmt = uso.preparar(SqlRegistry.VISTAS_CONCEDIDAS);
+            rs = pstmt.executeQuery();
 
             while (rs.next()) {
                 VistaInfo vista = new VistaInfo(
@@ -86,7 +85,6 @@ public class RemoteModeManager {
             }
 
             rs.close();
-            stmt.close();
             
             System.out.println("👁️ Encontradas " + vistas.size() + " vistas disponibles");
             
@@ -107,12 +105,10 @@ public class RemoteModeManager {
             return vistas;
         }
 
-        try {
-            String sql = "SELECT VIEW_NAME FROM USER_VIEWS@" + databaseLink + " ORDER BY VIEW_NAME";
-            
-            Connection conn = connectionUser.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            // El link no puede ir como bind: SqlRegistry valida el nombre y genera una entrada por link
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.VISTAS_REMOTAS, databaseLink);
+            ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
                 VistaInfo vista = new VistaInfo(
@@ -126,11 +122,10 @@ public class RemoteModeManager {
             }
 
             rs.close();
-            stmt.close();
             
             System.out.println("🌐 Encontradas " + vistas.size() + " vistas remotas en " + databaseLink);
             
-        } catch (SQLException e) {
+        } catch (SQLException | IllegalArgumentException e) {
             System.err.println("Error obteniendo vistas remotas: " + e.getMessage());
             // Es normal que falle si no hay database link configurado
         }
@@ -148,22 +143,22 @@ public class RemoteModeManager {
 
         StringBuilder result = new StringBuilder();
         
-        try {
-            String sql = "SELECT * FROM " + viewName;
+        try (ConnectionRouter.Uso uso = connectionUser.usarParaObjeto(OperationType.CONSULTA, viewName)) {
+            String sql = "SELECT * FROM " + uso.getObjeto();
             
             if (whereClause != null && !whereClause.trim().isEmpty()) {
-                sql += " WHERE " + whereClause;
-            }
-            
-            if (limit > 0) {
-                sql += " AND ROWNUM <= " + limit;
+                sql += " WHERE (" + whereClause + ") AND ROWNUM <= ?";
             } else {
-                sql += " AND ROWNUM <= 100"; // Límite por defecto
+                sql += " WHERE ROWNUM <= ?";
+            }
+            if (limit <= 0) {
+                limit = 100; // Límite por defecto
             }
+            uso.ajustarFetch(uso.getObjeto(), limit);
 
-            Connection conn = connectionUser.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
+            PreparedStatement pstmt = uso.prepararSql(sql);
+            pstmt.setInt(1, limit);
+            ResultSet rs = pstmt.executeQuery();
 
             ResultSetMetaData metadata = rs.getMetaData();
             int columnCount = metadata.getColumnCount();
@@ -196,7 +191,6 @@ public class RemoteModeManager {
             }
 
             rs.close();
-            stmt.close();
             
         } catch (SQLException e) {
             result.append("Error accediendo a la vista: ").append(e.getMessage()).append("\n");
@@ -219,13 +213,9 @@ public class RemoteModeManager {
 
         StringBuilder info = new StringBuilder();
         
-        try {
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
             // Información básica de la vista
-            String sql = "SELECT VIEW_NAME, TEXT, TEXT_LENGTH, READ_ONLY " +
-                        "FROM USER_VIEWS WHERE VIEW_NAME = ?";
-            
-            Connection conn = connectionUser.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql);
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.INFO_VISTA);
             pstmt.setString(1, viewName.toUpperCase());
             ResultSet rs = pstmt.executeQuery();
 
@@ -237,9 +227,8 @@ public class RemoteModeManager {
                 info.append("Definición SQL:\n").append(rs.getString("TEXT")).append("\n");
             } else {
                 // Intentar como vista de otro schema
-                sql = "SELECT OWNER, VIEW_NAME FROM ALL_VIEWS WHERE VIEW_NAME = ? AND OWNER IN " +
-                      "(SELECT OWNER FROM USER_TAB_PRIVS WHERE TABLE_NAME = ?)";
-                pstmt = conn.prepareStatement(sql);
+                rs.close();
+                pstmt = uso.preparar(SqlRegistry.INFO_VISTA_EXTERNA);
                 pstmt.setString(1, viewName.toUpperCase());
                 pstmt.setString(2, viewName.toUpperCase());
                 rs = pstmt.executeQuery();
@@ -255,12 +244,9 @@ public class RemoteModeManager {
             }
 
             rs.close();
-            pstmt.close();
 
             // Información de columnas
-            sql = "SELECT COLUMN_NAME, DATA_TYPE, NULLABLE " +
-                  "FROM USER_TAB_COLUMNS WHERE TABLE_NAME = ? ORDER BY COLUMN_ID";
-            pstmt = conn.prepareStatement(sql);
+            pstmt = uso.preparar(SqlRegistry.COLUMNAS_VISTA);
             pstmt.setString(1, viewName.toUpperCase());
             rs = pstmt.executeQuery();
             
@@ -276,7 +262,6 @@ public class RemoteModeManager {
             }
 
             rs.close();
-            pstmt.close();
 
         } catch (SQLException e) {
             info.append("Error obteniendo información: ").append(e.getMessage());
@@ -295,12 +280,9 @@ public class RemoteModeManager {
             return links;
         }
 
-        try {
-            String sql = "SELECT DB_LINK, USERNAME, HOST FROM USER_DB_LINKS ORDER BY DB_LINK";
-            
-            Connection conn = connectionUser.getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            PreparedStatement pstmt = uso.preparar(SqlRegistry.DB_LINKS);
+            ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
                 String linkInfo = String.format("%s (%s@%s)", 
@@ -312,7 +294,6 @@ public class RemoteModeManager {
             }
 
             rs.close();
-            stmt.close();
             
         } catch (SQLException e) {
             System.err.println("Error obteniendo database links: " + e.getMessage());
@@ -321,6 +302,273 @@ public class RemoteModeManager {
         return links;
     }
 
+    /**
+     * Carga un grupo del catálogo del modo remoto en su propia conexión: LOCAL y CONCEDIDO con
+     * una sola consulta por el carril de lectura, REMOTO consultando a la vez todos los
+     * database links de USER_DB_LINKS. Los grupos pueden cargarse a la vez.
+     */
+    public ParteCatalogo cargarGrupo(GrupoCatalogo grupo) throws SQLException {
+        if (grupo == GrupoCatalogo.REMOTO) {
+            return descubrirEnLinks(null);
+        }
+        ParteCatalogo parte = new ParteCatalogo(grupo);
+        if (!connectionUser.estaConectado()) {
+            return parte;
+        }
+        
+        long inicio = System.nanoTime();
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            if (grupo == GrupoCatalogo.LOCAL) {
+                cargarEn(uso, parte, grupo.getLista(), SqlRegistry.CATALOGO_LOCAL, "");
+            } else {
+                ResultSet rs = uso.preparar(SqlRegistry.CATALOGO_CONCEDIDO).executeQuery();
+                while (rs.next()) {
+                    String owner = rs.getString("OWNER");
+                    parte.agregar(rs.getString("CATEGORIA"), owner + "." + rs.getString("TABLE_NAME"),
+                                  owner, "Acceso: " + rs.getString("PRIVILEGE"));
+                }
+                rs.close();
+            }
+        }
+        
+        System.out.println("📚 Catálogo " + grupo.getDescripcion() + ": " + parte.getVistas().size() + " vistas, " +
+                           parte.getTablas().size() + " tablas (" +
+                           (System.nanoTime() - inicio) / 1_000_000 + " ms)");
+        return parte;
+    }
+
+    /**
+     * Pone al día un grupo ya cargado: trae solo los objetos creados o alterados desde la
+     * última marca de su nodo y quita los borrados. Los nuevos quedan al final de su lista.
+     * El grupo concedido depende de USER_TAB_PRIVS (un GRANT no altera nuestros objetos)
+     * y se vuelve a cargar completo, igual que un grupo sin marca.
+     */
+    public ParteCatalogo refrescarGrupo(ParteCatalogo actual) throws SQLException {
+        GrupoCatalogo grupo = actual.getGrupo();
+        if (grupo == GrupoCatalogo.REMOTO) {
+            return descubrirEnLinks(actual);
+        }
+        if (grupo == GrupoCatalogo.CONCEDIDO || !connectionUser.estaConectado()) {
+            return cargarGrupo(grupo);
+        }
+        
+        ParteCatalogo nueva;
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            nueva = refrescarEn(uso, actual, grupo.getLista(), SqlRegistry.CATALOGO_LOCAL_DESDE, "");
+        }
+        return nueva != null ? nueva : cargarGrupo(grupo);
+    }
+
+    /**
+     * Descubre vistas y tablas en todos los database links a la vez. Cada link tiene su propio
+     * timeout (federacion.timeout) y un cortacircuitos: los que fallaron hace poco se saltan sin
+     * esperarlos. Un link omitido o con error conserva los objetos que tenía en "anterior".
+     * Cada link corre como subtarea (sin ocupar cupos del ejecutor) con su propio token: el que
+     * no responde a tiempo se cancela y suelta su conexión. El paralelismo real lo limita el
+     * carril de lectura (los links que no tienen sesión directa comparten sus conexiones).
+     */
+    private ParteCatalogo descubrirEnLinks(ParteCatalogo anterior) throws SQLException {
+        ParteCatalogo parte = new ParteCatalogo(GrupoCatalogo.REMOTO);
+        if (!connectionUser.estaConectado()) {
+            return parte;
+        }
+        
+        long inicio = System.nanoTime();
+        List<String> links = leerNombresLinks();
+        CircuitoLinks circuito = connectionUser.getCircuitoLinks();
+        int timeout = config.getFederacionTimeout();
+        TokenCancelacion token = TokenCancelacion.actual();
+        Set<String> iniciados = ConcurrentHashMap.newKeySet();
+        
+        Map<String, CompletableFuture<ParteCatalogo>> consultas = new LinkedHashMap<>();
+        Map<String, TokenCancelacion> tokens = new HashMap<>();
+        for (String link : links) {
+            if (circuito.permitir(link)) {
+                ParteCatalogo previa = anterior != null ? anterior.delLink(link) : null;
+                TokenCancelacion tokenLink = TokenCancelacion.derivar(token);
+                tokens.put(link, tokenLink);
+                consultas.put(link, QueryExecutor.getInstance().ejecutarSubtarea(() -> {
+                    iniciados.add(link);
+                    return cargarLink(link, previa, timeout);
+                }, tokenLink));
+            }
+        }
+        
+        // El timeout de cada sentencia lo aplica Oracle; el límite total cubre además la espera
+        // de conexión del carril de lectura
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(2L * Math.max(1, timeout));
+        int conError = 0;
+        try {
+            for (String link : links) {
+                CompletableFuture<ParteCatalogo> consulta = consultas.remove(link);
+                if (consulta == null) {
+                    conservar(anterior, link, parte);
+                    parte.resumir(link, "omitido, reintento en " + circuito.getSegundosParaReintento(link) + " s");
+                    continue;
+                }
+                try {
+                    ParteCatalogo delLink = consulta.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    circuito.registrarExito(link, delLink.getLatenciaMs());
+                    parte.sumar(delLink);
+                    parte.resumir(link, delLink.getLatenciaMs() + " ms, " +
+                                  (delLink.getVistas().size() + delLink.getTablas().size()) + " objetos");
+                } catch (TimeoutException e) {
+                    // Se deja de esperar y se corta: la sentencia en curso suelta la conexión
+                    tokens.get(link).cancelar();
+                    consulta.cancel(true);
+                    conError++;
+                    conservar(anterior, link, parte);
+                    if (iniciados.contains(link)) {
+                        circuito.registrarFallo(link, "sin respuesta en " + timeout + " s");
+                        parte.resumir(link, "sin respuesta en " + timeout + " s");
+                    } else {
+                        // No llegó a consultarse: el link no tiene la culpa
+                        circuito.abandonar(link);
+                        parte.resumir(link, "no llegó a iniciarse");
+                    }
+                } catch (ExecutionException e) {
+                    Throwable causa = QueryExecutor.causaReal(e);
+                    if (TokenCancelacion.esCancelacion(causa)) {
+                        circuito.abandonar(link);
+                        throw causa instanceof SQLException ? (SQLException) causa : new SQLException(causa.getMessage(), causa);
+                    }
+                    conError++;
+                    conservar(anterior, link, parte);
+                    circuito.registrarFallo(link, causa.getMessage());
+                    parte.resumir(link, "error: " + causa.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Descubrimiento en database links interrumpido", e);
+        } finally {
+            // Cancelada a mitad: los links que quedaron sin respuesta se cortan y no cuentan como fallo
+            for (Map.Entry<String, CompletableFuture<ParteCatalogo>> pendiente : consultas.entrySet()) {
+                tokens.get(pendiente.getKey()).cancelar();
+                pendiente.getValue().cancel(true);
+                circuito.abandonar(pendiente.getKey());
+            }
+        }
+        
+        System.out.println("🌐 Catálogo remoto en " + links.size() + " links: " + parte.getVistas().size() + " vistas, " +
+                           parte.getTablas().size() + " tablas, " + conError + " con error (" +
+                           (System.nanoTime() - inicio) / 1_000_000 + " ms)");
+        return parte;
+    }
+
+    /**
+     * Nombres de USER_DB_LINKS, más PROYECTO_REAL si se llega por sesión directa sin link
+     */
+    private List<String> leerNombresLinks() throws SQLException {
+        List<String> links = new ArrayList<>();
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.CATALOGO)) {
+            ResultSet rs = uso.preparar(SqlRegistry.DB_LINKS).executeQuery();
+            while (rs.next()) {
+                links.add(rs.getString("DB_LINK"));
+            }
+            rs.close();
+        }
+        NodeManager nodos = connectionUser.getNodeManager();
+        if (!links.contains(NodeManager.LINK_REMOTO) && nodos != null && nodos.paraLink(NodeManager.LINK_REMOTO) != null) {
+            links.add(0, NodeManager.LINK_REMOTO);
+        }
+        return links;
+    }
+
+    /**
+     * Catálogo de un solo link: por diferencia si ya tiene marca, si no completo
+     */
+    private ParteCatalogo cargarLink(String link, ParteCatalogo previa, int timeout) throws SQLException {
+        long inicio = System.nanoTime();
+        String lista = GrupoCatalogo.REMOTO.getLista() + "@" + link;
+        String sufijo = "@" + link;
+        ParteCatalogo parte = null;
+        try (ConnectionRouter.Uso uso = connectionUser.usarParaLink(OperationType.CATALOGO, link).conTimeout(timeout)) {
+            if (previa != null) {
+                parte = refrescarEn(uso, previa, lista, SqlRegistry.CATALOGO_REMOTO_DESDE, sufijo);
+            }
+            if (parte == null) {
+                parte = new ParteCatalogo(GrupoCatalogo.REMOTO);
+                cargarEn(uso, parte, lista, SqlRegistry.CATALOGO_REMOTO, sufijo);
+            }
+        }
+        parte.latenciaMs = (System.nanoTime() - inicio) / 1_000_000;
+        return parte;
+    }
+
+    /**
+     * Carga completa de una lista con marca (catálogo local o de un link)
+     */
+    private void cargarEn(ConnectionRouter.Uso uso, ParteCatalogo parte, String lista,
+                          String sentencia, String sufijo) throws SQLException {
+        // La marca va antes de la lectura: lo que cambie mientras tanto vuelve en el próximo refresco
+        connectionUser.getCatalogoIncremental().marcar(uso, lista, uso.getDbLink());
+        ResultSet rs = uso.preparar(sentencia, uso.getDbLink()).executeQuery();
+        while (rs.next()) {
+            parte.agregar(rs.getString("CATEGORIA"), rs.getString("NOMBRE") + sufijo,
+                          rs.getString("OWNER"), rs.getString("ESTADO"));
+        }
+        rs.close();
+    }
+
+    /**
+     * Refresco por diferencia de una lista. Devuelve null si la lista no tiene marca.
+     */
+    private ParteCatalogo refrescarEn(ConnectionRouter.Uso uso, ParteCatalogo actual, String lista,
+                                      String sentencia, String sufijo) throws SQLException {
+        CatalogoIncremental.Refresco refresco =
+            connectionUser.getCatalogoIncremental().iniciar(uso, lista, uso.getDbLink());
+        if (refresco == null) {
+            return null;
+        }
+        
+        GrupoCatalogo grupo = actual.getGrupo();
+        ParteCatalogo cambios = new ParteCatalogo(grupo);
+        Set<String> cambiados = new HashSet<>();
+        PreparedStatement pstmt = uso.preparar(sentencia, uso.getDbLink());
+        pstmt.setString(1, refresco.getDesde());
+        ResultSet rs = pstmt.executeQuery();
+        while (rs.next()) {
+            String nombre = rs.getString("NOMBRE");
+            refresco.cambio(nombre);
+            cambiados.add(nombre + sufijo);
+            cambios.agregar(rs.getString("CATEGORIA"), nombre + sufijo, rs.getString("OWNER"), rs.getString("ESTADO"));
+        }
+        rs.close();
+        Set<String> vigentes = refresco.terminar(uso);
+        
+        // Se conservan los objetos sin cambios en su lugar; los cambiados se reemplazan
+        ParteCatalogo nueva = new ParteCatalogo(grupo);
+        int borrados = 0;
+        for (int i = 0; i < 2; i++) {
+            boolean esVista = i == 0;
+            for (ObjetoCatalogo objeto : esVista ? actual.getVistas() : actual.getTablas()) {
+                String nombre = objeto.getNombre();
+                if (cambiados.contains(nombre)) {
+                    continue;
+                }
+                if (vigentes != null && !vigentes.contains(nombre.substring(0, nombre.length() - sufijo.length()))) {
+                    borrados++;
+                    continue;
+                }
+                nueva.agregar(esVista ? "VISTA" : "TABLA", nombre, objeto.getSchema(), objeto.getEstado());
+            }
+        }
+        nueva.sumar(cambios);
+        
+        System.out.println("🔄 " + lista + " al día: " + cambiados.size() + " cambiados, " + borrados + " borrados");
+        return nueva;
+    }
+
+    /**
+     * Pasa a "parte" los objetos que "anterior" tenía de un link que no respondió
+     */
+    private static void conservar(ParteCatalogo anterior, String link, ParteCatalogo parte) {
+        if (anterior != null) {
+            parte.sumar(anterior.delLink(link));
+        }
+    }
+
     /**
      * Clase interna para información de vistas
      */
@@ -352,4 +600,131 @@ public class RemoteModeManager {
             return String.format("%s [%s] - %s", nombre, schema, estado);
         }
     }
+
+    /**
+     * Vista o tabla del catálogo del modo remoto
+     */
+    public static class ObjetoCatalogo {
+        private final String nombre;
+        private final String schema;
+        private final String estado;
+
+        public ObjetoCatalogo(String nombre, String schema, String estado) {
+            this.nombre = nombre;
+            this.schema = schema;
+            this.estado = estado;
+        }
+
+        public String getNombre() { return nombre; }
+        public String getSchema() { return schema; }
+        public String getEstado() { return estado; }
+    }
+
+    /**
+     * Grupos del catálogo del modo remoto, en el orden en que se muestran
+     */
+    public enum GrupoCatalogo {
+        LOCAL("local"),
+        CONCEDIDO("concedido"),
+        REMOTO("remoto");
+
+        private final String descripcion;
+
+        GrupoCatalogo(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+
+        /**
+         * Nombre de la lista en el CatalogoIncremental
+         */
+        String getLista() {
+            return "catálogo " + descripcion;
+        }
+    }
+
+    /**
+     * Vistas y tablas de un grupo del catálogo
+     */
+    public static class ParteCatalogo {
+        private final GrupoCatalogo grupo;
+        private final List<ObjetoCatalogo> vistas = new ArrayList<>();
+        private final List<ObjetoCatalogo> tablas = new ArrayList<>();
+        // Un mismo nombre puede venir como vista y como vista materializada: se muestra una vez
+        private final Set<String> vistasYaAgregadas = new HashSet<>();
+        // Database link -> latencia y objetos, o por qué se omitió
+        private final Map<String, String> resumenLinks = new LinkedHashMap<>();
+        private long latenciaMs;
+
+        public ParteCatalogo(GrupoCatalogo grupo) {
+            this.grupo = grupo;
+        }
+
+        void agregar(String categoria, String nombre, String schema, String estado) {
+            if ("VISTA".equals(categoria)) {
+                if (vistasYaAgregadas.add(nombre)) {
+                    vistas.add(new ObjetoCatalogo(nombre, schema, estado));
+                }
+            } else {
+                tablas.add(new ObjetoCatalogo(nombre, schema, estado));
+            }
+        }
+
+        /**
+         * Agrega al final todos los objetos de otra parte
+         */
+        void sumar(ParteCatalogo otra) {
+            for (ObjetoCatalogo objeto : otra.vistas) {
+                agregar("VISTA", objeto.getNombre(), objeto.getSchema(), objeto.getEstado());
+            }
+            for (ObjetoCatalogo objeto : otra.tablas) {
+                agregar("TABLA", objeto.getNombre(), objeto.getSchema(), objeto.getEstado());
+            }
+        }
+
+        /**
+         * Objetos que vinieron de un database link (nombre terminado en "@LINK")
+         */
+        ParteCatalogo delLink(String link) {
+            String sufijo = "@" + link.toUpperCase();
+            ParteCatalogo parte = new ParteCatalogo(grupo);
+            for (ObjetoCatalogo objeto : vistas) {
+                if (objeto.getNombre().toUpperCase().endsWith(sufijo)) {
+                    parte.agregar("VISTA", objeto.getNombre(), objeto.getSchema(), objeto.getEstado());
+                }
+            }
+            for (ObjetoCatalogo objeto : tablas) {
+                if (objeto.getNombre().toUpperCase().endsWith(sufijo)) {
+                    parte.agregar("TABLA", objeto.getNombre(), objeto.getSchema(), objeto.getEstado());
+                }
+            }
+            return parte;
+        }
+
+        void resumir(String link, String resultado) {
+            resumenLinks.put(link, resultado);
+        }
+
+        public GrupoCatalogo getGrupo() { return grupo; }
+        public List<ObjetoCatalogo> getVistas() { return vistas; }
+        public List<ObjetoCatalogo> getTablas() { return tablas; }
+        public long getLatenciaMs() { return latenciaMs; }
+
+        /**
+         * Resultado de cada database link del grupo remoto ("" en los demás grupos)
+         */
+        public String getResumenLinks() {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, String> entrada : resumenLinks.entrySet()) {
+                if (sb.length() > 0) {
+                    sb.append(" · ");
+                }
+                sb.append(entrada.getKey()).append(": ").append(entrada.getValue());
+            }
+            return sb.toString();
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package Logic;
+
+import javafx.collections.ObservableList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una consulta leído en segundo plano, listo para mostrarse en un TableView.
+ * Para sentencias que no son SELECT solo lleva las filas afectadas.
+ */
+public class ResultadoConsulta {
+    private final List<String> columnas;
+    private final List<ObservableList<String>> filas;
+    private final boolean truncado;
+    private final int filasAfectadas;
+    private final long milisegundos;
+
+    public ResultadoConsulta(List<String> columnas, List<ObservableList<String>> filas,
+                             boolean truncado, long milisegundos) {
+        this.columnas = columnas;
+        this.filas = filas;
+        this.truncado = truncado;
+        this.filasAfectadas = -1;
+        this.milisegundos = milisegundos;
+    }
+
+    /**
+     * Resultado de INSERT / UPDATE / DELETE u otro script sin filas
+     */
+    public static ResultadoConsulta deActualizacion(int filasAfectadas, long milisegundos) {
+        return new ResultadoConsulta(filasAfectadas, milisegundos);
+    }
+
+    private ResultadoConsulta(int filasAfectadas, long milisegundos) {
+        this.columnas = Collections.emptyList();
+        this.filas = Collections.emptyList();
+        this.truncado = false;
+        this.filasAfectadas = filasAfectadas;
+        this.milisegundos = milisegundos;
+    }
+
+    public List<String> getColumnas() { return columnas; }
+    public List<ObservableList<String>> getFilas() { return filas; }
+    public int getTotalFilas() { return filas.size(); }
+    public boolean isTruncado() { return truncado; }
+    public int getFilasAfectadas() { return filasAfectadas; }
+    public boolean esConsulta() { return filasAfectadas < 0; }
+    public long getMilisegundos() { return milisegundos; }
+}
@@ -34,7 +34,8 @@ public class SessionManager {
     }
     
     public void logout() {
-        if (connectionUser != null && connectionUser.estaConectado()) {
+        // Desconectar aunque la conexión esté caída: detiene el monitor y devuelve el pool
+        if (connectionUser != null) {
             connectionUser.desconectar();
         }
         currentUser = null;
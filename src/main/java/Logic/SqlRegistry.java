@@ -0,0 +1,302 @@
+package Logic;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Registro central de las sentencias SQL fijas de la aplicación (diccionario y CRUD).
+ * Todas usan variables bind, así el servidor ve un conjunto pequeño de cursores compartibles.
+ * Las sentencias que pueden ir por database link usan el marcador {LINK}.
+ */
+public final class SqlRegistry {
+    private static final String LINK = "{LINK}";
+    private static final Pattern IDENTIFICADOR = Pattern.compile("[A-Za-z][A-Za-z0-9_$#.]*");
+    private static final Map<String, String> SENTENCIAS = new LinkedHashMap<>();
+    // Objetos que entran en los catálogos y en la marca de agua. Sin la papelera: un DROP TABLE
+    // deja un BIN$... del mismo tipo y el total no cambiaría
+    private static final String TIPOS_CATALOGO =
+        "OBJECT_TYPE IN ('TABLE', 'VIEW', 'MATERIALIZED VIEW') AND OBJECT_NAME NOT LIKE 'BIN$%'";
+    // Filtro "creado o alterado desde la marca" (LAST_DDL_TIME >= CREATED siempre)
+    private static final String CAMBIADOS_DESDE =
+        "SELECT OBJECT_NAME FROM USER_OBJECTS{LINK} WHERE " + TIPOS_CATALOGO + " " +
+        "AND LAST_DDL_TIME >= TO_DATE(?, 'YYYYMMDDHH24MISS')";
+
+    // === Diccionario: tablas, vistas y columnas ===
+    public static final String ES_VISTA = "ES_VISTA";
+    public static final String CLAVES_PRIMARIAS = "CLAVES_PRIMARIAS";
+    public static final String NOMBRES_COLUMNAS = "NOMBRES_COLUMNAS";
+    public static final String ESTRUCTURA_COLUMNAS = "ESTRUCTURA_COLUMNAS";
+    public static final String DDL_OBJETO = "DDL_OBJETO";
+    public static final String DESCRIBIR_TABLA = "DESCRIBIR_TABLA";
+    public static final String TOTAL_COLUMNAS = "TOTAL_COLUMNAS";
+    public static final String ESTADISTICAS_TABLA = "ESTADISTICAS_TABLA";
+    public static final String TABLAS_PROPIAS = "TABLAS_PROPIAS";
+    public static final String TABLAS_PROPIAS_DESDE = "TABLAS_PROPIAS_DESDE";
+    public static final String TABLAS_CONCEDIDAS = "TABLAS_CONCEDIDAS";
+    public static final String VISTAS_PROPIAS = "VISTAS_PROPIAS";
+    public static final String VISTAS_CONCEDIDAS = "VISTAS_CONCEDIDAS";
+    public static final String VISTAS_REMOTAS = "VISTAS_REMOTAS";
+    public static final String INFO_VISTA = "INFO_VISTA";
+    public static final String INFO_VISTA_EXTERNA = "INFO_VISTA_EXTERNA";
+    public static final String COLUMNAS_VISTA = "COLUMNAS_VISTA";
+    public static final String DB_LINKS = "DB_LINKS";
+
+    // === Catálogo del modo remoto ===
+    public static final String CATALOGO_LOCAL = "CATALOGO_LOCAL";
+    public static final String CATALOGO_CONCEDIDO = "CATALOGO_CONCEDIDO";
+    public static final String CATALOGO_REMOTO = "CATALOGO_REMOTO";
+    public static final String CATALOGO_LOCAL_DESDE = "CATALOGO_LOCAL_DESDE";
+    public static final String CATALOGO_REMOTO_DESDE = "CATALOGO_REMOTO_DESDE";
+
+    // === Refresco incremental (marca de agua sobre LAST_DDL_TIME) ===
+    public static final String MARCA_OBJETOS = "MARCA_OBJETOS";
+    public static final String NOMBRES_OBJETOS = "NOMBRES_OBJETOS";
+
+    // === Vistas materializadas ===
+    public static final String MVIEWS_USUARIO = "MVIEWS_USUARIO";
+    public static final String REFRESCAR_MVIEW = "REFRESCAR_MVIEW";
+
+    // === Caché de resultados ===
+    public static final String DEPENDIENTES = "DEPENDIENTES";
+
+    // === Sesión ===
+    public static final String ETIQUETAR_SESION = "ETIQUETAR_SESION";
+    public static final String TRANSACCION_LECTURA = "TRANSACCION_LECTURA";
+    public static final String ORDEN_BINARIO = "ORDEN_BINARIO";
+
+    // === Nodos (Angel / Bell) ===
+    public static final String PING = "PING";
+    public static final String IDENTIDAD_NODO = "IDENTIDAD_NODO";
+    public static final String OBJETO_EXISTE = "OBJETO_EXISTE";
+
+    // === Ajuste de lectura ===
+    public static final String LONGITUD_FILA = "LONGITUD_FILA";
+
+    // === Conteo de filas ===
+    public static final String ESTADO_FILAS = "ESTADO_FILAS";
+
+    static {
+        registrar(ES_VISTA, "SELECT COUNT(*) FROM USER_VIEWS WHERE VIEW_NAME = ?");
+        // Columnas y PK de tablas propias o concedidas (OWNER null = el usuario de la conexión)
+        registrar(CLAVES_PRIMARIAS,
+            "SELECT acc.COLUMN_NAME " +
+            "FROM ALL_CONS_COLUMNS{LINK} acc " +
+            "JOIN ALL_CONSTRAINTS{LINK} ac ON acc.OWNER = ac.OWNER AND acc.CONSTRAINT_NAME = ac.CONSTRAINT_NAME " +
+            "WHERE ac.TABLE_NAME = ? AND ac.OWNER = NVL(?, USER) AND ac.CONSTRAINT_TYPE = 'P' " +
+            "ORDER BY acc.POSITION");
+        registrar(NOMBRES_COLUMNAS,
+            "SELECT COLUMN_NAME FROM USER_TAB_COLUMNS{LINK} WHERE TABLE_NAME = ? ORDER BY COLUMN_ID");
+        registrar(ESTRUCTURA_COLUMNAS,
+            "SELECT COLUMN_NAME, DATA_TYPE, DATA_LENGTH, NULLABLE " +
+            "FROM ALL_TAB_COLUMNS{LINK} " +
+            "WHERE TABLE_NAME = ? AND OWNER = NVL(?, USER) " +
+            "ORDER BY COLUMN_ID");
+        registrar(DDL_OBJETO,
+            "SELECT OBJECT_TYPE, TO_CHAR(LAST_DDL_TIME, 'YYYYMMDDHH24MISS') as ULTIMO_DDL " +
+            "FROM ALL_OBJECTS{LINK} " +
+            "WHERE OBJECT_NAME = ? AND OWNER = NVL(?, USER) " +
+            "AND OBJECT_TYPE IN ('TABLE', 'VIEW', 'MATERIALIZED VIEW')");
+        registrar(DESCRIBIR_TABLA,
+            "SELECT COLUMN_NAME, DATA_TYPE, NULLABLE, DATA_DEFAULT " +
+            "FROM USER_TAB_COLUMNS WHERE TABLE_NAME = ? " +
+            "ORDER BY COLUMN_ID");
+        registrar(TOTAL_COLUMNAS,
+            "SELECT COUNT(*) as TOTAL_COLUMNS FROM USER_TAB_COLUMNS WHERE TABLE_NAME = ?");
+        registrar(ESTADISTICAS_TABLA,
+            "SELECT TABLE_NAME, NUM_ROWS, BLOCKS, EMPTY_BLOCKS, " +
+            "AVG_ROW_LEN, TABLESPACE_NAME, STATUS, " +
+            "TO_CHAR(LAST_ANALYZED, 'DD/MM/YYYY HH24:MI:SS') as LAST_ANALYZED " +
+            "FROM USER_TABLES WHERE TABLE_NAME = ?");
+        // NUM_ROWS del último análisis más lo insertado y menos lo borrado desde entonces
+        String filasEstimadas =
+            "CASE WHEN t.NUM_ROWS IS NULL THEN NULL " +
+            "WHEN m.TRUNCATED = 'YES' THEN NVL(m.INSERTS, 0) " +
+            "ELSE GREATEST(0, t.NUM_ROWS + NVL(m.INSERTS, 0) - NVL(m.DELETES, 0)) END as NUM_ROWS";
+        String tablasPropias =
+            "SELECT t.TABLE_NAME, " + filasEstimadas + ", t.TABLESPACE_NAME, " +
+            "TO_CHAR(t.LAST_ANALYZED, 'DD/MM/YYYY HH24:MI:SS') as LAST_ANALYZED " +
+            "FROM USER_TABLES t " +
+            "LEFT JOIN USER_TAB_MODIFICATIONS m ON m.TABLE_NAME = t.TABLE_NAME AND m.PARTITION_NAME IS NULL ";
+        registrar(TABLAS_PROPIAS, tablasPropias + "ORDER BY t.TABLE_NAME");
+        registrar(TABLAS_PROPIAS_DESDE,
+            tablasPropias + "WHERE t.TABLE_NAME IN (" + CAMBIADOS_DESDE.replace(LINK, "") + ") ORDER BY t.TABLE_NAME");
+        registrar(TABLAS_CONCEDIDAS,
+            "SELECT p.OWNER||'.'||p.TABLE_NAME as FULL_TABLE_NAME, " +
+            "p.OWNER, p.TABLE_NAME, p.PRIVILEGE, " + filasEstimadas + " " +
+            "FROM USER_TAB_PRIVS p " +
+            "LEFT JOIN ALL_TABLES t ON t.OWNER = p.OWNER AND t.TABLE_NAME = p.TABLE_NAME " +
+            "LEFT JOIN ALL_TAB_MODIFICATIONS m ON m.TABLE_OWNER = t.OWNER AND m.TABLE_NAME = t.TABLE_NAME " +
+            "AND m.PARTITION_NAME IS NULL " +
+            "WHERE p.TABLE_NAME NOT IN (SELECT TABLE_NAME FROM USER_TABLES) " +
+            "ORDER BY p.OWNER, p.TABLE_NAME");
+        registrar(VISTAS_PROPIAS,
+            "SELECT VIEW_NAME, TEXT_LENGTH, READ_ONLY " +
+            "FROM USER_VIEWS ORDER BY VIEW_NAME");
+        registrar(VISTAS_CONCEDIDAS,
+            "SELECT OWNER, TABLE_NAME as VIEW_NAME, PRIVILEGE " +
+            "FROM USER_TAB_PRIVS " +
+            "WHERE TABLE_NAME IN (SELECT VIEW_NAME FROM ALL_VIEWS WHERE OWNER = USER_TAB_PRIVS.OWNER) " +
+            "AND PRIVILEGE IN ('SELECT', 'READ') " +
+            "ORDER BY OWNER, TABLE_NAME");
+        registrar(VISTAS_REMOTAS, "SELECT VIEW_NAME FROM USER_VIEWS{LINK} ORDER BY VIEW_NAME");
+        registrar(INFO_VISTA,
+            "SELECT VIEW_NAME, TEXT, TEXT_LENGTH, READ_ONLY " +
+            "FROM USER_VIEWS WHERE VIEW_NAME = ?");
+        registrar(INFO_VISTA_EXTERNA,
+            "SELECT OWNER, VIEW_NAME FROM ALL_VIEWS WHERE VIEW_NAME = ? AND OWNER IN " +
+            "(SELECT OWNER FROM USER_TAB_PRIVS WHERE TABLE_NAME = ?)");
+        registrar(COLUMNAS_VISTA,
+            "SELECT COLUMN_NAME, DATA_TYPE, NULLABLE " +
+            "FROM USER_TAB_COLUMNS WHERE TABLE_NAME = ? ORDER BY COLUMN_ID");
+        registrar(DB_LINKS, "SELECT DB_LINK, USERNAME, HOST FROM USER_DB_LINKS ORDER BY DB_LINK");
+
+        // Catálogo del modo remoto: una consulta por grupo (local, concedido, otro nodo).
+        // CATEGORIA separa vistas (vistas, vistas materializadas y tablas VW) de tablas.
+        String catalogoLocal =
+            "SELECT CATEGORIA, NOMBRE, 'USER' as OWNER, ESTADO FROM (" +
+            // Vistas normales (primera prioridad)
+            "SELECT 'VISTA' as CATEGORIA, VIEW_NAME as NOMBRE, " +
+            "CASE WHEN READ_ONLY = 'Y' THEN 'Solo Lectura' ELSE 'Lectura/Escritura' END as ESTADO, 1 as ORDEN " +
+            "FROM USER_VIEWS " +
+            "UNION ALL " +
+            // Vistas materializadas (segunda prioridad)
+            "SELECT 'VISTA', MVIEW_NAME, 'Vista Materializada', 2 FROM USER_MVIEWS " +
+            "UNION ALL " +
+            // Tablas VW (tercera prioridad) y tablas propias que no son vistas materializadas
+            "SELECT CASE WHEN t.TABLE_NAME LIKE 'VW%' THEN 'VISTA' ELSE 'TABLA' END, t.TABLE_NAME, " +
+            "CASE WHEN t.TABLE_NAME LIKE 'VW%' THEN 'Vista (VW)' ELSE 'Propia' END, 3 " +
+            "FROM USER_TABLES t " +
+            "WHERE NOT EXISTS (SELECT 1 FROM USER_MVIEWS m WHERE m.MVIEW_NAME = t.TABLE_NAME)" +
+            ") ";
+        registrar(CATALOGO_LOCAL, catalogoLocal + "ORDER BY CATEGORIA, ORDEN, NOMBRE");
+        registrar(CATALOGO_LOCAL_DESDE,
+            catalogoLocal + "WHERE NOMBRE IN (" + CAMBIADOS_DESDE.replace(LINK, "") + ") ORDER BY CATEGORIA, ORDEN, NOMBRE");
+        registrar(CATALOGO_CONCEDIDO,
+            // Tipo de cada objeto concedido en una sola pasada sobre ALL_OBJECTS (sin EXISTS por fila)
+            "SELECT CASE WHEN o.ES_VISTA = 1 OR ut.TABLE_NAME LIKE 'VW%' THEN 'VISTA' ELSE 'TABLA' END as CATEGORIA, " +
+            "ut.OWNER, ut.TABLE_NAME, ut.PRIVILEGE " +
+            "FROM USER_TAB_PRIVS ut " +
+            "JOIN (SELECT OWNER, OBJECT_NAME, " +
+            "      MAX(CASE WHEN OBJECT_TYPE IN ('VIEW', 'MATERIALIZED VIEW') THEN 1 ELSE 0 END) as ES_VISTA " +
+            "      FROM ALL_OBJECTS " +
+            "      WHERE OBJECT_TYPE IN ('TABLE', 'VIEW', 'MATERIALIZED VIEW') " +
+            "      AND (OWNER, OBJECT_NAME) IN (SELECT OWNER, TABLE_NAME FROM USER_TAB_PRIVS) " +
+            "      GROUP BY OWNER, OBJECT_NAME) o " +
+            "ON o.OWNER = ut.OWNER AND o.OBJECT_NAME = ut.TABLE_NAME " +
+            "WHERE ((o.ES_VISTA = 1 OR ut.TABLE_NAME LIKE 'VW%') AND ut.PRIVILEGE IN ('SELECT', 'READ')) " +
+            "OR (o.ES_VISTA = 0 AND ut.TABLE_NAME NOT LIKE 'VW%' " +
+            "    AND ut.PRIVILEGE IN ('SELECT', 'INSERT', 'UPDATE', 'DELETE')) " +
+            "ORDER BY CATEGORIA, ut.OWNER, ut.TABLE_NAME");
+        // Un solo viaje al otro nodo: vistas, vistas materializadas, tablas VW y tablas
+        String catalogoRemoto =
+            "SELECT CATEGORIA, NOMBRE, 'REMOTO' as OWNER, ESTADO FROM (" +
+            "SELECT 'VISTA' as CATEGORIA, VIEW_NAME as NOMBRE, 'Acceso Remoto' as ESTADO, 1 as ORDEN " +
+            "FROM USER_VIEWS{LINK} " +
+            "UNION ALL " +
+            "SELECT 'VISTA', MVIEW_NAME, 'Vista Mat. Remota', 2 FROM USER_MVIEWS{LINK} " +
+            "UNION ALL " +
+            "SELECT CASE WHEN t.TABLE_NAME LIKE 'VW%' THEN 'VISTA' ELSE 'TABLA' END, t.TABLE_NAME, " +
+            "CASE WHEN t.TABLE_NAME LIKE 'VW%' THEN 'Vista VW Remota' ELSE 'Acceso Remoto' END, 3 " +
+            "FROM USER_TABLES{LINK} t " +
+            "WHERE NOT EXISTS (SELECT 1 FROM USER_MVIEWS{LINK} m WHERE m.MVIEW_NAME = t.TABLE_NAME)" +
+            ") ";
+        registrar(CATALOGO_REMOTO, catalogoRemoto + "ORDER BY CATEGORIA, ORDEN, NOMBRE");
+        registrar(CATALOGO_REMOTO_DESDE,
+            catalogoRemoto + "WHERE NOMBRE IN (" + CAMBIADOS_DESDE + ") ORDER BY CATEGORIA, ORDEN, NOMBRE");
+
+        // Marca de agua de un esquema: último DDL y total de nombres (un solo viaje, una fila)
+        registrar(MARCA_OBJETOS,
+            "SELECT TO_CHAR(MAX(LAST_DDL_TIME), 'YYYYMMDDHH24MISS') as MARCA, " +
+            "COUNT(DISTINCT OBJECT_NAME) as TOTAL " +
+            "FROM USER_OBJECTS{LINK} WHERE " + TIPOS_CATALOGO);
+        // Solo cuando el total no coincide: nombres actuales para quitar los borrados
+        registrar(NOMBRES_OBJETOS,
+            "SELECT DISTINCT OBJECT_NAME FROM USER_OBJECTS{LINK} WHERE " + TIPOS_CATALOGO);
+
+        registrar(MVIEWS_USUARIO, "SELECT MVIEW_NAME FROM USER_MVIEWS");
+        registrar(REFRESCAR_MVIEW, "BEGIN DBMS_MVIEW.REFRESH(?, 'F'); END;");
+
+        // Vistas y vistas materializadas que dependen (directa o indirectamente) de una tabla
+        registrar(DEPENDIENTES,
+            "SELECT DISTINCT NAME FROM USER_DEPENDENCIES{LINK} " +
+            "START WITH REFERENCED_NAME = ? " +
+            "CONNECT BY NOCYCLE PRIOR NAME = REFERENCED_NAME");
+
+        // Módulo y cliente visibles en V$SESSION
+        registrar(ETIQUETAR_SESION,
+            "BEGIN DBMS_APPLICATION_INFO.SET_MODULE(?, ?); DBMS_APPLICATION_INFO.SET_CLIENT_INFO(?); END;");
+        registrar(TRANSACCION_LECTURA, "SET TRANSACTION READ ONLY");
+        // Orden y comparaciones binarias en el carril de lectura (paginación por clave)
+        registrar(ORDEN_BINARIO, "ALTER SESSION SET NLS_SORT = BINARY NLS_COMP = BINARY");
+
+        registrar(PING, "SELECT 1 FROM DUAL");
+        registrar(IDENTIDAD_NODO,
+            "SELECT SYS_CONTEXT('USERENV', 'DB_NAME') || '@' || SYS_CONTEXT('USERENV', 'SERVER_HOST') FROM DUAL");
+        registrar(OBJETO_EXISTE,
+            "SELECT COUNT(*) FROM ALL_OBJECTS WHERE OBJECT_NAME = ? AND OWNER = NVL(?, USER) " +
+            "AND OBJECT_TYPE IN ('TABLE', 'VIEW', 'MATERIALIZED VIEW', 'SYNONYM')");
+
+        // Bytes promedio por fila según las estadísticas (NULL si la tabla no está analizada)
+        registrar(LONGITUD_FILA,
+            "SELECT AVG_ROW_LEN FROM ALL_TABLES{LINK} WHERE TABLE_NAME = ? AND OWNER = NVL(?, USER)");
+
+        // Estimación del optimizador, bloques y estado de modificación de una tabla: el DML
+        // registrado desde el último análisis corrige NUM_ROWS; LAST_DDL_TIME y los contadores
+        // de ALL_TAB_MODIFICATIONS dicen si un conteo guardado sigue valiendo
+        registrar(ESTADO_FILAS,
+            "SELECT t.NUM_ROWS, t.BLOCKS, m.INSERTS, m.DELETES, m.TRUNCATED, " +
+            "TO_CHAR(o.LAST_DDL_TIME, 'YYYYMMDDHH24MISS') || '/' || TO_CHAR(m.TIMESTAMP, 'YYYYMMDDHH24MISS') || '/' || " +
+            "NVL(m.INSERTS, 0) || '/' || NVL(m.UPDATES, 0) || '/' || NVL(m.DELETES, 0) as ESTADO " +
+            "FROM ALL_TABLES{LINK} t " +
+            "JOIN ALL_OBJECTS{LINK} o ON o.OWNER = t.OWNER AND o.OBJECT_NAME = t.TABLE_NAME AND o.OBJECT_TYPE = 'TABLE' " +
+            "LEFT JOIN ALL_TAB_MODIFICATIONS{LINK} m ON m.TABLE_OWNER = t.OWNER AND m.TABLE_NAME = t.TABLE_NAME " +
+            "AND m.PARTITION_NAME IS NULL " +
+            "WHERE t.TABLE_NAME = ? AND t.OWNER = NVL(?, USER)");
+    }
+
+    private SqlRegistry() {}
+
+    private static void registrar(String nombre, String sql) {
+        SENTENCIAS.put(nombre, sql);
+    }
+
+    /**
+     * Devuelve el texto SQL local de una sentencia registrada
+     */
+    public static String obtener(String nombre) {
+        return obtener(nombre, null);
+    }
+
+    /**
+     * Devuelve el texto SQL de una sentencia registrada, dirigida al database link indicado
+     * (null = base local)
+     */
+    public static String obtener(String nombre, String dbLink) {
+        String sql = SENTENCIAS.get(nombre);
+        if (sql == null) {
+            throw new IllegalArgumentException("Sentencia no registrada: " + nombre);
+        }
+        return sql.replace(LINK, sufijoLink(dbLink));
+    }
+
+    /**
+     * Sufijo "@LINK" validado. Los nombres de link no se pueden enlazar como bind,
+     * así que solo se aceptan identificadores simples.
+     */
+    public static String sufijoLink(String dbLink) {
+        if (dbLink == null || dbLink.isEmpty()) {
+            return "";
+        }
+        if (!IDENTIFICADOR.matcher(dbLink).matches()) {
+            throw new IllegalArgumentException("Nombre de database link inválido: " + dbLink);
+        }
+        return "@" + dbLink.toUpperCase();
+    }
+
+    public static Set<String> nombres() {
+        return Collections.unmodifiableSet(SENTENCIAS.keySet());
+    }
+}
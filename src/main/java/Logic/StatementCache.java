@@ -0,0 +1,131 @@
+package Logic;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de PreparedStatement por conexión.
+ * Las sentencias se preparan una sola vez por conexión física y se reutilizan;
+ * quien las usa cierra el ResultSet pero NUNCA la sentencia.
+ */
+public class StatementCache {
+    private static final StatementCache INSTANCE = new StatementCache();
+
+    // Máximo de sentencias abiertas por conexión (las más antiguas se cierran)
+    private static final int MAX_POR_CONEXION = 64;
+
+    private final Map<Connection, Map<String, PreparedStatement>> porConexion = new WeakHashMap<>();
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    private StatementCache() {}
+
+    public static StatementCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sentencia registrada en SqlRegistry, sobre la base local
+     */
+    public PreparedStatement preparar(Connection conn, String nombre) throws SQLException {
+        return prepararSql(conn, SqlRegistry.obtener(nombre));
+    }
+
+    /**
+     * Sentencia registrada en SqlRegistry, dirigida a un database link (null = local)
+     */
+    public PreparedStatement preparar(Connection conn, String nombre, String dbLink) throws SQLException {
+        return prepararSql(conn, SqlRegistry.obtener(nombre, dbLink));
+    }
+
+    /**
+     * Sentencia con texto propio (DML o SELECT sobre una tabla concreta).
+     * El texto debe usar variables bind para que la entrada sea reutilizable.
+     */
+    public PreparedStatement prepararSql(Connection conn, String sql) throws SQLException {
+        Map<String, PreparedStatement> cache;
+        synchronized (porConexion) {
+            cache = porConexion.computeIfAbsent(conn, c -> crearMapa());
+        }
+        synchronized (cache) {
+            PreparedStatement pstmt = cache.get(sql);
+            if (pstmt != null && !pstmt.isClosed()) {
+                aciertos.incrementAndGet();
+                return pstmt;
+            }
+            fallos.incrementAndGet();
+            pstmt = conn.prepareStatement(sql);
+            cache.put(sql, pstmt);
+            return pstmt;
+        }
+    }
+
+    /**
+     * Cierra y olvida todas las sentencias de una conexión (antes de cerrarla)
+     */
+    public void olvidar(Connection conn) {
+        Map<String, PreparedStatement> cache;
+        synchronized (porConexion) {
+            cache = porConexion.remove(conn);
+        }
+        if (cache == null) {
+            return;
+        }
+        synchronized (cache) {
+            for (PreparedStatement pstmt : cache.values()) {
+                cerrarSilencioso(pstmt);
+            }
+            cache.clear();
+        }
+    }
+
+    private static Map<String, PreparedStatement> crearMapa() {
+        // Orden de acceso: la sentencia menos usada recientemente se cierra al superar el máximo
+        return new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > MAX_POR_CONEXION) {
+                    cerrarSilencioso(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static void cerrarSilencioso(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            // Ignorar
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    /**
+     * Resumen de aciertos/fallos del cache
+     */
+    public String obtenerEstadisticas() {
+        long a = aciertos.get();
+        long f = fallos.get();
+        long total = a + f;
+        int conexiones;
+        synchronized (porConexion) {
+            conexiones = porConexion.size();
+        }
+        return String.format("Cache de sentencias: %d aciertos, %d fallos (%.1f%% aciertos) en %d conexiones",
+                             a, f, total == 0 ? 0.0 : a * 100.0 / total, conexiones);
+    }
+}
@@ -0,0 +1,113 @@
+package Logic;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Permite detener desde la interfaz una operación que corre en el ejecutor de consultas.
+ * Cada sentencia que se ejecuta dentro de la operación se registra aquí (ConnectionRouter.Uso);
+ * cancelar() llama a Statement.cancel() sobre las que están en curso y hace fallar las siguientes.
+ */
+public class TokenCancelacion {
+    // Código Oracle de "user requested cancel of current operation"
+    private static final int ORA_CANCELACION = 1013;
+
+    // Token de la tarea que corre en el hilo actual (lo establece QueryExecutor)
+    private static final ThreadLocal<TokenCancelacion> ACTUAL = new ThreadLocal<>();
+
+    private final Set<Statement> enCurso = ConcurrentHashMap.newKeySet();
+    // Tokens derivados: se cancelan junto con este
+    private final Set<TokenCancelacion> derivados = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelado;
+
+    /**
+     * Pide detener la operación. Puede llamarse desde el hilo de JavaFX.
+     */
+    public void cancelar() {
+        if (cancelado) {
+            return;
+        }
+        cancelado = true;
+        for (TokenCancelacion derivado : derivados) {
+            derivado.cancelar();
+        }
+        for (Statement stmt : enCurso) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                System.err.println("⚠️ No se pudo cancelar la sentencia: " + e.getMessage());
+            }
+        }
+        System.out.println("🛑 Cancelación solicitada (" + enCurso.size() + " sentencia(s) en curso)");
+    }
+
+    /**
+     * Token para una parte de la operación (p. ej. un link de varios): se puede cancelar
+     * solo, y se cancela también si se cancela este. Con "padre" null es un token suelto.
+     */
+    public static TokenCancelacion derivar(TokenCancelacion padre) {
+        TokenCancelacion derivado = new TokenCancelacion();
+        if (padre != null) {
+            padre.derivados.add(derivado);
+            // Cancelación del padre que llegó antes de registrar el derivado
+            if (padre.cancelado) {
+                derivado.cancelar();
+            }
+        }
+        return derivado;
+    }
+
+    public boolean isCancelado() {
+        return cancelado;
+    }
+
+    /**
+     * Lanza SQLException si la operación fue cancelada
+     */
+    public void verificar() throws SQLException {
+        if (cancelado) {
+            throw new SQLException("Operación cancelada por el usuario", "72000", ORA_CANCELACION);
+        }
+    }
+
+    /**
+     * Registra una sentencia que va a ejecutarse; si ya se canceló, no se deja ejecutar
+     */
+    void registrar(Statement stmt) throws SQLException {
+        verificar();
+        enCurso.add(stmt);
+        // Cancelación que llegó entre la verificación y el registro
+        if (cancelado) {
+            enCurso.remove(stmt);
+            verificar();
+        }
+    }
+
+    void liberar(Statement stmt) {
+        enCurso.remove(stmt);
+    }
+
+    /**
+     * Token de la tarea en curso en este hilo (null si la tarea no es cancelable)
+     */
+    public static TokenCancelacion actual() {
+        return ACTUAL.get();
+    }
+
+    static void establecer(TokenCancelacion token) {
+        if (token == null) {
+            ACTUAL.remove();
+        } else {
+            ACTUAL.set(token);
+        }
+    }
+
+    /**
+     * true si el error proviene de una cancelación del usuario
+     */
+    public static boolean esCancelacion(Throwable error) {
+        return error instanceof SQLException && ((SQLException) error).getErrorCode() == ORA_CANCELACION;
+    }
+}
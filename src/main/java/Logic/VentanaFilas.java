@@ -0,0 +1,1080 @@
+package Logic;
+
+import javafx.collections.ObservableListBase;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Filas de una tabla, vista o SELECT leídas por páginas a medida que el TableView las pide.
+ * Con clave primaria cada página empieza después de la última clave de la anterior (usa el
+ * índice de la PK); sin ella se pide con OFFSET/FETCH, ordenado por ROWID en tablas y por
+ * todas las columnas ordenables en vistas y SELECT libres (cada página es otra ejecución: sin
+ * un orden total las filas podrían repetirse o saltarse entre páginas). Se lee por adelantado
+ * la página que sigue a la visible y se descartan las lejanas: en memoria quedan unas pocas
+ * páginas aunque la tabla tenga millones de filas. Cada página usa su propia conexión y cierra su cursor.
+ * Las filas llegan a la grilla a medida que se leen, en lotes (uno por viaje a la base) que
+ * se aplican juntos una vez por pulso de la interfaz; cada lote guarda sus filas por columnas
+ * (BloqueColumnar). El orden y los filtros de los encabezados van en el SQL de cada página
+ * (ORDER BY y WHERE con binds): los resuelve el servidor con sus índices. La lista se usa solo
+ * desde el hilo de JavaFX; las páginas se leen en el QueryExecutor.
+ */
+public class VentanaFilas extends ObservableListBase<BloqueColumnar.Fila> {
+    // Fila que todavía no llegó (celdas vacías hasta que llega su página)
+    private static final BloqueColumnar.Fila FILA_PENDIENTE = BloqueColumnar.PENDIENTE;
+    // Tiempo antes de volver a pedir una página que falló o se detuvo
+    private static final long ESPERA_REINTENTO_MS = 5000;
+    // Operadores aceptados al comienzo de un filtro (los de dos letras primero)
+    private static final String[] OPERADORES = {">=", "<=", "<>", "!=", "=", ">", "<"};
+    // Tipos de Oracle que admiten ORDER BY (por prefijo: TIMESTAMP WITH TIME ZONE, INTERVALDS...)
+    private static final String[] TIPOS_ORDENABLES = {
+        "VARCHAR", "NVARCHAR", "CHAR", "NCHAR", "NUMBER", "FLOAT", "BINARY_FLOAT", "BINARY_DOUBLE",
+        "DATE", "TIMESTAMP", "INTERVAL", "RAW", "ROWID", "UROWID"
+    };
+
+    /**
+     * Conexión para leer una página (la ventana la cierra al terminar la página)
+     */
+    public interface Fuente {
+        ConnectionRouter.Uso abrir() throws SQLException;
+    }
+
+    private final String objeto;
+    private final String consulta;
+    private final Fuente fuente;
+    private final ConnectionUser connectionUser;
+    private final int tamanoPagina;
+    private final int maxPaginas;
+    private final int filasPrimerViaje;
+    private final Criterios criterios;
+    private final List<Filtro> filtros;
+
+    // Orden de las páginas, elegido antes de leer la primera
+    private volatile List<String> clave = Collections.emptyList();
+    private volatile String orden;
+    // Sin clave ni ROWID: posiciones de las columnas ordenables ("1, 2, 4"); null hasta conocerlas
+    private volatile String desempate;
+
+    // Columnas del resultado con su tipo Java y su tipo en Oracle (se conocen con la primera página)
+    private volatile List<String> nombresColumnas;
+    private volatile Class<?>[] tiposColumnas;
+    private volatile String[] tiposSql;
+
+    // Lotes leídos que esperan al hilo de JavaFX y si ya hay un pulso programado para aplicarlos
+    private final ConcurrentLinkedQueue<Lote> llegadas = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean aplicacionProgramada = new AtomicBoolean();
+
+    // Estado del hilo de JavaFX. Páginas en memoria por número, de la menos a la más usada
+    private final LinkedHashMap<Integer, List<BloqueColumnar.Fila>> paginas = new LinkedHashMap<>(16, 0.75f, true);
+    // Clave de la última fila de cada página ya leída alguna vez (desde dónde sigue la próxima)
+    private final List<Object[]> limites = new ArrayList<>();
+    private final Set<Integer> pedidas = new HashSet<>();
+    // Páginas a medias (error o detenidas) y cuándo se pueden volver a pedir
+    private final Map<Integer, Long> incompletas = new HashMap<>();
+    private TokenCancelacion token = new TokenCancelacion();
+    private Consumer<List<String>> alConocerColumnas;
+    private Runnable alProgresar;
+    private int filasConocidas;
+    private boolean completa;
+    private boolean cerrada;
+    private volatile int paginaActual;
+    // Lectura más vieja de las páginas servidas desde la caché de resultados (0: ninguna)
+    private long desdeCache;
+
+    // Lectura en curso (desde que se pide una página hasta que no queda ninguna pedida)
+    private long inicioLectura;
+    private long finLectura;
+    private int filasLeidas;
+
+    private VentanaFilas(String objeto, String consulta, Fuente fuente, ConnectionUser connectionUser,
+                         Criterios criterios, List<Filtro> filtros) {
+        this.objeto = objeto;
+        this.consulta = consulta;
+        this.fuente = fuente;
+        this.connectionUser = connectionUser;
+        this.criterios = criterios;
+        this.filtros = filtros;
+        ConfigurationManager config = connectionUser.getConfig();
+        this.tamanoPagina = Math.max(10, config.getGrillaPaginaFilas());
+        this.maxPaginas = Math.max(3, config.getGrillaPaginasEnMemoria());
+        this.filasPrimerViaje = Math.max(1, Math.min(tamanoPagina, config.getGrillaFilasPrimerViaje()));
+    }
+
+    /**
+     * Ventana sobre una tabla o vista (local, OWNER.TABLA o TABLA@LINK)
+     */
+    public static VentanaFilas deObjeto(String objeto, Fuente fuente, ConnectionUser connectionUser) {
+        return new VentanaFilas(objeto, null, fuente, connectionUser, Criterios.NINGUNO, Collections.emptyList());
+    }
+
+    /**
+     * Ventana sobre un SELECT escrito por el usuario: cada página vuelve a ejecutarlo con
+     * OFFSET/FETCH, en el orden de su propio ORDER BY
+     */
+    public static VentanaFilas deConsulta(String consulta, Fuente fuente, ConnectionUser connectionUser) {
+        String sql = consulta.trim();
+        while (sql.endsWith(";")) {
+            sql = sql.substring(0, sql.length() - 1).trim();
+        }
+        return new VentanaFilas(null, sql, fuente, connectionUser, Criterios.NINGUNO, Collections.emptyList());
+    }
+
+    /**
+     * La misma tabla o consulta con otro orden o filtros (se lee de nuevo desde la primera
+     * página). Lanza IllegalArgumentException si un filtro no se puede usar con su columna.
+     */
+    public VentanaFilas conCriterios(Criterios nuevos) {
+        if (consulta != null && !nuevos.estaVacio() && nombresColumnas != null
+            && new HashSet<>(nombresColumnas).size() < nombresColumnas.size()) {
+            // Para ordenar o filtrar se la envuelve en SELECT * FROM (...): con nombres repetidos es ORA-00918
+            throw new IllegalArgumentException("La consulta devuelve columnas con el mismo nombre: " +
+                                               "póngales un alias para ordenar o filtrar desde la grilla");
+        }
+        List<Filtro> armados = new ArrayList<>();
+        for (Map.Entry<String, String> filtro : nuevos.getFiltros().entrySet()) {
+            armados.add(armarFiltro(filtro.getKey(), filtro.getValue(), nombresColumnas, tiposColumnas, tiposSql));
+        }
+        return copiar(nuevos, armados);
+    }
+
+    /**
+     * La misma ventana desde la primera página, con el orden y los filtros actuales
+     */
+    public VentanaFilas reabrir() {
+        return copiar(criterios, filtros);
+    }
+
+    private VentanaFilas copiar(Criterios nuevos, List<Filtro> armados) {
+        VentanaFilas copia = new VentanaFilas(objeto, consulta, fuente, connectionUser, nuevos, armados);
+        copia.desempate = desempate;
+        copia.nombresColumnas = nombresColumnas;
+        copia.tiposColumnas = tiposColumnas;
+        copia.tiposSql = tiposSql;
+        return copia;
+    }
+
+    public Criterios getCriterios() {
+        return criterios;
+    }
+
+    /**
+     * true si la ventana muestra esa tabla o vista (no un SELECT del usuario)
+     */
+    public boolean esDeObjeto(String nombre) {
+        return objeto != null && objeto.equals(nombre);
+    }
+
+    /**
+     * Formato de la vista previa si la columna es un LOB que se puede abrir (null si no). Solo
+     * en tablas y vistas: la fila se vuelve a buscar en su objeto.
+     */
+    public LectorLob.Formato getFormatoLob(int columna) {
+        String[] tipos = tiposSql;
+        if (objeto == null || tipos == null || columna < 0 || columna >= tipos.length) {
+            return null;
+        }
+        return LectorLob.formatoDe(tipos[columna]);
+    }
+
+    /**
+     * Lee el contenido de una celda LOB en segundo plano. La grilla no guarda el valor: la fila
+     * se busca de nuevo por su clave primaria o, sin clave, por el resto de sus valores. Cada
+     * trozo llega a "alLeer" en el hilo de JavaFX; cancelar el token corta la lectura.
+     */
+    public CompletableFuture<Long> leerLob(BloqueColumnar.Fila fila, int columna, TokenCancelacion token,
+                                           Consumer<LectorLob.Trozo> alLeer) {
+        List<String> nombres = nombresColumnas;
+        String[] tipos = tiposSql;
+        if (getFormatoLob(columna) == null || fila.esPendiente()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("La celda no tiene un LOB para mostrar"));
+        }
+        // La fila se arma acá (hilo de JavaFX) con los valores ya leídos
+        List<String> condiciones = new ArrayList<>();
+        List<Object> valores = new ArrayList<>();
+        List<String> columnasClave = clave;
+        for (int i = 0; i < nombres.size(); i++) {
+            String nombre = nombres.get(i);
+            boolean enClave = columnasClave.contains(nombre);
+            if (columnasClave.isEmpty() ? LectorLob.formatoDe(tipos[i]) != null : !enClave) {
+                continue;
+            }
+            Object valor = fila.getValor(i);
+            if (valor == null) {
+                condiciones.add(citar(nombre) + " IS NULL");
+            } else {
+                condiciones.add(citar(nombre) + " = " + parametro(tipos, i, valor));
+                valores.add(valor);
+            }
+        }
+        String columnaLob = nombres.get(columna);
+        String tipo = tipos[columna];
+        ConfigurationManager config = connectionUser.getConfig();
+        int limite = Math.max(1, config.getLobVistaPreviaBytes());
+        int tamanoTrozo = Math.max(1, config.getLobTrozoBytes());
+        return QueryExecutor.getInstance().ejecutar(() -> {
+            try (ConnectionRouter.Uso uso = fuente.abrir().conPerfil(PerfilJdbc.LOB)) {
+                String origen = uso.getObjeto() != null ? uso.getObjeto() : objeto;
+                StringBuilder sql = new StringBuilder("SELECT ").append(citar(columnaLob)).append(" FROM ").append(origen);
+                if (!condiciones.isEmpty()) {
+                    sql.append(" WHERE ").append(String.join(" AND ", condiciones));
+                }
+                sql.append(" FETCH FIRST 1 ROWS ONLY");
+                PreparedStatement pstmt = uso.prepararSql(sql.toString());
+                for (int i = 0; i < valores.size(); i++) {
+                    pstmt.setObject(i + 1, valores.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("La fila ya no está en " + objeto + " (se modificó o se borró)");
+                    }
+                    return LectorLob.leer(rs, tipo, limite, tamanoTrozo, uso,
+                                          trozo -> QueryExecutor.enFx(() -> alLeer.accept(trozo)));
+                }
+            }
+        }, token);
+    }
+
+    /**
+     * Condición de un filtro escrito en el encabezado: "NULL", un operador y un valor
+     * (">= 100", "<> ABC", "2024-01-31") o, en columnas de texto, el comienzo del valor
+     * ("JUA" busca JUA%; con % se usa tal cual). El valor se convierte al tipo de la columna
+     * y va como bind. "nombres", "tipos" y "tiposSql" son las columnas del resultado.
+     */
+    static Filtro armarFiltro(String columna, String texto, List<String> nombres, Class<?>[] tipos,
+                              String[] tiposSql) {
+        int indice = nombres == null ? -1 : nombres.indexOf(columna);
+        if (indice < 0) {
+            throw new IllegalArgumentException("La columna " + columna + " no está en el resultado");
+        }
+        String columnaSql = citar(columna);
+        String valorTexto = texto.trim();
+        if (valorTexto.equalsIgnoreCase("NULL")) {
+            return new Filtro(columnaSql + " IS NULL", null);
+        }
+        Class<?> tipo = tipos[indice];
+        if (tipo == null) {
+            throw new IllegalArgumentException("La columna " + columna + " no se puede filtrar");
+        }
+        String operador = null;
+        for (String candidato : OPERADORES) {
+            if (valorTexto.startsWith(candidato)) {
+                operador = candidato;
+                valorTexto = valorTexto.substring(candidato.length()).trim();
+                break;
+            }
+        }
+        if (tipo == String.class && operador == null) {
+            // "Empieza con": el índice de la columna sirve (un "contiene" la recorrería entera)
+            return new Filtro(columnaSql + " LIKE ?", valorTexto.contains("%") ? valorTexto : valorTexto + "%");
+        }
+        Object valor;
+        try {
+            valor = convertir(valorTexto, tipo);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Valor no válido para " + columna + ": " + valorTexto);
+        }
+        return new Filtro(columnaSql + " " + (operador != null ? operador : "=") + " " + parametro(tiposSql, indice, valor), valor);
+    }
+
+    /**
+     * Texto del filtro al tipo de la columna (fechas como se muestran en la grilla)
+     */
+    private static Object convertir(String texto, Class<?> tipo) {
+        if (tipo == Long.class || tipo == BigDecimal.class) {
+            return new BigDecimal(texto);
+        }
+        if (tipo == Double.class) {
+            return Double.valueOf(texto);
+        }
+        if (tipo == LocalDate.class) {
+            return LocalDate.parse(texto);
+        }
+        if (tipo == LocalDateTime.class) {
+            return texto.length() <= 10 ? LocalDate.parse(texto).atStartOfDay() : Timestamp.valueOf(texto).toLocalDateTime();
+        }
+        return texto;
+    }
+
+    /**
+     * Marcador del bind según el tipo de la columna (ver EstructuraTabla.marcadorBind)
+     */
+    private static String parametro(String[] tipos, int indice, Object valor) {
+        return EstructuraTabla.marcadorBind(tipos != null && indice >= 0 ? tipos[indice] : null, valor);
+    }
+
+    /**
+     * Empieza a leer la primera página (hilo de JavaFX). "alConocerColumnas" corre con el
+     * primer viaje a la base, antes de poner sus filas; el futuro termina cuando la primera
+     * página terminó de llegar.
+     */
+    public CompletableFuture<Pagina> abrir(Consumer<List<String>> alConocerColumnas) {
+        this.alConocerColumnas = alConocerColumnas;
+        empezarLectura();
+        pedidas.add(0);
+        CompletableFuture<Pagina> lectura = QueryExecutor.getInstance().ejecutar(() -> {
+            if (objeto != null) {
+                elegirOrden();
+            }
+            return leerPagina(0, null);
+        }, token);
+        // Quien espere el futuro corre después de terminarLectura
+        return lectura.whenComplete(QueryExecutor.enFx((pagina, error) -> terminarLectura(0, error)));
+    }
+
+    /**
+     * Con PK: páginas por clave. Sin PK: OFFSET/FETCH ordenado por ROWID en tablas; las vistas
+     * se desempatan por sus columnas (ver leerPagina).
+     */
+    private void elegirOrden() {
+        try {
+            CatalogoEsquema catalogo = connectionUser.getCatalogoEsquema();
+            List<String> pks = catalogo.obtenerEstructura(objeto).getClavesPrimarias();
+            if (!pks.isEmpty()) {
+                clave = new ArrayList<>(pks);
+            } else if (!catalogo.esVista(objeto)) {
+                orden = "ROWID";
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠️ Sin clave para paginar " + objeto + ", se usa OFFSET: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Se llama en el hilo de JavaFX cada vez que llegan filas o termina una lectura
+     */
+    public void setAlProgresar(Runnable alProgresar) {
+        this.alProgresar = alProgresar;
+    }
+
+    /**
+     * Token de las lecturas en curso (el de la primera página mientras se lee)
+     */
+    public TokenCancelacion getToken() {
+        return token;
+    }
+
+    /**
+     * Detiene las páginas que se están leyendo. Lo ya recibido queda en la grilla; las
+     * páginas a medias se vuelven a pedir cuando el usuario las mira de nuevo.
+     */
+    public void detener() {
+        token.cancelar();
+        token = new TokenCancelacion();
+    }
+
+    /**
+     * Deja de pedir páginas y detiene las que están en curso
+     */
+    public void cerrar() {
+        cerrada = true;
+        token.cancelar();
+    }
+
+    /**
+     * true si puede haber filas después de las ya conocidas
+     */
+    public boolean hayMas() {
+        return !completa;
+    }
+
+    public boolean estaLeyendo() {
+        return !pedidas.isEmpty();
+    }
+
+    /**
+     * Filas leídas, tiempo y filas por segundo de la lectura en curso o de la última
+     */
+    public String getProgreso() {
+        long fin = estaLeyendo() ? System.nanoTime() : finLectura;
+        double segundos = Math.max(0.001, (fin - inicioLectura) / 1e9);
+        String total = String.format("%,d%s filas en la grilla", filasConocidas, completa ? "" : "+");
+        String pedido = criterios.toString();
+        if (!pedido.isEmpty()) {
+            total += " (" + pedido + ")";
+        }
+        if (desdeCache > 0) {
+            // Otras sesiones pudieron cambiar la tabla desde entonces: Refrescar la relee
+            total += String.format(" · de la caché, leída hace %d s", (System.currentTimeMillis() - desdeCache) / 1000);
+        }
+        return String.format("%s %,d filas · %.1f s · %,.0f filas/s — %s",
+                             estaLeyendo() ? "Leyendo:" : "Leídas", filasLeidas, segundos,
+                             filasLeidas / segundos, total);
+    }
+
+    @Override
+    public int size() {
+        return filasConocidas;
+    }
+
+    @Override
+    public BloqueColumnar.Fila get(int indice) {
+        int numero = indice / tamanoPagina;
+        paginaActual = numero;
+        List<BloqueColumnar.Fila> pagina = paginas.get(numero);
+        pedir(numero);
+        // Por adelantado: la siguiente, para que el desplazamiento no espere a la base
+        pedir(numero + 1);
+        if (pagina == null) {
+            return FILA_PENDIENTE;
+        }
+        int posicion = indice - numero * tamanoPagina;
+        return posicion < pagina.size() ? pagina.get(posicion) : FILA_PENDIENTE;
+    }
+
+    /**
+     * Busca solo en las páginas en memoria (recorrer la lista entera pediría todas las páginas)
+     */
+    @Override
+    public int indexOf(Object fila) {
+        if (fila == FILA_PENDIENTE) {
+            return -1;
+        }
+        for (Map.Entry<Integer, List<BloqueColumnar.Fila>> entrada : paginas.entrySet()) {
+            int posicion = entrada.getValue().indexOf(fila);
+            if (posicion >= 0) {
+                return entrada.getKey() * tamanoPagina + posicion;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object fila) {
+        return indexOf(fila);
+    }
+
+    @Override
+    public boolean contains(Object fila) {
+        return indexOf(fila) >= 0;
+    }
+
+    private void pedir(int numero) {
+        if (cerrada || pedidas.contains(numero)) {
+            return;
+        }
+        Long reintento = incompletas.get(numero);
+        if (reintento != null ? System.currentTimeMillis() < reintento : paginas.containsKey(numero)) {
+            return;
+        }
+        // Solo se llega a una página nueva desde la anterior (hace falta su última clave)
+        if (numero > limites.size() || (completa && numero >= limites.size())) {
+            return;
+        }
+        empezarLectura();
+        pedidas.add(numero);
+        Object[] desde = numero == 0 ? null : limites.get(numero - 1);
+        QueryExecutor.getInstance().ejecutar(() -> leerPagina(numero, desde), token)
+            .whenComplete(QueryExecutor.enFx((pagina, error) -> terminarLectura(numero, error)));
+    }
+
+    private void empezarLectura() {
+        if (pedidas.isEmpty()) {
+            inicioLectura = System.nanoTime();
+            filasLeidas = 0;
+        }
+    }
+
+    /**
+     * Fin de la lectura de una página (sus lotes ya se aplicaron: llegaron antes al hilo de JavaFX)
+     */
+    private void terminarLectura(int numero, Throwable error) {
+        pedidas.remove(numero);
+        if (pedidas.isEmpty()) {
+            finLectura = System.nanoTime();
+        }
+        if (cerrada) {
+            return;
+        }
+        if (error != null) {
+            // Lo que llegó se queda; la página se vuelve a pedir más tarde si se la mira
+            incompletas.put(numero, System.currentTimeMillis() + ESPERA_REINTENTO_MS);
+            if (!TokenCancelacion.esCancelacion(error)) {
+                System.err.println("❌ Error leyendo la página " + (numero + 1) + " de " + getOrigen() + ": " +
+                                   QueryExecutor.causaReal(error).getMessage());
+            }
+        }
+        avisarProgreso();
+    }
+
+    /**
+     * Encola un lote leído (hilo de fondo); un solo pulso de la interfaz aplica todos los que haya
+     */
+    private void publicar(Lote lote) {
+        lote.bloque.terminar();
+        llegadas.add(lote);
+        if (aplicacionProgramada.compareAndSet(false, true)) {
+            QueryExecutor.enFx(this::aplicarLlegadas);
+        }
+    }
+
+    private void aplicarLlegadas() {
+        aplicacionProgramada.set(false);
+        if (cerrada) {
+            llegadas.clear();
+            return;
+        }
+        beginChange();
+        Lote lote;
+        while ((lote = llegadas.poll()) != null) {
+            aplicar(lote);
+        }
+        descartarLejanas();
+        endChange();
+        avisarProgreso();
+    }
+
+    /**
+     * Pone las filas del lote en su página y registra el cambio para el TableView
+     */
+    private void aplicar(Lote lote) {
+        int numero = lote.numero;
+        int inicioPagina = numero * tamanoPagina;
+        List<BloqueColumnar.Fila> pagina = paginas.get(numero);
+        if (lote.primero) {
+            if (lote.columnas != null && alConocerColumnas != null) {
+                alConocerColumnas.accept(lote.columnas);
+                alConocerColumnas = null;
+            }
+            // Página releída: lo que quedó de la lectura anterior vuelve a pendiente
+            if (pagina != null && !pagina.isEmpty()) {
+                int hasta = Math.min(inicioPagina + pagina.size(), filasConocidas);
+                if (hasta > inicioPagina) {
+                    nextReplace(inicioPagina, hasta, new ArrayList<>(pagina.subList(0, hasta - inicioPagina)));
+                }
+            }
+            pagina = new ArrayList<>(tamanoPagina);
+            paginas.put(numero, pagina);
+            incompletas.remove(numero);
+        } else if (pagina == null) {
+            return; // Página descartada mientras llegaba
+        }
+
+        int desde = inicioPagina + pagina.size();
+        pagina.addAll(lote.bloque.getFilas());
+        int hasta = inicioPagina + pagina.size();
+        filasLeidas += lote.bloque.getTotalFilas();
+        int reemplazadas = Math.min(hasta, filasConocidas);
+        if (reemplazadas > desde) {
+            nextReplace(desde, reemplazadas, Collections.nCopies(reemplazadas - desde, FILA_PENDIENTE));
+        }
+        if (hasta > filasConocidas) {
+            nextAdd(filasConocidas, hasta);
+            filasConocidas = hasta;
+        }
+
+        if (lote.ultimo) {
+            if (numero < limites.size()) {
+                // Una página releída que volvió vacía (filas borradas) no pierde su límite
+                if (lote.ultimaClave != null) {
+                    limites.set(numero, lote.ultimaClave);
+                }
+            } else {
+                limites.add(lote.ultimaClave);
+            }
+            if (numero == limites.size() - 1) {
+                completa = pagina.size() < tamanoPagina;
+            }
+        }
+    }
+
+    private void descartarLejanas() {
+        Iterator<Map.Entry<Integer, List<BloqueColumnar.Fila>>> it = paginas.entrySet().iterator();
+        while (paginas.size() > maxPaginas && it.hasNext()) {
+            Map.Entry<Integer, List<BloqueColumnar.Fila>> entrada = it.next();
+            int numero = entrada.getKey();
+            if (Math.abs(numero - paginaActual) <= 1 || pedidas.contains(numero)) {
+                continue;
+            }
+            it.remove();
+            incompletas.remove(numero);
+            int desde = numero * tamanoPagina;
+            int hasta = Math.min(desde + entrada.getValue().size(), filasConocidas);
+            if (hasta > desde) {
+                nextReplace(desde, hasta, entrada.getValue().subList(0, hasta - desde));
+            }
+        }
+    }
+
+    private void avisarProgreso() {
+        if (alProgresar != null) {
+            alProgresar.run();
+        }
+    }
+
+    /**
+     * Lee una página (hilo de fondo) y publica sus filas por lotes. Devuelve null si el
+     * usuario ya se alejó de ella.
+     */
+    private Pagina leerPagina(int numero, Object[] desde) throws SQLException {
+        if (Math.abs(numero - paginaActual) > maxPaginas) {
+            return null;
+        }
+        long inicio = System.nanoTime();
+        try (ConnectionRouter.Uso uso = fuente.abrir()) {
+            String origen = objeto == null ? null : (uso.getObjeto() != null ? uso.getObjeto() : objeto);
+            if (desempate == null && clave.isEmpty() && orden == null) {
+                desempate = elegirDesempate(uso, origen);
+            }
+            List<Object> valores = new ArrayList<>();
+            String sql = armarSql(origen, numero, desde, valores);
+            // Solo las tablas y vistas: de un SELECT libre no se sabe qué tablas lo invalidan
+            CacheResultados cache = origen != null ? connectionUser.getCacheResultados() : null;
+            Consumer<CacheResultados.Entrada> guardar = null;
+            if (cache != null && cache.estaActiva()) {
+                CacheResultados.Entrada guardada = cache.buscar(uso.getNodo(), sql, valores);
+                if (guardada != null) {
+                    return publicarGuardada(numero, guardada, inicio);
+                }
+                // Tomada antes de leer: si un commit invalida mientras tanto, la página no se guarda
+                long generacion = cache.getGeneracion();
+                String nodo = uso.getNodo();
+                guardar = entrada -> cache.guardar(nodo, sql, valores, entrada, generacion);
+            }
+            if (origen != null) {
+                // Una página por viaje a la base
+                uso.ajustarFetch(origen, tamanoPagina);
+            }
+            PreparedStatement pstmt = uso.prepararSql(sql);
+            for (int i = 0; i < valores.size(); i++) {
+                pstmt.setObject(i + 1, valores.get(i));
+            }
+            int filasPorViaje = Math.max(1, uso.getFetchSize());
+            // Primera página: el primer viaje trae pocas filas para que la grilla se vea enseguida
+            int primerViaje = numero == 0 ? Math.min(filasPrimerViaje, filasPorViaje) : filasPorViaje;
+            pstmt.setFetchSize(primerViaje);
+            ResultSet rs = pstmt.executeQuery();
+            try {
+                return leerFilas(uso, rs, numero, primerViaje, filasPorViaje, inicio, guardar);
+            } finally {
+                rs.close();
+            }
+        }
+    }
+
+    /**
+     * Posiciones de las columnas que se pueden ordenar (no LOB, LONG ni tipos de objeto), de los
+     * tipos ya conocidos o describiendo la sentencia sin ejecutarla. Con todas ellas en el ORDER BY
+     * el orden es el mismo en cada ejecución: solo pueden intercambiarse filas idénticas.
+     */
+    private String elegirDesempate(ConnectionRouter.Uso uso, String origen) throws SQLException {
+        String[] tipos = tiposSql;
+        if (tipos == null) {
+            ResultSetMetaData metaData = uso.prepararSql(consulta != null ? consulta : "SELECT * FROM " + origen).getMetaData();
+            if (metaData == null) {
+                System.err.println("⚠️ Sin descripción de columnas: las páginas de " + getOrigen() + " no tienen orden estable");
+                return "";
+            }
+            tipos = new String[metaData.getColumnCount()];
+            for (int i = 0; i < tipos.length; i++) {
+                tipos[i] = metaData.getColumnTypeName(i + 1);
+            }
+        }
+        List<String> posiciones = new ArrayList<>();
+        for (int i = 0; i < tipos.length; i++) {
+            if (esOrdenable(tipos[i])) {
+                posiciones.add(String.valueOf(i + 1));
+            }
+        }
+        return String.join(", ", posiciones);
+    }
+
+    static boolean esOrdenable(String tipoSql) {
+        if (tipoSql == null) {
+            return false;
+        }
+        String tipo = tipoSql.toUpperCase();
+        for (String escalar : TIPOS_ORDENABLES) {
+            if (tipo.startsWith(escalar)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String armarSql(String origen, int numero, Object[] desde, List<Object> valores) {
+        String posiciones = desempate != null ? desempate : "";
+        if (consulta != null && criterios.estaVacio() && filtros.isEmpty()) {
+            List<String> palabras = palabrasPrincipales(consulta);
+            if (!palabras.contains("FETCH") && !palabras.contains("OFFSET")) {
+                // Sin envolver: la consulta se ejecuta tal cual (aunque repita nombres de columna)
+                // con el desempate sumado a su propio ORDER BY
+                StringBuilder sql = new StringBuilder(consulta);
+                if (!posiciones.isEmpty()) {
+                    sql.append(tieneOrderBy(palabras) ? "\n, " : "\nORDER BY ").append(posiciones);
+                }
+                sql.append("\nOFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+                valores.add((long) numero * tamanoPagina);
+                valores.add(tamanoPagina);
+                return sql.toString();
+            }
+        }
+        StringBuilder sql = new StringBuilder("SELECT * FROM ");
+        sql.append(consulta != null ? "(" + consulta + "\n)" : origen);
+        List<String> condiciones = new ArrayList<>();
+        for (Filtro filtro : filtros) {
+            condiciones.add(filtro.condicion);
+            if (filtro.valor != null) {
+                valores.add(filtro.valor);
+            }
+        }
+        List<String> columnasClave = clave;
+        String columnaOrden = criterios.getColumnaOrden();
+        // Páginas por clave solo en el orden de la clave; con otro orden, OFFSET/FETCH
+        boolean porClave = !columnasClave.isEmpty() && columnaOrden == null;
+        if (porClave && desde != null) {
+            // (a, b) > (x, y) escrito como a > x OR (a = x AND b > y): Oracle lo resuelve con el índice de la PK
+            StringBuilder despues = new StringBuilder("(");
+            for (int i = 0; i < columnasClave.size(); i++) {
+                despues.append(i == 0 ? "(" : " OR (");
+                for (int j = 0; j < i; j++) {
+                    despues.append(citar(columnasClave.get(j))).append(" = ")
+                           .append(parametroDe(columnasClave.get(j), desde[j])).append(" AND ");
+                    valores.add(desde[j]);
+                }
+                despues.append(citar(columnasClave.get(i))).append(" > ")
+                       .append(parametroDe(columnasClave.get(i), desde[i])).append(")");
+                valores.add(desde[i]);
+            }
+            condiciones.add(despues.append(")").toString());
+        }
+        if (!condiciones.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", condiciones));
+        }
+
+        List<String> ordenes = new ArrayList<>();
+        if (columnaOrden != null) {
+            ordenes.add(citar(columnaOrden) + (criterios.isDescendente() ? " DESC" : ""));
+        }
+        // Desempate estable entre páginas: la clave, el ROWID o todas las columnas ordenables
+        for (String columna : columnasClave) {
+            ordenes.add(citar(columna));
+        }
+        if (columnasClave.isEmpty() && orden != null) {
+            ordenes.add(orden);
+        } else if (columnasClave.isEmpty() && !posiciones.isEmpty()) {
+            ordenes.add(posiciones);
+        }
+        if (!ordenes.isEmpty()) {
+            sql.append(" ORDER BY ").append(String.join(", ", ordenes));
+        }
+        if (porClave) {
+            sql.append(" FETCH FIRST ? ROWS ONLY");
+            valores.add(tamanoPagina);
+        } else {
+            sql.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+            valores.add((long) numero * tamanoPagina);
+            valores.add(tamanoPagina);
+        }
+        return sql.toString();
+    }
+
+    private static boolean tieneOrderBy(List<String> palabras) {
+        for (int i = 0; i + 1 < palabras.size(); i++) {
+            if (palabras.get(i).equals("ORDER") && (palabras.get(i + 1).equals("BY") || palabras.get(i + 1).equals("SIBLINGS"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Palabras de la consulta fuera de paréntesis, textos, identificadores entre comillas y
+     * comentarios, en mayúsculas: dicen si la consulta ya trae su ORDER BY u OFFSET/FETCH
+     */
+    static List<String> palabrasPrincipales(String sql) {
+        List<String> palabras = new ArrayList<>();
+        int nivel = 0;
+        int i = 0;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            char siguiente = i + 1 < n ? sql.charAt(i + 1) : 0;
+            if (c == '\'') {
+                // '' dentro del texto es una comilla escapada
+                i++;
+                while (i < n && (sql.charAt(i) != '\'' || (i + 1 < n && sql.charAt(i + 1) == '\''))) {
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                i++;
+            } else if (c == '"') {
+                int fin = sql.indexOf('"', i + 1);
+                i = fin < 0 ? n : fin + 1;
+            } else if (c == '-' && siguiente == '-') {
+                int fin = sql.indexOf('\n', i);
+                i = fin < 0 ? n : fin + 1;
+            } else if (c == '/' && siguiente == '*') {
+                int fin = sql.indexOf("*/", i + 2);
+                i = fin < 0 ? n : fin + 2;
+            } else if (c == '(') {
+                nivel++;
+                i++;
+            } else if (c == ')') {
+                nivel--;
+                i++;
+            } else if (Character.isLetter(c)) {
+                int inicio = i;
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || "_$#".indexOf(sql.charAt(i)) >= 0)) {
+                    i++;
+                }
+                if (nivel == 0) {
+                    palabras.add(sql.substring(inicio, i).toUpperCase());
+                }
+            } else {
+                i++;
+            }
+        }
+        return palabras;
+    }
+
+    private String parametroDe(String columna, Object valor) {
+        List<String> nombres = nombresColumnas;
+        return parametro(tiposSql, nombres == null ? -1 : nombres.indexOf(columna), valor);
+    }
+
+    private static String citar(String columna) {
+        return "\"" + columna.replace("\"", "") + "\"";
+    }
+
+    /**
+     * Página sacada de la caché de resultados: sus bloques se publican como si acabaran de llegar
+     */
+    private Pagina publicarGuardada(int numero, CacheResultados.Entrada guardada, long inicio) {
+        QueryExecutor.enFx(() -> {
+            if (desdeCache == 0 || guardada.getGuardada() < desdeCache) {
+                desdeCache = guardada.getGuardada();
+            }
+        });
+        if (nombresColumnas == null) {
+            tiposColumnas = guardada.getTiposColumnas();
+            tiposSql = guardada.getTiposSql();
+            nombresColumnas = guardada.getColumnas();
+        }
+        List<BloqueColumnar> bloques = guardada.getBloques();
+        for (int i = 0; i < bloques.size(); i++) {
+            boolean ultimo = i == bloques.size() - 1;
+            publicar(new Lote(numero, i == 0 ? guardada.getColumnas() : null, bloques.get(i), i == 0, ultimo,
+                              ultimo ? guardada.getUltimaClave() : null));
+        }
+        return new Pagina(guardada.getColumnas(), guardada.getTotalFilas(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Lee las filas y publica un lote cada vez que se terminan las filas de un viaje, justo
+     * antes de que rs.next() espere el siguiente. "guardar" recibe la página completa para la
+     * caché de resultados (null si no va a la caché).
+     */
+    private Pagina leerFilas(ConnectionRouter.Uso uso, ResultSet rs, int numero, int primerViaje,
+                             int filasPorViaje, long inicio,
+                             Consumer<CacheResultados.Entrada> guardar) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        List<String> columnas = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columnas.add(metaData.getColumnName(i));
+        }
+        // Un lector por columna, elegido una vez para todo el ResultSet
+        DecodificadorFilas decodificador = DecodificadorFilas.compilar(metaData);
+        if (nombresColumnas == null) {
+            Class<?>[] tipos = new Class<?>[columnCount];
+            String[] tiposOracle = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                tipos[i] = decodificador.getTipo(i);
+                tiposOracle[i] = metaData.getColumnTypeName(i + 1);
+            }
+            tiposColumnas = tipos;
+            tiposSql = tiposOracle;
+            nombresColumnas = columnas;
+        }
+        List<BloqueColumnar> bloques = new ArrayList<>();
+        List<String> columnasClave = clave;
+        int[] posicionesClave = new int[columnasClave.size()];
+        for (int i = 0; i < posicionesClave.length; i++) {
+            posicionesClave[i] = columnas.indexOf(columnasClave.get(i)) + 1;
+            if (posicionesClave[i] == 0) {
+                throw new SQLException("La columna de la clave " + columnasClave.get(i) + " no está en el resultado");
+            }
+        }
+
+        BloqueColumnar lote = new BloqueColumnar(columnCount, Math.min(primerViaje, tamanoPagina));
+        boolean primero = true;
+        int leidas = 0;
+        int proximoCorte = primerViaje;
+        // Bloque con la última fila leída: de ahí sale la clave donde empieza la próxima página
+        BloqueColumnar conUltima = null;
+        while (rs.next()) {
+            uso.verificarCancelacion();
+            decodificador.leerFila(rs, lote);
+            conUltima = lote;
+            leidas++;
+            if (leidas == proximoCorte && leidas < tamanoPagina) {
+                bloques.add(lote);
+                publicar(new Lote(numero, primero ? columnas : null, lote, primero, false, null));
+                if (primero && primerViaje != filasPorViaje) {
+                    rs.setFetchSize(filasPorViaje);
+                }
+                primero = false;
+                lote = new BloqueColumnar(columnCount, Math.min(filasPorViaje, tamanoPagina - leidas));
+                proximoCorte += filasPorViaje;
+            }
+        }
+        Object[] ultimaClave = null;
+        if (conUltima != null && posicionesClave.length > 0) {
+            // Valores tipados ya leídos (el bloque publicado ya no cambia)
+            BloqueColumnar.Fila ultima = conUltima.getFila(conUltima.getTotalFilas() - 1);
+            ultimaClave = new Object[posicionesClave.length];
+            for (int i = 0; i < posicionesClave.length; i++) {
+                ultimaClave[i] = ultima.getValor(posicionesClave[i] - 1);
+            }
+        }
+        publicar(new Lote(numero, primero ? columnas : null, lote, primero, true, ultimaClave));
+        if (guardar != null) {
+            bloques.add(lote);
+            guardar.accept(new CacheResultados.Entrada(objeto, columnas, tiposColumnas, tiposSql, bloques, ultimaClave));
+        }
+        return new Pagina(columnas, leidas, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private String getOrigen() {
+        return objeto != null ? objeto : "la consulta";
+    }
+
+    /**
+     * Orden y filtros pedidos desde los encabezados de la grilla (no cambia: cada cambio es otro)
+     */
+    public static class Criterios {
+        public static final Criterios NINGUNO = new Criterios(null, false, Collections.emptyMap());
+
+        private final String columnaOrden;
+        private final boolean descendente;
+        // Columna -> texto del filtro
+        private final Map<String, String> filtros;
+
+        private Criterios(String columnaOrden, boolean descendente, Map<String, String> filtros) {
+            this.columnaOrden = columnaOrden;
+            this.descendente = descendente;
+            this.filtros = filtros;
+        }
+
+        /**
+         * Ordenado por la columna (null: sin orden pedido)
+         */
+        public Criterios ordenadoPor(String columna, boolean descendente) {
+            return new Criterios(columna, columna != null && descendente, filtros);
+        }
+
+        /**
+         * Con el filtro de la columna cambiado (texto vacío: sin filtro)
+         */
+        public Criterios conFiltro(String columna, String texto) {
+            Map<String, String> nuevos = new LinkedHashMap<>(filtros);
+            if (texto == null || texto.trim().isEmpty()) {
+                nuevos.remove(columna);
+            } else {
+                nuevos.put(columna, texto.trim());
+            }
+            return new Criterios(columnaOrden, descendente, Collections.unmodifiableMap(nuevos));
+        }
+
+        /**
+         * Sin orden ni filtros pedidos
+         */
+        public boolean estaVacio() {
+            return columnaOrden == null && filtros.isEmpty();
+        }
+
+        public String getColumnaOrden() { return columnaOrden; }
+        public boolean isDescendente() { return descendente; }
+        public Map<String, String> getFiltros() { return filtros; }
+
+        public String getFiltro(String columna) {
+            return filtros.getOrDefault(columna, "");
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            if (columnaOrden != null) {
+                sb.append("orden: ").append(columnaOrden).append(descendente ? " ↓" : " ↑");
+            }
+            if (!filtros.isEmpty()) {
+                sb.append(sb.length() > 0 ? " · " : "").append(filtros.size()).append(filtros.size() == 1 ? " filtro" : " filtros");
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Condición ya armada de un filtro y su valor (null si no lleva bind)
+     */
+    static class Filtro {
+        private final String condicion;
+        private final Object valor;
+
+        private Filtro(String condicion, Object valor) {
+            this.condicion = condicion;
+            this.valor = valor;
+        }
+
+        String getCondicion() { return condicion; }
+        Object getValor() { return valor; }
+    }
+
+    /**
+     * Filas de un viaje a la base, en camino al hilo de JavaFX
+     */
+    private static class Lote {
+        private final int numero;
+        private final List<String> columnas;
+        private final BloqueColumnar bloque;
+        private final boolean primero;
+        private final boolean ultimo;
+        private final Object[] ultimaClave;
+
+        private Lote(int numero, List<String> columnas, BloqueColumnar bloque,
+                     boolean primero, boolean ultimo, Object[] ultimaClave) {
+            this.numero = numero;
+            this.columnas = columnas;
+            this.bloque = bloque;
+            this.primero = primero;
+            this.ultimo = ultimo;
+            this.ultimaClave = ultimaClave;
+        }
+    }
+
+    /**
+     * Resumen de una página ya leída
+     */
+    public static class Pagina {
+        private final List<String> columnas;
+        private final int totalFilas;
+        private final long milisegundos;
+
+        private Pagina(List<String> columnas, int totalFilas, long milisegundos) {
+            this.columnas = columnas;
+            this.totalFilas = totalFilas;
+            this.milisegundos = milisegundos;
+        }
+
+        public List<String> getColumnas() { return columnas; }
+        public int getTotalFilas() { return totalFilas; }
+        public long getMilisegundos() { return milisegundos; }
+    }
+}
@@ -5,13 +5,37 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import javafx.scene.Node;
+import javafx.beans.value.ChangeListener;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Types;
 import java.sql.Connection;
-import java.sql.Statement;
+import java.sql.PreparedStatement;
+import Logic.BloqueColumnar;
+import Logic.ConnectionRouter;
+import Logic.ConnectionUser;
+import Logic.LectorLob;
+import Logic.OperationType;
+import Logic.QueryExecutor;
+import Logic.SqlRegistry;
+import Logic.TokenCancelacion;
+import Logic.VentanaFilas;
 
 public class MetodosFrecuentes {
 
@@ -79,85 +103,229 @@ public class MetodosFrecuentes {
     }
 
     /**
-     * Obtiene el valor de una columna del ResultSet manejando diferentes tipos de datos
-     * Incluye soporte para BLOB, CLOB, DATE, TIMESTAMP y otros tipos especiales
+     * Muestra u oculta el indicador de carga y bloquea los controles mientras dura la operación
      */
-    public static String getColumnValue(ResultSet rs, int columnIndex, ResultSetMetaData metaData) {
-        try {
-            int columnType = metaData.getColumnType(columnIndex);
-            String columnTypeName = metaData.getColumnTypeName(columnIndex);
-            
-            // Verificar si el valor es NULL
-            if (rs.getObject(columnIndex) == null) {
-                return "NULL";
+    public static void mostrarOcupado(ProgressIndicator indicador, boolean ocupado, Node... controles) {
+        if (indicador != null) {
+            indicador.setVisible(ocupado);
+        }
+        for (Node control : controles) {
+            if (control != null) {
+                control.setDisable(ocupado);
             }
-            
-            // Manejar diferentes tipos de datos
-            switch (columnType) {
-                case Types.BLOB:
-                    return "[BLOB]";
-                case Types.CLOB:
-                    return "[CLOB]";
-                case Types.LONGVARBINARY:
-                    return "[BINARY]";
-                case Types.VARBINARY:
-                    return "[BINARY]";
-                case Types.BINARY:
-                    return "[BINARY]";
-                case Types.LONGVARCHAR:
-                    return "[LONG TEXT]";
-                case Types.DATE:
-                    java.sql.Date date = rs.getDate(columnIndex);
-                    return date != null ? date.toString() : "NULL";
-                case Types.TIMESTAMP:
-                    java.sql.Timestamp timestamp = rs.getTimestamp(columnIndex);
-                    return timestamp != null ? timestamp.toString() : "NULL";
-                case Types.TIME:
-                    java.sql.Time time = rs.getTime(columnIndex);
-                    return time != null ? time.toString() : "NULL";
-                case Types.NUMERIC:
-                case Types.DECIMAL:
-                    java.math.BigDecimal decimal = rs.getBigDecimal(columnIndex);
-                    return decimal != null ? decimal.toString() : "NULL";
-                case Types.DOUBLE:
-                    double doubleVal = rs.getDouble(columnIndex);
-                    return rs.wasNull() ? "NULL" : String.valueOf(doubleVal);
-                case Types.FLOAT:
-                    float floatVal = rs.getFloat(columnIndex);
-                    return rs.wasNull() ? "NULL" : String.valueOf(floatVal);
-                case Types.INTEGER:
-                    int intVal = rs.getInt(columnIndex);
-                    return rs.wasNull() ? "NULL" : String.valueOf(intVal);
-                case Types.BIGINT:
-                    long longVal = rs.getLong(columnIndex);
-                    return rs.wasNull() ? "NULL" : String.valueOf(longVal);
-                case Types.SMALLINT:
-                    short shortVal = rs.getShort(columnIndex);
-                    return rs.wasNull() ? "NULL" : String.valueOf(shortVal);
-                case Types.TINYINT:
-                    byte byteVal = rs.getByte(columnIndex);
-                    return rs.wasNull() ? "NULL" : String.valueOf(byteVal);
-                case Types.BOOLEAN:
-                    boolean boolVal = rs.getBoolean(columnIndex);
-                    return rs.wasNull() ? "NULL" : String.valueOf(boolVal);
-                case Types.CHAR:
-                case Types.VARCHAR:
-                case Types.NVARCHAR:
-                case Types.NCHAR:
-                case Types.LONGNVARCHAR:
-                default:
-                    // Para tipos de texto y otros tipos no específicos
-                    try {
-                        return rs.getString(columnIndex);
-                    } catch (SQLException e) {
-                        // Si getString falla, intentar con getObject
-                        Object obj = rs.getObject(columnIndex);
-                        return obj != null ? obj.toString() : "NULL";
+        }
+    }
+
+    /**
+     * Si el error es una sentencia detenida (botón Detener o tiempo máximo de su clase de operación),
+     * avisa al usuario y devuelve true
+     */
+    public static boolean avisarSiCancelada(Throwable error, TokenCancelacion token) {
+        if (token != null && token.isCancelado()) {
+            mostrarAlerta("Operación Detenida", "La operación se detuvo a pedido del usuario.");
+            return true;
+        }
+        if (TokenCancelacion.esCancelacion(error)) {
+            mostrarAlertaAdvertencia("Tiempo Agotado",
+                "La operación superó su tiempo máximo y fue detenida.\n\n" + error.getMessage());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Crea las columnas del TableView y lo conecta a la ventana de filas (hilo de JavaFX).
+     * Las filas aparecen a medida que llegan; las demás páginas se leen al desplazarse.
+     * Cada celda toma su texto del bloque de la fila al dibujarse. Ordenar por un encabezado o
+     * escribir un filtro (Enter) no ordena en memoria: pide la ventana con esos criterios a
+     * "alCambiarCriterios" y el servidor devuelve las filas ya ordenadas y filtradas.
+     */
+    public static void mostrarPaginado(TableView<BloqueColumnar.Fila> tabla, VentanaFilas ventana,
+                                       List<String> columnas, Consumer<VentanaFilas.Criterios> alCambiarCriterios) {
+        // Mientras los encabezados se ponen al día con la ventana no se piden criterios nuevos
+        boolean[] sincronizando = {true};
+        if (!mismasColumnas(tabla, columnas)) {
+            tabla.getSortOrder().clear();
+            tabla.getColumns().clear();
+
+            for (int i = 0; i < columnas.size(); i++) {
+                final int colIndex = i;
+                String nombre = columnas.get(i);
+                TableColumn<BloqueColumnar.Fila, BloqueColumnar.Fila> column = new TableColumn<>(nombre);
+                // La fila es su propio valor: no se crea una propiedad por celda
+                column.setCellValueFactory(cellData -> cellData.getValue());
+                column.setCellFactory(col -> {
+                    TableCell<BloqueColumnar.Fila, BloqueColumnar.Fila> cell = new TableCell<BloqueColumnar.Fila, BloqueColumnar.Fila>() {
+                        private Tooltip ayudaLob;
+
+                        @Override
+                        protected void updateItem(BloqueColumnar.Fila fila, boolean empty) {
+                            super.updateItem(fila, empty);
+                            setText(empty || fila == null ? null : fila.getTexto(colIndex));
+                            VentanaFilas actual = ventanaDe(tabla);
+                            boolean lob = !empty && fila != null && actual != null && actual.getFormatoLob(colIndex) != null;
+                            if (lob && ayudaLob == null) {
+                                ayudaLob = new Tooltip("Doble clic para ver el contenido");
+                            }
+                            setTooltip(lob ? ayudaLob : null);
+                        }
+                    };
+                    // La grilla solo tiene la marca del LOB: doble clic lo lee aparte, por trozos
+                    cell.setOnMouseClicked(e -> {
+                        VentanaFilas actual = ventanaDe(tabla);
+                        BloqueColumnar.Fila fila = cell.getItem();
+                        if (e.getClickCount() == 2 && actual != null && fila != null && !fila.esPendiente()
+                                && actual.getFormatoLob(colIndex) != null) {
+                            mostrarContenidoLob(tabla, actual, fila, colIndex, nombre);
+                        }
+                    });
+                    return cell;
+                });
+                // Si se ordena en memoria, por el valor tipado (no por el texto mostrado)
+                column.setComparator(BloqueColumnar.comparador(colIndex));
+                column.setPrefWidth(120); // Ancho fijo para las columnas
+
+                // Filtro de la columna en el encabezado
+                TextField filtro = new TextField();
+                filtro.setPromptText("filtro");
+                filtro.setPrefWidth(60);
+                filtro.setTooltip(new Tooltip("Enter para filtrar en el servidor: NULL, = valor, > valor, <> valor..."
+                    + "\nEn texto, el comienzo del valor (con % como comodín). Fechas como se muestran."));
+                filtro.setOnAction(e -> {
+                    VentanaFilas actual = ventanaDe(tabla);
+                    if (actual != null && !sincronizando[0]
+                            && !filtro.getText().trim().equals(actual.getCriterios().getFiltro(nombre))) {
+                        alCambiarCriterios.accept(actual.getCriterios().conFiltro(nombre, filtro.getText()));
                     }
+                });
+                column.setGraphic(filtro);
+                column.setUserData(filtro);
+                tabla.getColumns().add(column);
+            }
+        }
+        tabla.setItems(ventana);
+
+        // El orden del encabezado se pide al servidor; las filas en memoria no se reordenan
+        tabla.setSortPolicy(t -> {
+            VentanaFilas actual = ventanaDe(t);
+            if (actual == null || sincronizando[0]) {
+                return true;
+            }
+            String columna = null;
+            boolean descendente = false;
+            if (!t.getSortOrder().isEmpty()) {
+                TableColumn<BloqueColumnar.Fila, ?> primera = t.getSortOrder().get(0);
+                columna = primera.getText();
+                descendente = primera.getSortType() == TableColumn.SortType.DESCENDING;
+            }
+            VentanaFilas.Criterios criterios = actual.getCriterios();
+            if (!Objects.equals(columna, criterios.getColumnaOrden()) || descendente != criterios.isDescendente()) {
+                alCambiarCriterios.accept(criterios.ordenadoPor(columna, descendente));
+            }
+            return true;
+        });
+
+        // Encabezados al día con los criterios de la ventana (una recarga los conserva)
+        VentanaFilas.Criterios criterios = ventana.getCriterios();
+        TableColumn<BloqueColumnar.Fila, ?> ordenada = null;
+        for (TableColumn<BloqueColumnar.Fila, ?> column : tabla.getColumns()) {
+            ((TextField) column.getUserData()).setText(criterios.getFiltro(column.getText()));
+            if (column.getText().equals(criterios.getColumnaOrden())) {
+                column.setSortType(criterios.isDescendente() ? TableColumn.SortType.DESCENDING : TableColumn.SortType.ASCENDING);
+                ordenada = column;
+            }
+        }
+        if (ordenada == null) {
+            tabla.getSortOrder().clear();
+        } else {
+            tabla.getSortOrder().setAll(Collections.singletonList(ordenada));
+        }
+        sincronizando[0] = false;
+    }
+
+    private static boolean mismasColumnas(TableView<BloqueColumnar.Fila> tabla, List<String> columnas) {
+        if (tabla.getColumns().size() != columnas.size()) {
+            return false;
+        }
+        for (int i = 0; i < columnas.size(); i++) {
+            TableColumn<BloqueColumnar.Fila, ?> column = tabla.getColumns().get(i);
+            if (!columnas.get(i).equals(column.getText()) || !(column.getUserData() instanceof TextField)) {
+                return false;
             }
-        } catch (SQLException e) {
-            return "[ERROR: " + e.getMessage() + "]";
         }
+        return true;
+    }
+
+    private static VentanaFilas ventanaDe(TableView<BloqueColumnar.Fila> tabla) {
+        return tabla.getItems() instanceof VentanaFilas ? (VentanaFilas) tabla.getItems() : null;
+    }
+
+    /**
+     * Muestra el contenido de una celda LOB en una ventana aparte a medida que llega (texto, o
+     * hexadecimal si es binario), con su tamaño. La lectura se detiene al cerrar la ventana o
+     * al elegir otra fila de la grilla.
+     */
+    public static void mostrarContenidoLob(TableView<BloqueColumnar.Fila> tabla, VentanaFilas ventana,
+                                           BloqueColumnar.Fila fila, int columna, String nombre) {
+        boolean binario = ventana.getFormatoLob(columna) == LectorLob.Formato.HEXADECIMAL;
+        String unidad = binario ? "bytes" : "caracteres";
+        TextArea contenido = new TextArea();
+        contenido.setEditable(false);
+        contenido.setWrapText(!binario);
+        if (binario) {
+            contenido.setStyle("-fx-font-family: monospace;");
+        }
+        Label estado = new Label("Leyendo " + nombre + "...");
+        Button cerrar = new Button("Cerrar");
+        VBox raiz = new VBox(8, estado, contenido, cerrar);
+        VBox.setVgrow(contenido, Priority.ALWAYS);
+        raiz.setStyle("-fx-padding: 10;");
+
+        Stage stage = new Stage();
+        stage.setTitle(nombre + (binario ? " (hexadecimal)" : " (texto)"));
+        stage.setScene(new Scene(raiz, 720, 480));
+
+        TokenCancelacion token = new TokenCancelacion();
+        ChangeListener<BloqueColumnar.Fila> alCambiarFila = (obs, anterior, nueva) -> {
+            if (nueva != fila) {
+                token.cancelar();
+            }
+        };
+        tabla.getSelectionModel().selectedItemProperty().addListener(alCambiarFila);
+        stage.setOnHidden(e -> {
+            token.cancelar();
+            tabla.getSelectionModel().selectedItemProperty().removeListener(alCambiarFila);
+        });
+        cerrar.setOnAction(e -> stage.close());
+
+        ventana.leerLob(fila, columna, token, trozo -> {
+            contenido.appendText(trozo.getTexto());
+            estado.setText(describirLob(trozo, unidad));
+        }).whenComplete(QueryExecutor.enFx((leidos, error) -> {
+            if (error == null) {
+                return;
+            }
+            if (token.isCancelado() || TokenCancelacion.esCancelacion(error)) {
+                estado.setText(estado.getText() + " · lectura detenida");
+            } else {
+                estado.setText("❌ " + error.getMessage());
+            }
+        }));
+        stage.show();
+    }
+
+    private static String describirLob(LectorLob.Trozo trozo, String unidad) {
+        if (!trozo.isUltimo()) {
+            return trozo.getTotal() >= 0
+                ? String.format("Leyendo %,d de %,d %s...", trozo.getLeidos(), trozo.getTotal(), unidad)
+                : String.format("Leyendo %,d %s...", trozo.getLeidos(), unidad);
+        }
+        if (!trozo.isTruncado()) {
+            return String.format("Tamaño: %,d %s", trozo.getTotal(), unidad);
+        }
+        return trozo.getTotal() >= 0
+            ? String.format("Tamaño: %,d %s · se muestran los primeros %,d", trozo.getTotal(), unidad, trozo.getLeidos())
+            : String.format("Más de %,d %s · se muestran los primeros %,d", trozo.getLeidos(), unidad, trozo.getLeidos());
     }
 
     /**
@@ -165,11 +333,15 @@ public class MetodosFrecuentes {
      * Esto asegura que los cambios se reflejen inmediatamente en las vistas materializadas
      */
     public static void realizarCommitAutomatico() {
-        try {
-            Connection conn = Logic.SessionManager.getInstance().getConnectionUser().getConnection();
-            if (conn != null && !conn.isClosed()) {
+        // Con el turno de escritura: no se mezcla con otra operación en curso
+        ConnectionUser connectionUser = Logic.SessionManager.getInstance().getConnectionUser();
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.DML)) {
+            Connection conn = uso.getConexion();
+            if (!conn.isClosed()) {
                 conn.commit();
                 System.out.println("✅ Commit automático realizado exitosamente");
+                // Las páginas guardadas de las tablas modificadas y de sus vistas ya no valen
+                connectionUser.getCacheResultados().confirmarModificaciones(uso);
             }
         } catch (SQLException e) {
             System.err.println("❌ Error al realizar commit automático: " + e.getMessage());
@@ -177,15 +349,33 @@ public class MetodosFrecuentes {
         }
     }
     
+    /**
+     * Commit de un DML sobre "tabla": descarta de la caché de resultados sus páginas y las de
+     * los objetos que dependen de ella, y su conteo de filas guardado
+     */
+    public static void realizarCommitAutomatico(String tabla) {
+        ConnectionUser connectionUser = Logic.SessionManager.getInstance().getConnectionUser();
+        try {
+            connectionUser.getCacheResultados().registrarModificacion(tabla);
+            realizarCommitAutomatico();
+            connectionUser.getConteoFilas().invalidar(tabla);
+        } catch (SQLException e) {
+            System.err.println("❌ Error al realizar commit automático: " + e.getMessage());
+        }
+    }
+
     /**
      * Realiza rollback automático en caso de error
      */
     public static void realizarRollbackAutomatico() {
-        try {
-            Connection conn = Logic.SessionManager.getInstance().getConnectionUser().getConnection();
-            if (conn != null && !conn.isClosed()) {
+        // Con el turno de escritura: no se mezcla con otra operación en curso
+        ConnectionUser connectionUser = Logic.SessionManager.getInstance().getConnectionUser();
+        try (ConnectionRouter.Uso uso = connectionUser.usar(OperationType.DML)) {
+            Connection conn = uso.getConexion();
+            if (!conn.isClosed()) {
                 conn.rollback();
                 System.out.println("🔄 Rollback automático realizado");
+                connectionUser.getCacheResultados().descartarModificaciones();
             }
         } catch (SQLException e) {
             System.err.println("❌ Error al realizar rollback automático: " + e.getMessage());
@@ -198,22 +388,21 @@ public class MetodosFrecuentes {
      * Esto asegura que las vistas materializadas se actualicen con los cambios recientes
      */
     public static void refrescarVistasMaterializadas() {
-        try {
-            Connection conn = Logic.SessionManager.getInstance().getConnectionUser().getConnection();
-            if (conn != null && !conn.isClosed()) {
+        try (ConnectionRouter.Uso uso = Logic.SessionManager.getInstance().getConnectionUser().usar(OperationType.REFRESCO_MV)) {
+            Connection conn = uso.getConexion();
+            if (!conn.isClosed()) {
                 // Obtener todas las vistas materializadas del usuario actual
-                String sql = "SELECT MVIEW_NAME FROM USER_MVIEWS";
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql);
+                PreparedStatement pstmt = uso.preparar(SqlRegistry.MVIEWS_USUARIO);
+                ResultSet rs = pstmt.executeQuery();
                 
                 while (rs.next()) {
                     String mviewName = rs.getString("MVIEW_NAME");
                     try {
-                        // Refrescar cada vista materializada
-                        String refreshSql = "BEGIN DBMS_MVIEW.REFRESH('" + mviewName + "', 'F'); END;";
-                        Statement refreshStmt = conn.createStatement();
-                        refreshStmt.execute(refreshSql);
-                        refreshStmt.close();
+                        // Refrescar cada vista materializada (nombre como bind: un solo cursor compartido)
+                        PreparedStatement refreshStmt = uso.preparar(SqlRegistry.REFRESCAR_MVIEW);
+                        refreshStmt.setString(1, mviewName);
+                        refreshStmt.execute();
+                        Logic.SessionManager.getInstance().getConnectionUser().getCacheResultados().invalidar(mviewName);
                         System.out.println("✅ Vista materializada '" + mviewName + "' refrescada exitosamente");
                     } catch (SQLException e) {
                         System.err.println("⚠️ Error al refrescar vista materializada '" + mviewName + "': " + e.getMessage());
@@ -221,7 +410,6 @@ public class MetodosFrecuentes {
                 }
                 
                 rs.close();
-                stmt.close();
                 System.out.println("✅ Proceso de refresco de vistas materializadas completado");
             }
         } catch (SQLException e) {
@@ -238,4 +426,13 @@ public class MetodosFrecuentes {
         realizarCommitAutomatico();
         refrescarVistasMaterializadas();
     }
+
+    /**
+     * Commit del DML sobre "tabla" (invalida sus páginas en la caché) y refresco de las vistas
+     * materializadas
+     */
+    public static void realizarCommitYRefrescarVistas(String tabla) {
+        realizarCommitAutomatico(tabla);
+        refrescarVistasMaterializadas();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package application;
 
+import Logic.ConnectionPool;
+import Logic.QueryExecutor;
 import MetodosFrecuentes.MetodosFrecuentes;
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -13,6 +15,13 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        // Detener los hilos de consulta y cerrar las conexiones que los pools mantienen calientes
+        QueryExecutor.cerrar();
+        ConnectionPool.cerrarTodos();
+    }
+
     public static void main(String[] args){
         launch(args);
     }
@@ -5,7 +5,9 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
 import javafx.scene.control.PasswordField;
+import javafx.scene.control.ProgressIndicator;
 import Logic.ConnectionUser;
+import Logic.QueryExecutor;
 import Logic.SessionManager;
 import MetodosFrecuentes.MetodosFrecuentes;
 import java.net.URL;
@@ -22,6 +24,9 @@ public class LoginController implements Initializable {
     @FXML
     private Button btnIngresar;
     
+    @FXML
+    private ProgressIndicator indicadorCarga;
+    
     // Instancia de conexión a Oracle
     private ConnectionUser connectionUser;
     
@@ -55,51 +60,55 @@ public class LoginController implements Initializable {
         btnIngresar.setDisable(true);
         btnIngresar.setText("Conectando...");
         
-        try {
-            // Intentar conectar a Oracle
-            boolean conexionExitosa = connectionUser.conectar(usuario, password);
-            
-            if (conexionExitosa) {
-                // Guardar la sesión del usuario
-                SessionManager.getInstance().setCurrentUser(usuario);
-                SessionManager.getInstance().setConnectionUser(connectionUser);
-                
-                // Obtener información del servidor
-                String infoServidor = connectionUser.obtenerInfoServidor();
-
-                // Mostrar mensaje de éxito con información del servidor
-                String mensaje = "¡Conexión exitosa!\n\n";
-                if (infoServidor != null) {
-                    mensaje += infoServidor + "\n";
+        MetodosFrecuentes.mostrarOcupado(indicadorCarga, true, txtUsuario, txtContrasenia);
+        
+        // Conectar en segundo plano: la carrera de URLs puede tardar hasta el timeout de conexión.
+        // Devuelve null si no se pudo conectar, o la información del servidor si se conectó.
+        QueryExecutor.getInstance().ejecutar(() -> {
+                if (!connectionUser.conectar(usuario, password)) {
+                    return null;
                 }
+                String infoServidor = connectionUser.obtenerInfoServidor();
+                return infoServidor != null ? infoServidor : "";
+            })
+            .whenComplete(QueryExecutor.enFx((infoServidor, error) -> {
+                // Rehabilitar el botón
+                MetodosFrecuentes.mostrarOcupado(indicadorCarga, false, txtUsuario, txtContrasenia);
+                btnIngresar.setDisable(false);
+                btnIngresar.setText("INGRESAR");
                 
-                MetodosFrecuentes.mostrarAlerta("Conexión Exitosa", mensaje);
-                
-                // Cambiar a la ventana del menú después del login exitoso
-                MetodosFrecuentes.cambiarVentana((javafx.stage.Stage) btnIngresar.getScene().getWindow(), "/views/Menu-view.fxml");
-                
-                // Limpiar campos por seguridad
-                limpiarCampos();
-                
-            } else {
-                MetodosFrecuentes.mostrarAlerta("Error de Conexión", 
-                    "No se pudo conectar a la base de datos Oracle.\n\n" +
-                    "Verifique:\n" +
-                    "• Usuario y contraseña correctos\n" +
-                    "• Que el servicio Oracle esté ejecutándose\n" +
-                    "• Conectividad de red (localhost:1521)\n" +
-                    "• Que la base de datos ORCL esté disponible");
-            }
-            
-        } catch (Exception e) {
-            MetodosFrecuentes.mostrarAlerta("Error Inesperado", 
-                "Ocurrió un error inesperado al intentar conectar:\n\n" + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            // Rehabilitar el botón
-            btnIngresar.setDisable(false);
-            btnIngresar.setText("INGRESAR");
-        }
+                if (error != null) {
+                    MetodosFrecuentes.mostrarAlerta("Error Inesperado", 
+                        "Ocurrió un error inesperado al intentar conectar:\n\n" + error.getMessage());
+                    error.printStackTrace();
+                } else if (infoServidor != null) {
+                    // Guardar la sesión del usuario
+                    SessionManager.getInstance().setCurrentUser(usuario);
+                    SessionManager.getInstance().setConnectionUser(connectionUser);
+                    
+                    // Mostrar mensaje de éxito con información del servidor
+                    String mensaje = "¡Conexión exitosa!\n\n";
+                    if (!infoServidor.isEmpty()) {
+                        mensaje += infoServidor + "\n";
+                    }
+                    
+                    MetodosFrecuentes.mostrarAlerta("Conexión Exitosa", mensaje);
+                    
+                    // Cambiar a la ventana del menú después del login exitoso
+                    MetodosFrecuentes.cambiarVentana((javafx.stage.Stage) btnIngresar.getScene().getWindow(), "/views/Menu-view.fxml");
+                    
+                    // Limpiar campos por seguridad
+                    limpiarCampos();
+                } else {
+                    MetodosFrecuentes.mostrarAlerta("Error de Conexión", 
+                        "No se pudo conectar a la base de datos Oracle.\n\n" +
+                        "Verifique:\n" +
+                        "• Usuario y contraseña correctos\n" +
+                        "• Que el servicio Oracle esté ejecutándose\n" +
+                        "• Conectividad de red (localhost:1521)\n" +
+                        "• Que la base de datos ORCL esté disponible");
+                }
+            }));
     }
     
     /**
@@ -123,7 +132,7 @@ public class LoginController implements Initializable {
      * Método para cerrar la conexión cuando se cierre la ventana
      */
     public void cerrarConexion() {
-        if (connectionUser != null && connectionUser.estaConectado()) {
+        if (connectionUser != null) {
             connectionUser.desconectar();
         }
     }
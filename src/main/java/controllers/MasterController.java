@@ -3,7 +3,9 @@ package controllers;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import javafx.collections.FXCollections;
@@ -11,11 +13,24 @@ import javafx.collections.ObservableList;
 import Logic.SessionManager;
 import Logic.MasterModeManager;
 import Logic.MasterModeManager.TablaInfo;
+import Logic.ConteoFilas;
 import Logic.ControllerDataManager;
+import Logic.IndiceObjetos;
+import Logic.PrecargaCatalogo;
+import Logic.QueryExecutor;
+import Logic.RemoteModeManager;
+import Logic.RemoteModeManager.GrupoCatalogo;
+import Logic.RemoteModeManager.ParteCatalogo;
+import Logic.TokenCancelacion;
 import MetodosFrecuentes.MetodosFrecuentes;
 import java.net.URL;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MasterController implements Initializable {
     
@@ -34,11 +49,41 @@ public class MasterController implements Initializable {
     @FXML
     private TextField txtTableName;
     
+    @FXML
+    private ProgressIndicator indicadorCarga;
+    
+    // Resultados que se muestran como mucho por búsqueda
+    private static final int MAX_RESULTADOS = 500;
+    
     private MasterModeManager masterManager;
-    private ObservableList<String> allTables;
+    private ObservableList<String> allTables = FXCollections.observableArrayList();
+    // Índice sobre todos los objetos conocidos (null mientras se arma) y versión vigente
+    private IndiceObjetos indice;
+    private int versionIndice;
+    // Nombre -> filas que se muestran junto a él (estimación del catálogo o conteo ya hecho)
+    private final Map<String, ConteoFilas.Conteo> conteos = new ConcurrentHashMap<>();
+    private TokenCancelacion tokenConteo;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        // La lista se filtra a medida que se escribe
+        txtTableName.textProperty().addListener((observable, anterior, texto) -> filtrar(texto));
+        
+        // Cada nombre con sus filas; al seleccionarlo se cuentan con más precisión
+        listTable.setCellFactory(lista -> new ListCell<String>() {
+            @Override
+            protected void updateItem(String nombre, boolean vacia) {
+                super.updateItem(nombre, vacia);
+                if (vacia || nombre == null) {
+                    setText(null);
+                    return;
+                }
+                ConteoFilas.Conteo conteo = conteos.get(nombre);
+                setText(conteo == null ? nombre : nombre + "  (" + conteo + ")");
+            }
+        });
+        listTable.getSelectionModel().selectedItemProperty().addListener((observable, anterior, nombre) -> contarFilas(nombre));
+        
         // Inicializar el manager de modo Master
         if (SessionManager.getInstance().getConnectionUser() != null) {
             masterManager = new MasterModeManager(SessionManager.getInstance().getConnectionUser());
@@ -47,23 +92,199 @@ public class MasterController implements Initializable {
     }
     
     /**
-     * Carga todas las tablas del usuario al inicializar la ventana
+     * Carga todas las tablas del usuario al inicializar la ventana. Si la precarga del
+     * catálogo ya las tiene se muestran al instante y se ponen al día por diferencia;
+     * si no, se esperan en segundo plano.
      */
     private void loadAllTables() {
-        try {
-            List<TablaInfo> tableInfos = masterManager.getMyTables();
-            ObservableList<String> tableNames = FXCollections.observableArrayList();
-            
-            for (TablaInfo tableInfo : tableInfos) {
-                tableNames.add(tableInfo.getNombre());
+        PrecargaCatalogo precarga = SessionManager.getInstance().getConnectionUser().getPrecarga();
+        CompletableFuture<List<TablaInfo>> carga = precarga != null
+            ? precarga.obtenerTablasPropias()
+            : QueryExecutor.getInstance().ejecutar(() -> masterManager.getMyTables());
+        
+        if (carga.isDone() && !carga.isCompletedExceptionally()) {
+            System.out.println("📦 Tablas propias desde la precarga del catálogo");
+            mostrarTablas(carga.join());
+            ponerAlDia(carga.join());
+            return;
+        }
+        
+        MetodosFrecuentes.mostrarOcupado(indicadorCarga, true, btnSearch, btnAdministrar);
+        carga.whenComplete(QueryExecutor.enFx((tableInfos, error) -> {
+                MetodosFrecuentes.mostrarOcupado(indicadorCarga, false, btnSearch, btnAdministrar);
+                if (error != null) {
+                    MetodosFrecuentes.mostrarAlerta("Error", "Error al cargar las tablas: " + error.getMessage());
+                    error.printStackTrace();
+                    return;
+                }
+                mostrarTablas(tableInfos);
+            }));
+    }
+    
+    /**
+     * Trae en segundo plano solo lo creado, alterado o borrado desde la última carga
+     */
+    private void ponerAlDia(List<TablaInfo> actuales) {
+        QueryExecutor.getInstance().ejecutar(() -> {
+                List<TablaInfo> tablas = masterManager.refrescarTablasPropias(actuales);
+                PrecargaCatalogo precarga = SessionManager.getInstance().getConnectionUser().getPrecarga();
+                if (precarga != null) {
+                    precarga.actualizarTablasPropias(tablas);
+                }
+                return tablas;
+            })
+            .whenComplete(QueryExecutor.enFx((tablas, error) -> {
+                if (error != null) {
+                    // Queda la lista que ya se ve
+                    System.err.println("⚠️ No se pudo poner al día la lista de tablas: " + error.getMessage());
+                    return;
+                }
+                mostrarTablas(tablas);
+            }));
+    }
+    
+    private void mostrarTablas(List<TablaInfo> tableInfos) {
+        ObservableList<String> tableNames = FXCollections.observableArrayList();
+        for (TablaInfo tableInfo : tableInfos) {
+            tableNames.add(tableInfo.getNombre());
+            anotarEstimacion(tableInfo);
+        }
+        
+        allTables = tableNames;
+        // Con una búsqueda escrita se deja el filtro; la lista completa se usa en la próxima búsqueda
+        if (txtTableName.getText() == null || txtTableName.getText().trim().isEmpty()) {
+            listTable.setItems(allTables);
+        }
+        construirIndice(tableInfos);
+    }
+    
+    /**
+     * Arma fuera del hilo de JavaFX el índice de búsqueda con todos los objetos conocidos:
+     * tablas propias, concedidas y los grupos del modo remoto (@PROYECTO_REAL). Lo que la
+     * precarga todavía no tiene se agrega cuando llega, rehaciendo el índice una vez más.
+     */
+    private void construirIndice(List<TablaInfo> propias) {
+        int version = ++versionIndice;
+        PrecargaCatalogo precarga = SessionManager.getInstance().getConnectionUser().getPrecarga();
+        List<CompletableFuture<?>> pendientes = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+        for (TablaInfo tabla : propias) {
+            nombres.add(tabla.getNombre());
+        }
+        if (precarga != null) {
+            // Solo lo precargado: una sección que falló no se vuelve a consultar para el índice
+            CompletableFuture<List<TablaInfo>> concedidas = precarga.getTablasConcedidas();
+            if (!concedidas.isDone()) {
+                pendientes.add(concedidas);
+            } else if (!concedidas.isCompletedExceptionally()) {
+                for (TablaInfo tabla : concedidas.join()) {
+                    nombres.add(tabla.getNombre());
+                    anotarEstimacion(tabla);
+                }
+            }
+            for (GrupoCatalogo grupo : GrupoCatalogo.values()) {
+                CompletableFuture<ParteCatalogo> parte = precarga.getGrupoRemoto(grupo);
+                if (!parte.isDone()) {
+                    pendientes.add(parte);
+                } else if (!parte.isCompletedExceptionally()) {
+                    for (RemoteModeManager.ObjetoCatalogo objeto : parte.join().getVistas()) {
+                        nombres.add(objeto.getNombre());
+                    }
+                    for (RemoteModeManager.ObjetoCatalogo objeto : parte.join().getTablas()) {
+                        nombres.add(objeto.getNombre());
+                    }
+                }
             }
-            
-            allTables = tableNames;
+        }
+        
+        CompletableFuture.supplyAsync(() -> IndiceObjetos.construir(nombres))
+            .whenComplete(QueryExecutor.enFx((nuevo, error) -> {
+                if (error != null || version != versionIndice) {
+                    return;
+                }
+                indice = nuevo;
+                System.out.println("🔎 Índice de búsqueda con " + nuevo.getTotal() + " objetos");
+                filtrar(txtTableName.getText());
+            }));
+        
+        if (!pendientes.isEmpty()) {
+            CompletableFuture.allOf(pendientes.toArray(new CompletableFuture<?>[0]))
+                .whenComplete(QueryExecutor.enFx((sinValor, error) -> {
+                    // Con o sin error: se indexa lo que haya llegado
+                    if (version == versionIndice) {
+                        construirIndice(propias);
+                    }
+                }));
+        }
+    }
+    
+    /**
+     * Filas estimadas del catálogo (sin análisis llega 0: no se muestra nada). Un conteo ya
+     * hecho sobre el objeto no se pisa con la estimación.
+     */
+    private void anotarEstimacion(TablaInfo tabla) {
+        if (tabla.getNumRows() > 0) {
+            conteos.merge(tabla.getNombre(), new ConteoFilas.Conteo(tabla.getNumRows(), ConteoFilas.Precision.ESTIMADO),
+                          (anterior, estimado) -> anterior.getPrecision() == ConteoFilas.Precision.ESTIMADO ? estimado : anterior);
+        }
+    }
+    
+    /**
+     * Cuenta en segundo plano las filas del objeto seleccionado (estimación, muestra y exacto
+     * si es chico) y lo refleja en la lista; la selección siguiente cancela la anterior
+     */
+    private void contarFilas(String nombre) {
+        if (tokenConteo != null) {
+            tokenConteo.cancelar();
+            tokenConteo = null;
+        }
+        if (nombre == null || SessionManager.getInstance().getConnectionUser() == null) {
+            return;
+        }
+        TokenCancelacion token = new TokenCancelacion();
+        tokenConteo = token;
+        try {
+            SessionManager.getInstance().getConnectionUser().getConteoFilas()
+                .contar(nombre, false, token, conteo -> {
+                    if (conteo.getPrecision() != ConteoFilas.Precision.DESCONOCIDO) {
+                        conteos.put(nombre, conteo);
+                        listTable.refresh();
+                    }
+                })
+                .whenComplete(QueryExecutor.enFx((conteo, error) -> {
+                    if (error != null && !TokenCancelacion.esCancelacion(error)) {
+                        System.err.println("⚠️ No se pudieron contar las filas de " + nombre + ": " + error.getMessage());
+                    }
+                }));
+        } catch (SQLException e) {
+            System.err.println("⚠️ No se pudieron contar las filas de " + nombre + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Muestra los objetos que coinciden con el texto (exacto, prefijo, contiene, parecidos)
+     * a medida que el usuario escribe. Con el texto vacío se ven las tablas propias.
+     */
+    private List<String> filtrar(String texto) {
+        String buscado = texto == null ? "" : texto.trim();
+        if (buscado.isEmpty()) {
             listTable.setItems(allTables);
-        } catch (Exception e) {
-            MetodosFrecuentes.mostrarAlerta("Error", "Error al cargar las tablas: " + e.getMessage());
-            e.printStackTrace();
+            return allTables;
+        }
+        List<String> encontrados;
+        if (indice != null) {
+            encontrados = indice.buscar(buscado, MAX_RESULTADOS);
+        } else {
+            // El índice todavía se está armando: prefijo sobre las tablas propias
+            encontrados = new ArrayList<>();
+            for (String table : allTables) {
+                if (table.toLowerCase().startsWith(buscado.toLowerCase())) {
+                    encontrados.add(table);
+                }
+            }
         }
+        listTable.setItems(FXCollections.observableArrayList(encontrados));
+        return encontrados;
     }
     
     @FXML
@@ -76,32 +297,18 @@ public class MasterController implements Initializable {
             return;
         }
         
-        try {
-            // Filtrar tablas que contengan el texto buscado (al principio del nombre)
-            ObservableList<String> filteredTables = FXCollections.observableArrayList();
-            
-            for (String table : allTables) {
-                if (table.toLowerCase().startsWith(searchText.toLowerCase())) {
-                    filteredTables.add(table);
-                }
-            }
-            
-            if (filteredTables.isEmpty()) {
-                MetodosFrecuentes.mostrarAlerta("Sin Resultados", "No se encontraron tablas que inicien con: " + searchText);
-                // Restaurar todas las tablas
-                listTable.setItems(allTables);
-            } else {
-                listTable.setItems(filteredTables);
-            }
-            
-        } catch (Exception e) {
-            MetodosFrecuentes.mostrarAlerta("Error", "Error durante la búsqueda: " + e.getMessage());
-            e.printStackTrace();
+        if (filtrar(searchText).isEmpty()) {
+            MetodosFrecuentes.mostrarAlerta("Sin Resultados", "No se encontraron objetos parecidos a: " + searchText);
+            // Restaurar todas las tablas
+            listTable.setItems(allTables);
         }
     }
     
     @FXML
     private void handleAdministrar() {
+        if (tokenConteo != null) {
+            tokenConteo.cancelar();
+        }
         String selectedTable = listTable.getSelectionModel().getSelectedItem();
         
         if (selectedTable == null) {
@@ -118,6 +325,9 @@ public class MasterController implements Initializable {
     
     @FXML
     private void handleBack() {
+        if (tokenConteo != null) {
+            tokenConteo.cancelar();
+        }
         MetodosFrecuentes.cambiarVentana((Stage) btnBack.getScene().getWindow(), "/views/Menu-view.fxml");
     }
 }
@@ -5,6 +5,8 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.stage.Stage;
+import Logic.ConnectionUser;
+import Logic.PrecargaCatalogo;
 import Logic.SessionManager;
 import MetodosFrecuentes.MetodosFrecuentes;
 import java.net.URL;
@@ -24,6 +26,9 @@ public class MenuController implements Initializable {
     @FXML
     private Label lblUser;
     
+    @FXML
+    private Label lblPrecarga;
+    
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Establecer el nombre del usuario logueado
@@ -31,6 +36,26 @@ public class MenuController implements Initializable {
         if (currentUser != null) {
             lblUser.setText(currentUser.toUpperCase());
         }
+        
+        // Estado y tiempo de la precarga del catálogo, actualizado mientras avanza
+        PrecargaCatalogo precarga = obtenerPrecarga();
+        if (precarga != null) {
+            precarga.setOyente(this::mostrarPrecarga);
+        }
+        mostrarPrecarga();
+    }
+    
+    /**
+     * La precarga puede reemplazarse (refresco tras un DDL): se consulta la vigente cada vez
+     */
+    private PrecargaCatalogo obtenerPrecarga() {
+        ConnectionUser connectionUser = SessionManager.getInstance().getConnectionUser();
+        return connectionUser == null ? null : connectionUser.getPrecarga();
+    }
+    
+    private void mostrarPrecarga() {
+        PrecargaCatalogo precarga = obtenerPrecarga();
+        lblPrecarga.setText(precarga == null ? "" : precarga.getResumen());
     }
     
     @FXML
@@ -3,23 +3,28 @@ package controllers;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.concurrent.Task;
-import javafx.application.Platform;
+import Logic.PrecargaCatalogo;
+import Logic.QueryExecutor;
 import Logic.SessionManager;
 import Logic.ControllerDataManager;
 import Logic.RemoteModeManager;
+import Logic.RemoteModeManager.GrupoCatalogo;
+import Logic.RemoteModeManager.ParteCatalogo;
+import Logic.TokenCancelacion;
 import MetodosFrecuentes.MetodosFrecuentes;
 import java.net.URL;
-import java.sql.*;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
 
 public class RemoteController implements Initializable {
     
@@ -59,6 +64,23 @@ public class RemoteController implements Initializable {
     @FXML
     private TableColumn<TablaInfo, String> colTablaEstado;
     
+    @FXML
+    private Button btnDetener;
+    
+    @FXML
+    private ProgressIndicator indicadorCarga;
+    
+    // Latencia o estado de cada database link del catálogo remoto
+    @FXML
+    private Label lblLinks;
+    
+    // Cancelación de la carga en curso (botón Detener)
+    private TokenCancelacion tokenActual;
+    
+    // Grupos del catálogo ya recibidos (en orden de GrupoCatalogo) y carga a la que pertenecen
+    private final Map<GrupoCatalogo, ParteCatalogo> partes = new EnumMap<>(GrupoCatalogo.class);
+    private int cargaActual;
+    
     private RemoteModeManager remoteModeManager;
     
     @Override
@@ -77,384 +99,175 @@ public class RemoteController implements Initializable {
             remoteModeManager = new RemoteModeManager(SessionManager.getInstance().getConnectionUser());
             remoteModeManager.activateRemoteMode();
             
-            // Cargar datos en segundo plano para evitar congelar la UI
-            cargarDatosEnSegundoPlano();
+            // Mostrar el catálogo precargado tras el login; si no está, cargarlo en segundo plano
+            mostrarDesdePrecarga();
         } else {
             MetodosFrecuentes.mostrarAlertaError("Error", "No hay conexión activa a la base de datos");
         }
     }
     
+    /**
+     * Muestra vistas y tablas desde la precarga del catálogo: al instante los grupos que ya
+     * terminaron y el resto a medida que llegan. Lo que la precarga no tiene se consulta de nuevo.
+     * Después se ponen al día por diferencia con lo que cambió desde la precarga.
+     */
+    private void mostrarDesdePrecarga() {
+        PrecargaCatalogo precarga = SessionManager.getInstance().getConnectionUser().getPrecarga();
+        if (precarga == null) {
+            cargarDatosEnSegundoPlano();
+            return;
+        }
+        Map<GrupoCatalogo, CompletableFuture<ParteCatalogo>> cargas = new EnumMap<>(GrupoCatalogo.class);
+        for (GrupoCatalogo grupo : GrupoCatalogo.values()) {
+            cargas.put(grupo, precarga.obtenerGrupoRemoto(grupo));
+        }
+        partes.clear();
+        mostrarAMedidaQueLleguen(cargas, null, () -> cargarDatosEnSegundoPlano(null));
+    }
+    
     /**
      * Carga los datos en segundo plano para evitar congelar la interfaz
      */
     private void cargarDatosEnSegundoPlano() {
-        // Deshabilitar botones mientras se cargan los datos
-        Platform.runLater(() -> {
-            btnAccederVista.setDisable(true);
-            btnAccederTabla.setDisable(true);
-        });
-        
-        Task<Void> task = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                // Ejecutar carga de datos en hilo de fondo
-                cargarVistasYTablas();
-                return null;
-            }
-            
-            @Override
-            protected void succeeded() {
-                // Este método se ejecuta en el hilo de JavaFX cuando la tarea termina exitosamente
-                Platform.runLater(() -> {
-                    btnAccederVista.setDisable(false);
-                    btnAccederTabla.setDisable(false);
-                });
-                System.out.println("Carga de vistas y tablas completada");
-            }
-            
-            @Override
-            protected void failed() {
-                // Este método se ejecuta si hay una excepción
-                Platform.runLater(() -> {
-                    btnAccederVista.setDisable(false);
-                    btnAccederTabla.setDisable(false);
-                    Throwable exception = getException();
-                    MetodosFrecuentes.mostrarAlertaError("Error", 
-                        "Error al cargar vistas y tablas: " + exception.getMessage());
-                    exception.printStackTrace();
-                });
-            }
-        };
-        
-        // Ejecutar la tarea en un hilo separado
-        Thread thread = new Thread(task);
-        thread.setDaemon(true); // El hilo se cerrará cuando la aplicación se cierre
-        thread.start();
+        cargarDatosEnSegundoPlano(null);
     }
     
     /**
-     * Carga todas las vistas y tablas disponibles
+     * Carga los tres grupos del catálogo a la vez, cada uno con su conexión, y al terminar
+     * ejecuta "despues" en el hilo de JavaFX. Un grupo que ya se muestra se pone al día por
+     * diferencia (solo lo creado, alterado o borrado desde su marca). Lo consultado reemplaza
+     * a la precarga.
      */
-    private void cargarVistasYTablas() {
-        cargarVistas();
-        cargarTablas();
+    private void cargarDatosEnSegundoPlano(Runnable despues) {
+        TokenCancelacion token = new TokenCancelacion();
+        tokenActual = token;
+        
+        Map<GrupoCatalogo, CompletableFuture<ParteCatalogo>> cargas = new EnumMap<>(GrupoCatalogo.class);
+        for (GrupoCatalogo grupo : GrupoCatalogo.values()) {
+            ParteCatalogo mostrada = partes.get(grupo);
+            cargas.put(grupo, QueryExecutor.getInstance().ejecutar(() -> {
+                    ParteCatalogo parte = mostrada != null
+                        ? remoteModeManager.refrescarGrupo(mostrada)
+                        : remoteModeManager.cargarGrupo(grupo);
+                    PrecargaCatalogo precarga = SessionManager.getInstance().getConnectionUser().getPrecarga();
+                    if (precarga != null) {
+                        precarga.actualizarCatalogoRemoto(parte);
+                    }
+                    return parte;
+                }, token));
+        }
+        mostrarAMedidaQueLleguen(cargas, token, despues);
     }
     
     /**
-     * Carga las vistas disponibles
+     * Muestra cada grupo apenas termina (no después del más lento). Cuando terminan todos
+     * libera la interfaz e informa los errores: el grupo local con alerta, el resto en consola.
      */
-    private void cargarVistas() {
-        ObservableList<VistaInfo> vistas = FXCollections.observableArrayList();
-        Set<String> vistasYaAgregadas = new HashSet<>(); // Para evitar duplicados
-        
-        if (!SessionManager.getInstance().getConnectionUser().estaConectado()) {
+    private void mostrarAMedidaQueLleguen(Map<GrupoCatalogo, CompletableFuture<ParteCatalogo>> cargas,
+                                          TokenCancelacion token, Runnable despues) {
+        int carga = ++cargaActual;
+        boolean todasListas = true;
+        for (Map.Entry<GrupoCatalogo, CompletableFuture<ParteCatalogo>> entrada : cargas.entrySet()) {
+            CompletableFuture<ParteCatalogo> futuro = entrada.getValue();
+            if (futuro.isDone() && !futuro.isCompletedExceptionally()) {
+                partes.put(entrada.getKey(), futuro.join());
+            } else {
+                todasListas = false;
+            }
+        }
+        mostrarPartes();
+        if (todasListas) {
+            System.out.println("📦 Vistas y tablas desde la precarga del catálogo");
+            if (despues != null) {
+                despues.run();
+            }
             return;
         }
         
-        try {
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            
-            // Consulta consolidada para vistas locales usando UNION
-            String sql = 
-                // Vistas normales (primera prioridad)
-                "SELECT VIEW_NAME as NOMBRE, 'USER' as OWNER, " +
-                "CASE WHEN READ_ONLY = 'Y' THEN 'Solo Lectura' ELSE 'Lectura/Escritura' END as ESTADO, " +
-                "'VISTA' as TIPO " +
-                "FROM USER_VIEWS " +
-                
-                "UNION ALL " +
-                
-                // Vistas materializadas (segunda prioridad)
-                "SELECT MVIEW_NAME as NOMBRE, 'USER' as OWNER, " +
-                "'Vista Materializada' as ESTADO, 'MVIEW' as TIPO " +
-                "FROM USER_MVIEWS " +
-                
-                "UNION ALL " +
-                
-                // Tablas VW (tercera prioridad)
-                "SELECT TABLE_NAME as NOMBRE, 'USER' as OWNER, " +
-                "'Vista (VW)' as ESTADO, 'VW' as TIPO " +
-                "FROM USER_TABLES " +
-                "WHERE TABLE_NAME LIKE 'VW%' " +
-                
-                "ORDER BY TIPO, NOMBRE";
-            
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            
-            while (rs.next()) {
-                String viewName = rs.getString("NOMBRE");
-                if (!vistasYaAgregadas.contains(viewName)) {
-                    VistaInfo vista = new VistaInfo(
-                        viewName,
-                        rs.getString("OWNER"),
-                        rs.getString("ESTADO")
-                    );
-                    vistas.add(vista);
-                    vistasYaAgregadas.add(viewName);
-                    System.out.println("Vista encontrada: " + viewName + " (" + rs.getString("TIPO") + ")");
-                }
+        // Deshabilitar botones mientras se cargan los datos
+        MetodosFrecuentes.mostrarOcupado(indicadorCarga, true, btnAccederVista, btnAccederTabla, btnRefresh);
+        btnDetener.setDisable(token == null);
+        
+        for (Map.Entry<GrupoCatalogo, CompletableFuture<ParteCatalogo>> entrada : cargas.entrySet()) {
+            if (partes.containsKey(entrada.getKey())) {
+                continue;
             }
-            
-            rs.close();
-            stmt.close();
-            
-            // Obtener vistas de otros schemas con permisos - consulta simplificada
-            try {
-                sql = "SELECT ut.TABLE_NAME, ut.OWNER, ut.PRIVILEGE " +
-                      "FROM USER_TAB_PRIVS ut " +
-                      "WHERE ut.PRIVILEGE IN ('SELECT', 'READ') " +
-                      "AND (EXISTS (SELECT 1 FROM ALL_VIEWS av WHERE av.VIEW_NAME = ut.TABLE_NAME AND av.OWNER = ut.OWNER) " +
-                      "     OR EXISTS (SELECT 1 FROM ALL_MVIEWS amv WHERE amv.MVIEW_NAME = ut.TABLE_NAME AND amv.OWNER = ut.OWNER) " +
-                      "     OR ut.TABLE_NAME LIKE 'VW%') " +
-                      "ORDER BY ut.OWNER, ut.TABLE_NAME";
-                
-                stmt = conn.createStatement();
-                rs = stmt.executeQuery(sql);
-                
-                while (rs.next()) {
-                    String nombreCompleto = rs.getString("OWNER") + "." + rs.getString("TABLE_NAME");
-                    if (!vistasYaAgregadas.contains(nombreCompleto)) {
-                        VistaInfo vista = new VistaInfo(
-                            nombreCompleto,
-                            rs.getString("OWNER"),
-                            "Acceso: " + rs.getString("PRIVILEGE")
-                        );
-                        vistas.add(vista);
-                        vistasYaAgregadas.add(nombreCompleto);
-                        System.out.println("Vista externa encontrada: " + nombreCompleto);
-                    }
+            entrada.getValue().whenComplete(QueryExecutor.enFx((parte, error) -> {
+                if (parte != null && carga == cargaActual) {
+                    partes.put(entrada.getKey(), parte);
+                    mostrarPartes();
                 }
-                
-                rs.close();
-                stmt.close();
-                
-            } catch (SQLException e) {
-                // Si falla la consulta de vistas externas, continuamos solo con las propias
-                System.out.println("No se pudieron cargar vistas de otros esquemas: " + e.getMessage());
-            }
-            
-            // Obtener vistas remotas usando database link PROYECTO_REAL
-            try {
-                // Vistas normales remotas
-                sql = "SELECT VIEW_NAME, 'REMOTO' as OWNER, 'Acceso Remoto' as ESTADO " +
-                      "FROM USER_VIEWS@PROYECTO_REAL " +
-                      "ORDER BY VIEW_NAME";
-                
-                stmt = conn.createStatement();
-                rs = stmt.executeQuery(sql);
-                
-                while (rs.next()) {
-                    String nombreCompleto = rs.getString("VIEW_NAME") + "@PROYECTO_REAL";
-                    if (!vistasYaAgregadas.contains(nombreCompleto)) {
-                        VistaInfo vista = new VistaInfo(
-                            nombreCompleto,
-                            rs.getString("OWNER"),
-                            rs.getString("ESTADO")
-                        );
-                        vistas.add(vista);
-                        vistasYaAgregadas.add(nombreCompleto);
-                        System.out.println("Vista remota encontrada: " + nombreCompleto);
-                    }
+            }));
+        }
+        
+        CompletableFuture.allOf(cargas.values().toArray(new CompletableFuture<?>[0]))
+            .whenComplete(QueryExecutor.enFx((sinValor, ignorado) -> {
+                if (carga != cargaActual) {
+                    return; // Una carga más nueva ya tomó la pantalla
                 }
+                MetodosFrecuentes.mostrarOcupado(indicadorCarga, false, btnAccederVista, btnAccederTabla, btnRefresh);
+                btnDetener.setDisable(true);
                 
-                rs.close();
-                stmt.close();
-                
-                // Vistas materializadas remotas
-                try {
-                    sql = "SELECT MVIEW_NAME as VIEW_NAME, 'REMOTO' as OWNER, 'Vista Mat. Remota' as ESTADO " +
-                          "FROM USER_MVIEWS@PROYECTO_REAL " +
-                          "ORDER BY MVIEW_NAME";
-                    
-                    stmt = conn.createStatement();
-                    rs = stmt.executeQuery(sql);
-                    
-                    while (rs.next()) {
-                        String nombreCompleto = rs.getString("VIEW_NAME") + "@PROYECTO_REAL";
-                        if (!vistasYaAgregadas.contains(nombreCompleto)) {
-                            VistaInfo vista = new VistaInfo(
-                                nombreCompleto,
-                                rs.getString("OWNER"),
-                                rs.getString("ESTADO")
-                            );
-                            vistas.add(vista);
-                            vistasYaAgregadas.add(nombreCompleto);
-                            System.out.println("Vista materializada remota encontrada: " + nombreCompleto);
-                        }
+                Throwable errorLocal = null;
+                for (Map.Entry<GrupoCatalogo, CompletableFuture<ParteCatalogo>> entrada : cargas.entrySet()) {
+                    Throwable error = errorDe(entrada.getValue());
+                    if (error == null) {
+                        continue;
                     }
-                    
-                    rs.close();
-                    stmt.close();
-                    
-                } catch (SQLException e) {
-                    System.out.println("No se pudieron cargar vistas materializadas remotas: " + e.getMessage());
-                }
-                
-                // Tablas VW remotas
-                try {
-                    sql = "SELECT TABLE_NAME as VIEW_NAME, 'REMOTO' as OWNER, 'Vista VW Remota' as ESTADO " +
-                          "FROM USER_TABLES@PROYECTO_REAL " +
-                          "WHERE TABLE_NAME LIKE 'VW%' " +
-                          "ORDER BY TABLE_NAME";
-                    
-                    stmt = conn.createStatement();
-                    rs = stmt.executeQuery(sql);
-                    
-                    while (rs.next()) {
-                        String nombreCompleto = rs.getString("VIEW_NAME") + "@PROYECTO_REAL";
-                        if (!vistasYaAgregadas.contains(nombreCompleto)) {
-                            VistaInfo vista = new VistaInfo(
-                                nombreCompleto,
-                                rs.getString("OWNER"),
-                                rs.getString("ESTADO")
-                            );
-                            vistas.add(vista);
-                            vistasYaAgregadas.add(nombreCompleto);
-                            System.out.println("Vista VW remota encontrada: " + nombreCompleto);
-                        }
+                    if (token != null && MetodosFrecuentes.avisarSiCancelada(error, token)) {
+                        return;
+                    }
+                    if (entrada.getKey() == GrupoCatalogo.LOCAL) {
+                        errorLocal = error;
+                    } else {
+                        // Si falla un grupo externo, se continúa con lo demás
+                        System.out.println("No se pudo cargar el catálogo " + entrada.getKey().getDescripcion() +
+                                           ": " + error.getMessage());
                     }
-                    
-                    rs.close();
-                    stmt.close();
-                    
-                } catch (SQLException e) {
-                    System.out.println("No se pudieron cargar vistas VW remotas: " + e.getMessage());
                 }
-                
-            } catch (SQLException e) {
-                // Si falla la consulta de vistas remotas, continuamos 
-                System.out.println("No se pudieron cargar vistas remotas desde PROYECTO_REAL: " + e.getMessage());
-            }
-            
-        } catch (SQLException e) {
-            Platform.runLater(() -> {
-                MetodosFrecuentes.mostrarAlertaError("Error", "Error al cargar vistas: " + e.getMessage());
-            });
-            e.printStackTrace();
+                if (errorLocal != null) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", 
+                        "Error al cargar vistas y tablas: " + errorLocal.getMessage());
+                    errorLocal.printStackTrace();
+                    return;
+                }
+                System.out.println("Carga de vistas y tablas completada");
+                if (despues != null) {
+                    despues.run();
+                }
+            }));
+    }
+    
+    private static Throwable errorDe(CompletableFuture<?> futuro) {
+        if (!futuro.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            futuro.join();
+            return null;
+        } catch (RuntimeException e) {
+            return QueryExecutor.causaReal(e);
         }
-        
-        System.out.println("Total vistas cargadas: " + vistas.size());
-        // Actualizar la UI desde el hilo de JavaFX
-        Platform.runLater(() -> {
-            tableViewVistas.setItems(vistas);
-        });
     }
     
     /**
-     * Carga las tablas disponibles
+     * Vuelve a armar las listas con los grupos que ya llegaron, en orden local, concedido, remoto
      */
-    private void cargarTablas() {
+    private void mostrarPartes() {
+        ObservableList<VistaInfo> vistas = FXCollections.observableArrayList();
         ObservableList<TablaInfo> tablas = FXCollections.observableArrayList();
-        
-        if (!SessionManager.getInstance().getConnectionUser().estaConectado()) {
-            return;
-        }
-        
-        try {
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            
-            // Obtener tablas propias (excluyendo vistas, vistas materializadas y tablas VW)
-            String sql = "SELECT TABLE_NAME, 'USER' as OWNER, 'Propia' as ESTADO " +
-                        "FROM USER_TABLES " +
-                        "WHERE TABLE_NAME NOT IN (SELECT VIEW_NAME FROM USER_VIEWS) " +
-                        "AND TABLE_NAME NOT IN (SELECT MVIEW_NAME FROM USER_MVIEWS) " +
-                        "AND TABLE_NAME NOT LIKE 'VW%' " +
-                        "ORDER BY TABLE_NAME";
-            
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            
-            while (rs.next()) {
-                String tableName = rs.getString("TABLE_NAME");
-                TablaInfo tabla = new TablaInfo(
-                    tableName,
-                    rs.getString("OWNER"),
-                    rs.getString("ESTADO")
-                );
-                tablas.add(tabla);
-                System.out.println("Tabla encontrada: " + tableName);
+        for (ParteCatalogo parte : partes.values()) {
+            for (RemoteModeManager.ObjetoCatalogo objeto : parte.getVistas()) {
+                vistas.add(new VistaInfo(objeto.getNombre(), objeto.getSchema(), objeto.getEstado()));
             }
-            
-            rs.close();
-            stmt.close();
-            
-            // Obtener tablas de otros schemas con permisos (excluyendo vistas, vistas materializadas y VW)
-            try {
-                sql = "SELECT ut.TABLE_NAME, ut.OWNER, ut.PRIVILEGE " +
-                      "FROM USER_TAB_PRIVS ut " +
-                      "WHERE ut.PRIVILEGE IN ('SELECT', 'INSERT', 'UPDATE', 'DELETE') " +
-                      "AND EXISTS (SELECT 1 FROM ALL_TABLES at WHERE at.TABLE_NAME = ut.TABLE_NAME AND at.OWNER = ut.OWNER) " +
-                      "AND NOT EXISTS (SELECT 1 FROM ALL_VIEWS av WHERE av.VIEW_NAME = ut.TABLE_NAME AND av.OWNER = ut.OWNER) " +
-                      "AND NOT EXISTS (SELECT 1 FROM ALL_MVIEWS amv WHERE amv.MVIEW_NAME = ut.TABLE_NAME AND amv.OWNER = ut.OWNER) " +
-                      "AND ut.TABLE_NAME NOT LIKE 'VW%' " +
-                      "ORDER BY ut.OWNER, ut.TABLE_NAME";
-                
-                stmt = conn.createStatement();
-                rs = stmt.executeQuery(sql);
-                
-                while (rs.next()) {
-                    String nombreCompleto = rs.getString("OWNER") + "." + rs.getString("TABLE_NAME");
-                    TablaInfo tabla = new TablaInfo(
-                        nombreCompleto,
-                        rs.getString("OWNER"),
-                        "Acceso: " + rs.getString("PRIVILEGE")
-                    );
-                    tablas.add(tabla);
-                    System.out.println("Tabla externa encontrada: " + nombreCompleto);
-                }
-                
-                rs.close();
-                stmt.close();
-                
-            } catch (SQLException e) {
-                // Si falla la consulta de tablas externas, continuamos solo con las propias
-                System.out.println("No se pudieron cargar tablas de otros esquemas: " + e.getMessage());
+            for (RemoteModeManager.ObjetoCatalogo objeto : parte.getTablas()) {
+                tablas.add(new TablaInfo(objeto.getNombre(), objeto.getSchema(), objeto.getEstado()));
             }
-            
-            // Obtener tablas remotas usando database link PROYECTO_REAL (excluyendo vistas, vistas materializadas y VW)
-            try {
-                sql = "SELECT TABLE_NAME, 'REMOTO' as OWNER, 'Acceso Remoto' as ESTADO " +
-                      "FROM USER_TABLES@PROYECTO_REAL " +
-                      "WHERE TABLE_NAME NOT IN (SELECT VIEW_NAME FROM USER_VIEWS@PROYECTO_REAL) " +
-                      "AND TABLE_NAME NOT IN (SELECT MVIEW_NAME FROM USER_MVIEWS@PROYECTO_REAL) " +
-                      "AND TABLE_NAME NOT LIKE 'VW%' " +
-                      "ORDER BY TABLE_NAME";
-                
-                stmt = conn.createStatement();
-                rs = stmt.executeQuery(sql);
-                
-                while (rs.next()) {
-                    String nombreCompleto = rs.getString("TABLE_NAME") + "@PROYECTO_REAL";
-                    TablaInfo tabla = new TablaInfo(
-                        nombreCompleto,
-                        rs.getString("OWNER"),
-                        rs.getString("ESTADO")
-                    );
-                    tablas.add(tabla);
-                    System.out.println("Tabla remota encontrada: " + nombreCompleto);
-                }
-                
-                rs.close();
-                stmt.close();
-                
-            } catch (SQLException e) {
-                // Si falla la consulta de tablas remotas, continuamos 
-                System.out.println("No se pudieron cargar tablas remotas desde PROYECTO_REAL: " + e.getMessage());
-            }
-            
-        } catch (SQLException e) {
-            Platform.runLater(() -> {
-                MetodosFrecuentes.mostrarAlertaError("Error", "Error al cargar tablas: " + e.getMessage());
-            });
-            e.printStackTrace();
         }
-        
-        System.out.println("Total tablas cargadas: " + tablas.size());
-        // Actualizar la UI desde el hilo de JavaFX
-        Platform.runLater(() -> {
-            tableViewTablas.setItems(tablas);
-        });
+        tableViewVistas.setItems(vistas);
+        tableViewTablas.setItems(tablas);
+        ParteCatalogo remota = partes.get(GrupoCatalogo.REMOTO);
+        lblLinks.setText(remota != null ? remota.getResumenLinks() : "");
     }
     
     @FXML
@@ -493,8 +306,18 @@ public class RemoteController implements Initializable {
     
     @FXML
     private void handleRefresh() {
-        cargarVistasYTablas();
-        MetodosFrecuentes.mostrarAlerta("Información", "Lista de vistas y tablas actualizada correctamente.");
+        cargarDatosEnSegundoPlano(() ->
+            MetodosFrecuentes.mostrarAlerta("Información", "Lista de vistas y tablas actualizada correctamente."));
+    }
+    
+    /**
+     * Detiene la carga del catálogo en curso (Statement.cancel)
+     */
+    @FXML
+    private void handleDetener() {
+        if (tokenActual != null) {
+            tokenActual.cancelar();
+        }
     }
     
     @FXML
@@ -4,21 +4,31 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TableView;
-import javafx.scene.control.TableColumn;
+import javafx.scene.control.Tooltip;
 import javafx.stage.Stage;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.beans.property.SimpleStringProperty;
+import Logic.BloqueColumnar;
+import Logic.ConnectionRouter;
+import Logic.ConnectionUser;
+import Logic.ConteoFilas;
+import Logic.OperationType;
+import Logic.QueryExecutor;
+import Logic.ResultadoConsulta;
 import Logic.SessionManager;
 import Logic.ControllerDataManager;
+import Logic.EstructuraTabla;
+import Logic.TokenCancelacion;
+import Logic.VentanaFilas;
 import MetodosFrecuentes.MetodosFrecuentes;
 import java.net.URL;
 import java.sql.*;
 import java.util.ResourceBundle;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 public class TableController implements Initializable {
     
@@ -44,15 +54,42 @@ public class TableController implements Initializable {
     private Label lblTableName;
     
     @FXML
-    private TableView<ObservableList<String>> tableViewData;
+    private TableView<BloqueColumnar.Fila> tableViewData;
     
     @FXML
     private TextArea txtScript;
     
+    @FXML
+    private Button btnDetener;
+    
+    @FXML
+    private ProgressIndicator indicadorCarga;
+    
+    @FXML
+    private Label lblProgreso;
+    
+    // Cancelación de la operación en curso (botón Detener)
+    private TokenCancelacion tokenActual;
+    
+    // Filas mostradas, leídas por páginas al desplazarse
+    private VentanaFilas ventanaActual;
+    
+    // Filas del objeto (estimadas, por muestra o exactas) y su conteo en curso
+    private ConteoFilas.Conteo conteoActual;
+    private TokenCancelacion tokenConteo;
+    
     private String selectedTable;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        // Clic en el progreso: COUNT(*) exacto del objeto mostrado
+        lblProgreso.setTooltip(new Tooltip("Clic para contar las filas exactas"));
+        lblProgreso.setOnMouseClicked(e -> {
+            if (selectedTable != null && conteoActual != null) {
+                contarFilas(selectedTable, true);
+            }
+        });
+        
         // Obtener la tabla seleccionada del ControllerDataManager
         String tableName = ControllerDataManager.getInstance().getSelectedTableName();
         if (tableName != null) {
@@ -70,68 +107,174 @@ public class TableController implements Initializable {
     }
     
     /**
-     * Carga todo el contenido de la tabla seleccionada
+     * Muestra el indicador de carga y bloquea los botones mientras hay una operación en curso
+     */
+    private void mostrarOcupado(boolean ocupado) {
+        MetodosFrecuentes.mostrarOcupado(indicadorCarga, ocupado,
+            btnScript, btnRefresh, btnInsertar, btnModificar, btnEliminar);
+        btnDetener.setDisable(!ocupado);
+    }
+    
+    /**
+     * Token nuevo para la operación que empieza; el botón Detener lo cancela
+     */
+    private TokenCancelacion nuevoToken() {
+        tokenActual = new TokenCancelacion();
+        return tokenActual;
+    }
+    
+    /**
+     * Detiene la consulta o script en curso (Statement.cancel)
+     */
+    @FXML
+    private void handleDetener() {
+        if (tokenActual != null) {
+            tokenActual.cancelar();
+        }
+        // Lo ya recibido queda en la grilla
+        if (ventanaActual != null) {
+            ventanaActual.detener();
+        }
+    }
+    
+    /**
+     * Carga la primera página de la tabla seleccionada (en segundo plano)
      */
     private void loadTableContent() {
+        loadTableContent(null);
+    }
+    
+    /**
+     * Carga el contenido y, al terminar, ejecuta "despues" en el hilo de JavaFX
+     */
+    private void loadTableContent(Runnable despues) {
         if (selectedTable == null || !SessionManager.getInstance().getConnectionUser().estaConectado()) {
             return;
         }
         
-        try {
-            String sql = "SELECT * FROM " + selectedTable;
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            
-            // Limpiar el TableView antes de cargar nuevos datos
-            tableViewData.getColumns().clear();
-            tableViewData.getItems().clear();
-            
-            // Obtener metadatos para crear las columnas
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            
-            // Crear columnas dinámicamente
-            for (int i = 0; i < columnCount; i++) {
-                final int colIndex = i;
-                TableColumn<ObservableList<String>, String> column = new TableColumn<>(metaData.getColumnName(i + 1));
-                column.setCellValueFactory(cellData -> {
-                    ObservableList<String> row = cellData.getValue();
-                    return new SimpleStringProperty(colIndex < row.size() ? row.get(colIndex) : "");
-                });
-                column.setPrefWidth(120); // Ancho fijo para las columnas
-                tableViewData.getColumns().add(column);
-            }
-            
-            // Cargar datos
-            ObservableList<ObservableList<String>> data = FXCollections.observableArrayList();
-            int rowCount = 0;
-            
-            while (rs.next() && rowCount < 500) { // Limitar a 500 filas para rendimiento
-                ObservableList<String> row = FXCollections.observableArrayList();
-                for (int i = 1; i <= columnCount; i++) {
-                    String value = MetodosFrecuentes.getColumnValue(rs, i, metaData);
-                    row.add(value);
+        String tabla = selectedTable;
+        ConnectionUser connectionUser = SessionManager.getInstance().getConnectionUser();
+        // Filas por viaje según el ancho de fila de la tabla (AVG_ROW_LEN), una página por viaje.
+        // Al recargar la misma tabla se conservan el orden y los filtros de los encabezados
+        VentanaFilas ventana = ventanaActual != null && ventanaActual.esDeObjeto(tabla)
+            ? ventanaActual.reabrir()
+            : VentanaFilas.deObjeto(tabla, () -> connectionUser.usar(OperationType.CONSULTA), connectionUser);
+        mostrarVentana(ventana,
+            error -> MetodosFrecuentes.mostrarAlerta("Error", "Error al cargar el contenido de la tabla: " + error.getMessage()),
+            primera -> {
+                if (despues != null) {
+                    despues.run();
                 }
-                data.add(row);
-                rowCount++;
-            }
-            
-            tableViewData.setItems(data);
-            
-            // Mostrar información sobre los datos cargados
-            if (rowCount == 500) {
-                MetodosFrecuentes.mostrarAlerta("Información", 
-                    "Se cargaron las primeras 500 filas de la tabla " + selectedTable + 
-                    ". Use filtros SQL para ver datos específicos.");
+            });
+        conteoActual = null;
+        contarFilas(tabla, false);
+    }
+    
+    /**
+     * Muestra la ventana leyendo su primera página en segundo plano; la ventana anterior
+     * deja de leer páginas
+     */
+    private void mostrarVentana(VentanaFilas ventana, Consumer<Throwable> alFallar,
+                                Consumer<VentanaFilas.Pagina> alMostrar) {
+        cerrarVentana();
+        ventanaActual = ventana;
+        TokenCancelacion token = ventana.getToken();
+        tokenActual = token;
+        mostrarOcupado(true);
+        // Filas leídas, tiempo y filas por segundo mientras llegan; Detener queda activo mientras se lee
+        ventana.setAlProgresar(() -> {
+            if (ventana == ventanaActual) {
+                mostrarProgreso();
+                btnDetener.setDisable(!ventana.estaLeyendo());
             }
-            
-            rs.close();
-            stmt.close();
-            
+        });
+        // La grilla aparece con el primer viaje a la base y las filas siguen llegando
+        ventana.abrir(columnas -> MetodosFrecuentes.mostrarPaginado(tableViewData, ventana, columnas, this::aplicarCriterios))
+            .whenComplete(QueryExecutor.enFx((primera, error) -> {
+                if (ventana != ventanaActual) {
+                    return; // Otra carga ya tomó la grilla
+                }
+                mostrarOcupado(false);
+                if (error != null && MetodosFrecuentes.avisarSiCancelada(error, token)) {
+                    return;
+                }
+                if (error != null) {
+                    alFallar.accept(error);
+                    error.printStackTrace();
+                    return;
+                }
+                
+                alMostrar.accept(primera);
+            }));
+    }
+    
+    /**
+     * Orden o filtro nuevo desde los encabezados: las mismas filas se piden otra vez al servidor
+     */
+    private void aplicarCriterios(VentanaFilas.Criterios criterios) {
+        if (ventanaActual == null) {
+            return;
+        }
+        VentanaFilas ventana;
+        try {
+            ventana = ventanaActual.conCriterios(criterios);
+        } catch (IllegalArgumentException e) {
+            MetodosFrecuentes.mostrarAlertaAdvertencia("Filtro no válido", e.getMessage());
+            return;
+        }
+        mostrarVentana(ventana,
+            error -> MetodosFrecuentes.mostrarAlertaError("Error", "Error al ordenar o filtrar: " + error.getMessage()),
+            primera -> { });
+    }
+    
+    /**
+     * Cuenta las filas del objeto en segundo plano: la estimación enseguida, después la muestra
+     * y el exacto si es chico; con "exacto" el COUNT(*). Cada paso se ve junto al progreso.
+     */
+    private void contarFilas(String objeto, boolean exacto) {
+        detenerConteo();
+        TokenCancelacion token = new TokenCancelacion();
+        tokenConteo = token;
+        try {
+            SessionManager.getInstance().getConnectionUser().getConteoFilas()
+                .contar(objeto, exacto, token, conteo -> {
+                    if (token == tokenConteo) {
+                        conteoActual = conteo;
+                        mostrarProgreso();
+                    }
+                })
+                .whenComplete(QueryExecutor.enFx((conteo, error) -> {
+                    if (error != null && token == tokenConteo && !TokenCancelacion.esCancelacion(error)) {
+                        System.err.println("⚠️ No se pudieron contar las filas de " + objeto + ": " + error.getMessage());
+                    }
+                }));
         } catch (SQLException e) {
-            MetodosFrecuentes.mostrarAlerta("Error", "Error al cargar el contenido de la tabla: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("⚠️ No se pudieron contar las filas de " + objeto + ": " + e.getMessage());
+        }
+    }
+    
+    private void detenerConteo() {
+        if (tokenConteo != null) {
+            tokenConteo.cancelar();
+            tokenConteo = null;
+        }
+    }
+    
+    private void mostrarProgreso() {
+        if (ventanaActual == null) {
+            return;
+        }
+        String texto = ventanaActual.getProgreso();
+        if (conteoActual != null && conteoActual.getPrecision() != ConteoFilas.Precision.DESCONOCIDO) {
+            texto += " · en la tabla: " + conteoActual;
+        }
+        lblProgreso.setText(texto);
+    }
+    
+    private void cerrarVentana() {
+        if (ventanaActual != null) {
+            ventanaActual.cerrar();
+            ventanaActual = null;
         }
     }
     
@@ -149,61 +292,38 @@ public class TableController implements Initializable {
             return;
         }
         
-        try {
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            Statement stmt = conn.createStatement();
-            
-            // Determinar el tipo de script
-            String scriptUpper = script.toUpperCase().trim();
-            boolean isSelect = scriptUpper.startsWith("SELECT");
-            
-            if (isSelect) {
-                // Para SELECT, ejecutar y mostrar resultados en el TableView
-                ResultSet rs = stmt.executeQuery(script);
-                
-                // Limpiar el TableView
-                tableViewData.getColumns().clear();
-                tableViewData.getItems().clear();
-                
-                // Obtener metadatos para crear las columnas
-                ResultSetMetaData metaData = rs.getMetaData();
-                int columnCount = metaData.getColumnCount();
-                
-                // Crear columnas dinámicamente
-                for (int i = 0; i < columnCount; i++) {
-                    final int colIndex = i;
-                    TableColumn<ObservableList<String>, String> column = new TableColumn<>(metaData.getColumnName(i + 1));
-                    column.setCellValueFactory(cellData -> {
-                        ObservableList<String> row = cellData.getValue();
-                        return new SimpleStringProperty(colIndex < row.size() ? row.get(colIndex) : "");
-                    });
-                    column.setPrefWidth(120);
-                    tableViewData.getColumns().add(column);
+        // Determinar el tipo de script
+        String scriptUpper = script.toUpperCase().trim();
+        boolean isSelect = scriptUpper.startsWith("SELECT");
+        
+        if (isSelect) {
+            // Para SELECT, mostrar resultados en el TableView por páginas
+            ConnectionUser connectionUser = SessionManager.getInstance().getConnectionUser();
+            mostrarVentana(VentanaFilas.deConsulta(script, () -> connectionUser.usar(OperationType.SCRIPT), connectionUser),
+                error -> MetodosFrecuentes.mostrarAlerta("Error en Script",
+                    "Error al ejecutar el script SQL:\n\n" + error.getMessage()),
+                primera -> MetodosFrecuentes.mostrarAlerta("Éxito", "Consulta SELECT ejecutada correctamente. " +
+                    primera.getTotalFilas() + (ventanaActual.hayMas()
+                        ? " filas en la primera página (las siguientes se cargan al desplazarse)."
+                        : " filas encontradas.")));
+            return;
+        }
+        
+        TokenCancelacion token = nuevoToken();
+        mostrarOcupado(true);
+        QueryExecutor.getInstance().ejecutar(() -> ejecutarScript(script), token)
+            .whenComplete(QueryExecutor.enFx((resultado, error) -> {
+                mostrarOcupado(false);
+                if (error != null && MetodosFrecuentes.avisarSiCancelada(error, token)) {
+                    return;
                 }
-                
-                // Cargar datos del resultado
-                ObservableList<ObservableList<String>> data = FXCollections.observableArrayList();
-                int count = 0;
-                
-                while (rs.next() && count < 200) {
-                    ObservableList<String> row = FXCollections.observableArrayList();
-                    for (int i = 1; i <= columnCount; i++) {
-                        String value = MetodosFrecuentes.getColumnValue(rs, i, metaData);
-                        row.add(value);
-                    }
-                    data.add(row);
-                    count++;
+                if (error != null) {
+                    MetodosFrecuentes.mostrarAlerta("Error en Script", 
+                        "Error al ejecutar el script SQL:\n\n" + error.getMessage());
+                    error.printStackTrace();
+                    return;
                 }
                 
-                tableViewData.setItems(data);
-                MetodosFrecuentes.mostrarAlerta("Éxito", "Consulta SELECT ejecutada correctamente. " + count + " filas encontradas.");
-                
-                rs.close();
-                
-            } else {
-                // Para INSERT, UPDATE, DELETE
-                int rowsAffected = stmt.executeUpdate(script);
-                
                 String operationType;
                 if (scriptUpper.startsWith("INSERT")) {
                     operationType = "INSERT";
@@ -216,34 +336,64 @@ public class TableController implements Initializable {
                 }
                 
                 MetodosFrecuentes.mostrarAlerta("Éxito", 
-                    operationType + " ejecutado correctamente. " + rowsAffected + " filas afectadas.");
+                    operationType + " ejecutado correctamente. " + resultado.getFilasAfectadas() + " filas afectadas.");
                 
                 // Recargar el contenido de la tabla después de modificaciones
-                if (!scriptUpper.startsWith("SELECT")) {
-                    loadTableContent();
-                }
+                loadTableContent();
+            }));
+    }
+    
+    /**
+     * Ejecuta el script del usuario que no es SELECT (hilo de fondo)
+     */
+    private ResultadoConsulta ejecutarScript(String script) throws SQLException {
+        long inicio = System.nanoTime();
+        try (ConnectionRouter.Uso uso = SessionManager.getInstance().getConnectionUser().usar(OperationType.SCRIPT)) {
+            // El Statement se cierra al cerrar el Uso, también si la sentencia se cancela
+            Statement stmt = uso.crearStatement();
+            // Para INSERT, UPDATE, DELETE
+            int rowsAffected = stmt.executeUpdate(script);
+            // No se sabe qué tablas tocó el script: ninguna página guardada vale
+            SessionManager.getInstance().getConnectionUser().getCacheResultados().invalidarTodo();
+            SessionManager.getInstance().getConnectionUser().getConteoFilas().invalidarTodo();
+            if (esDDL(script)) {
+                // El catálogo cambió: los metadatos se releen; las listas se ponen al día por diferencia al mostrarse
+                SessionManager.getInstance().getConnectionUser().getCatalogoEsquema().invalidarTodo();
             }
-            
-            stmt.close();
-            
-        } catch (SQLException e) {
-            MetodosFrecuentes.mostrarAlerta("Error en Script", 
-                "Error al ejecutar el script SQL:\n\n" + e.getMessage());
-            e.printStackTrace();
+            return ResultadoConsulta.deActualizacion(rowsAffected, (System.nanoTime() - inicio) / 1_000_000);
         }
     }
     
+    private static boolean esDDL(String script) {
+        String sentencia = script.trim().toUpperCase();
+        return sentencia.startsWith("CREATE") || sentencia.startsWith("ALTER") || sentencia.startsWith("DROP")
+            || sentencia.startsWith("RENAME") || sentencia.startsWith("TRUNCATE");
+    }
+    
     @FXML
     private void handleBack() {
+        cerrarVentana();
+        detenerConteo();
         MetodosFrecuentes.cambiarVentana((Stage) btnBack.getScene().getWindow(), "/views/Master-view.fxml");
     }
     
+    private static void invalidarCache(String objeto) {
+        try {
+            SessionManager.getInstance().getConnectionUser().getCacheResultados().invalidar(objeto);
+            SessionManager.getInstance().getConnectionUser().getConteoFilas().invalidar(objeto);
+        } catch (SQLException e) {
+            System.err.println("⚠️ No se pudo limpiar la caché de " + objeto + ": " + e.getMessage());
+        }
+    }
+
     @FXML
     private void handleRefresh() {
         if (selectedTable != null) {
-            // Recargar el contenido completo de la tabla
-            loadTableContent();
-            MetodosFrecuentes.mostrarAlerta("Información", "Datos de la tabla " + selectedTable + " actualizados correctamente.");
+            // Recargar el contenido completo de la tabla desde la base (también cambios de otras sesiones)
+            String tabla = selectedTable;
+            invalidarCache(tabla);
+            loadTableContent(() -> MetodosFrecuentes.mostrarAlerta("Información",
+                "Datos de la tabla " + tabla + " actualizados correctamente."));
         } else {
             MetodosFrecuentes.mostrarAlerta("Error", "No hay tabla seleccionada para actualizar.");
         }
@@ -259,20 +409,27 @@ public class TableController implements Initializable {
             return;
         }
         
-        // Verificar que es una tabla (no vista) para permitir INSERT
-        if (!esTablaModificable(selectedTable)) {
-            MetodosFrecuentes.mostrarAlertaError("Error", "No se puede insertar en vistas o tablas de solo lectura");
-            return;
-        }
-        
-        // Configurar datos para el formulario de inserción
-        ControllerDataManager.getInstance().setSelectedTableName(selectedTable);
-        ControllerDataManager.getInstance().setOperacion("INSERT");
-        ControllerDataManager.getInstance().setDatosOriginales(null);
-        ControllerDataManager.getInstance().setOrigenContexto("MASTER"); // Marcar origen como MASTER
-        
-        // Cambiar a formulario de actualización
-        MetodosFrecuentes.cambiarVentana((Stage) btnInsertar.getScene().getWindow(), "/views/Update-view.fxml");
+        String tabla = selectedTable;
+        mostrarOcupado(true);
+        QueryExecutor.getInstance().ejecutar(() -> esTablaModificable(tabla))
+            .whenComplete(QueryExecutor.enFx((modificable, error) -> {
+                mostrarOcupado(false);
+                // Verificar que es una tabla (no vista) para permitir INSERT
+                if (error != null || !modificable) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", "No se puede insertar en vistas o tablas de solo lectura");
+                    return;
+                }
+                
+                // Configurar datos para el formulario de inserción
+                ControllerDataManager.getInstance().setSelectedTableName(tabla);
+                ControllerDataManager.getInstance().setOperacion("INSERT");
+                ControllerDataManager.getInstance().setDatosOriginales(null);
+                ControllerDataManager.getInstance().setValoresOriginales(null);
+                ControllerDataManager.getInstance().setOrigenContexto("MASTER"); // Marcar origen como MASTER
+                
+                // Cambiar a formulario de actualización
+                MetodosFrecuentes.cambiarVentana((Stage) btnInsertar.getScene().getWindow(), "/views/Update-view.fxml");
+            }));
     }
     
     /**
@@ -286,34 +443,40 @@ public class TableController implements Initializable {
         }
         
         // Verificar que hay una fila seleccionada
-        ObservableList<String> filaSeleccionada = tableViewData.getSelectionModel().getSelectedItem();
-        if (filaSeleccionada == null) {
+        BloqueColumnar.Fila filaSeleccionada = tableViewData.getSelectionModel().getSelectedItem();
+        if (filaSeleccionada == null || filaSeleccionada.esPendiente()) {
             MetodosFrecuentes.mostrarAlertaError("Error", "Seleccione una fila para modificar");
             return;
         }
         
-        // Verificar que es una tabla modificable
-        if (!esTablaModificable(selectedTable)) {
-            MetodosFrecuentes.mostrarAlertaError("Error", "No se puede modificar vistas o tablas de solo lectura");
-            return;
-        }
-        
-        // Obtener claves primarias para validar que se puede modificar
-        List<String> clavesPrimarias = obtenerClavesPrimarias(selectedTable);
-        if (clavesPrimarias.isEmpty()) {
-            MetodosFrecuentes.mostrarAlertaError("Error", 
-                "Esta tabla no tiene clave primaria definida. No se puede modificar de forma segura.");
-            return;
-        }
-        
-        // Preparar datos para el formulario
-        ControllerDataManager.getInstance().setSelectedTableName(selectedTable);
-        ControllerDataManager.getInstance().setOperacion("UPDATE");
-        ControllerDataManager.getInstance().setDatosOriginales(filaSeleccionada);
-        ControllerDataManager.getInstance().setOrigenContexto("MASTER"); // Marcar origen como MASTER
-        
-        // Cambiar a formulario de actualización
-        MetodosFrecuentes.cambiarVentana((Stage) btnModificar.getScene().getWindow(), "/views/Update-view.fxml");
+        String tabla = selectedTable;
+        mostrarOcupado(true);
+        QueryExecutor.getInstance().ejecutar(() -> esTablaModificable(tabla) ? obtenerClavesPrimarias(tabla) : null)
+            .whenComplete(QueryExecutor.enFx((clavesPrimarias, error) -> {
+                mostrarOcupado(false);
+                // Verificar que es una tabla modificable
+                if (error != null || clavesPrimarias == null) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", "No se puede modificar vistas o tablas de solo lectura");
+                    return;
+                }
+                
+                // Validar que se puede modificar por clave primaria
+                if (clavesPrimarias.isEmpty()) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", 
+                        "Esta tabla no tiene clave primaria definida. No se puede modificar de forma segura.");
+                    return;
+                }
+                
+                // Preparar datos para el formulario
+                ControllerDataManager.getInstance().setSelectedTableName(tabla);
+                ControllerDataManager.getInstance().setOperacion("UPDATE");
+                ControllerDataManager.getInstance().setDatosOriginales(FXCollections.observableArrayList(filaSeleccionada.getTextos()));
+                ControllerDataManager.getInstance().setValoresOriginales(filaSeleccionada.getValores());
+                ControllerDataManager.getInstance().setOrigenContexto("MASTER"); // Marcar origen como MASTER
+                
+                // Cambiar a formulario de actualización
+                MetodosFrecuentes.cambiarVentana((Stage) btnModificar.getScene().getWindow(), "/views/Update-view.fxml");
+            }));
     }
     
     /**
@@ -327,111 +490,127 @@ public class TableController implements Initializable {
         }
         
         // Verificar que hay una fila seleccionada
-        ObservableList<String> filaSeleccionada = tableViewData.getSelectionModel().getSelectedItem();
-        if (filaSeleccionada == null) {
+        BloqueColumnar.Fila filaSeleccionada = tableViewData.getSelectionModel().getSelectedItem();
+        if (filaSeleccionada == null || filaSeleccionada.esPendiente()) {
             MetodosFrecuentes.mostrarAlertaError("Error", "Seleccione una fila para eliminar");
             return;
         }
         
-        // Verificar que es una tabla modificable
-        if (!esTablaModificable(selectedTable)) {
-            MetodosFrecuentes.mostrarAlertaError("Error", "No se puede eliminar de vistas o tablas de solo lectura");
-            return;
-        }
-        
-        // Obtener claves primarias
-        List<String> clavesPrimarias = obtenerClavesPrimarias(selectedTable);
-        if (clavesPrimarias.isEmpty()) {
-            MetodosFrecuentes.mostrarAlertaError("Error", 
-                "Esta tabla no tiene clave primaria definida. No se puede eliminar de forma segura.");
-            return;
-        }
-        
-        // Confirmar eliminación
-        boolean confirmado = MetodosFrecuentes.mostrarConfirmacion("Confirmar Eliminación", 
-            "¿Está seguro que desea eliminar la fila seleccionada?\n\nEsta acción no se puede deshacer.");
-        
-        if (!confirmado) {
-            return;
-        }
+        String tabla = selectedTable;
+        mostrarOcupado(true);
+        QueryExecutor.getInstance().ejecutar(() -> esTablaModificable(tabla) ? obtenerClavesPrimarias(tabla) : null)
+            .whenComplete(QueryExecutor.enFx((clavesPrimarias, error) -> {
+                mostrarOcupado(false);
+                // Verificar que es una tabla modificable
+                if (error != null || clavesPrimarias == null) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", "No se puede eliminar de vistas o tablas de solo lectura");
+                    return;
+                }
+                
+                if (clavesPrimarias.isEmpty()) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", 
+                        "Esta tabla no tiene clave primaria definida. No se puede eliminar de forma segura.");
+                    return;
+                }
+                
+                // Confirmar eliminación
+                boolean confirmado = MetodosFrecuentes.mostrarConfirmacion("Confirmar Eliminación", 
+                    "¿Está seguro que desea eliminar la fila seleccionada?\n\nEsta acción no se puede deshacer.");
+                
+                if (confirmado) {
+                    eliminarFila(tabla, clavesPrimarias, filaSeleccionada.getValores());
+                }
+            }));
+    }
+    
+    /**
+     * Ejecuta el DELETE de la fila en segundo plano y recarga la tabla
+     */
+    private void eliminarFila(String tabla, List<String> clavesPrimarias, List<Object> filaSeleccionada) {
+        TokenCancelacion token = nuevoToken();
+        mostrarOcupado(true);
+        QueryExecutor.getInstance().ejecutar(() -> ejecutarDelete(tabla, clavesPrimarias, filaSeleccionada), token)
+            .whenComplete(QueryExecutor.enFx((filasAfectadas, error) -> {
+                mostrarOcupado(false);
+                if (error != null && MetodosFrecuentes.avisarSiCancelada(error, token)) {
+                    return;
+                }
+                if (error != null) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", "Error al eliminar la fila: " + error.getMessage());
+                    error.printStackTrace();
+                } else if (filasAfectadas < 0) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", "No se pueden identificar las claves primarias para eliminar");
+                } else if (filasAfectadas > 0) {
+                    MetodosFrecuentes.mostrarAlerta("Éxito", "Fila eliminada correctamente");
+                    loadTableContent(); // Recargar datos
+                } else {
+                    MetodosFrecuentes.mostrarAlertaError("Error", "No se pudo eliminar la fila");
+                }
+            }));
+    }
+    
+    /**
+     * DELETE por clave primaria con commit o rollback automático (hilo de fondo). Las claves se
+     * enlazan con el valor tipado leído de la base. Devuelve -1 si no se pudo armar la condición.
+     */
+    private int ejecutarDelete(String tabla, List<String> clavesPrimarias, List<Object> filaSeleccionada)
+            throws SQLException {
+        // Columnas con su tipo (el marcador de cada clave depende del tipo)
+        EstructuraTabla estructura = SessionManager.getInstance().getConnectionUser()
+                                         .getCatalogoEsquema().obtenerEstructura(tabla);
+        List<String> nombreColumnas = estructura.getColumnas();
         
-        try {
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            
+        try (ConnectionRouter.Uso uso = SessionManager.getInstance().getConnectionUser().usar(OperationType.DML)) {
             // Construir consulta DELETE usando claves primarias
             StringBuilder sqlBuilder = new StringBuilder("DELETE FROM ");
-            sqlBuilder.append(selectedTable).append(" WHERE ");
+            sqlBuilder.append(tabla).append(" WHERE ");
             
             List<String> condiciones = new ArrayList<>();
             List<Object> valores = new ArrayList<>();
             
-            // Obtener nombres de columnas
-            List<String> nombreColumnas = obtenerNombresColumnas(selectedTable);
-            
             for (String clavePrimaria : clavesPrimarias) {
                 int indiceColumna = nombreColumnas.indexOf(clavePrimaria);
                 if (indiceColumna >= 0 && indiceColumna < filaSeleccionada.size()) {
-                    String valor = filaSeleccionada.get(indiceColumna);
-                    if (!"NULL".equals(valor)) {
-                        condiciones.add(clavePrimaria + " = ?");
+                    Object valor = filaSeleccionada.get(indiceColumna);
+                    if (valor != null) {
+                        condiciones.add(clavePrimaria + " = " + estructura.marcadorBind(indiceColumna, valor));
                         valores.add(valor);
                     }
                 }
             }
             
             if (condiciones.isEmpty()) {
-                MetodosFrecuentes.mostrarAlertaError("Error", "No se pueden identificar las claves primarias para eliminar");
-                return;
+                return -1;
             }
             
             sqlBuilder.append(String.join(" AND ", condiciones));
             
-            PreparedStatement pstmt = conn.prepareStatement(sqlBuilder.toString());
+            PreparedStatement pstmt = uso.prepararSql(sqlBuilder.toString());
             for (int i = 0; i < valores.size(); i++) {
                 pstmt.setObject(i + 1, valores.get(i));
             }
             
             int filasAfectadas = pstmt.executeUpdate();
-            pstmt.close();
             
             if (filasAfectadas > 0) {
                 // Realizar commit automático y refrescar vistas materializadas
-                MetodosFrecuentes.realizarCommitYRefrescarVistas();
-                MetodosFrecuentes.mostrarAlerta("Éxito", "Fila eliminada correctamente");
-                loadTableContent(); // Recargar datos
-            } else {
-                MetodosFrecuentes.mostrarAlertaError("Error", "No se pudo eliminar la fila");
+                MetodosFrecuentes.realizarCommitYRefrescarVistas(tabla);
             }
+            return filasAfectadas;
             
         } catch (SQLException e) {
             // Realizar rollback automático en caso de error
             MetodosFrecuentes.realizarRollbackAutomatico();
-            MetodosFrecuentes.mostrarAlertaError("Error", "Error al eliminar la fila: " + e.getMessage());
-            e.printStackTrace();
+            throw e;
         }
     }
     
     /**
-     * Verifica si una tabla es modificable (no es vista)
+     * Verifica si una tabla es modificable (no es vista). El tipo sale del catálogo de esquema.
      */
     private boolean esTablaModificable(String tableName) {
         try {
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            
-            // Verificar si es una vista
-            String sql = "SELECT COUNT(*) FROM USER_VIEWS WHERE VIEW_NAME = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, tableName.toUpperCase());
-            ResultSet rs = pstmt.executeQuery();
-            
-            rs.next();
-            boolean esVista = rs.getInt(1) > 0;
-            
-            rs.close();
-            pstmt.close();
-            
-            return !esVista; // Es modificable si NO es vista
-            
+            return !SessionManager.getInstance().getConnectionUser().getCatalogoEsquema().esVista(tableName);
         } catch (SQLException e) {
             System.err.println("Error verificando si es tabla modificable: " + e.getMessage());
             return false;
@@ -439,62 +618,16 @@ public class TableController implements Initializable {
     }
     
     /**
-     * Obtiene las columnas de clave primaria de una tabla
+     * Obtiene las columnas de clave primaria de una tabla (catálogo de esquema)
      */
     private List<String> obtenerClavesPrimarias(String tableName) {
-        List<String> primaryKeys = new ArrayList<>();
-        
         try {
-            String sql = "SELECT COLUMN_NAME " +
-                        "FROM USER_CONS_COLUMNS ucc " +
-                        "JOIN USER_CONSTRAINTS uc ON ucc.CONSTRAINT_NAME = uc.CONSTRAINT_NAME " +
-                        "WHERE uc.TABLE_NAME = ? AND uc.CONSTRAINT_TYPE = 'P' " +
-                        "ORDER BY ucc.POSITION";
-            
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, tableName.toUpperCase());
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                primaryKeys.add(rs.getString("COLUMN_NAME"));
-            }
-            
-            rs.close();
-            pstmt.close();
-            
+            EstructuraTabla estructura = SessionManager.getInstance().getConnectionUser()
+                                             .getCatalogoEsquema().obtenerEstructura(tableName);
+            return new ArrayList<>(estructura.getClavesPrimarias());
         } catch (SQLException e) {
             System.err.println("Error obteniendo claves primarias: " + e.getMessage());
+            return new ArrayList<>();
         }
-        
-        return primaryKeys;
-    }
-    
-    /**
-     * Obtiene los nombres de las columnas de una tabla
-     */
-    private List<String> obtenerNombresColumnas(String tableName) {
-        List<String> columnNames = new ArrayList<>();
-        
-        try {
-            String sql = "SELECT COLUMN_NAME FROM USER_TAB_COLUMNS WHERE TABLE_NAME = ? ORDER BY COLUMN_ID";
-            
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, tableName.toUpperCase());
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                columnNames.add(rs.getString("COLUMN_NAME"));
-            }
-            
-            rs.close();
-            pstmt.close();
-            
-        } catch (SQLException e) {
-            System.err.println("Error obteniendo nombres de columnas: " + e.getMessage());
-        }
-        
-        return columnNames;
     }
 }
@@ -4,13 +4,18 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 import javafx.collections.ObservableList;
+import Logic.ConnectionRouter;
+import Logic.OperationType;
+import Logic.QueryExecutor;
 import Logic.SessionManager;
 import Logic.ControllerDataManager;
+import Logic.EstructuraTabla;
 import MetodosFrecuentes.MetodosFrecuentes;
 import java.net.URL;
 import java.sql.*;
@@ -40,9 +45,13 @@ public class UpdateController implements Initializable {
     @FXML
     private VBox vboxFormulario;
     
+    @FXML
+    private ProgressIndicator indicadorCarga;
+    
     private String tableName;
     private String operacion; // "INSERT", "UPDATE"
     private ObservableList<String> datosOriginales; // Para UPDATE, contiene los datos de la fila seleccionada
+    private List<Object> valoresOriginales; // Los mismos datos con su tipo, para el WHERE
     private List<String> columnNames;
     private List<String> columnTypes;
     private List<String> primaryKeyColumns;
@@ -56,6 +65,7 @@ public class UpdateController implements Initializable {
         tableName = ControllerDataManager.getInstance().getSelectedTableName();
         operacion = ControllerDataManager.getInstance().getOperacion();
         datosOriginales = ControllerDataManager.getInstance().getDatosOriginales();
+        valoresOriginales = ControllerDataManager.getInstance().getValoresOriginales();
         
         if (tableName != null) {
             String baseTableName = tableName.contains("@PROYECTO_REAL") 
@@ -70,14 +80,20 @@ public class UpdateController implements Initializable {
             }
             
             cargarEstructuraTabla();
-            crearFormulario();
         } else {
             MetodosFrecuentes.mostrarAlertaError("Error", "No se pudo obtener información de la tabla");
         }
     }
     
     /**
-     * Carga la estructura de la tabla (columnas, tipos, claves primarias)
+     * Muestra el indicador de carga y bloquea los botones mientras hay una operación en curso
+     */
+    private void mostrarOcupado(boolean ocupado) {
+        MetodosFrecuentes.mostrarOcupado(indicadorCarga, ocupado, btnGuardar, btnLimpiar);
+    }
+    
+    /**
+     * Carga la estructura de la tabla en segundo plano y luego crea el formulario
      */
     private void cargarEstructuraTabla() {
         columnNames = new ArrayList<>();
@@ -85,74 +101,36 @@ public class UpdateController implements Initializable {
         primaryKeyColumns = new ArrayList<>();
         
         if (!SessionManager.getInstance().getConnectionUser().estaConectado()) {
+            crearFormulario();
             return;
         }
         
-        try {
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            
-            // Verificar si es tabla remota
-            String sql;
-            String baseTableName;
-            
-            if (tableName.contains("@PROYECTO_REAL")) {
-                baseTableName = tableName.replace("@PROYECTO_REAL", "");
-                sql = "SELECT COLUMN_NAME, DATA_TYPE, DATA_LENGTH, NULLABLE " +
-                      "FROM USER_TAB_COLUMNS@PROYECTO_REAL " +
-                      "WHERE TABLE_NAME = ? " +
-                      "ORDER BY COLUMN_ID";
-            } else {
-                baseTableName = tableName;
-                sql = "SELECT COLUMN_NAME, DATA_TYPE, DATA_LENGTH, NULLABLE " +
-                      "FROM USER_TAB_COLUMNS " +
-                      "WHERE TABLE_NAME = ? " +
-                      "ORDER BY COLUMN_ID";
-            }
-            
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, baseTableName.toUpperCase());
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                columnNames.add(rs.getString("COLUMN_NAME"));
-                String dataType = rs.getString("DATA_TYPE");
-                int dataLength = rs.getInt("DATA_LENGTH");
-                columnTypes.add(dataType + "(" + dataLength + ")");
-            }
-            
-            rs.close();
-            pstmt.close();
-            
-            // Obtener claves primarias
-            if (tableName.contains("@PROYECTO_REAL")) {
-                sql = "SELECT COLUMN_NAME " +
-                      "FROM USER_CONS_COLUMNS@PROYECTO_REAL ucc " +
-                      "JOIN USER_CONSTRAINTS@PROYECTO_REAL uc ON ucc.CONSTRAINT_NAME = uc.CONSTRAINT_NAME " +
-                      "WHERE uc.TABLE_NAME = ? AND uc.CONSTRAINT_TYPE = 'P' " +
-                      "ORDER BY ucc.POSITION";
-            } else {
-                sql = "SELECT COLUMN_NAME " +
-                      "FROM USER_CONS_COLUMNS ucc " +
-                      "JOIN USER_CONSTRAINTS uc ON ucc.CONSTRAINT_NAME = uc.CONSTRAINT_NAME " +
-                      "WHERE uc.TABLE_NAME = ? AND uc.CONSTRAINT_TYPE = 'P' " +
-                      "ORDER BY ucc.POSITION";
-            }
-            
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, baseTableName.toUpperCase());
-            rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                primaryKeyColumns.add(rs.getString("COLUMN_NAME"));
-            }
-            
-            rs.close();
-            pstmt.close();
-            
-        } catch (SQLException e) {
-            MetodosFrecuentes.mostrarAlertaError("Error", "Error al cargar estructura de la tabla: " + e.getMessage());
-            e.printStackTrace();
-        }
+        mostrarOcupado(true);
+        QueryExecutor.getInstance().ejecutar(() -> {
+                leerEstructuraTabla();
+                return null;
+            })
+            .whenComplete(QueryExecutor.enFx((sinValor, error) -> {
+                mostrarOcupado(false);
+                if (error != null) {
+                    MetodosFrecuentes.mostrarAlertaError("Error", "Error al cargar estructura de la tabla: " + error.getMessage());
+                    error.printStackTrace();
+                }
+                crearFormulario();
+            }));
+    }
+    
+    /**
+     * Lee la estructura de la tabla (columnas, tipos, claves primarias) en hilo de fondo
+     */
+    private void leerEstructuraTabla() throws SQLException {
+        // Local o @PROYECTO_REAL: el catálogo de esquema solo va a la base si la tabla cambió
+        EstructuraTabla estructura = SessionManager.getInstance().getConnectionUser()
+                                         .getCatalogoEsquema().obtenerEstructura(tableName);
+        
+        columnNames.addAll(estructura.getColumnas());
+        columnTypes.addAll(estructura.getTipos());
+        primaryKeyColumns.addAll(estructura.getClavesPrimarias());
     }
     
     /**
@@ -226,25 +204,54 @@ public class UpdateController implements Initializable {
             return;
         }
         
+        if (!"INSERT".equals(operacion) && !"UPDATE".equals(operacion)) {
+            return;
+        }
+        boolean esInsert = "INSERT".equals(operacion);
+        
+        // Los valores se leen del formulario aquí, en el hilo de JavaFX
+        Map<String, String> valores = new HashMap<>();
+        for (Map.Entry<String, TextField> campo : camposFormulario.entrySet()) {
+            valores.put(campo.getKey(), campo.getValue().getText().trim());
+        }
+        
+        mostrarOcupado(true);
+        QueryExecutor.getInstance().ejecutar(() -> guardar(esInsert, valores))
+            .whenComplete(QueryExecutor.enFx((filasAfectadas, error) -> {
+                mostrarOcupado(false);
+                if (error != null) {
+                    MetodosFrecuentes.mostrarAlertaError("Error en Base de Datos", 
+                        "Error al " + (esInsert ? "insertar" : "actualizar") + " el registro:\n\n" + error.getMessage());
+                    error.printStackTrace();
+                } else if (filasAfectadas > 0) {
+                    MetodosFrecuentes.mostrarAlerta("Éxito", 
+                        esInsert ? "Registro insertado correctamente" : "Registro actualizado correctamente");
+                    // Regresar a la vista correcta
+                    regresarAVistaOrigen();
+                } else {
+                    MetodosFrecuentes.mostrarAlertaAdvertencia("Advertencia", 
+                        esInsert ? "No se insertó ningún registro" : "No se actualizó ningún registro");
+                }
+            }));
+    }
+    
+    /**
+     * Ejecuta el INSERT o UPDATE con commit o rollback automático (hilo de fondo)
+     */
+    private int guardar(boolean esInsert, Map<String, String> valores) throws SQLException {
         try {
-            if ("INSERT".equals(operacion)) {
-                realizarInsert();
-            } else if ("UPDATE".equals(operacion)) {
-                realizarUpdate();
-            }
+            return esInsert ? realizarInsert(valores) : realizarUpdate(valores);
         } catch (SQLException e) {
             // Realizar rollback automático en caso de error
             MetodosFrecuentes.realizarRollbackAutomatico();
-            MetodosFrecuentes.mostrarAlertaError("Error en Base de Datos", 
-                "Error al " + (operacion.equals("INSERT") ? "insertar" : "actualizar") + " el registro:\n\n" + e.getMessage());
-            e.printStackTrace();
+            throw e;
         }
     }
     
     /**
-     * Realiza la operación INSERT
+     * Realiza la operación INSERT y devuelve las filas afectadas
      */
-    private void realizarInsert() throws SQLException {
+    private int realizarInsert(Map<String, String> valores) throws SQLException {
         StringBuilder sql = new StringBuilder("INSERT INTO " + tableName + " (");
         StringBuilder values = new StringBuilder(" VALUES (");
         
@@ -253,8 +260,7 @@ public class UpdateController implements Initializable {
         // Construir la consulta INSERT
         for (int i = 0; i < columnNames.size(); i++) {
             String columnName = columnNames.get(i);
-            TextField campo = camposFormulario.get(columnName);
-            String valor = campo.getText().trim();
+            String valor = valores.get(columnName);
             
             if (i > 0) {
                 sql.append(", ");
@@ -270,68 +276,64 @@ public class UpdateController implements Initializable {
         values.append(")");
         sql.append(values);
         
-        Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-        PreparedStatement pstmt = conn.prepareStatement(sql.toString());
+        try (ConnectionRouter.Uso uso = SessionManager.getInstance().getConnectionUser().usar(OperationType.DML)) {
+            PreparedStatement pstmt = uso.prepararSql(sql.toString());
         
-        // Establecer parámetros
-        for (int i = 0; i < valoresCampos.size(); i++) {
-            String valor = valoresCampos.get(i);
-            String columnName = columnNames.get(i);
-            String columnType = columnTypes.get(i);
+            // Establecer parámetros
+            for (int i = 0; i < valoresCampos.size(); i++) {
+                String valor = valoresCampos.get(i);
+                String columnName = columnNames.get(i);
+                String columnType = columnTypes.get(i);
             
-            if (valor == null) {
-                // Determinar el tipo correcto para NULL
-                if (isDateType(columnType)) {
-                    pstmt.setNull(i + 1, Types.DATE);
-                } else if (isTimestampType(columnType)) {
-                    pstmt.setNull(i + 1, Types.TIMESTAMP);
-                } else {
-                    pstmt.setNull(i + 1, Types.VARCHAR);
-                }
-            } else {
-                // Manejar diferentes tipos de datos
-                if (isDateType(columnType)) {
-                    try {
-                        // Intentar parsear como fecha
-                        java.sql.Date sqlDate = parseDate(valor);
-                        pstmt.setDate(i + 1, sqlDate);
-                    } catch (Exception e) {
-                        // Si falla el parsing, intentar con TO_DATE
-                        pstmt.setString(i + 1, "TO_DATE('" + valor + "', 'DD/MM/YYYY')");
-                    }
-                } else if (isTimestampType(columnType)) {
-                    try {
-                        // Intentar parsear como timestamp
-                        java.sql.Timestamp sqlTimestamp = parseTimestamp(valor);
-                        pstmt.setTimestamp(i + 1, sqlTimestamp);
-                    } catch (Exception e) {
-                        // Si falla el parsing, intentar con TO_TIMESTAMP
-                        pstmt.setString(i + 1, "TO_TIMESTAMP('" + valor + "', 'DD/MM/YYYY HH24:MI:SS')");
+                if (valor == null) {
+                    // Determinar el tipo correcto para NULL
+                    if (isDateType(columnType)) {
+                        pstmt.setNull(i + 1, Types.DATE);
+                    } else if (isTimestampType(columnType)) {
+                        pstmt.setNull(i + 1, Types.TIMESTAMP);
+                    } else {
+                        pstmt.setNull(i + 1, Types.VARCHAR);
                     }
                 } else {
-                    pstmt.setString(i + 1, valor);
+                    // Manejar diferentes tipos de datos
+                    if (isDateType(columnType)) {
+                        try {
+                            // Intentar parsear como fecha
+                            java.sql.Date sqlDate = parseDate(valor);
+                            pstmt.setDate(i + 1, sqlDate);
+                        } catch (Exception e) {
+                            // Si falla el parsing, intentar con TO_DATE
+                            pstmt.setString(i + 1, "TO_DATE('" + valor + "', 'DD/MM/YYYY')");
+                        }
+                    } else if (isTimestampType(columnType)) {
+                        try {
+                            // Intentar parsear como timestamp
+                            java.sql.Timestamp sqlTimestamp = parseTimestamp(valor);
+                            pstmt.setTimestamp(i + 1, sqlTimestamp);
+                        } catch (Exception e) {
+                            // Si falla el parsing, intentar con TO_TIMESTAMP
+                            pstmt.setString(i + 1, "TO_TIMESTAMP('" + valor + "', 'DD/MM/YYYY HH24:MI:SS')");
+                        }
+                    } else {
+                        pstmt.setString(i + 1, valor);
+                    }
                 }
             }
-        }
         
-        int filasAfectadas = pstmt.executeUpdate();
-        pstmt.close();
+            int filasAfectadas = pstmt.executeUpdate();
         
-        if (filasAfectadas > 0) {
-            // Realizar commit automático y refrescar vistas materializadas
-            MetodosFrecuentes.realizarCommitYRefrescarVistas();
-            MetodosFrecuentes.mostrarAlerta("Éxito", "Registro insertado correctamente");
-            // Regresar a la vista correcta
-            regresarAVistaOrigen();
-        } else {
-            MetodosFrecuentes.mostrarAlertaAdvertencia("Advertencia", "No se insertó ningún registro");
+            if (filasAfectadas > 0) {
+                // Realizar commit automático y refrescar vistas materializadas
+                MetodosFrecuentes.realizarCommitYRefrescarVistas(tableName);
+            }
+            return filasAfectadas;
         }
     }
     
     /**
-     * Realiza la operación UPDATE
+     * Realiza la operación UPDATE y devuelve las filas afectadas
      */
-    private void realizarUpdate() throws SQLException {
+    private int realizarUpdate(Map<String, String> valores) throws SQLException {
         StringBuilder sql = new StringBuilder("UPDATE " + tableName + " SET ");
         StringBuilder whereClause = new StringBuilder(" WHERE ");
         
@@ -344,8 +346,7 @@ public class UpdateController implements Initializable {
             String columnName = columnNames.get(i);
             
             if (!primaryKeyColumns.contains(columnName)) {
-                TextField campo = camposFormulario.get(columnName);
-                String valor = campo.getText().trim();
+                String valor = valores.get(columnName);
                 
                 if (!firstSet) {
                     sql.append(", ");
@@ -363,14 +364,16 @@ public class UpdateController implements Initializable {
             String columnName = columnNames.get(i);
             
             if (primaryKeyColumns.contains(columnName)) {
-                TextField campo = camposFormulario.get(columnName);
-                String valor = campo.getText().trim();
+                String valor = valores.get(columnName);
                 
                 if (!firstWhere) {
                     whereClause.append(" AND ");
                 }
                 
-                whereClause.append(columnName).append(" = ?");
+                // Con el valor tipado, una fecha y hora contra DATE va con CAST (usa el índice de la PK)
+                Object original = valoresOriginales != null && i < valoresOriginales.size()
+                                ? valoresOriginales.get(i) : null;
+                whereClause.append(columnName).append(" = ").append(EstructuraTabla.marcadorBind(columnTypes.get(i), original));
                 valoresWhere.add(valor);
                 firstWhere = false;
             }
@@ -378,109 +381,113 @@ public class UpdateController implements Initializable {
         
         sql.append(whereClause);
         
-        Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-        PreparedStatement pstmt = conn.prepareStatement(sql.toString());
+        try (ConnectionRouter.Uso uso = SessionManager.getInstance().getConnectionUser().usar(OperationType.DML)) {
+            PreparedStatement pstmt = uso.prepararSql(sql.toString());
         
-        // Establecer parámetros SET
-        int paramIndex = 1;
-        for (int i = 0; i < columnNames.size(); i++) {
-            String columnName = columnNames.get(i);
-            String columnType = columnTypes.get(i);
+            // Establecer parámetros SET
+            int paramIndex = 1;
+            for (int i = 0; i < columnNames.size(); i++) {
+                String columnName = columnNames.get(i);
+                String columnType = columnTypes.get(i);
             
-            if (!primaryKeyColumns.contains(columnName)) {
-                String valor = valoresSet.get(paramIndex - 1);
-                if (valor == null) {
-                    // Determinar el tipo correcto para NULL
-                    if (isDateType(columnType)) {
-                        pstmt.setNull(paramIndex, Types.DATE);
-                    } else if (isTimestampType(columnType)) {
-                        pstmt.setNull(paramIndex, Types.TIMESTAMP);
-                    } else {
-                        pstmt.setNull(paramIndex, Types.VARCHAR);
-                    }
-                } else {
-                    // Manejar diferentes tipos de datos
-                    if (isDateType(columnType)) {
-                        try {
-                            // Intentar parsear como fecha
-                            java.sql.Date sqlDate = parseDate(valor);
-                            pstmt.setDate(paramIndex, sqlDate);
-                        } catch (Exception e) {
-                            // Si falla el parsing, intentar con TO_DATE
-                            pstmt.setString(paramIndex, "TO_DATE('" + valor + "', 'DD/MM/YYYY')");
-                        }
-                    } else if (isTimestampType(columnType)) {
-                        try {
-                            // Intentar parsear como timestamp
-                            java.sql.Timestamp sqlTimestamp = parseTimestamp(valor);
-                            pstmt.setTimestamp(paramIndex, sqlTimestamp);
-                        } catch (Exception e) {
-                            // Si falla el parsing, intentar con TO_TIMESTAMP
-                            pstmt.setString(paramIndex, "TO_TIMESTAMP('" + valor + "', 'DD/MM/YYYY HH24:MI:SS')");
+                if (!primaryKeyColumns.contains(columnName)) {
+                    String valor = valoresSet.get(paramIndex - 1);
+                    if (valor == null) {
+                        // Determinar el tipo correcto para NULL
+                        if (isDateType(columnType)) {
+                            pstmt.setNull(paramIndex, Types.DATE);
+                        } else if (isTimestampType(columnType)) {
+                            pstmt.setNull(paramIndex, Types.TIMESTAMP);
+                        } else {
+                            pstmt.setNull(paramIndex, Types.VARCHAR);
                         }
                     } else {
-                        pstmt.setString(paramIndex, valor);
+                        // Manejar diferentes tipos de datos
+                        if (isDateType(columnType)) {
+                            try {
+                                // Intentar parsear como fecha
+                                java.sql.Date sqlDate = parseDate(valor);
+                                pstmt.setDate(paramIndex, sqlDate);
+                            } catch (Exception e) {
+                                // Si falla el parsing, intentar con TO_DATE
+                                pstmt.setString(paramIndex, "TO_DATE('" + valor + "', 'DD/MM/YYYY')");
+                            }
+                        } else if (isTimestampType(columnType)) {
+                            try {
+                                // Intentar parsear como timestamp
+                                java.sql.Timestamp sqlTimestamp = parseTimestamp(valor);
+                                pstmt.setTimestamp(paramIndex, sqlTimestamp);
+                            } catch (Exception e) {
+                                // Si falla el parsing, intentar con TO_TIMESTAMP
+                                pstmt.setString(paramIndex, "TO_TIMESTAMP('" + valor + "', 'DD/MM/YYYY HH24:MI:SS')");
+                            }
+                        } else {
+                            pstmt.setString(paramIndex, valor);
+                        }
                     }
+                    paramIndex++;
                 }
-                paramIndex++;
             }
-        }
         
-        // Establecer parámetros WHERE
-        for (int i = 0; i < columnNames.size(); i++) {
-            String columnName = columnNames.get(i);
-            String columnType = columnTypes.get(i);
+            // Establecer parámetros WHERE
+            for (int i = 0; i < columnNames.size(); i++) {
+                String columnName = columnNames.get(i);
+                String columnType = columnTypes.get(i);
             
-            if (primaryKeyColumns.contains(columnName)) {
-                String valor = valoresWhere.get(primaryKeyColumns.indexOf(columnName));
-                if (valor == null) {
-                    // Determinar el tipo correcto para NULL
-                    if (isDateType(columnType)) {
-                        pstmt.setNull(paramIndex, Types.DATE);
-                    } else if (isTimestampType(columnType)) {
-                        pstmt.setNull(paramIndex, Types.TIMESTAMP);
-                    } else {
-                        pstmt.setNull(paramIndex, Types.VARCHAR);
+                if (primaryKeyColumns.contains(columnName)) {
+                    Object original = valoresOriginales != null && i < valoresOriginales.size()
+                                    ? valoresOriginales.get(i) : null;
+                    if (original != null) {
+                        // Clave tal como se leyó, sin parsear el texto (el WHERE ya trae el CAST si es DATE)
+                        pstmt.setObject(paramIndex, original);
+                        paramIndex++;
+                        continue;
                     }
-                } else {
-                    // Manejar diferentes tipos de datos
-                    if (isDateType(columnType)) {
-                        try {
-                            // Intentar parsear como fecha
-                            java.sql.Date sqlDate = parseDate(valor);
-                            pstmt.setDate(paramIndex, sqlDate);
-                        } catch (Exception e) {
-                            // Si falla el parsing, intentar con TO_DATE
-                            pstmt.setString(paramIndex, "TO_DATE('" + valor + "', 'DD/MM/YYYY')");
-                        }
-                    } else if (isTimestampType(columnType)) {
-                        try {
-                            // Intentar parsear como timestamp
-                            java.sql.Timestamp sqlTimestamp = parseTimestamp(valor);
-                            pstmt.setTimestamp(paramIndex, sqlTimestamp);
-                        } catch (Exception e) {
-                            // Si falla el parsing, intentar con TO_TIMESTAMP
-                            pstmt.setString(paramIndex, "TO_TIMESTAMP('" + valor + "', 'DD/MM/YYYY HH24:MI:SS')");
+                    String valor = valoresWhere.get(primaryKeyColumns.indexOf(columnName));
+                    if (valor == null) {
+                        // Determinar el tipo correcto para NULL
+                        if (isDateType(columnType)) {
+                            pstmt.setNull(paramIndex, Types.DATE);
+                        } else if (isTimestampType(columnType)) {
+                            pstmt.setNull(paramIndex, Types.TIMESTAMP);
+                        } else {
+                            pstmt.setNull(paramIndex, Types.VARCHAR);
                         }
                     } else {
-                        pstmt.setString(paramIndex, valor);
+                        // Manejar diferentes tipos de datos
+                        if (isDateType(columnType)) {
+                            try {
+                                // Intentar parsear como fecha
+                                java.sql.Date sqlDate = parseDate(valor);
+                                pstmt.setDate(paramIndex, sqlDate);
+                            } catch (Exception e) {
+                                // Si falla el parsing, intentar con TO_DATE
+                                pstmt.setString(paramIndex, "TO_DATE('" + valor + "', 'DD/MM/YYYY')");
+                            }
+                        } else if (isTimestampType(columnType)) {
+                            try {
+                                // Intentar parsear como timestamp
+                                java.sql.Timestamp sqlTimestamp = parseTimestamp(valor);
+                                pstmt.setTimestamp(paramIndex, sqlTimestamp);
+                            } catch (Exception e) {
+                                // Si falla el parsing, intentar con TO_TIMESTAMP
+                                pstmt.setString(paramIndex, "TO_TIMESTAMP('" + valor + "', 'DD/MM/YYYY HH24:MI:SS')");
+                            }
+                        } else {
+                            pstmt.setString(paramIndex, valor);
+                        }
                     }
+                    paramIndex++;
                 }
-                paramIndex++;
             }
-        }
         
-        int filasAfectadas = pstmt.executeUpdate();
-        pstmt.close();
+            int filasAfectadas = pstmt.executeUpdate();
         
-        if (filasAfectadas > 0) {
-            // Realizar commit automático y refrescar vistas materializadas
-            MetodosFrecuentes.realizarCommitYRefrescarVistas();
-            MetodosFrecuentes.mostrarAlerta("Éxito", "Registro actualizado correctamente");
-            // Regresar a la vista correcta
-            regresarAVistaOrigen();
-        } else {
-            MetodosFrecuentes.mostrarAlertaAdvertencia("Advertencia", "No se actualizó ningún registro");
+            if (filasAfectadas > 0) {
+                // Realizar commit automático y refrescar vistas materializadas
+                MetodosFrecuentes.realizarCommitYRefrescarVistas(tableName);
+            }
+            return filasAfectadas;
         }
     }
     
@@ -4,21 +4,31 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TableView;
+import javafx.scene.control.Tooltip;
 import javafx.scene.control.TableColumn;
 import javafx.stage.Stage;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.beans.property.SimpleStringProperty;
+import Logic.BloqueColumnar;
+import Logic.ConnectionRouter;
+import Logic.ConnectionUser;
+import Logic.ConteoFilas;
+import Logic.OperationType;
+import Logic.QueryExecutor;
 import Logic.SessionManager;
 import Logic.ControllerDataManager;
+import Logic.EstructuraTabla;
+import Logic.TokenCancelacion;
+import Logic.VentanaFilas;
 import MetodosFrecuentes.MetodosFrecuentes;
 import java.net.URL;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 
 public class VistaController implements Initializable {
     
@@ -44,16 +54,43 @@ public class VistaController implements Initializable {
     private Label lblVistaName;
     
     @FXML
-    private TableView<ObservableList<String>> tableViewData;
+    private TableView<BloqueColumnar.Fila> tableViewData;
     
     @FXML
     private TextArea txtScript;
     
+    @FXML
+    private Button btnDetener;
+    
+    @FXML
+    private ProgressIndicator indicadorCarga;
+    
+    @FXML
+    private Label lblProgreso;
+    
+    // Cancelación de la operación en curso (botón Detener)
+    private TokenCancelacion tokenActual;
+    
+    // Filas mostradas, leídas por páginas al desplazarse
+    private VentanaFilas ventanaActual;
+    
+    // Filas del objeto (estimadas, por muestra o exactas) y su conteo en curso
+    private ConteoFilas.Conteo conteoActual;
+    private TokenCancelacion tokenConteo;
+    
     private String selectedVistaOrTable;
     private String tipoSeleccionado; // "VISTA" o "TABLA"
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
+        // Clic en el progreso: COUNT(*) exacto del objeto mostrado
+        lblProgreso.setTooltip(new Tooltip("Clic para contar las filas exactas"));
+        lblProgreso.setOnMouseClicked(e -> {
+            if (selectedVistaOrTable != null && conteoActual != null) {
+                contarFilas(selectedVistaOrTable, true);
+            }
+        });
+        
         // Obtener la vista o tabla seleccionada del ControllerDataManager
         String vistaName = ControllerDataManager.getInstance().getSelectedVistaName();
         String tableName = ControllerDataManager.getInstance().getSelectedTableName();
@@ -88,70 +125,176 @@ public class VistaController implements Initializable {
     }
     
     /**
-     * Carga todo el contenido de la vista o tabla seleccionada
+     * Muestra el indicador de carga y bloquea los botones mientras hay una operación en curso
+     */
+    private void mostrarOcupado(boolean ocupado) {
+        MetodosFrecuentes.mostrarOcupado(indicadorCarga, ocupado,
+            btnScript, btnRefresh, btnInsertarFila, btnModificarFila, btnEliminarFila);
+        btnDetener.setDisable(!ocupado);
+    }
+    
+    /**
+     * Token nuevo para la operación que empieza; el botón Detener lo cancela
+     */
+    private TokenCancelacion nuevoToken() {
+        tokenActual = new TokenCancelacion();
+        return tokenActual;
+    }
+    
+    /**
+     * Detiene la consulta en curso (Statement.cancel)
+     */
+    @FXML
+    private void handleDetener() {
+        if (tokenActual != null) {
+            tokenActual.cancelar();
+        }
+        // Lo ya recibido queda en la grilla
+        if (ventanaActual != null) {
+            ventanaActual.detener();
+        }
+    }
+    
+    /**
+     * Carga la primera página de la vista o tabla seleccionada (en segundo plano)
      */
     private void loadContent() {
+        loadContent(null);
+    }
+    
+    /**
+     * Carga el contenido y, al terminar, ejecuta "despues" en el hilo de JavaFX
+     */
+    private void loadContent(Runnable despues) {
         if (selectedVistaOrTable == null || !SessionManager.getInstance().getConnectionUser().estaConectado()) {
             return;
         }
         
-        try {
-            String sql = "SELECT * FROM " + selectedVistaOrTable + " WHERE ROWNUM <= 500";
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            
-            System.out.println("Cargando datos de: " + selectedVistaOrTable);
-            
-            // Limpiar el TableView antes de cargar nuevos datos
-            tableViewData.getColumns().clear();
-            tableViewData.getItems().clear();
-            
-            // Obtener metadatos para crear las columnas
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            
-            // Crear columnas dinámicamente
-            for (int i = 0; i < columnCount; i++) {
-                final int colIndex = i;
-                TableColumn<ObservableList<String>, String> column = new TableColumn<>(metaData.getColumnName(i + 1));
-                column.setCellValueFactory(cellData -> {
-                    ObservableList<String> row = cellData.getValue();
-                    return new SimpleStringProperty(colIndex < row.size() ? row.get(colIndex) : "");
-                });
-                column.setPrefWidth(120); // Ancho fijo para las columnas
-                tableViewData.getColumns().add(column);
-            }
-            
-            // Cargar datos
-            ObservableList<ObservableList<String>> data = FXCollections.observableArrayList();
-            int rowCount = 0;
-            
-            while (rs.next() && rowCount < 500) { // Limitar a 500 filas para rendimiento
-                ObservableList<String> row = FXCollections.observableArrayList();
-                for (int i = 1; i <= columnCount; i++) {
-                    String value = MetodosFrecuentes.getColumnValue(rs, i, metaData);
-                    row.add(value);
+        String objeto = selectedVistaOrTable;
+        String tipo = tipoSeleccionado.toLowerCase();
+        ConnectionUser connectionUser = SessionManager.getInstance().getConnectionUser();
+        // Cada página puede ir directo al nodo más cercano que tiene la vista en lugar del database link.
+        // Al recargar el mismo objeto se conservan el orden y los filtros de los encabezados
+        VentanaFilas ventana = ventanaActual != null && ventanaActual.esDeObjeto(objeto)
+            ? ventanaActual.reabrir()
+            : VentanaFilas.deObjeto(objeto, () -> connectionUser.usarParaObjeto(OperationType.CONSULTA, objeto), connectionUser);
+        mostrarVentana(ventana,
+            error -> MetodosFrecuentes.mostrarAlertaError("Error", "Error al cargar el contenido de " + tipo + ": " + error.getMessage()),
+            primera -> {
+                System.out.println("Cargando datos de: " + objeto + " (primera página en " + primera.getMilisegundos() + " ms)");
+                if (despues != null) {
+                    despues.run();
                 }
-                data.add(row);
-                rowCount++;
-            }
-            
-            tableViewData.setItems(data);
-            
-            // Mostrar información sobre los datos cargados
-            if (rowCount == 500) {
-                MetodosFrecuentes.mostrarAlerta("Información", 
-                    "Se cargaron las primeras 500 filas de " + tipoSeleccionado.toLowerCase() + " " + selectedVistaOrTable + 
-                    ". Use filtros SQL para ver datos específicos.");
+            });
+        conteoActual = null;
+        contarFilas(objeto, false);
+    }
+    
+    /**
+     * Muestra la ventana leyendo su primera página en segundo plano; la ventana anterior
+     * deja de leer páginas
+     */
+    private void mostrarVentana(VentanaFilas ventana, Consumer<Throwable> alFallar,
+                                Consumer<VentanaFilas.Pagina> alMostrar) {
+        cerrarVentana();
+        ventanaActual = ventana;
+        TokenCancelacion token = ventana.getToken();
+        tokenActual = token;
+        mostrarOcupado(true);
+        // Filas leídas, tiempo y filas por segundo mientras llegan; Detener queda activo mientras se lee
+        ventana.setAlProgresar(() -> {
+            if (ventana == ventanaActual) {
+                mostrarProgreso();
+                btnDetener.setDisable(!ventana.estaLeyendo());
             }
-            
-            rs.close();
-            stmt.close();
-            
+        });
+        // La grilla aparece con el primer viaje a la base y las filas siguen llegando
+        ventana.abrir(columnas -> MetodosFrecuentes.mostrarPaginado(tableViewData, ventana, columnas, this::aplicarCriterios))
+            .whenComplete(QueryExecutor.enFx((primera, error) -> {
+                if (ventana != ventanaActual) {
+                    return; // Otra carga ya tomó la grilla
+                }
+                mostrarOcupado(false);
+                if (error != null && MetodosFrecuentes.avisarSiCancelada(error, token)) {
+                    return;
+                }
+                if (error != null) {
+                    alFallar.accept(error);
+                    error.printStackTrace();
+                    return;
+                }
+                
+                alMostrar.accept(primera);
+            }));
+    }
+    
+    /**
+     * Orden o filtro nuevo desde los encabezados: las mismas filas se piden otra vez al servidor
+     */
+    private void aplicarCriterios(VentanaFilas.Criterios criterios) {
+        if (ventanaActual == null) {
+            return;
+        }
+        VentanaFilas ventana;
+        try {
+            ventana = ventanaActual.conCriterios(criterios);
+        } catch (IllegalArgumentException e) {
+            MetodosFrecuentes.mostrarAlertaAdvertencia("Filtro no válido", e.getMessage());
+            return;
+        }
+        mostrarVentana(ventana,
+            error -> MetodosFrecuentes.mostrarAlertaError("Error", "Error al ordenar o filtrar: " + error.getMessage()),
+            primera -> { });
+    }
+    
+    /**
+     * Cuenta las filas del objeto en segundo plano: la estimación enseguida, después la muestra
+     * y el exacto si es chico; con "exacto" el COUNT(*). Cada paso se ve junto al progreso.
+     */
+    private void contarFilas(String objeto, boolean exacto) {
+        detenerConteo();
+        TokenCancelacion token = new TokenCancelacion();
+        tokenConteo = token;
+        try {
+            SessionManager.getInstance().getConnectionUser().getConteoFilas()
+                .contar(objeto, exacto, token, conteo -> {
+                    if (token == tokenConteo) {
+                        conteoActual = conteo;
+                        mostrarProgreso();
+                    }
+                })
+                .whenComplete(QueryExecutor.enFx((conteo, error) -> {
+                    if (error != null && token == tokenConteo && !TokenCancelacion.esCancelacion(error)) {
+                        System.err.println("⚠️ No se pudieron contar las filas de " + objeto + ": " + error.getMessage());
+                    }
+                }));
         } catch (SQLException e) {
-            MetodosFrecuentes.mostrarAlertaError("Error", "Error al cargar el contenido de " + tipoSeleccionado.toLowerCase() + ": " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("⚠️ No se pudieron contar las filas de " + objeto + ": " + e.getMessage());
+        }
+    }
+    
+    private void detenerConteo() {
+        if (tokenConteo != null) {
+            tokenConteo.cancelar();
+            tokenConteo = null;
+        }
+    }
+    
+    private void mostrarProgreso() {
+        if (ventanaActual == null) {
+            return;
+        }
+        String texto = ventanaActual.getProgreso();
+        if (conteoActual != null && conteoActual.getPrecision() != ConteoFilas.Precision.DESCONOCIDO) {
+            texto += " · en " + tipoSeleccionado.toLowerCase() + ": " + conteoActual;
+        }
+        lblProgreso.setText(texto);
+    }
+    
+    private void cerrarVentana() {
+        if (ventanaActual != null) {
+            ventanaActual.cerrar();
+            ventanaActual = null;
         }
     }
     
@@ -178,73 +321,44 @@ public class VistaController implements Initializable {
             return;
         }
         
-        try {
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            Statement stmt = conn.createStatement();
-            
-            // Ejecutar solo consultas SELECT
-            ResultSet rs = stmt.executeQuery(script);
-            
-            // Limpiar el TableView
-            tableViewData.getColumns().clear();
-            tableViewData.getItems().clear();
-            
-            // Obtener metadatos para crear las columnas
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            
-            // Crear columnas dinámicamente
-            for (int i = 0; i < columnCount; i++) {
-                final int colIndex = i;
-                TableColumn<ObservableList<String>, String> column = new TableColumn<>(metaData.getColumnName(i + 1));
-                column.setCellValueFactory(cellData -> {
-                    ObservableList<String> row = cellData.getValue();
-                    return new SimpleStringProperty(colIndex < row.size() ? row.get(colIndex) : "");
-                });
-                column.setPrefWidth(120);
-                tableViewData.getColumns().add(column);
-            }
-            
-            // Cargar datos del resultado
-            ObservableList<ObservableList<String>> data = FXCollections.observableArrayList();
-            int count = 0;
-            
-            while (rs.next() && count < 500) {
-                ObservableList<String> row = FXCollections.observableArrayList();
-                for (int i = 1; i <= columnCount; i++) {
-                    String value = MetodosFrecuentes.getColumnValue(rs, i, metaData);
-                    row.add(value);
-                }
-                data.add(row);
-                count++;
-            }
-            
-            tableViewData.setItems(data);
-            MetodosFrecuentes.mostrarAlerta("Éxito", "Consulta SELECT ejecutada correctamente. " + count + " filas encontradas.");
-            
-            rs.close();
-            stmt.close();
-            
-        } catch (SQLException e) {
-            MetodosFrecuentes.mostrarAlertaError("Error en Consulta", 
-                "Error al ejecutar la consulta SQL:\n\n" + e.getMessage());
-            e.printStackTrace();
-        }
+        ConnectionUser connectionUser = SessionManager.getInstance().getConnectionUser();
+        // El resultado de la consulta no es el objeto: su conteo deja de mostrarse
+        detenerConteo();
+        conteoActual = null;
+        mostrarVentana(VentanaFilas.deConsulta(script, () -> connectionUser.usar(OperationType.SCRIPT), connectionUser),
+            error -> MetodosFrecuentes.mostrarAlertaError("Error en Consulta",
+                "Error al ejecutar la consulta SQL:\n\n" + error.getMessage()),
+            primera -> MetodosFrecuentes.mostrarAlerta("Éxito", "Consulta SELECT ejecutada correctamente. " +
+                primera.getTotalFilas() + (ventanaActual.hayMas()
+                    ? " filas en la primera página (las siguientes se cargan al desplazarse)."
+                    : " filas encontradas.")));
     }
     
     @FXML
     private void handleBack() {
+        cerrarVentana();
+        detenerConteo();
         // Limpiar los datos del ControllerDataManager
         ControllerDataManager.getInstance().clearData();
         MetodosFrecuentes.cambiarVentana((Stage) btnBack.getScene().getWindow(), "/views/Remote-view.fxml");
     }
     
+    private static void invalidarCache(String objeto) {
+        try {
+            SessionManager.getInstance().getConnectionUser().getCacheResultados().invalidar(objeto);
+            SessionManager.getInstance().getConnectionUser().getConteoFilas().invalidar(objeto);
+        } catch (SQLException e) {
+            System.err.println("⚠️ No se pudo limpiar la caché de " + objeto + ": " + e.getMessage());
+        }
+    }
+
     @FXML
     private void handleRefresh() {
         if (selectedVistaOrTable != null) {
-            // Recargar el contenido completo
-            loadContent();
-            MetodosFrecuentes.mostrarAlerta("Información", "Datos de " + tipoSeleccionado.toLowerCase() + " " + selectedVistaOrTable + " actualizados correctamente.");
+            // Recargar el contenido completo desde la base (también cambios de otras sesiones)
+            invalidarCache(selectedVistaOrTable);
+            String mensaje = "Datos de " + tipoSeleccionado.toLowerCase() + " " + selectedVistaOrTable + " actualizados correctamente.";
+            loadContent(() -> MetodosFrecuentes.mostrarAlerta("Información", mensaje));
         } else {
             MetodosFrecuentes.mostrarAlertaAdvertencia("Error", "No hay " + tipoSeleccionado.toLowerCase() + " seleccionada para actualizar.");
         }
@@ -252,9 +366,9 @@ public class VistaController implements Initializable {
     
     @FXML
     private void handleEliminarFila() {
-        ObservableList<String> filaSeleccionada = tableViewData.getSelectionModel().getSelectedItem();
+        BloqueColumnar.Fila filaSeleccionada = tableViewData.getSelectionModel().getSelectedItem();
         
-        if (filaSeleccionada == null) {
+        if (filaSeleccionada == null || filaSeleccionada.esPendiente()) {
             MetodosFrecuentes.mostrarAlertaAdvertencia("Error de Selección", "Seleccione una fila para eliminar");
             return;
         }
@@ -264,18 +378,57 @@ public class VistaController implements Initializable {
             return;
         }
         
-        try {
-            // Obtener las claves primarias de la tabla
-            List<String> primaryKeyColumns = obtenerClavesPrimarias(selectedVistaOrTable);
-            
-            if (primaryKeyColumns.isEmpty()) {
-                MetodosFrecuentes.mostrarAlertaAdvertencia("Error", "No se pueden eliminar filas: la tabla no tiene clave primaria definida");
-                return;
-            }
-            
+        // Los nombres de columna se toman del TableView aquí, en el hilo de JavaFX
+        List<String> nombreColumnas = new ArrayList<>();
+        for (TableColumn<BloqueColumnar.Fila, ?> columna : tableViewData.getColumns()) {
+            nombreColumnas.add(columna.getText());
+        }
+        String tabla = selectedVistaOrTable;
+        
+        TokenCancelacion token = nuevoToken();
+        mostrarOcupado(true);
+        QueryExecutor.getInstance().ejecutar(() -> eliminarFila(tabla, nombreColumnas, filaSeleccionada.getValores()), token)
+            .whenComplete(QueryExecutor.enFx((filasAfectadas, error) -> {
+                mostrarOcupado(false);
+                if (error != null && MetodosFrecuentes.avisarSiCancelada(error, token)) {
+                    return;
+                }
+                if (error != null) {
+                    MetodosFrecuentes.mostrarAlertaError("Error en Base de Datos", 
+                        "Error al eliminar la fila:\n\n" + error.getMessage());
+                    error.printStackTrace();
+                } else if (filasAfectadas < 0) {
+                    MetodosFrecuentes.mostrarAlertaAdvertencia("Error", "No se pueden eliminar filas: la tabla no tiene clave primaria definida");
+                } else if (filasAfectadas > 0) {
+                    MetodosFrecuentes.mostrarAlerta("Éxito", "Fila eliminada correctamente");
+                    loadContent(); // Recargar datos
+                } else {
+                    MetodosFrecuentes.mostrarAlertaAdvertencia("Advertencia", "No se eliminó ninguna fila");
+                }
+            }));
+    }
+    
+    /**
+     * DELETE por clave primaria con commit o rollback automático (hilo de fondo). Las claves se
+     * enlazan con el valor tipado leído de la base. Devuelve -1 si la tabla no tiene clave primaria.
+     */
+    private int eliminarFila(String tabla, List<String> nombreColumnas, List<Object> filaSeleccionada)
+            throws SQLException {
+        // Obtener las claves primarias de la tabla
+        List<String> primaryKeyColumns = obtenerClavesPrimarias(tabla);
+        
+        if (primaryKeyColumns.isEmpty()) {
+            return -1;
+        }
+        
+        // Tipos de las columnas (ya en el catálogo de esquema): el marcador de cada clave depende del tipo
+        EstructuraTabla estructura = SessionManager.getInstance().getConnectionUser()
+                                         .getCatalogoEsquema().obtenerEstructura(tabla);
+        
+        try (ConnectionRouter.Uso uso = SessionManager.getInstance().getConnectionUser().usar(OperationType.DML)) {
             // Construir la consulta DELETE
-            StringBuilder sql = new StringBuilder("DELETE FROM " + selectedVistaOrTable + " WHERE ");
-            List<String> valoresWhere = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("DELETE FROM " + tabla + " WHERE ");
+            List<Object> valoresWhere = new ArrayList<>();
             
             for (int i = 0; i < primaryKeyColumns.size(); i++) {
                 if (i > 0) {
@@ -283,49 +436,45 @@ public class VistaController implements Initializable {
                 }
                 
                 String columnName = primaryKeyColumns.get(i);
-                sql.append(columnName).append(" = ?");
                 
                 // Obtener el índice de la columna en el TableView
-                int columnIndex = obtenerIndiceColumna(columnName);
+                int columnIndex = nombreColumnas.indexOf(columnName);
+                Object valor = null;
                 if (columnIndex >= 0 && columnIndex < filaSeleccionada.size()) {
-                    valoresWhere.add(filaSeleccionada.get(columnIndex));
+                    valor = filaSeleccionada.get(columnIndex);
+                    valoresWhere.add(valor);
                 }
+                sql.append(columnName).append(" = ")
+                   .append(estructura.marcadorBind(estructura.getColumnas().indexOf(columnName), valor));
             }
             
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql.toString());
+            PreparedStatement pstmt = uso.prepararSql(sql.toString());
             
             // Establecer parámetros
             for (int i = 0; i < valoresWhere.size(); i++) {
-                pstmt.setString(i + 1, valoresWhere.get(i));
+                pstmt.setObject(i + 1, valoresWhere.get(i));
             }
             
             int filasAfectadas = pstmt.executeUpdate();
-            pstmt.close();
             
             if (filasAfectadas > 0) {
                 // Realizar commit automático y refrescar vistas materializadas
-                MetodosFrecuentes.realizarCommitYRefrescarVistas();
-                MetodosFrecuentes.mostrarAlerta("Éxito", "Fila eliminada correctamente");
-                loadContent(); // Recargar datos
-            } else {
-                MetodosFrecuentes.mostrarAlertaAdvertencia("Advertencia", "No se eliminó ninguna fila");
+                MetodosFrecuentes.realizarCommitYRefrescarVistas(tabla);
             }
+            return filasAfectadas;
             
         } catch (SQLException e) {
             // Realizar rollback automático en caso de error
             MetodosFrecuentes.realizarRollbackAutomatico();
-            MetodosFrecuentes.mostrarAlertaError("Error en Base de Datos", 
-                "Error al eliminar la fila:\n\n" + e.getMessage());
-            e.printStackTrace();
+            throw e;
         }
     }
     
     @FXML
     private void handleModificarFila() {
-        ObservableList<String> filaSeleccionada = tableViewData.getSelectionModel().getSelectedItem();
+        BloqueColumnar.Fila filaSeleccionada = tableViewData.getSelectionModel().getSelectedItem();
         
-        if (filaSeleccionada == null) {
+        if (filaSeleccionada == null || filaSeleccionada.esPendiente()) {
             MetodosFrecuentes.mostrarAlertaAdvertencia("Error de Selección", "Seleccione una fila para modificar");
             return;
         }
@@ -333,7 +482,8 @@ public class VistaController implements Initializable {
         // Configurar datos para el UpdateController
         ControllerDataManager.getInstance().setSelectedTableName(selectedVistaOrTable);
         ControllerDataManager.getInstance().setOperacion("UPDATE");
-        ControllerDataManager.getInstance().setDatosOriginales(filaSeleccionada);
+        ControllerDataManager.getInstance().setDatosOriginales(FXCollections.observableArrayList(filaSeleccionada.getTextos()));
+        ControllerDataManager.getInstance().setValoresOriginales(filaSeleccionada.getValores());
         ControllerDataManager.getInstance().setSelectedVistaName(null);
         ControllerDataManager.getInstance().setOrigenContexto("REMOTO"); // Marcar origen como REMOTO
         
@@ -347,6 +497,7 @@ public class VistaController implements Initializable {
         ControllerDataManager.getInstance().setSelectedTableName(selectedVistaOrTable);
         ControllerDataManager.getInstance().setOperacion("INSERT");
         ControllerDataManager.getInstance().setDatosOriginales(null);
+        ControllerDataManager.getInstance().setValoresOriginales(null);
         ControllerDataManager.getInstance().setSelectedVistaName(null);
         ControllerDataManager.getInstance().setOrigenContexto("REMOTO"); // Marcar origen como REMOTO
         
@@ -355,60 +506,16 @@ public class VistaController implements Initializable {
     }
     
     /**
-     * Obtiene las columnas de clave primaria de una tabla
+     * Obtiene las columnas de clave primaria de una tabla, local o @PROYECTO_REAL (catálogo de esquema)
      */
     private List<String> obtenerClavesPrimarias(String tableName) {
-        List<String> primaryKeys = new ArrayList<>();
-        
         try {
-            String sql;
-            String baseTableName;
-            
-            // Verificar si es una tabla remota
-            if (tableName.contains("@PROYECTO_REAL")) {
-                baseTableName = tableName.replace("@PROYECTO_REAL", "");
-                sql = "SELECT COLUMN_NAME " +
-                      "FROM USER_CONS_COLUMNS@PROYECTO_REAL ucc " +
-                      "JOIN USER_CONSTRAINTS@PROYECTO_REAL uc ON ucc.CONSTRAINT_NAME = uc.CONSTRAINT_NAME " +
-                      "WHERE uc.TABLE_NAME = ? AND uc.CONSTRAINT_TYPE = 'P' " +
-                      "ORDER BY ucc.POSITION";
-            } else {
-                baseTableName = tableName;
-                sql = "SELECT COLUMN_NAME " +
-                      "FROM USER_CONS_COLUMNS ucc " +
-                      "JOIN USER_CONSTRAINTS uc ON ucc.CONSTRAINT_NAME = uc.CONSTRAINT_NAME " +
-                      "WHERE uc.TABLE_NAME = ? AND uc.CONSTRAINT_TYPE = 'P' " +
-                      "ORDER BY ucc.POSITION";
-            }
-            
-            Connection conn = SessionManager.getInstance().getConnectionUser().getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, baseTableName.toUpperCase());
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                primaryKeys.add(rs.getString("COLUMN_NAME"));
-            }
-            
-            rs.close();
-            pstmt.close();
-            
+            EstructuraTabla estructura = SessionManager.getInstance().getConnectionUser()
+                                             .getCatalogoEsquema().obtenerEstructura(tableName);
+            return new ArrayList<>(estructura.getClavesPrimarias());
         } catch (SQLException e) {
             System.err.println("Error obteniendo claves primarias: " + e.getMessage());
+            return new ArrayList<>();
         }
-        
-        return primaryKeys;
-    }
-    
-    /**
-     * Obtiene el índice de una columna en el TableView actual
-     */
-    private int obtenerIndiceColumna(String columnName) {
-        for (int i = 0; i < tableViewData.getColumns().size(); i++) {
-            if (columnName.equals(tableViewData.getColumns().get(i).getText())) {
-                return i;
-            }
-        }
-        return -1;
     }
 }
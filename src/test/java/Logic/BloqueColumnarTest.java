@@ -0,0 +1,188 @@
+package Logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Codificación del bloque por columnas: cada valor vuelve con su tipo y su texto, y una
+ * columna que recibe un valor que no entra en su forma pasa a texto sin perder lo anterior
+ */
+class BloqueColumnarTest {
+
+    @Test
+    void cadaColumnaDevuelveSuTipo() {
+        LocalDateTime marca = LocalDateTime.of(2024, 1, 31, 23, 59, 58, 123_456_789);
+        BloqueColumnar bloque = new BloqueColumnar(6, 2);
+        bloque.entero(0, 42);
+        bloque.decimal(1, new BigDecimal("-12.50"));
+        bloque.real(2, 0.1);
+        bloque.fecha(3, LocalDate.of(1969, 12, 31));
+        bloque.marcaTiempo(4, marca);
+        bloque.texto(5, "Juan");
+        bloque.terminarFila();
+        bloque.terminar();
+
+        BloqueColumnar.Fila fila = bloque.getFilas().get(0);
+        assertEquals(42L, fila.getValor(0));
+        assertEquals(new BigDecimal("-12.50"), fila.getValor(1));
+        assertEquals("-12.50", fila.getTexto(1));
+        assertEquals(0.1, fila.getValor(2));
+        assertEquals(LocalDate.of(1969, 12, 31), fila.getValor(3));
+        assertEquals(marca, fila.getValor(4));
+        assertEquals("2024-01-31 23:59:58.123456789", fila.getTexto(4));
+        assertEquals("Juan", fila.getValor(5));
+    }
+
+    @Test
+    void losNulosNoTienenValor() {
+        BloqueColumnar bloque = new BloqueColumnar(2, 2);
+        bloque.nulo(0);
+        bloque.texto(1, null);
+        bloque.terminarFila();
+        bloque.entero(0, 7);
+        bloque.texto(1, "x");
+        bloque.terminarFila();
+        bloque.terminar();
+
+        BloqueColumnar.Fila primera = bloque.getFilas().get(0);
+        assertNull(primera.getValor(0));
+        assertEquals("NULL", primera.getTexto(0));
+        assertNull(primera.getValor(1));
+        assertEquals(Arrays.asList(7L, "x"), bloque.getFilas().get(1).getValores());
+    }
+
+    @Test
+    void losTextosRepetidosSeGuardanUnaVez() {
+        BloqueColumnar bloque = new BloqueColumnar(1, 3);
+        for (int i = 0; i < 3; i++) {
+            bloque.texto(0, new String("ACTIVO"));
+            bloque.terminarFila();
+        }
+        bloque.terminar();
+
+        List<BloqueColumnar.Fila> filas = bloque.getFilas();
+        assertSame(filas.get(0).getValor(0), filas.get(2).getValor(0));
+
+        BloqueColumnar distintos = new BloqueColumnar(1, 3);
+        for (int i = 0; i < 3; i++) {
+            distintos.texto(0, "ACTIVO" + i);
+            distintos.terminarFila();
+        }
+        assertTrue(bloque.estimarBytes() < distintos.estimarBytes());
+    }
+
+    @Test
+    void unValorDeOtroTipoPasaLaColumnaATexto() {
+        BloqueColumnar bloque = new BloqueColumnar(1, 3);
+        bloque.entero(0, 5);
+        bloque.terminarFila();
+        bloque.nulo(0);
+        bloque.terminarFila();
+        bloque.texto(0, "N/A");
+        bloque.terminarFila();
+        bloque.terminar();
+
+        assertEquals(Arrays.asList("5", null, "N/A"), valores(bloque, 0));
+    }
+
+    @Test
+    void unEnteroEnUnaColumnaDecimalQuedaDecimal() {
+        BloqueColumnar bloque = new BloqueColumnar(1, 2);
+        bloque.decimal(0, new BigDecimal("1.5"));
+        bloque.terminarFila();
+        bloque.entero(0, 3);
+        bloque.terminarFila();
+        bloque.terminar();
+
+        assertEquals(Arrays.asList(new BigDecimal("1.5"), BigDecimal.valueOf(3)), valores(bloque, 0));
+    }
+
+    @Test
+    void unDecimalQueNoEntraEnUnLongPasaATexto() {
+        BigDecimal grande = new BigDecimal("123456789012345678901234567890.5");
+        BloqueColumnar bloque = new BloqueColumnar(1, 2);
+        bloque.decimal(0, new BigDecimal("2.25"));
+        bloque.terminarFila();
+        bloque.decimal(0, grande);
+        bloque.terminarFila();
+        bloque.terminar();
+
+        assertEquals(Arrays.asList("2.25", grande.toString()), valores(bloque, 0));
+    }
+
+    @Test
+    void losMarcadoresDeLobMuestranSuEtiqueta() {
+        BloqueColumnar bloque = new BloqueColumnar(1, 2);
+        bloque.marcador(0, "[BLOB]");
+        bloque.terminarFila();
+        bloque.marcador(0, "[BLOB]");
+        bloque.terminarFila();
+        bloque.terminar();
+
+        BloqueColumnar.Fila fila = bloque.getFilas().get(1);
+        assertEquals("[BLOB]", fila.getTexto(0));
+        assertNull(fila.getValor(0));
+    }
+
+    @Test
+    void laFilaSePuedeLeerAntesDeTerminar() {
+        BloqueColumnar bloque = new BloqueColumnar(1, 1);
+        bloque.texto(0, "a");
+        bloque.terminarFila();
+        assertEquals("a", bloque.getFila(0).getTexto(0));
+
+        bloque.terminar();
+        List<BloqueColumnar.Fila> filas = bloque.getFilas();
+        // Terminar otra vez (al salir de la caché) no rearma las filas
+        bloque.terminar();
+        assertSame(filas, bloque.getFilas());
+        assertEquals(1, bloque.getTotalFilas());
+    }
+
+    @Test
+    void elComparadorOrdenaPorValorYDejaLosNulosAlFinal() {
+        BloqueColumnar enteros = new BloqueColumnar(1, 3);
+        enteros.entero(0, 10);
+        enteros.terminarFila();
+        enteros.nulo(0);
+        enteros.terminarFila();
+        enteros.entero(0, 9);
+        enteros.terminarFila();
+        enteros.terminar();
+        // Otro bloque de la misma columna que tomó forma decimal
+        BloqueColumnar decimales = new BloqueColumnar(1, 1);
+        decimales.decimal(0, new BigDecimal("9.5"));
+        decimales.terminarFila();
+        decimales.terminar();
+
+        List<BloqueColumnar.Fila> filas = new ArrayList<>(enteros.getFilas());
+        filas.addAll(decimales.getFilas());
+        filas.add(BloqueColumnar.PENDIENTE);
+        filas.sort(BloqueColumnar.comparador(0));
+
+        assertEquals("9", filas.get(0).getTexto(0));
+        assertEquals("9.5", filas.get(1).getTexto(0));
+        assertEquals("10", filas.get(2).getTexto(0));
+        assertNull(filas.get(3).getValor(0));
+        assertNull(filas.get(4).getValor(0));
+    }
+
+    private static List<Object> valores(BloqueColumnar bloque, int columna) {
+        List<Object> valores = new ArrayList<>();
+        for (BloqueColumnar.Fila fila : bloque.getFilas()) {
+            valores.add(fila.getValor(columna));
+        }
+        return valores;
+    }
+}
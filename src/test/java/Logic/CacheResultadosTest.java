@@ -0,0 +1,156 @@
+package Logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Caché de resultados: desalojo por tope de memoria (la menos usada primero), invalidación
+ * por objeto y por generación, y vigencia de las páginas
+ */
+class CacheResultadosTest {
+    private static final List<Object> SIN_BINDS = Collections.emptyList();
+
+    @Test
+    void guardaYDevuelveLaPagina() {
+        CacheResultados cache = cache(1, 60);
+        CacheResultados.Entrada entrada = entrada("EMPLEADOS", 10);
+        cache.guardar(null, "SELECT 1", SIN_BINDS, entrada, cache.getGeneracion());
+
+        assertSame(entrada, cache.buscar(null, "SELECT 1", SIN_BINDS));
+        assertNull(cache.buscar("BELL", "SELECT 1", SIN_BINDS));
+        assertNull(cache.buscar(null, "SELECT 1", Collections.singletonList(5)));
+        assertEquals(1, entrada.getTotalFilas());
+    }
+
+    @Test
+    void losBindsDistinguenTipoYValor() {
+        CacheResultados cache = cache(1, 60);
+        cache.guardar(null, "SELECT ?", Collections.singletonList(5L), entrada("T", 10), cache.getGeneracion());
+
+        assertNotNull(cache.buscar(null, "SELECT ?", Collections.singletonList(5L)));
+        assertNull(cache.buscar(null, "SELECT ?", Collections.singletonList("5")));
+        assertNull(cache.buscar(null, "SELECT ?", Collections.singletonList(null)));
+    }
+
+    @Test
+    void alPasarElTopeSaleLaMenosUsada() {
+        // 1 MB: entran cuatro páginas de ~240 KB
+        CacheResultados cache = cache(1, 60);
+        long generacion = cache.getGeneracion();
+        for (String sql : Arrays.asList("A", "B", "C", "D")) {
+            cache.guardar(null, sql, SIN_BINDS, entrada("T", 30_000), generacion);
+        }
+        // A pasa a ser la más usada: sale B
+        assertNotNull(cache.buscar(null, "A", SIN_BINDS));
+        cache.guardar(null, "E", SIN_BINDS, entrada("T", 30_000), generacion);
+
+        assertNull(cache.buscar(null, "B", SIN_BINDS));
+        for (String sql : Arrays.asList("A", "C", "D", "E")) {
+            assertNotNull(cache.buscar(null, sql, SIN_BINDS), sql);
+        }
+        assertTrue(cache.obtenerEstadisticas().contains("1 desalojadas"));
+    }
+
+    @Test
+    void unaPaginaDemasiadoGrandeNoSeGuarda() {
+        CacheResultados cache = cache(1, 60);
+        cache.guardar(null, "A", SIN_BINDS, entrada("T", 40_000), cache.getGeneracion());
+        assertNull(cache.buscar(null, "A", SIN_BINDS));
+    }
+
+    @Test
+    void sinTopeLaCacheNoGuarda() {
+        CacheResultados cache = cache(0, 60);
+        assertFalse(cache.estaActiva());
+        cache.guardar(null, "A", SIN_BINDS, entrada("T", 10), cache.getGeneracion());
+        assertNull(cache.buscar(null, "A", SIN_BINDS));
+    }
+
+    @Test
+    void invalidarDescartaSoloLasPaginasDelObjeto() {
+        CacheResultados cache = cache(1, 60);
+        long generacion = cache.getGeneracion();
+        cache.guardar(null, "A", SIN_BINDS, entrada("HR.EMPLEADOS@BELL", 10), generacion);
+        cache.guardar(null, "B", SIN_BINDS, entrada("DEPARTAMENTOS", 10), generacion);
+
+        cache.invalidar("\"EMPLEADOS\"");
+
+        assertNull(cache.buscar(null, "A", SIN_BINDS));
+        assertNotNull(cache.buscar(null, "B", SIN_BINDS));
+        assertTrue(cache.getGeneracion() > generacion);
+    }
+
+    @Test
+    void unaLecturaEmpezadaAntesDeInvalidarNoSeGuarda() {
+        CacheResultados cache = cache(1, 60);
+        long generacionLectura = cache.getGeneracion();
+        cache.invalidar(new HashSet<>(Collections.singletonList("OTRA")));
+
+        cache.guardar(null, "A", SIN_BINDS, entrada("T", 10), generacionLectura);
+        assertNull(cache.buscar(null, "A", SIN_BINDS));
+
+        cache.guardar(null, "A", SIN_BINDS, entrada("T", 10), cache.getGeneracion());
+        assertNotNull(cache.buscar(null, "A", SIN_BINDS));
+    }
+
+    @Test
+    void invalidarTodoVaciaLaCache() {
+        CacheResultados cache = cache(1, 60);
+        cache.guardar(null, "A", SIN_BINDS, entrada("T", 10), cache.getGeneracion());
+        cache.invalidarTodo();
+        assertNull(cache.buscar(null, "A", SIN_BINDS));
+    }
+
+    @Test
+    void unaPaginaVencidaNoSeDevuelve() {
+        // Vigencia 0: ninguna página sirve después de guardarse
+        CacheResultados cache = cache(1, 0);
+        cache.guardar(null, "A", SIN_BINDS, entrada("T", 10), cache.getGeneracion());
+
+        assertNull(cache.buscar(null, "A", SIN_BINDS));
+        assertTrue(cache.obtenerEstadisticas().contains("1 vencidas"));
+    }
+
+    @Test
+    void nombreBaseQuitaOwnerLinkYComillas() {
+        assertEquals("EMPLEADOS", CacheResultados.nombreBase("hr.\"empleados\"@bell"));
+        assertEquals("EMPLEADOS", CacheResultados.nombreBase("EMPLEADOS"));
+    }
+
+    private static CacheResultados cache(int megas, int segundos) {
+        return new CacheResultados(new ConfigurationManager() {
+            @Override
+            public int getCacheResultadosMb() {
+                return megas;
+            }
+
+            @Override
+            public int getCacheResultadosSegundos() {
+                return segundos;
+            }
+        });
+    }
+
+    /**
+     * Página de una fila con una columna numérica de esa capacidad (~8 bytes por fila de capacidad)
+     */
+    private static CacheResultados.Entrada entrada(String objeto, int capacidad) {
+        BloqueColumnar bloque = new BloqueColumnar(1, capacidad);
+        bloque.entero(0, 1);
+        bloque.terminarFila();
+        bloque.terminar();
+        return new CacheResultados.Entrada(objeto, Collections.singletonList("ID"), new Class<?>[] {Long.class},
+                                           new String[] {"NUMBER"}, Collections.singletonList(bloque), null);
+    }
+}
@@ -0,0 +1,88 @@
+package Logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Refresco incremental: cuándo hay que releer los nombres del servidor para quitar borrados
+ */
+class CatalogoIncrementalTest {
+    private static final String LISTA = "tablas";
+
+    @Test
+    void sinMarcaNoHayRefresco() {
+        assertNull(new CatalogoIncremental().iniciar(LISTA, null, marca("20240101000000", 2)));
+    }
+
+    @Test
+    void elPrimerRefrescoLeeLosNombres() {
+        CatalogoIncremental catalogo = conNombres("A", "B");
+        assertEquals(2, catalogo.copiarMarcas().get(LISTA).getTotal());
+
+        // Sin cambios y con el mismo total: no se releen
+        CatalogoIncremental.Refresco refresco = catalogo.iniciar(LISTA, null, marca("20240101000000", 2));
+        assertFalse(refresco.faltanNombres());
+        assertNull(refresco.terminar((Set<String>) null));
+    }
+
+    @Test
+    void mismoTotalConOtrosNombresReleeLosNombres() {
+        CatalogoIncremental catalogo = conNombres("A", "B");
+
+        // Se borró B y se creó C: el total sigue en 2, pero C llega como cambio
+        CatalogoIncremental.Refresco refresco = catalogo.iniciar(LISTA, null, marca("20240102000000", 2));
+        refresco.cambio("C");
+        assertTrue(refresco.faltanNombres());
+        Set<String> vigentes = nombres("A", "C");
+        assertEquals(vigentes, refresco.terminar(vigentes));
+
+        // Los nombres releídos pasan a ser los conocidos
+        refresco = catalogo.iniciar(LISTA, null, marca("20240102000000", 2));
+        assertFalse(refresco.faltanNombres());
+    }
+
+    @Test
+    void unBorradoBajaElTotalYReleeLosNombres() {
+        CatalogoIncremental catalogo = conNombres("A", "B");
+
+        // DROP TABLE B: su BIN$... de la papelera no entra en el total
+        CatalogoIncremental.Refresco refresco = catalogo.iniciar(LISTA, null, marca("20240101000000", 1));
+        assertTrue(refresco.faltanNombres());
+        assertEquals(nombres("A"), refresco.terminar(nombres("A")));
+    }
+
+    @Test
+    void laMarcaYLosNombresDejanAfueraLaPapelera() {
+        for (String sentencia : Arrays.asList(SqlRegistry.MARCA_OBJETOS, SqlRegistry.NOMBRES_OBJETOS)) {
+            assertTrue(SqlRegistry.obtener(sentencia, "BELL").contains("OBJECT_NAME NOT LIKE 'BIN$%'"), sentencia);
+        }
+    }
+
+    /**
+     * Catálogo con la marca restaurada y un primer refresco que leyó esos nombres
+     */
+    private static CatalogoIncremental conNombres(String... nombres) {
+        CatalogoIncremental catalogo = new CatalogoIncremental();
+        catalogo.restaurar(LISTA, marca("20240101000000", nombres.length));
+        CatalogoIncremental.Refresco refresco = catalogo.iniciar(LISTA, null, marca("20240101000000", nombres.length));
+        assertTrue(refresco.faltanNombres());
+        refresco.terminar(nombres(nombres));
+        return catalogo;
+    }
+
+    private static CatalogoIncremental.Marca marca(String desde, int total) {
+        return new CatalogoIncremental.Marca(desde, total, null);
+    }
+
+    private static Set<String> nombres(String... nombres) {
+        return new HashSet<>(Arrays.asList(nombres));
+    }
+}
@@ -0,0 +1,46 @@
+package Logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Marcador de los binds del WHERE: una fecha y hora contra una columna DATE no debe hacer que
+ * Oracle convierta la columna (y pierda su índice)
+ */
+class EstructuraTablaTest {
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 1, 31, 10, 15);
+
+    @Test
+    void unaFechaYHoraContraDateVaConCast() {
+        assertEquals("CAST(? AS DATE)", EstructuraTabla.marcadorBind("DATE", FECHA));
+        // Así vienen los tipos del catálogo de esquema
+        assertEquals("CAST(? AS DATE)", EstructuraTabla.marcadorBind("DATE(7)", FECHA));
+        assertEquals("CAST(? AS DATE)", EstructuraTabla.marcadorBind("date", FECHA));
+    }
+
+    @Test
+    void losDemasValoresVanSinCast() {
+        assertEquals("?", EstructuraTabla.marcadorBind("TIMESTAMP(6)", FECHA));
+        assertEquals("?", EstructuraTabla.marcadorBind("DATE(7)", LocalDate.of(2024, 1, 31)));
+        assertEquals("?", EstructuraTabla.marcadorBind("DATE(7)", null));
+        assertEquals("?", EstructuraTabla.marcadorBind("NUMBER(22)", BigDecimal.ONE));
+        assertEquals("?", EstructuraTabla.marcadorBind(null, FECHA));
+    }
+
+    @Test
+    void elMarcadorDeUnaColumnaUsaSuTipo() {
+        EstructuraTabla estructura = EstructuraTabla.de("PEDIDOS", Arrays.asList("ID", "FECHA"),
+                                                        Arrays.asList("NUMBER(22)", "DATE(7)"),
+                                                        Collections.singletonList("FECHA"));
+        assertEquals("CAST(? AS DATE)", estructura.marcadorBind(1, FECHA));
+        assertEquals("?", estructura.marcadorBind(0, BigDecimal.ONE));
+        assertEquals("?", estructura.marcadorBind(-1, FECHA));
+    }
+}
@@ -0,0 +1,155 @@
+package Logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Instantánea del catálogo: lo guardado se lee igual y un archivo dañado o ajeno se ignora
+ */
+class InstantaneaCatalogoTest {
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void loGuardadoSeLeeIgual() throws IOException {
+        Path archivo = carpeta.resolve("catalogo.bin");
+        completa().guardar(archivo, "HR", "servidor");
+
+        InstantaneaCatalogo leida = InstantaneaCatalogo.leer(archivo, "hr", "SERVIDOR");
+        assertNotNull(leida);
+        assertTrue(leida.getCreada() > 0);
+
+        List<MasterModeManager.TablaInfo> propias = leida.getTablasPropias();
+        assertEquals(2, propias.size());
+        assertEquals("EMPLEADOS", propias.get(0).getNombre());
+        assertEquals(107L, propias.get(0).getNumRows());
+        assertEquals("USERS", propias.get(0).getTablespace());
+        assertNull(propias.get(1).getLastAnalyzed());
+        // Sección que no estaba lista al guardar
+        assertNull(leida.getTablasConcedidas());
+
+        RemoteModeManager.ParteCatalogo remoto = leida.getGrupos().get(RemoteModeManager.GrupoCatalogo.REMOTO);
+        assertEquals(1, remoto.getVistas().size());
+        assertEquals("V_VENTAS", remoto.getVistas().get(0).getNombre());
+        assertEquals("VENTAS@BELL", remoto.getTablas().get(0).getNombre());
+        assertEquals("VENTAS", remoto.getTablas().get(0).getSchema());
+
+        CatalogoIncremental.Marca marca = leida.getMarcas().get("propias");
+        assertEquals("2024-01-31 10:00:00", marca.getDesde());
+        assertEquals(2, marca.getTotal());
+
+        CatalogoEsquema.Entrada entrada = leida.getEstructuras().get("EMPLEADOS");
+        assertEquals("TABLE", entrada.getTipo());
+        assertEquals(Arrays.asList("ID", "NOMBRE"), entrada.getEstructura().getColumnas());
+        assertEquals(Arrays.asList("NUMBER", "VARCHAR2"), entrada.getEstructura().getTipos());
+        assertEquals(Collections.singletonList("ID"), entrada.getEstructura().getClavesPrimarias());
+    }
+
+    @Test
+    void unByteCambiadoNoPasaElCrc() throws IOException {
+        Path archivo = carpeta.resolve("catalogo.bin");
+        completa().guardar(archivo, "HR", "servidor");
+
+        byte[] contenido = Files.readAllBytes(archivo);
+        contenido[contenido.length - 3] ^= 0x20;
+        Files.write(archivo, contenido);
+
+        assertNull(InstantaneaCatalogo.leer(archivo, "HR", "servidor"));
+    }
+
+    @Test
+    void unArchivoCortadoSeIgnora() throws IOException {
+        Path archivo = carpeta.resolve("catalogo.bin");
+        completa().guardar(archivo, "HR", "servidor");
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 10);
+        }
+
+        assertNull(InstantaneaCatalogo.leer(archivo, "HR", "servidor"));
+    }
+
+    @Test
+    void otraVersionSeIgnora() throws IOException {
+        Path archivo = carpeta.resolve("catalogo.bin");
+        completa().guardar(archivo, "HR", "servidor");
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(4).putInt(0, 1), 4);
+        }
+
+        assertNull(InstantaneaCatalogo.leer(archivo, "HR", "servidor"));
+    }
+
+    @Test
+    void deOtroUsuarioOServidorSeIgnora() throws IOException {
+        Path archivo = carpeta.resolve("catalogo.bin");
+        completa().guardar(archivo, "HR", "servidor");
+
+        assertNull(InstantaneaCatalogo.leer(archivo, "SCOTT", "servidor"));
+        assertNull(InstantaneaCatalogo.leer(archivo, "HR", "otro"));
+    }
+
+    @Test
+    void sinArchivoNoHayInstantanea() {
+        assertNull(InstantaneaCatalogo.leer(carpeta.resolve("no_existe.bin"), "HR", "servidor"));
+    }
+
+    @Test
+    void guardarDeNuevoReemplazaElArchivo() throws IOException {
+        Path archivo = carpeta.resolve("catalogo.bin");
+        completa().guardar(archivo, "HR", "servidor");
+
+        InstantaneaCatalogo vacia = new InstantaneaCatalogo();
+        vacia.setTablasPropias(Collections.emptyList());
+        vacia.guardar(archivo, "HR", "servidor");
+
+        InstantaneaCatalogo leida = InstantaneaCatalogo.leer(archivo, "HR", "servidor");
+        assertNotNull(leida);
+        assertTrue(leida.getTablasPropias().isEmpty());
+        assertTrue(leida.getGrupos().isEmpty());
+        // Sin temporales sueltos en la carpeta
+        try (Stream<Path> archivos = Files.list(carpeta)) {
+            assertEquals(1L, archivos.count());
+        }
+    }
+
+    private static InstantaneaCatalogo completa() {
+        InstantaneaCatalogo instantanea = new InstantaneaCatalogo();
+        instantanea.setTablasPropias(Arrays.asList(
+            new MasterModeManager.TablaInfo("EMPLEADOS", 107, "USERS", "2024-01-30", "TABLA", "VALID"),
+            new MasterModeManager.TablaInfo("DEPARTAMENTOS", 27, "USERS", null, "TABLA", "VALID")));
+
+        RemoteModeManager.ParteCatalogo remoto = new RemoteModeManager.ParteCatalogo(RemoteModeManager.GrupoCatalogo.REMOTO);
+        remoto.agregar("VISTA", "V_VENTAS", "VENTAS", "VALID");
+        remoto.agregar("TABLA", "VENTAS@BELL", "VENTAS", "VALID");
+        instantanea.setGrupo(remoto);
+
+        Map<String, CatalogoIncremental.Marca> marcas = new HashMap<>();
+        marcas.put("propias", new CatalogoIncremental.Marca("2024-01-31 10:00:00", 2, null));
+        instantanea.setMarcas(marcas);
+
+        Map<String, CatalogoEsquema.Entrada> estructuras = new HashMap<>();
+        estructuras.put("EMPLEADOS", new CatalogoEsquema.Entrada("TABLE", "2024-01-01 00:00:00",
+            EstructuraTabla.de("EMPLEADOS", Arrays.asList("ID", "NOMBRE"), Arrays.asList("NUMBER", "VARCHAR2"),
+                               Collections.singletonList("ID")), 0));
+        instantanea.setEstructuras(estructuras);
+        return instantanea;
+    }
+}
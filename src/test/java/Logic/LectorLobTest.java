@@ -0,0 +1,187 @@
+package Logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vista previa de LOBs: volcado hexadecimal y cortes entre trozos (líneas completas, fin del
+ * valor, tope de la vista previa y cancelación)
+ */
+class LectorLobTest {
+
+    @Test
+    void volcarMuestraDesplazamientoHexYAscii() {
+        byte[] datos = "Hola\n".getBytes(StandardCharsets.US_ASCII);
+        assertEquals("00000010  48 6F 6C 61 0A " + "   ".repeat(11) + " |Hola.|\n",
+                     LectorLob.volcar(datos, datos.length, 16));
+    }
+
+    @Test
+    void volcarPartePorLineasDeDieciseisBytes() {
+        byte[] datos = new byte[20];
+        for (int i = 0; i < datos.length; i++) {
+            datos[i] = (byte) (0xF0 + i);
+        }
+        String[] lineas = LectorLob.volcar(datos, 17, 0).split("\n");
+        assertEquals(2, lineas.length);
+        assertTrue(lineas[0].startsWith("00000000  F0 F1 F2"));
+        assertTrue(lineas[0].endsWith(" |" + ".".repeat(16) + "|"));
+        // Solo los bytes indicados, no todo el arreglo
+        assertEquals("00000010  00 " + "   ".repeat(15) + " |.|", lineas[1]);
+    }
+
+    @Test
+    void losTrozosBinariosSonLineasCompletasYSiguenElDesplazamiento() throws Exception {
+        List<LectorLob.Trozo> trozos = new ArrayList<>();
+        // 20 bytes por trozo se redondea a 16; el flujo entrega de a 3 bytes
+        long leidos = LectorLob.leerBytes(lento(bytes(40)), 40, 1000, 20, null, trozos::add);
+
+        assertEquals(40, leidos);
+        assertEquals(3, trozos.size());
+        assertTrue(trozos.get(1).getTexto().startsWith("00000010  10 11"));
+        assertTrue(trozos.get(2).getTexto().startsWith("00000020  20 21"));
+        assertEquals(32, trozos.get(1).getLeidos());
+        assertFalse(trozos.get(1).isUltimo());
+        assertTrue(trozos.get(2).isUltimo());
+        assertEquals(40, trozos.get(2).getTotal());
+        assertFalse(trozos.get(2).isTruncado());
+    }
+
+    @Test
+    void unValorJustoEnElBordeTerminaEnSuUltimoTrozo() throws Exception {
+        List<LectorLob.Trozo> trozos = new ArrayList<>();
+        LectorLob.leerBytes(new ByteArrayInputStream(bytes(32)), 32, 1000, 16, null, trozos::add);
+
+        assertEquals(2, trozos.size());
+        assertTrue(trozos.get(1).isUltimo());
+        assertEquals(32, trozos.get(1).getLeidos());
+    }
+
+    @Test
+    void sinLargoConocidoElFinLlegaEnUnTrozoVacio() throws Exception {
+        List<LectorLob.Trozo> trozos = new ArrayList<>();
+        LectorLob.leerBytes(new ByteArrayInputStream(bytes(32)), -1, 1000, 16, null, trozos::add);
+
+        assertEquals(3, trozos.size());
+        LectorLob.Trozo ultimo = trozos.get(2);
+        assertEquals("", ultimo.getTexto());
+        assertTrue(ultimo.isUltimo());
+        assertFalse(ultimo.isTruncado());
+        assertEquals(32, ultimo.getTotal());
+    }
+
+    @Test
+    void elTopeCortaLaVistaPrevia() throws Exception {
+        List<LectorLob.Trozo> trozos = new ArrayList<>();
+        long leidos = LectorLob.leerBytes(new ByteArrayInputStream(bytes(100)), 100, 40, 16, null, trozos::add);
+
+        assertEquals(40, leidos);
+        LectorLob.Trozo ultimo = trozos.get(trozos.size() - 1);
+        assertTrue(ultimo.isUltimo());
+        assertTrue(ultimo.isTruncado());
+        assertEquals(100, ultimo.getTotal());
+
+        // LONG RAW: sin largo, se sabe que quedó algo por leer pero no cuánto
+        trozos.clear();
+        LectorLob.leerBytes(new ByteArrayInputStream(bytes(100)), -1, 40, 16, null, trozos::add);
+        ultimo = trozos.get(trozos.size() - 1);
+        assertTrue(ultimo.isTruncado());
+        assertEquals(-1, ultimo.getTotal());
+    }
+
+    @Test
+    void unValorVacioTerminaSinTexto() throws Exception {
+        List<LectorLob.Trozo> trozos = new ArrayList<>();
+        assertEquals(0, LectorLob.leerBytes(new ByteArrayInputStream(new byte[0]), 0, 1000, 16, null, trozos::add));
+
+        assertEquals(1, trozos.size());
+        assertTrue(trozos.get(0).isUltimo());
+        assertFalse(trozos.get(0).isTruncado());
+        assertEquals(0, trozos.get(0).getTotal());
+    }
+
+    @Test
+    void losTextosSeArmanIgualTrozoATrozo() throws Exception {
+        String valor = "áéíóú y algo más de texto";
+        List<LectorLob.Trozo> trozos = new ArrayList<>();
+        LectorLob.leerCaracteres(new StringReader(valor), valor.length(), 1000, 7, null, trozos::add);
+
+        StringBuilder armado = new StringBuilder();
+        for (LectorLob.Trozo trozo : trozos) {
+            armado.append(trozo.getTexto());
+        }
+        assertEquals(valor, armado.toString());
+        assertEquals(4, trozos.size());
+        assertTrue(trozos.get(3).isUltimo());
+        assertEquals(valor.length(), trozos.get(3).getLeidos());
+    }
+
+    @Test
+    void elTopeCortaLosTextos() throws Exception {
+        List<LectorLob.Trozo> trozos = new ArrayList<>();
+        LectorLob.leerCaracteres(new StringReader("abcdefghij"), -1, 7, 5, null, trozos::add);
+
+        assertEquals("abcde", trozos.get(0).getTexto());
+        assertEquals("fg", trozos.get(1).getTexto());
+        LectorLob.Trozo ultimo = trozos.get(2);
+        assertTrue(ultimo.isTruncado());
+        assertEquals(7, ultimo.getLeidos());
+    }
+
+    @Test
+    void laCancelacionCortaLaLectura() {
+        TokenCancelacion token = new TokenCancelacion();
+        List<LectorLob.Trozo> trozos = new ArrayList<>();
+        SQLException error = assertThrows(SQLException.class, () ->
+            LectorLob.leerBytes(new ByteArrayInputStream(bytes(64)), 64, 1000, 16, token, trozo -> {
+                trozos.add(trozo);
+                token.cancelar();
+            }));
+
+        assertTrue(TokenCancelacion.esCancelacion(error));
+        assertEquals(1, trozos.size());
+    }
+
+    @Test
+    void formatoSegunElTipo() {
+        assertEquals(LectorLob.Formato.HEXADECIMAL, LectorLob.formatoDe("blob"));
+        assertEquals(LectorLob.Formato.HEXADECIMAL, LectorLob.formatoDe("LONG RAW"));
+        assertEquals(LectorLob.Formato.TEXTO, LectorLob.formatoDe("NCLOB"));
+        assertEquals(LectorLob.Formato.TEXTO, LectorLob.formatoDe("LONG"));
+        assertNull(LectorLob.formatoDe("VARCHAR2"));
+        assertNull(LectorLob.formatoDe(null));
+    }
+
+    private static byte[] bytes(int largo) {
+        byte[] datos = new byte[largo];
+        for (int i = 0; i < largo; i++) {
+            datos[i] = (byte) i;
+        }
+        return datos;
+    }
+
+    /**
+     * Flujo que entrega pocos bytes por lectura, como un LOB que llega por la red
+     */
+    private static InputStream lento(byte[] datos) {
+        return new ByteArrayInputStream(datos) {
+            @Override
+            public synchronized int read(byte[] destino, int desde, int largo) {
+                return super.read(destino, desde, Math.min(largo, 3));
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package Logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Partes de VentanaFilas que no necesitan conexión: cómo se lee la consulta del usuario,
+ * qué columnas sirven para ordenar y cómo se arman los filtros del encabezado
+ */
+class VentanaFilasTest {
+    private static final List<String> NOMBRES = Arrays.asList("ID", "NOMBRE", "ALTA", "MODIFICADO", "FOTO");
+    private static final Class<?>[] TIPOS = {BigDecimal.class, String.class, LocalDateTime.class, LocalDateTime.class, null};
+    private static final String[] TIPOS_SQL = {"NUMBER", "VARCHAR2", "DATE", "TIMESTAMP(6)", "BLOB"};
+
+    @Test
+    void palabrasPrincipalesIgnoraSubconsultas() {
+        assertEquals(Arrays.asList("SELECT", "A", "FROM", "T", "WHERE", "X", "IN"),
+                     VentanaFilas.palabrasPrincipales("select a from t where x in (select y from u order by y)"));
+    }
+
+    @Test
+    void palabrasPrincipalesIgnoraTextosYComillas() {
+        assertEquals(Arrays.asList("SELECT", "FROM", "T"),
+                     VentanaFilas.palabrasPrincipales("SELECT 'order by' , \"FETCH\" FROM t"));
+        // '' es una comilla dentro del texto, no su final
+        assertEquals(Arrays.asList("SELECT", "FROM", "DUAL"),
+                     VentanaFilas.palabrasPrincipales("SELECT 'it''s order by x' FROM dual"));
+    }
+
+    @Test
+    void palabrasPrincipalesIgnoraComentarios() {
+        assertEquals(Arrays.asList("SELECT", "FROM", "T"),
+                     VentanaFilas.palabrasPrincipales("SELECT -- order by x\n* FROM /* fetch first */ t"));
+    }
+
+    @Test
+    void palabrasPrincipalesVeElOrderByFinal() {
+        assertTrue(VentanaFilas.palabrasPrincipales("SELECT * FROM t ORDER BY 1 FETCH FIRST 10 ROWS ONLY")
+                               .containsAll(Arrays.asList("ORDER", "BY", "FETCH")));
+        assertEquals(Arrays.asList("SELECT", "NOMBRE_1$", "FROM", "T#X"),
+                     VentanaFilas.palabrasPrincipales("SELECT nombre_1$ FROM t#x"));
+    }
+
+    @Test
+    void palabrasPrincipalesToleraConsultasSinCerrar() {
+        assertEquals(Collections.singletonList("SELECT"), VentanaFilas.palabrasPrincipales("SELECT 'sin cerrar"));
+        assertEquals(Collections.singletonList("SELECT"), VentanaFilas.palabrasPrincipales("SELECT /* sin cerrar"));
+    }
+
+    @Test
+    void esOrdenableAceptaEscalares() {
+        for (String tipo : new String[] {"VARCHAR2", "NUMBER", "date", "TIMESTAMP(6) WITH TIME ZONE",
+                                         "INTERVAL DAY(2) TO SECOND(6)", "RAW", "CHAR", "BINARY_DOUBLE"}) {
+            assertTrue(VentanaFilas.esOrdenable(tipo), tipo);
+        }
+    }
+
+    @Test
+    void esOrdenableRechazaLobsYObjetos() {
+        for (String tipo : new String[] {"CLOB", "NCLOB", "BLOB", "LONG", "LONG RAW", "XMLTYPE", "SDO_GEOMETRY"}) {
+            assertFalse(VentanaFilas.esOrdenable(tipo), tipo);
+        }
+        assertFalse(VentanaFilas.esOrdenable(null));
+    }
+
+    @Test
+    void filtroNullNoLlevaBind() {
+        VentanaFilas.Filtro filtro = filtro("NOMBRE", " null ");
+        assertEquals("\"NOMBRE\" IS NULL", filtro.getCondicion());
+        assertNull(filtro.getValor());
+    }
+
+    @Test
+    void filtroDeTextoBuscaElComienzo() {
+        VentanaFilas.Filtro filtro = filtro("NOMBRE", "JUA");
+        assertEquals("\"NOMBRE\" LIKE ?", filtro.getCondicion());
+        assertEquals("JUA%", filtro.getValor());
+        // Con % se usa tal cual
+        assertEquals("%AN%", filtro("NOMBRE", "%AN%").getValor());
+    }
+
+    @Test
+    void filtroDeTextoConOperadorComparaElValor() {
+        VentanaFilas.Filtro filtro = filtro("NOMBRE", "<> ABC");
+        assertEquals("\"NOMBRE\" <> ?", filtro.getCondicion());
+        assertEquals("ABC", filtro.getValor());
+    }
+
+    @Test
+    void filtroNumericoConvierteElValor() {
+        assertEquals("\"ID\" = ?", filtro("ID", "15").getCondicion());
+        VentanaFilas.Filtro mayor = filtro("ID", ">=100.5");
+        assertEquals("\"ID\" >= ?", mayor.getCondicion());
+        assertEquals(new BigDecimal("100.5"), mayor.getValor());
+        assertEquals("\"ID\" != ?", filtro("ID", "!= 3").getCondicion());
+        assertEquals("\"ID\" <= ?", filtro("ID", "<= 3").getCondicion());
+    }
+
+    @Test
+    void filtroDeFechaSobreDateVaConCast() {
+        VentanaFilas.Filtro filtro = filtro("ALTA", "> 2024-01-31");
+        assertEquals("\"ALTA\" > CAST(? AS DATE)", filtro.getCondicion());
+        assertEquals(LocalDate.of(2024, 1, 31).atStartOfDay(), filtro.getValor());
+
+        VentanaFilas.Filtro marca = filtro("MODIFICADO", "2024-01-31 10:15:00");
+        assertEquals("\"MODIFICADO\" = ?", marca.getCondicion());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 10, 15), marca.getValor());
+    }
+
+    @Test
+    void filtroInvalidoSeRechaza() {
+        assertThrows(IllegalArgumentException.class, () -> filtro("ID", "abc"));
+        assertThrows(IllegalArgumentException.class, () -> filtro("ALTA", "31/01/2024"));
+        assertThrows(IllegalArgumentException.class, () -> filtro("FOTO", "x"));
+        assertThrows(IllegalArgumentException.class, () -> filtro("NO_EXISTE", "1"));
+        // Sin columnas conocidas todavía
+        assertThrows(IllegalArgumentException.class,
+                     () -> VentanaFilas.armarFiltro("ID", "1", null, null, null));
+    }
+
+    @Test
+    void criteriosCambianSinTocarElOriginal() {
+        VentanaFilas.Criterios criterios = VentanaFilas.Criterios.NINGUNO
+            .conFiltro("NOMBRE", "  JUA ")
+            .ordenadoPor("ID", true);
+
+        assertTrue(VentanaFilas.Criterios.NINGUNO.estaVacio());
+        assertFalse(criterios.estaVacio());
+        assertEquals("JUA", criterios.getFiltro("NOMBRE"));
+        assertEquals("", criterios.getFiltro("ID"));
+        assertEquals("orden: ID ↓ · 1 filtro", criterios.toString());
+
+        VentanaFilas.Criterios sinFiltro = criterios.conFiltro("NOMBRE", " ");
+        assertTrue(sinFiltro.getFiltros().isEmpty());
+        assertEquals("JUA", criterios.getFiltro("NOMBRE"));
+
+        VentanaFilas.Criterios sinOrden = sinFiltro.ordenadoPor(null, true);
+        assertNull(sinOrden.getColumnaOrden());
+        assertFalse(sinOrden.isDescendente());
+        assertTrue(sinOrden.estaVacio());
+    }
+
+    private static VentanaFilas.Filtro filtro(String columna, String texto) {
+        return VentanaFilas.armarFiltro(columna, texto, NOMBRES, TIPOS, TIPOS_SQL);
+    }
+}